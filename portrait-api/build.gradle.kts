@@ -25,6 +25,11 @@ tasks.withType<Test> {
 
 kotlin {
     jvmToolchain(11)
+    compilerOptions {
+        // Compile interface default methods as JVM defaults so that bytecode-generated
+        // providers (which only implement the abstract members) inherit them.
+        freeCompilerArgs.add("-Xjvm-default=all")
+    }
 }
 
 java {
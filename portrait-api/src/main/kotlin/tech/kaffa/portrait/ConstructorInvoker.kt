@@ -0,0 +1,46 @@
+package tech.kaffa.portrait
+
+/**
+ * Fixed-arity entry points for calling a [PConstructor] without packing the arguments into an array.
+ *
+ * Obtained through [PConstructor.asInvoker]. Runtimes override the `newInstanceN` variants with
+ * direct dispatch; variants a runtime does not specialise fall back to [PConstructor.newInstance].
+ *
+ * Calling a variant whose arity differs from the constructor's parameter count fails the same way
+ * as [PConstructor.newInstance] with the wrong number of arguments.
+ *
+ * @param T The type that the constructor creates
+ * @property constructor The constructor this invoker calls
+ */
+open class ConstructorInvoker<T : Any>(val constructor: PConstructor<T>) {
+
+    /**
+     * Creates an instance through a constructor that takes no arguments.
+     *
+     * @return A new instance of type T
+     */
+    open fun newInstance0(): T = constructor.newInstance()
+
+    /** Creates an instance through a constructor that takes one argument. */
+    open fun newInstance1(arg0: Any?): T = constructor.newInstance(arg0)
+
+    /** Creates an instance through a constructor that takes two arguments. */
+    open fun newInstance2(arg0: Any?, arg1: Any?): T = constructor.newInstance(arg0, arg1)
+
+    /** Creates an instance through a constructor that takes three arguments. */
+    open fun newInstance3(arg0: Any?, arg1: Any?, arg2: Any?): T = constructor.newInstance(arg0, arg1, arg2)
+
+    /** Creates an instance through a constructor that takes four arguments. */
+    open fun newInstance4(arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?): T =
+        constructor.newInstance(arg0, arg1, arg2, arg3)
+
+    /** Creates an instance through a constructor that takes five arguments. */
+    open fun newInstance5(arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?, arg4: Any?): T =
+        constructor.newInstance(arg0, arg1, arg2, arg3, arg4)
+
+    /** Creates an instance through a constructor that takes six arguments. */
+    open fun newInstance6(arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?, arg4: Any?, arg5: Any?): T =
+        constructor.newInstance(arg0, arg1, arg2, arg3, arg4, arg5)
+
+    override fun toString(): String = "ConstructorInvoker($constructor)"
+}
@@ -0,0 +1,67 @@
+package tech.kaffa.portrait
+
+/**
+ * Fixed-arity entry points for calling a [PMethod] without packing the arguments into an array.
+ *
+ * Obtained through [PMethod.asInvoker]. Runtimes override the `invokeN` variants with direct
+ * dispatch (generated code on AOT, method handles on the JVM), so hot loops such as getter/setter
+ * mapping do not allocate per call. Variants a runtime does not specialise fall back to
+ * [PMethod.invoke].
+ *
+ * Calling a variant whose arity differs from the method's [PMethod.parameterCount] fails the same
+ * way as [PMethod.invoke] with the wrong number of arguments.
+ *
+ * Example usage:
+ * ```kotlin
+ * val getName = pClass.getMethod("getName")!!.asInvoker()
+ * val names = people.map { getName.invoke0(it) }
+ * ```
+ *
+ * @property method The method this invoker calls
+ */
+open class MethodInvoker(val method: PMethod) {
+
+    /**
+     * Invokes a method that takes no arguments.
+     *
+     * @param instance The object to invoke the method on, or null for static methods
+     * @return The method's return value, or null if void
+     */
+    open fun invoke0(instance: Any?): Any? = method.invoke(instance)
+
+    /** Invokes a method that takes one argument. */
+    open fun invoke1(instance: Any?, arg0: Any?): Any? = method.invoke(instance, arg0)
+
+    /** Invokes a method that takes two arguments. */
+    open fun invoke2(instance: Any?, arg0: Any?, arg1: Any?): Any? = method.invoke(instance, arg0, arg1)
+
+    /** Invokes a method that takes three arguments. */
+    open fun invoke3(instance: Any?, arg0: Any?, arg1: Any?, arg2: Any?): Any? =
+        method.invoke(instance, arg0, arg1, arg2)
+
+    /** Invokes a method that takes four arguments. */
+    open fun invoke4(instance: Any?, arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?): Any? =
+        method.invoke(instance, arg0, arg1, arg2, arg3)
+
+    /** Invokes a method that takes five arguments. */
+    open fun invoke5(instance: Any?, arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?, arg4: Any?): Any? =
+        method.invoke(instance, arg0, arg1, arg2, arg3, arg4)
+
+    /** Invokes a method that takes six arguments. */
+    open fun invoke6(
+        instance: Any?,
+        arg0: Any?,
+        arg1: Any?,
+        arg2: Any?,
+        arg3: Any?,
+        arg4: Any?,
+        arg5: Any?
+    ): Any? = method.invoke(instance, arg0, arg1, arg2, arg3, arg4, arg5)
+
+    override fun toString(): String = "MethodInvoker($method)"
+
+    companion object {
+        /** Highest arity with a dedicated `invokeN` entry point. */
+        const val MAX_ARITY = 6
+    }
+}
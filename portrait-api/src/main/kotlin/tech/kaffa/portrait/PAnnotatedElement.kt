@@ -0,0 +1,82 @@
+package tech.kaffa.portrait
+
+/**
+ * Reference to a class or declared member that carries a given annotation, as reported by
+ * [Portrait.annotatedWith].
+ *
+ * The reference is resolved lazily: it names the declaring class and the member's position in
+ * that class's [PClass.constructors], [PClass.methods] or [PClass.fields] list, so listing the
+ * elements of an annotation does not decode metadata of the classes involved.
+ *
+ * @property className Fully qualified binary name of the declaring class
+ * @property kind Kind of the annotated element
+ * @property index Position of the member in the declaring class's member list, or `-1` for [Kind.CLASS]
+ */
+data class PAnnotatedElement(
+    val className: String,
+    val kind: Kind,
+    val index: Int = -1
+) {
+
+    /**
+     * Kind of an annotated element.
+     */
+    enum class Kind {
+        /** The class itself; [index] is `-1`. */
+        CLASS,
+
+        /** An entry of [PClass.constructors]. */
+        CONSTRUCTOR,
+
+        /** An entry of [PClass.methods]. */
+        METHOD,
+
+        /** An entry of [PClass.fields]. */
+        FIELD
+    }
+
+    /**
+     * Resolves the declaring class in [context].
+     *
+     * @param context Context to resolve the class in; defaults to [Portrait.defaultContext]
+     * @return The declaring class descriptor
+     * @throws PortraitNotFoundException if the class cannot be resolved
+     */
+    @JvmOverloads
+    fun declaringClass(context: PortraitContext = Portrait.defaultContext()): PClass<*> {
+        return context.forName(className)
+    }
+
+    /**
+     * Resolves the annotated constructor.
+     *
+     * @throws IllegalStateException if this element is not a constructor
+     */
+    @JvmOverloads
+    fun constructor(context: PortraitContext = Portrait.defaultContext()): PConstructor<*> {
+        check(kind == Kind.CONSTRUCTOR) { "$this is not a constructor" }
+        return declaringClass(context).constructors[index]
+    }
+
+    /**
+     * Resolves the annotated method.
+     *
+     * @throws IllegalStateException if this element is not a method
+     */
+    @JvmOverloads
+    fun method(context: PortraitContext = Portrait.defaultContext()): PMethod {
+        check(kind == Kind.METHOD) { "$this is not a method" }
+        return declaringClass(context).methods[index]
+    }
+
+    /**
+     * Resolves the annotated field.
+     *
+     * @throws IllegalStateException if this element is not a field
+     */
+    @JvmOverloads
+    fun field(context: PortraitContext = Portrait.defaultContext()): PField {
+        check(kind == Kind.FIELD) { "$this is not a field" }
+        return declaringClass(context).fields[index]
+    }
+}
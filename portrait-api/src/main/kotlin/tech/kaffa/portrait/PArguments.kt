@@ -0,0 +1,128 @@
+package tech.kaffa.portrait
+
+/**
+ * Reusable, fixed-size argument list that stores primitive arguments unboxed.
+ *
+ * Used with [PMethod.invokeWith], [PMethod.invokeInt], [PMethod.invokeLong] and
+ * [PMethod.invokeDouble]. Runtimes that specialise these read each argument through the getter
+ * matching the parameter type, so a caller that keeps one instance per call site (and thread)
+ * invokes methods with primitive parameters without allocating.
+ *
+ * Instances are not thread-safe.
+ *
+ * Example usage:
+ * ```kotlin
+ * val args = PArguments(2)
+ * for (point in points) {
+ *     args.setInt(0, point.x).setInt(1, point.y)
+ *     total += distance.invokeDouble(null, args)
+ * }
+ * ```
+ *
+ * @param size Number of arguments, which must match the invoked method's parameter count
+ */
+class PArguments(val size: Int) {
+
+    init {
+        require(size >= 0) { "size must not be negative: $size" }
+    }
+
+    private val kinds = ByteArray(size)
+    private val primitives = LongArray(size)
+    private val references = arrayOfNulls<Any?>(size)
+
+    /** Stores a reference (or boxed) argument at [index]. */
+    fun set(index: Int, value: Any?): PArguments = store(index, REFERENCE, 0L, value)
+
+    /** Stores a `boolean` argument at [index]. */
+    fun setBoolean(index: Int, value: Boolean): PArguments = store(index, BOOLEAN, if (value) 1L else 0L)
+
+    /** Stores a `byte` argument at [index]. */
+    fun setByte(index: Int, value: Byte): PArguments = store(index, BYTE, value.toLong())
+
+    /** Stores a `char` argument at [index]. */
+    fun setChar(index: Int, value: Char): PArguments = store(index, CHAR, value.code.toLong())
+
+    /** Stores a `short` argument at [index]. */
+    fun setShort(index: Int, value: Short): PArguments = store(index, SHORT, value.toLong())
+
+    /** Stores an `int` argument at [index]. */
+    fun setInt(index: Int, value: Int): PArguments = store(index, INT, value.toLong())
+
+    /** Stores a `long` argument at [index]. */
+    fun setLong(index: Int, value: Long): PArguments = store(index, LONG, value)
+
+    /** Stores a `float` argument at [index]. */
+    fun setFloat(index: Int, value: Float): PArguments = store(index, FLOAT, value.toRawBits().toLong())
+
+    /** Stores a `double` argument at [index]. */
+    fun setDouble(index: Int, value: Double): PArguments = store(index, DOUBLE, value.toRawBits())
+
+    /**
+     * Returns the argument at [index], boxing it if it was stored as a primitive.
+     */
+    fun get(index: Int): Any? = when (kinds[index]) {
+        BOOLEAN -> primitives[index] != 0L
+        BYTE -> primitives[index].toByte()
+        CHAR -> primitives[index].toInt().toChar()
+        SHORT -> primitives[index].toShort()
+        INT -> primitives[index].toInt()
+        LONG -> primitives[index]
+        FLOAT -> Float.fromBits(primitives[index].toInt())
+        DOUBLE -> Double.fromBits(primitives[index])
+        else -> references[index]
+    }
+
+    /** Returns the `boolean` argument at [index]. */
+    fun getBoolean(index: Int): Boolean = if (kinds[index] == BOOLEAN) primitives[index] != 0L else get(index) as Boolean
+
+    /** Returns the `byte` argument at [index]. */
+    fun getByte(index: Int): Byte = if (kinds[index] == BYTE) primitives[index].toByte() else get(index) as Byte
+
+    /** Returns the `char` argument at [index]. */
+    fun getChar(index: Int): Char = if (kinds[index] == CHAR) primitives[index].toInt().toChar() else get(index) as Char
+
+    /** Returns the `short` argument at [index]. */
+    fun getShort(index: Int): Short = if (kinds[index] == SHORT) primitives[index].toShort() else get(index) as Short
+
+    /** Returns the `int` argument at [index]. */
+    fun getInt(index: Int): Int = if (kinds[index] == INT) primitives[index].toInt() else get(index) as Int
+
+    /** Returns the `long` argument at [index]. */
+    fun getLong(index: Int): Long = if (kinds[index] == LONG) primitives[index] else get(index) as Long
+
+    /** Returns the `float` argument at [index]. */
+    fun getFloat(index: Int): Float =
+        if (kinds[index] == FLOAT) Float.fromBits(primitives[index].toInt()) else get(index) as Float
+
+    /** Returns the `double` argument at [index]. */
+    fun getDouble(index: Int): Double =
+        if (kinds[index] == DOUBLE) Double.fromBits(primitives[index]) else get(index) as Double
+
+    /**
+     * Copies the arguments into a new array, boxing primitives. Used by runtimes that only
+     * support array-based invocation.
+     */
+    fun toArray(): Array<Any?> = Array(size) { get(it) }
+
+    private fun store(index: Int, kind: Byte, primitive: Long, reference: Any? = null): PArguments {
+        kinds[index] = kind
+        primitives[index] = primitive
+        references[index] = reference
+        return this
+    }
+
+    override fun toString(): String = toArray().joinToString(prefix = "PArguments(", postfix = ")")
+
+    private companion object {
+        const val REFERENCE: Byte = 0
+        const val BOOLEAN: Byte = 1
+        const val BYTE: Byte = 2
+        const val CHAR: Byte = 3
+        const val SHORT: Byte = 4
+        const val INT: Byte = 5
+        const val LONG: Byte = 6
+        const val FLOAT: Byte = 7
+        const val DOUBLE: Byte = 8
+    }
+}
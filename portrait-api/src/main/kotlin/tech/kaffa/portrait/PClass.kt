@@ -1,5 +1,6 @@
 package tech.kaffa.portrait
 
+import tech.kaffa.portrait.internal.PMemberIndex
 import tech.kaffa.portrait.proxy.ProxyHandler
 
 /**
@@ -19,6 +20,8 @@ import tech.kaffa.portrait.proxy.ProxyHandler
  */
 abstract class PClass<T : Any> : PType {
 
+    private val memberIndex by lazy(LazyThreadSafetyMode.PUBLICATION) { PMemberIndex(this) }
+
     /**
      * Kotlin-style simple name without the package qualifier.
      *
@@ -38,6 +41,17 @@ abstract class PClass<T : Any> : PType {
      */
     abstract val qualifiedName: String
 
+    /**
+     * Integer id assigned by the provider of this descriptor, or [NO_ID] when it assigns none.
+     *
+     * Generated providers assign ids at build time and resolve them back via [Portrait.forId], so
+     * serializers can write type tags as ints. The high bits hold a namespace per generated provider,
+     * so ids are unique across providers, and the low bits number its classes densely from zero.
+     * Ids recorded in a class id file stay the same as classes are added or removed; equality and
+     * hashing keep using [qualifiedName].
+     */
+    open val id: Int get() = NO_ID
+
     /**
      * True when the underlying declaration cannot be instantiated directly.
      *
@@ -179,18 +193,27 @@ abstract class PClass<T : Any> : PType {
             return constructor.newInstance()
         }
 
+        val constructor = selectConstructor(args) ?: throw noMatchingConstructor(args)
+        return constructor.newInstance(*args)
+    }
+
+    /**
+     * Selects the constructor [newInstance] invokes with the non-empty [args], following phases 2
+     * and 3 of its selection order, or returns null when none accepts them.
+     */
+    protected fun selectConstructor(args: Array<out Any?>): PConstructor<T>? {
         val argumentTypes = args.map { it?.portrait }
 
         if (argumentTypes.all { it != null }) {
             val parameterTypes = argumentTypes.filterNotNull().toTypedArray()
             val constructor = getConstructor(*parameterTypes)
             if (constructor != null) {
-                return constructor.newInstance(*args)
+                return constructor
             }
         }
 
         val matchingConstructor = constructors.firstOrNull { constructor ->
-            if (constructor.parameterTypes.size != args.size) return@firstOrNull false
+            if (constructor.parameterCount != args.size) return@firstOrNull false
             constructor.parameterTypes.zip(args).all { (parameterType, value) ->
                 if (value == null) {
                     !parameterType.isPrimitive
@@ -198,13 +221,16 @@ abstract class PClass<T : Any> : PType {
                     parameterType.isAssignableFrom(value.portrait)
                 }
             }
-        } ?: throw IllegalArgumentException(
-            "No matching constructor for arguments (${args.joinToString { it?.javaClass?.name ?: "null" }}) on $qualifiedName"
-        )
+        } ?: return null
 
         val parameterTypes = matchingConstructor.parameterTypes.toTypedArray()
-        val constructor = getConstructor(*parameterTypes) ?: matchingConstructor
-        return constructor.newInstance(*args)
+        return getConstructor(*parameterTypes) ?: matchingConstructor
+    }
+
+    /** Error [newInstance] throws when no constructor accepts [args]. */
+    protected fun noMatchingConstructor(args: Array<out Any?>): IllegalArgumentException {
+        val argumentTypes = args.joinToString { it?.javaClass?.name ?: "null" }
+        return IllegalArgumentException("No matching constructor for arguments ($argumentTypes) on $qualifiedName")
     }
 
     /**
@@ -270,44 +296,106 @@ abstract class PClass<T : Any> : PType {
     /**
      * Finds a constructor whose parameter descriptors match [parameterTypes] exactly.
      *
-     * The default implementation performs a linear scan over [constructors]. Providers may override
-     * this to leverage precomputed dispatch tables. Overrides must favour exact matches, never
-     * return inherited constructors, and keep the behaviour limited to public constructors.
+     * The default implementation consults a member index built from [constructors] on first use,
+     * so only constructors of the requested arity are compared. Providers may override this to
+     * leverage precomputed dispatch tables. Overrides must favour exact matches, never return
+     * inherited constructors, and keep the behaviour limited to public constructors.
      */
     open fun getConstructor(vararg parameterTypes: PClass<*>): PConstructor<T>? {
-        if (parameterTypes.isEmpty()) {
-            return constructors.firstOrNull { it.parameterTypes.isEmpty() }
-        }
-
-        return constructors.firstOrNull { constructor ->
-            if (constructor.parameterTypes.size != parameterTypes.size) return@firstOrNull false
-            constructor.parameterTypes.zip(parameterTypes).all { (actual, expected) -> actual == expected }
-        }
+        return memberIndex.constructor(parameterTypes)
     }
 
     /**
      * Finds a declared method by [name] and ordered [parameterTypes].
      *
-     * The default implementation performs a linear scan over [methods]. Overrides should keep
+     * The default implementation consults a member index built from [methods] on first use, so
+     * only overloads with the requested name and arity are compared. Overrides should keep
      * matching deterministic, may apply provider-specific indexing for faster lookups, and must
      * limit candidates to declared public methods.
      */
     open fun getMethod(name: String, vararg parameterTypes: PClass<*>): PMethod? {
-        return methods.firstOrNull { method ->
-            if (method.name != name) return@firstOrNull false
-            if (method.parameterTypes.size != parameterTypes.size) return@firstOrNull false
-            method.parameterTypes.zip(parameterTypes).all { (actual, expected) -> actual == expected }
-        }
+        return memberIndex.method(name, parameterTypes)
     }
 
     /**
      * Returns the declared field whose [PField.name] matches [name], or null when absent.
      *
-     * The default implementation performs a linear scan over [fields]. Overrides may precompute a
-     * name index but must not surface inherited fields and must only return public fields.
+     * The default implementation consults a name index built from [fields] on first use.
+     * Overrides must not surface inherited fields and must only return public fields.
      */
     open fun getField(name: String): PField? {
-        return fields.firstOrNull { it.name == name }
+        return memberIndex.field(name)
+    }
+
+    /**
+     * Returns every declared method named [name] in the order of [methods], or an empty list.
+     *
+     * Backed by the same index as [getMethod], for providers whose lookup rules differ from the
+     * default exact-signature match.
+     */
+    protected fun methodsNamed(name: String): List<PMethod> = memberIndex.methodsNamed(name)
+
+    /**
+     * Streams this class's annotations and declared members to [visitor] in one pass.
+     *
+     * The default implementation walks [annotations], [constructors], [methods] and [fields].
+     * Providers override it to report members straight from their underlying metadata or
+     * reflection arrays, so the pass allocates no member descriptors and resolves no other class.
+     *
+     * @param visitor Callback receiving the annotations and members
+     */
+    open fun accept(visitor: PClassVisitor) {
+        annotations.forEach { visitor.visitAnnotation(it.annotationClass.qualifiedName) }
+        constructors.forEachIndexed { index, constructor ->
+            visitor.visitConstructor(index, constructor.parameterTypes.map { it.qualifiedName })
+        }
+        methods.forEachIndexed { index, method ->
+            visitor.visitMethod(
+                index,
+                method.name,
+                method.parameterTypes.map { it.qualifiedName },
+                method.returnType.qualifiedName,
+                method.isStatic,
+                method.isFinal,
+                method.isAbstract
+            )
+        }
+        fields.forEachIndexed { index, field ->
+            visitor.visitField(index, field.name, field.type.qualifiedName, field.isStatic, field.isFinal)
+        }
+        visitor.visitEnd()
+    }
+
+    /**
+     * Eagerly materialises reflection data that providers otherwise compute on first access:
+     * supertypes, annotations, and every constructor, method and field together with their
+     * annotations and signature types.
+     *
+     * Used by [Portrait.preload] to move decoding work off the request path. Safe to call more
+     * than once; later calls find everything already materialised.
+     *
+     * @return Number of serialized metadata bytes decoded by this call, or 0 when the provider
+     * does not decode metadata or already did so
+     */
+    open fun preload(): Int {
+        superclass
+        interfaces
+        annotations
+        constructors.forEach { constructor ->
+            constructor.parameterTypes
+            constructor.annotations
+        }
+        methods.forEach { method ->
+            method.parameterTypes
+            method.returnType
+            method.annotations
+            method.parameterAnnotations
+        }
+        fields.forEach { field ->
+            field.type
+            field.annotations
+        }
+        return 0
     }
 
     /**
@@ -374,4 +462,9 @@ abstract class PClass<T : Any> : PType {
             append(")")
         }
     }
+
+    companion object {
+        /** Value of [id] for descriptors whose provider assigns no ids. */
+        const val NO_ID = -1
+    }
 }
@@ -0,0 +1,70 @@
+package tech.kaffa.portrait
+
+/**
+ * Callback interface for a single streaming pass over a class's annotations and declared members.
+ *
+ * Passed to [PClass.accept], which reports members straight from the provider's underlying data
+ * (decoded metadata or reflection arrays) without materialising [PMethod], [PField] or
+ * [PConstructor] descriptors. Types are reported by name, so no other class is resolved during
+ * the pass either. Every method has an empty default implementation; override only what you need.
+ *
+ * Members are visited in the order of [PClass.constructors], [PClass.methods] and [PClass.fields],
+ * and `index` is the member's position in that list, so a visitor can fetch the full descriptor
+ * later for the few members it cares about.
+ *
+ * Type names use the Java source form, e.g. `int`, `java.lang.String` or `java.lang.String[]`.
+ */
+interface PClassVisitor {
+
+    /**
+     * Called once for every annotation declared on the class, before any member.
+     *
+     * @param annotationClassName Fully qualified name of the annotation type
+     */
+    fun visitAnnotation(annotationClassName: String) {}
+
+    /**
+     * Called for every entry of [PClass.constructors].
+     *
+     * @param index Position in [PClass.constructors]
+     * @param parameterTypeNames Parameter type names in declaration order
+     */
+    fun visitConstructor(index: Int, parameterTypeNames: List<String>) {}
+
+    /**
+     * Called for every entry of [PClass.methods].
+     *
+     * @param index Position in [PClass.methods]
+     * @param name Method name
+     * @param parameterTypeNames Parameter type names in declaration order
+     * @param returnTypeName Erased return type name
+     * @param isStatic Whether the method is static
+     * @param isFinal Whether the method is final
+     * @param isAbstract Whether the method is abstract
+     */
+    fun visitMethod(
+        index: Int,
+        name: String,
+        parameterTypeNames: List<String>,
+        returnTypeName: String,
+        isStatic: Boolean,
+        isFinal: Boolean,
+        isAbstract: Boolean
+    ) {}
+
+    /**
+     * Called for every entry of [PClass.fields].
+     *
+     * @param index Position in [PClass.fields]
+     * @param name Field name
+     * @param typeName Erased field type name
+     * @param isStatic Whether the field is static
+     * @param isFinal Whether the field is final
+     */
+    fun visitField(index: Int, name: String, typeName: String, isStatic: Boolean, isFinal: Boolean) {}
+
+    /**
+     * Called once after every member has been visited.
+     */
+    fun visitEnd() {}
+}
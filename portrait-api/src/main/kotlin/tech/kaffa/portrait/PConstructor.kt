@@ -19,6 +19,9 @@ abstract class PConstructor<T : Any> {
     /** List of parameter types in declaration order */
     abstract val parameterTypes: List<PClass<*>>
 
+    /** Number of parameters this constructor accepts */
+    abstract val parameterCount: Int
+
     /** All annotations present on this constructor, empty if none */
     abstract val annotations: List<PAnnotation<*>>
 
@@ -48,6 +51,16 @@ abstract class PConstructor<T : Any> {
      */
     abstract fun newInstance(vararg args: Any?): T
 
+    /**
+     * Returns fixed-arity entry points for this constructor that do not allocate an argument array.
+     *
+     * Intended for call sites that create many instances; obtain the invoker once and reuse it.
+     * The default implementation delegates to [newInstance].
+     *
+     * @return An invoker bound to this constructor
+     */
+    open fun asInvoker(): ConstructorInvoker<T> = ConstructorInvoker(this)
+
     /**
      * Checks if this constructor can be called with the given argument types.
      *
@@ -42,6 +42,150 @@ abstract class PField {
      */
     abstract fun set(instance: Any?, value: Any?)
 
+    /**
+     * Gets the value of a primitive `boolean` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to read the field from, or null for static fields
+     * @return The field's current value
+     * @throws RuntimeException if access fails or the field is not a `boolean`
+     */
+    open fun getBoolean(instance: Any?): Boolean = get(instance) as Boolean
+
+    /**
+     * Sets the value of a primitive `boolean` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to modify, or null for static fields
+     * @param value The new value to set
+     * @throws RuntimeException if access fails, the field is final or not a `boolean`
+     */
+    open fun setBoolean(instance: Any?, value: Boolean) = set(instance, value)
+
+    /**
+     * Gets the value of a primitive `byte` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to read the field from, or null for static fields
+     * @return The field's current value
+     * @throws RuntimeException if access fails or the field is not a `byte`
+     */
+    open fun getByte(instance: Any?): Byte = get(instance) as Byte
+
+    /**
+     * Sets the value of a primitive `byte` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to modify, or null for static fields
+     * @param value The new value to set
+     * @throws RuntimeException if access fails, the field is final or not a `byte`
+     */
+    open fun setByte(instance: Any?, value: Byte) = set(instance, value)
+
+    /**
+     * Gets the value of a primitive `char` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to read the field from, or null for static fields
+     * @return The field's current value
+     * @throws RuntimeException if access fails or the field is not a `char`
+     */
+    open fun getChar(instance: Any?): Char = get(instance) as Char
+
+    /**
+     * Sets the value of a primitive `char` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to modify, or null for static fields
+     * @param value The new value to set
+     * @throws RuntimeException if access fails, the field is final or not a `char`
+     */
+    open fun setChar(instance: Any?, value: Char) = set(instance, value)
+
+    /**
+     * Gets the value of a primitive `short` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to read the field from, or null for static fields
+     * @return The field's current value
+     * @throws RuntimeException if access fails or the field is not a `short`
+     */
+    open fun getShort(instance: Any?): Short = get(instance) as Short
+
+    /**
+     * Sets the value of a primitive `short` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to modify, or null for static fields
+     * @param value The new value to set
+     * @throws RuntimeException if access fails, the field is final or not a `short`
+     */
+    open fun setShort(instance: Any?, value: Short) = set(instance, value)
+
+    /**
+     * Gets the value of a primitive `int` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to read the field from, or null for static fields
+     * @return The field's current value
+     * @throws RuntimeException if access fails or the field is not a `int`
+     */
+    open fun getInt(instance: Any?): Int = get(instance) as Int
+
+    /**
+     * Sets the value of a primitive `int` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to modify, or null for static fields
+     * @param value The new value to set
+     * @throws RuntimeException if access fails, the field is final or not a `int`
+     */
+    open fun setInt(instance: Any?, value: Int) = set(instance, value)
+
+    /**
+     * Gets the value of a primitive `long` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to read the field from, or null for static fields
+     * @return The field's current value
+     * @throws RuntimeException if access fails or the field is not a `long`
+     */
+    open fun getLong(instance: Any?): Long = get(instance) as Long
+
+    /**
+     * Sets the value of a primitive `long` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to modify, or null for static fields
+     * @param value The new value to set
+     * @throws RuntimeException if access fails, the field is final or not a `long`
+     */
+    open fun setLong(instance: Any?, value: Long) = set(instance, value)
+
+    /**
+     * Gets the value of a primitive `float` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to read the field from, or null for static fields
+     * @return The field's current value
+     * @throws RuntimeException if access fails or the field is not a `float`
+     */
+    open fun getFloat(instance: Any?): Float = get(instance) as Float
+
+    /**
+     * Sets the value of a primitive `float` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to modify, or null for static fields
+     * @param value The new value to set
+     * @throws RuntimeException if access fails, the field is final or not a `float`
+     */
+    open fun setFloat(instance: Any?, value: Float) = set(instance, value)
+
+    /**
+     * Gets the value of a primitive `double` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to read the field from, or null for static fields
+     * @return The field's current value
+     * @throws RuntimeException if access fails or the field is not a `double`
+     */
+    open fun getDouble(instance: Any?): Double = get(instance) as Double
+
+    /**
+     * Sets the value of a primitive `double` field, without boxing on runtimes that support it.
+     *
+     * @param instance The object to modify, or null for static fields
+     * @param value The new value to set
+     * @throws RuntimeException if access fails, the field is final or not a `double`
+     */
+    open fun setDouble(instance: Any?, value: Double) = set(instance, value)
+
     /** All annotations present on this field, empty if none */
     abstract val annotations: List<PAnnotation<*>>
 
@@ -45,6 +45,56 @@ abstract class PMethod {
      */
     abstract fun invoke(instance: Any?, vararg args: Any?): Any?
 
+    /**
+     * Returns fixed-arity entry points for this method that do not allocate an argument array.
+     *
+     * Intended for call sites that invoke the same method many times; obtain the invoker once and
+     * reuse it. The default implementation delegates to [invoke].
+     *
+     * @return An invoker bound to this method
+     */
+    open fun asInvoker(): MethodInvoker = MethodInvoker(this)
+
+    /**
+     * Invokes this method with arguments taken from [args], which stores primitives unboxed.
+     *
+     * @param instance The object to invoke the method on, or null for static methods
+     * @param args The arguments to pass to the method
+     * @return The method's return value, or null if void
+     * @throws RuntimeException if invocation fails
+     */
+    open fun invokeWith(instance: Any?, args: PArguments): Any? = invoke(instance, *args.toArray())
+
+    /**
+     * Invokes a method returning `int` without boxing the result on runtimes that support it.
+     *
+     * @param instance The object to invoke the method on, or null for static methods
+     * @param args The arguments to pass to the method
+     * @return The method's return value
+     * @throws RuntimeException if invocation fails or the method does not return `int`
+     */
+    open fun invokeInt(instance: Any?, args: PArguments): Int = invokeWith(instance, args) as Int
+
+    /**
+     * Invokes a method returning `long` without boxing the result on runtimes that support it.
+     *
+     * @param instance The object to invoke the method on, or null for static methods
+     * @param args The arguments to pass to the method
+     * @return The method's return value
+     * @throws RuntimeException if invocation fails or the method does not return `long`
+     */
+    open fun invokeLong(instance: Any?, args: PArguments): Long = invokeWith(instance, args) as Long
+
+    /**
+     * Invokes a method returning `double` without boxing the result on runtimes that support it.
+     *
+     * @param instance The object to invoke the method on, or null for static methods
+     * @param args The arguments to pass to the method
+     * @return The method's return value
+     * @throws RuntimeException if invocation fails or the method does not return `double`
+     */
+    open fun invokeDouble(instance: Any?, args: PArguments): Double = invokeWith(instance, args) as Double
+
     /** All annotations present on this method, empty if none */
     abstract val annotations: List<PAnnotation<*>>
 
@@ -1,9 +1,13 @@
 package tech.kaffa.portrait
 
+import tech.kaffa.portrait.internal.DefaultPortraitCache
 import tech.kaffa.portrait.internal.UnresolvedPClass
+import tech.kaffa.portrait.provider.ClassIdentityCache
+import tech.kaffa.portrait.provider.PortraitCache
+import tech.kaffa.portrait.provider.PortraitContextResolver
 import tech.kaffa.portrait.provider.PortraitProvider
 import java.util.*
-import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
 import kotlin.reflect.KClass
 
 /**
@@ -15,6 +19,8 @@ import kotlin.reflect.KClass
  *
  * The Portrait object automatically discovers available providers via ServiceLoader
  * and tries them in priority order until one can resolve the requested class.
+ * Lookups by name use the default [PortraitContext]; lookups by `Class` are routed to the
+ * context of the class' loader (see [contextOf]).
  *
  * Example usage:
  * ```kotlin
@@ -34,36 +40,67 @@ import kotlin.reflect.KClass
 object Portrait {
 
     /**
-     * Cache to prevent circular dependencies and improve performance.
-     * Maps class names to their PClass instances.
+     * Policy applied to the built-in cache of every context created from now on.
      */
-    private val cache = ConcurrentHashMap<String, PClass<*>>()
+    @Volatile
+    private var cachePolicy: PortraitCachePolicy = PortraitCachePolicy.DEFAULT
 
-    private const val LOADING_SENTINEL_NAME = "<portrait:loading>"
-    private const val NOT_FOUND_SENTINEL_NAME = "<portrait:not-found>"
+    /**
+     * Context for classes visible to Portrait's own class loader, and for all lookups by name.
+     *
+     * A [PortraitCache] discovered via ServiceLoader takes precedence over the built-in cache.
+     */
+    private val defaultContext = PortraitContext(
+        null,
+        ServiceLoader.load(PortraitCache::class.java).firstOrNull() ?: DefaultPortraitCache(cachePolicy)
+    )
 
     /**
-     * Lazily-loaded list of available providers, sorted by priority (highest first).
+     * Optional identity-keyed cache used when resolving from a `Class` object.
      *
-     * Providers are discovered via Java's ServiceLoader mechanism and sorted by their
-     * priority() method. Higher priority providers are tried first.
+     * Discovered via ServiceLoader; runtimes without `ClassValue` (TeaVM, native targets) ship no
+     * implementation and resolve through the name-keyed context caches instead.
      */
-    private val providers: List<PortraitProvider> by lazy {
-        ServiceLoader.load(PortraitProvider::class.java).toList()
-            .sortedByDescending { it.priority() }
-            .takeIf { it.isNotEmpty() }
-            ?: throw IllegalStateException("No PortraitProvider implementation found on classpath")
+    private val classCache: ClassIdentityCache? by lazy {
+        ServiceLoader.load(ClassIdentityCache::class.java).firstOrNull()?.also { it.configure(cachePolicy) }
     }
 
     /**
-     * Sentinel value to mark classes that are currently being loaded to detect cycles.
+     * Optional resolver that assigns classes from foreign class loaders to their own
+     * [PortraitContext]. Without one, every class uses the default context.
      */
-    private val loadingMarker: PClass<*> = UnresolvedPClass<Any>(LOADING_SENTINEL_NAME)
+    private val contextResolver: PortraitContextResolver? by lazy {
+        ServiceLoader.load(PortraitContextResolver::class.java).firstOrNull()
+    }
+
+    private val contextFactory: (ClassLoader) -> PortraitContext = { classLoader ->
+        PortraitContext(classLoader, DefaultPortraitCache(cachePolicy))
+    }
+
+    private val classNameResolver: (Class<*>) -> PClass<*> = { clazz -> contextOf(clazz).load<Any>(clazz.name) }
 
     /**
-     * Sentinel value to record classes that failed to resolve to avoid re-running provider lookups.
+     * Returns the context responsible for [clazz].
+     *
+     * Classes loaded by Portrait's own class loader, one of its ancestors, or the bootstrap loader
+     * belong to the default context. When the runtime provides a [PortraitContextResolver] (the
+     * JVM runtime does), classes of any other loader get a context of their own that discovers
+     * providers through that loader and stays reachable only while the loader's classes are.
+     *
+     * @param clazz Class whose context is requested
+     * @return The context that resolves [clazz]
      */
-    private val notFoundMarker: PClass<*> = UnresolvedPClass<Any>(NOT_FOUND_SENTINEL_NAME)
+    @JvmStatic
+    fun contextOf(clazz: Class<*>): PortraitContext {
+        val resolver = contextResolver ?: return defaultContext
+        return resolver.contextFor(clazz, contextFactory) ?: defaultContext
+    }
+
+    /**
+     * Returns the context that serves lookups by class name.
+     */
+    @JvmStatic
+    fun defaultContext(): PortraitContext = defaultContext
 
     /**
      * Creates a PClass from a Java Class object.
@@ -76,7 +113,7 @@ object Portrait {
     @JvmStatic
     fun <T : Any> of(clazz: Class<T>): PClass<T> {
         return try {
-            load(clazz.name)
+            loadClass(clazz)
         } catch (e: PortraitNotFoundException) {
             throw PortraitNotFoundException(
                 "Cannot create portrait for known Java class: ${clazz.name}",
@@ -97,9 +134,9 @@ object Portrait {
     @JvmStatic
     fun <T : Any> ofOrUnresolved(clazz: Class<T>): PClass<T> {
         return try {
-            load(clazz.name)
+            loadClass(clazz)
         } catch (_: PortraitNotFoundException) {
-            UnresolvedPClass(clazz.name)
+            contextOf(clazz).unresolved(clazz.name)
         }
     }
 
@@ -113,7 +150,7 @@ object Portrait {
     @JvmStatic
     fun <T : Any> ofOrNull(clazz: Class<T>): PClass<T>? {
         return try {
-            load(clazz.name)
+            loadClass(clazz)
         } catch (_: PortraitNotFoundException) {
             null
         }
@@ -123,7 +160,7 @@ object Portrait {
     fun <T : Any> of(clazz: KClass<T>): PClass<T> {
         val className = clazz.java.name
         return try {
-            load(className)
+            loadClass(clazz.java)
         } catch (e: PortraitNotFoundException) {
             throw PortraitNotFoundException(
                 "Cannot create portrait for known Kotlin class: $className",
@@ -142,9 +179,9 @@ object Portrait {
     @JvmStatic
     fun <T : Any> ofOrUnresolved(clazz: KClass<T>): PClass<T> {
         return try {
-            load(clazz.java.name)
+            loadClass(clazz.java)
         } catch (_: PortraitNotFoundException) {
-            UnresolvedPClass(clazz.java.name)
+            contextOf(clazz.java).unresolved(clazz.java.name)
         }
     }
 
@@ -158,7 +195,7 @@ object Portrait {
     @JvmStatic
     fun <T : Any> ofOrNull(clazz: KClass<T>): PClass<T>? {
         return try {
-            load(clazz.java.name)
+            loadClass(clazz.java)
         } catch (_: PortraitNotFoundException) {
             null
         }
@@ -175,12 +212,11 @@ object Portrait {
      */
     @JvmStatic
     fun <T : Any> from(instance: T): PClass<T> {
-        val className = instance.javaClass.name
         return try {
-            load(className)
+            loadClass(instance.javaClass)
         } catch (e: PortraitNotFoundException) {
             throw PortraitNotFoundException(
-                "Cannot create portrait for instance of type: $className",
+                "Cannot create portrait for instance of type: ${instance.javaClass.name}",
                 e
             )
         }
@@ -196,9 +232,9 @@ object Portrait {
     @JvmStatic
     fun <T : Any> fromOrUnresolved(instance: T): PClass<T> {
         return try {
-            load(instance.javaClass.name)
+            loadClass(instance.javaClass)
         } catch (_: PortraitNotFoundException) {
-            UnresolvedPClass(instance.javaClass.name)
+            contextOf(instance.javaClass).unresolved(instance.javaClass.name)
         }
     }
 
@@ -212,7 +248,7 @@ object Portrait {
     @JvmStatic
     fun <T : Any> fromOrNull(instance: T): PClass<T>? {
         return try {
-            load(instance.javaClass.name)
+            loadClass(instance.javaClass)
         } catch (_: PortraitNotFoundException) {
             null
         }
@@ -226,16 +262,7 @@ object Portrait {
      * @throws PortraitNotFoundException if the class cannot be found or loaded
      */
     @JvmStatic
-    fun forName(className: String): PClass<*> {
-        return try {
-            load<Any>(className)
-        } catch (e: PortraitNotFoundException) {
-            throw PortraitNotFoundException(
-                "Cannot find class by name: $className",
-                e
-            )
-        }
-    }
+    fun forName(className: String): PClass<*> = defaultContext.forName(className)
 
     /**
      * Attempts to create a [PClass] by class name, returning `null` if no provider can resolve it.
@@ -245,13 +272,7 @@ object Portrait {
      * @return A resolved [PClass] or `null` when unavailable
      */
     @JvmStatic
-    fun forNameOrNull(className: String): PClass<*>? {
-        return try {
-            load<Any>(className)
-        } catch (_: PortraitNotFoundException) {
-            null
-        }
-    }
+    fun forNameOrNull(className: String): PClass<*>? = defaultContext.forNameOrNull(className)
 
     /**
      * Creates a PClass by looking up a class name, returning UnresolvedPClass if not found.
@@ -265,77 +286,223 @@ object Portrait {
      * @return A PClass representing the named class, or UnresolvedPClass if not found
      */
     @JvmStatic
-    fun forNameOrUnresolved(className: String): PClass<*> {
-        return try {
-            load<Any>(className)
-        } catch (_: PortraitNotFoundException) {
-            UnresolvedPClass<Any>(className)
-        }
+    fun forNameOrUnresolved(className: String): PClass<*> = defaultContext.forNameOrUnresolved(className)
+
+    /**
+     * Resolves a class by the integer id its provider assigned, as reported by [PClass.id].
+     *
+     * Generated providers assign ids at build time, unique across providers, so ids can stand in
+     * for class names in serialized data without any name hashing.
+     *
+     * @param id Class id to resolve
+     * @return The PClass with that id
+     * @throws PortraitNotFoundException if no provider assigned the id
+     */
+    @JvmStatic
+    fun forId(id: Int): PClass<*> = defaultContext.forId(id)
+
+    /**
+     * Attempts to resolve a class by its provider-assigned id, returning `null` if no provider
+     * assigned it.
+     *
+     * @param id Class id to resolve
+     * @return The PClass with that id, or `null` when unavailable
+     */
+    @JvmStatic
+    fun forIdOrNull(id: Int): PClass<*>? = defaultContext.forIdOrNull(id)
+
+    /**
+     * Resolves several class names in one call.
+     *
+     * Cached entries are answered directly; the remaining names are handed to each provider in
+     * priority order as a single batch via [PortraitProvider.forNames], so every provider is
+     * consulted once per call instead of once per name. Names that no provider can resolve are
+     * remembered as misses and left out of the result.
+     *
+     * @param classNames Fully qualified class names to resolve
+     * @return The resolved descriptors keyed by class name, in the iteration order of [classNames]
+     */
+    @JvmStatic
+    fun forNames(classNames: Collection<String>): Map<String, PClass<*>> = defaultContext.forNames(classNames)
+
+    /**
+     * Resolves several class names in one call, splitting the uncached names into independent
+     * batches that run in parallel on [executor].
+     *
+     * The calling thread blocks until every batch has completed. If a batch fails, the first
+     * failure is rethrown once all batches have finished.
+     *
+     * @param classNames Fully qualified class names to resolve
+     * @param executor Executor used to run the provider batches
+     * @return The resolved descriptors keyed by class name, in the iteration order of [classNames]
+     */
+    @JvmStatic
+    fun forNames(classNames: Collection<String>, executor: Executor): Map<String, PClass<*>> =
+        defaultContext.forNames(classNames, executor)
+
+    /**
+     * Lists the class names that providers have enumerated via [PortraitProvider.knownClassNames],
+     * such as every class covered by generated portraits.
+     *
+     * Classes served by open-ended providers (for example JVM reflection) are not included.
+     *
+     * @return Enumerated class names in lexicographic order
+     */
+    @JvmStatic
+    fun knownClassNames(): List<String> = defaultContext.knownClassNames()
+
+    /**
+     * Lists the enumerated class names that belong to [packageName] or any of its subpackages.
+     *
+     * Useful for plugin discovery over generated portraits without scanning the classpath.
+     *
+     * @param packageName Package to search, e.g. `com.example.plugins`
+     * @return Enumerated class names under the package in lexicographic order
+     */
+    @JvmStatic
+    fun knownClassNames(packageName: String): List<String> = defaultContext.knownClassNames(packageName)
+
+    /**
+     * Lists every class and declared member that carries [annotationClass], without decoding the
+     * metadata of the classes involved when generated portraits ship an annotation index.
+     *
+     * Useful for annotation-driven bootstrap such as dependency injection or route registration.
+     * Classes served only by open-ended providers (for example JVM reflection) are not included.
+     *
+     * @param annotationClass Annotation type to look up
+     * @return The annotated elements
+     */
+    @JvmStatic
+    fun annotatedWith(annotationClass: PClass<out Annotation>): List<PAnnotatedElement> =
+        defaultContext.annotatedWith(annotationClass)
+
+    /**
+     * Eagerly resolves and materialises the enumerated classes accepted by [filter] on the
+     * calling thread.
+     *
+     * Candidates are the names reported by [knownClassNames], i.e. every generated portrait when
+     * the AOT runtime is present. Each class is resolved and its member lists, annotations and
+     * supertypes are materialised via [PClass.preload], so later requests skip provider dispatch
+     * and metadata decoding. Use this variant on single-threaded targets such as TeaVM.
+     *
+     * @param filter Predicate on the class name; accepts every enumerated class by default
+     * @return An already completed handle carrying the run's statistics
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun preload(filter: (String) -> Boolean = { true }): PreloadHandle {
+        val handle = PreloadHandle()
+        runPreload(filter, handle)
+        return handle
     }
 
     /**
-     * Internal method that tries each provider in priority order to resolve a class name.
-     * Uses caching to prevent circular dependencies and improve performance.
+     * Same as [preload] but runs in the background on [executor].
      *
-     * @param className The class name to resolve
-     * @return A PClass if any provider can handle it
-     * @throws RuntimeException if no providers are available or circular dependency detected
+     * @param executor Executor that performs the run
+     * @param filter Predicate on the class name; accepts every enumerated class by default
+     * @return A handle that completes once the run has finished
      */
-    private fun <T : Any> load(className: String): PClass<T> {
-        // Check cache first
-        val cached = cache[className]
-        if (cached != null) {
-            when {
-                cached === loadingMarker -> {
-                    throw IllegalStateException("Circular dependency detected while loading class: $className")
-                }
-                cached === notFoundMarker -> {
-                    throw PortraitNotFoundException("No Portrait available for $className")
-                }
-                else -> {
-                    @Suppress("UNCHECKED_CAST")
-                    return cached as PClass<T>
+    @JvmStatic
+    @JvmOverloads
+    fun preload(executor: Executor, filter: (String) -> Boolean = { true }): PreloadHandle {
+        val handle = PreloadHandle()
+        executor.execute { runPreload(filter, handle) }
+        return handle
+    }
+
+    private fun runPreload(filter: (String) -> Boolean, handle: PreloadHandle) {
+        val start = System.nanoTime()
+        try {
+            val classNames = knownClassNames().filter(filter)
+            val resolved = forNames(classNames)
+            var loaded = 0
+            var failed = classNames.size - resolved.size
+            var bytesDecoded = 0L
+            for (pClass in resolved.values) {
+                try {
+                    bytesDecoded += pClass.preload()
+                    loaded++
+                } catch (_: Exception) {
+                    failed++
                 }
             }
+            handle.complete(PreloadStats(loaded, failed, bytesDecoded, System.nanoTime() - start))
+        } catch (e: Throwable) {
+            // Errors too, or await() would never return
+            handle.fail(e)
         }
+    }
 
-        // Mark as loading to detect cycles
-        cache[className] = loadingMarker
+    /**
+     * Resolves a descriptor for an existing `Class`, preferring the identity-keyed [classCache]
+     * when the runtime provides one and falling back to the name-keyed cache of the class'
+     * [PortraitContext] otherwise.
+     */
+    private fun <T : Any> loadClass(clazz: Class<T>): PClass<T> {
+        val identityCache = classCache ?: return contextOf(clazz).load(clazz.name)
+        @Suppress("UNCHECKED_CAST")
+        return identityCache.get(clazz, classNameResolver) as PClass<T>
+    }
 
-        try {
-            if (providers.isEmpty()) {
-                throw IllegalStateException("No PortraitProvider implementation found on classpath")
-            }
+    /**
+     * Clears the default context's cache and drops any snapshot published by [freeze]. Useful for
+     * testing or when class definitions change.
+     *
+     * Contexts of other class loaders keep their entries; use [PortraitContext.clearCache] on
+     * [contextOf] to clear one of them.
+     */
+    @JvmStatic
+    fun clearCache() {
+        defaultContext.clearCache()
+    }
 
-            for (provider in providers) {
-                val result = provider.forName<T>(className)
-                if (result != null) {
-                    // Cache the successful result
-                    cache[className] = result
-                    return result
-                }
-            }
+    /**
+     * Publishes the default context's resolved descriptors as an immutable snapshot that later
+     * lookups read without locks. See [PortraitContext.freeze].
+     *
+     * Typically called once the application has warmed up, e.g. after [preload].
+     *
+     * @param policy How lookups for names outside the snapshot are handled
+     * @return Number of descriptors in the snapshot
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun freeze(policy: PortraitFreezePolicy = PortraitFreezePolicy.FALLBACK): Int = defaultContext.freeze(policy)
 
-            // No provider could handle this class
-            cache[className] = notFoundMarker
-            throw PortraitNotFoundException("No Portrait available for $className")
-        } catch (e: Exception) {
-            if (e is PortraitNotFoundException) {
-                cache[className] = notFoundMarker
-            } else {
-                cache.remove(className, loadingMarker)
-                e.printStackTrace()
-            }
-            throw e
-        }
+    /**
+     * Replaces the default context's cache with one governed by [policy]; contexts created
+     * afterwards use the same policy.
+     *
+     * Previously cached entries and counters are discarded. This also replaces any
+     * [PortraitCache] implementation registered via ServiceLoader.
+     *
+     * @param policy Bounds and reference strength to apply to subsequent lookups
+     */
+    @JvmStatic
+    fun configureCache(policy: PortraitCachePolicy) {
+        cachePolicy = policy
+        defaultContext.cache = DefaultPortraitCache(policy)
+        classCache?.configure(policy)
     }
 
     /**
-     * Clears the internal cache. Useful for testing or when class definitions change.
+     * Returns a snapshot of the default context's cache hit, miss and eviction counters.
+     *
+     * Lookups by `Class` answered by the runtime's class-identity cache never reach the context
+     * cache and are not counted.
+     *
+     * @return Current cache statistics
      */
     @JvmStatic
-    fun clearCache() {
-        cache.clear()
+    fun cacheStats(): PortraitCacheStats = defaultContext.cacheStats()
+
+    /**
+     * Drops every identity-keyed entry. Entries are repopulated from the context caches, so this
+     * never triggers provider lookups for classes that are still cached by name.
+     */
+    internal fun clearIdentityCache() {
+        classCache?.clear()
     }
 
     /**
@@ -347,7 +514,7 @@ object Portrait {
     @JvmStatic
     fun forPrimitive(primitiveName: String): PClass<*>? {
         return try {
-            load<Any>(primitiveName)
+            defaultContext.load<Any>(primitiveName)
         } catch (_: PortraitNotFoundException) {
             null
         }
@@ -371,7 +538,7 @@ object Portrait {
      * @return The cached `PClass` representing `boolean`
      */
     @JvmStatic
-    fun booleanClass(): PClass<Boolean> = load("boolean")
+    fun booleanClass(): PClass<Boolean> = defaultContext.load("boolean")
 
     /**
      * Returns the Portrait metadata wrapper for the primitive `byte` type.
@@ -379,7 +546,7 @@ object Portrait {
      * @return The cached `PClass` representing `byte`
      */
     @JvmStatic
-    fun byteClass(): PClass<Byte> = load("byte")
+    fun byteClass(): PClass<Byte> = defaultContext.load("byte")
 
     /**
      * Returns the Portrait metadata wrapper for the primitive `char` type.
@@ -387,7 +554,7 @@ object Portrait {
      * @return The cached `PClass` representing `char`
      */
     @JvmStatic
-    fun charClass(): PClass<Char> = load("char")
+    fun charClass(): PClass<Char> = defaultContext.load("char")
 
     /**
      * Returns the Portrait metadata wrapper for the primitive `short` type.
@@ -395,7 +562,7 @@ object Portrait {
      * @return The cached `PClass` representing `short`
      */
     @JvmStatic
-    fun shortClass(): PClass<Short> = load("short")
+    fun shortClass(): PClass<Short> = defaultContext.load("short")
 
     /**
      * Returns the Portrait metadata wrapper for the primitive `int` type.
@@ -403,7 +570,7 @@ object Portrait {
      * @return The cached `PClass` representing `int`
      */
     @JvmStatic
-    fun intClass(): PClass<Int> = load("int")
+    fun intClass(): PClass<Int> = defaultContext.load("int")
 
     /**
      * Returns the Portrait metadata wrapper for the primitive `long` type.
@@ -411,7 +578,7 @@ object Portrait {
      * @return The cached `PClass` representing `long`
      */
     @JvmStatic
-    fun longClass(): PClass<Long> = load("long")
+    fun longClass(): PClass<Long> = defaultContext.load("long")
 
     /**
      * Returns the Portrait metadata wrapper for the primitive `float` type.
@@ -419,7 +586,7 @@ object Portrait {
      * @return The cached `PClass` representing `float`
      */
     @JvmStatic
-    fun floatClass(): PClass<Float> = load("float")
+    fun floatClass(): PClass<Float> = defaultContext.load("float")
 
     /**
      * Returns the Portrait metadata wrapper for the primitive `double` type.
@@ -427,7 +594,7 @@ object Portrait {
      * @return The cached `PClass` representing `double`
      */
     @JvmStatic
-    fun doubleClass(): PClass<Double> = load("double")
+    fun doubleClass(): PClass<Double> = defaultContext.load("double")
 
     /**
      * Returns the Portrait metadata wrapper for the `void` pseudo-type.
@@ -435,6 +602,6 @@ object Portrait {
      * @return The cached `PClass` representing `void`
      */
     @JvmStatic
-    fun voidClass(): PClass<Void> = load("void")
+    fun voidClass(): PClass<Void> = defaultContext.load("void")
 
 }
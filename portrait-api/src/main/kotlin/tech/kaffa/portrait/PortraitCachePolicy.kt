@@ -0,0 +1,66 @@
+package tech.kaffa.portrait
+
+/**
+ * Tuning options for the built-in registry cache used by [Portrait].
+ *
+ * Resolved descriptors are bounded by the set of classes an application actually uses, whereas
+ * negative entries are driven by whatever names callers pass to `forNameOrNull` or
+ * `forNameOrUnresolved`. The policy therefore bounds misses separately from hits.
+ *
+ * Example usage:
+ * ```kotlin
+ * Portrait.configureCache(
+ *     PortraitCachePolicy(
+ *         maxMissingEntries = 512,
+ *         missingEntryTtlMillis = 60_000,
+ *         valueReferences = PortraitCachePolicy.ValueReferences.SOFT
+ *     )
+ * )
+ * ```
+ *
+ * @param maxMissingEntries Maximum number of remembered misses; the least recently used miss is
+ *        evicted once the limit is reached. `0` disables negative caching.
+ * @param missingEntryTtlMillis How long a miss is remembered, in milliseconds. Non-positive values
+ *        keep misses until they are evicted by size or [Portrait.clearCache].
+ * @param valueReferences How resolved descriptors are held by the cache. The runtime's
+ *        class-identity cache, which serves `Portrait.of(Class)`, holds them the same way.
+ */
+class PortraitCachePolicy @JvmOverloads constructor(
+    val maxMissingEntries: Int = DEFAULT_MAX_MISSING_ENTRIES,
+    val missingEntryTtlMillis: Long = 0,
+    val valueReferences: ValueReferences = ValueReferences.STRONG
+) {
+
+    init {
+        require(maxMissingEntries >= 0) { "maxMissingEntries must not be negative: $maxMissingEntries" }
+    }
+
+    /**
+     * Reference strength used for resolved descriptors.
+     */
+    enum class ValueReferences {
+        /** Descriptors stay cached until [Portrait.clearCache]. */
+        STRONG,
+
+        /** Descriptors are dropped as soon as nothing else references them. */
+        WEAK,
+
+        /** Descriptors are dropped when the garbage collector needs memory. */
+        SOFT
+    }
+
+    override fun toString(): String {
+        return "PortraitCachePolicy(maxMissingEntries=$maxMissingEntries, " +
+            "missingEntryTtlMillis=$missingEntryTtlMillis, valueReferences=$valueReferences)"
+    }
+
+    companion object {
+        const val DEFAULT_MAX_MISSING_ENTRIES = 4096
+
+        /**
+         * Policy used when none has been configured.
+         */
+        @JvmField
+        val DEFAULT = PortraitCachePolicy()
+    }
+}
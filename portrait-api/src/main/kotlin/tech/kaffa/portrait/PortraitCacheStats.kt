@@ -0,0 +1,18 @@
+package tech.kaffa.portrait
+
+/**
+ * Point-in-time snapshot of the registry cache counters.
+ *
+ * @param hits Lookups answered from the cache, including remembered misses
+ * @param misses Lookups that had to consult the providers
+ * @param evictions Entries dropped by size limits, expiry or garbage collection
+ * @param resolvedEntries Resolved descriptors currently cached
+ * @param missingEntries Known-missing names currently cached
+ */
+data class PortraitCacheStats(
+    val hits: Long,
+    val misses: Long,
+    val evictions: Long,
+    val resolvedEntries: Int,
+    val missingEntries: Int
+)
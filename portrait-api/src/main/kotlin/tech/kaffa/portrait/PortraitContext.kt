@@ -0,0 +1,732 @@
+package tech.kaffa.portrait
+
+import tech.kaffa.portrait.internal.AnnotationScanIndex
+import tech.kaffa.portrait.internal.FrozenPortraitTable
+import tech.kaffa.portrait.internal.ProviderRouting
+import tech.kaffa.portrait.internal.UnresolvedPClass
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
+import tech.kaffa.portrait.provider.PortraitCache
+import tech.kaffa.portrait.provider.PortraitProvider
+import java.util.*
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Isolated registry of providers and cached descriptors for one class loader.
+ *
+ * [Portrait] keeps a default context for classes visible to its own class loader and, when the
+ * runtime supplies a [tech.kaffa.portrait.provider.PortraitContextResolver], a separate context
+ * for every other class loader whose classes are passed to `Portrait.of`. Each context discovers
+ * its own providers through that loader and keeps its own cache, so descriptors of one deployment
+ * never pin another deployment's classes and clearing one context leaves the others untouched.
+ *
+ * Contexts are obtained through [Portrait.contextOf]; the static `Portrait` lookups by name use
+ * the default context.
+ *
+ * @property classLoader Loader whose providers this context uses, or `null` for the default context
+ */
+class PortraitContext internal constructor(
+    val classLoader: ClassLoader?,
+    cache: PortraitCache
+) {
+
+    /**
+     * Cache of completed lookups to improve performance.
+     * Maps class names to their PClass instances or to canonical [UnresolvedPClass] placeholders.
+     */
+    @Volatile
+    internal var cache: PortraitCache = cache
+
+    /**
+     * Snapshot published by [freeze], consulted before [cache]; `null` while not frozen.
+     */
+    @Volatile
+    private var frozen: FrozenPortraitTable? = null
+
+    /**
+     * Provider lookups currently in progress, keyed by class name.
+     */
+    private val inFlight = ConcurrentHashMap<String, Resolution>()
+
+    /**
+     * Lazily-loaded list of available providers, sorted by priority (highest first).
+     *
+     * Providers are discovered via Java's ServiceLoader mechanism and sorted by their
+     * priority() method. Higher priority providers are tried first. Contexts bound to a class
+     * loader discover providers through it and scope them via [PortraitProvider.forClassLoader].
+     */
+    private val providers: List<PortraitProvider> by lazy {
+        val discovered = if (classLoader == null) {
+            ServiceLoader.load(PortraitProvider::class.java).toList()
+        } else {
+            ServiceLoader.load(PortraitProvider::class.java, classLoader).map { it.forClassLoader(classLoader) }
+        }
+        discovered
+            .sortedByDescending { it.priority() }
+            .takeIf { it.isNotEmpty() }
+            ?: throw IllegalStateException("No PortraitProvider implementation found on classpath")
+    }
+
+    /**
+     * Routing index built from [PortraitProvider.knownClassNames], so lookups skip providers that
+     * have declared they cannot resolve a name.
+     */
+    private val routing: ProviderRouting by lazy { ProviderRouting(providers) }
+
+    /**
+     * Answers of [annotatedWith], keyed by annotation class name.
+     */
+    private val annotated = ConcurrentHashMap<String, List<PAnnotatedElement>>()
+
+    /**
+     * Scanned reverse indexes for enumerating providers that do not ship an annotation index.
+     */
+    private val scannedAnnotations = IdentityHashMap<PortraitProvider, AnnotationScanIndex>()
+
+    /**
+     * Creates a PClass by looking up a class name in this context.
+     *
+     * @param className The fully qualified class name to load
+     * @return A PClass representing the named class
+     * @throws PortraitNotFoundException if the class cannot be found or loaded
+     */
+    fun forName(className: String): PClass<*> {
+        return try {
+            load<Any>(className)
+        } catch (e: PortraitNotFoundException) {
+            throw PortraitNotFoundException(
+                "Cannot find class by name: $className",
+                e
+            )
+        }
+    }
+
+    /**
+     * Attempts to create a [PClass] by class name, returning `null` if no provider of this
+     * context can resolve it.
+     *
+     * @param className Fully qualified class name to resolve
+     * @return A resolved [PClass] or `null` when unavailable
+     */
+    fun forNameOrNull(className: String): PClass<*>? {
+        return try {
+            load<Any>(className)
+        } catch (_: PortraitNotFoundException) {
+            null
+        }
+    }
+
+    /**
+     * Creates a PClass by looking up a class name, returning UnresolvedPClass if not found.
+     *
+     * @param className The fully qualified class name to load
+     * @return A PClass representing the named class, or UnresolvedPClass if not found
+     */
+    fun forNameOrUnresolved(className: String): PClass<*> {
+        return try {
+            load<Any>(className)
+        } catch (_: PortraitNotFoundException) {
+            unresolved<Any>(className)
+        }
+    }
+
+    /**
+     * Resolves the class with the provider-assigned [id] reported by [PClass.id].
+     *
+     * @param id Class id to resolve
+     * @return The PClass with that id
+     * @throws PortraitNotFoundException if no provider of this context assigned the id
+     */
+    fun forId(id: Int): PClass<*> {
+        return forIdOrNull(id) ?: throw PortraitNotFoundException("Cannot find class by id: $id")
+    }
+
+    /**
+     * Resolves the class with the provider-assigned [id], returning `null` if no provider of this
+     * context assigned it.
+     *
+     * A frozen context answers from its snapshot first; under [PortraitFreezePolicy.FAIL] an id
+     * outside the snapshot is not looked up any further. Otherwise providers are asked in priority
+     * order and the first answer names the class. The class is then looked up by that name like
+     * [forNameOrNull] does, through the frozen snapshot, the cache, single-flight resolution and the
+     * metrics hooks, so [forName] and [forId] return the same instance.
+     *
+     * @param id Class id to resolve
+     * @return A resolved [PClass] or `null` when no provider knows the id
+     */
+    fun forIdOrNull(id: Int): PClass<*>? {
+        if (id < 0) return null
+        val frozen = frozen
+        if (frozen != null) {
+            frozen.forId(id)?.let { return it }
+            if (frozen.policy == PortraitFreezePolicy.FAIL) return null
+        }
+        for (provider in providers) {
+            val pClass = provider.forId(id) ?: continue
+            return forNameOrNull(pClass.qualifiedName)
+        }
+        return null
+    }
+
+    /**
+     * Resolves several class names in one call.
+     *
+     * Cached entries are answered directly; the remaining names are handed to each provider in
+     * priority order as a single batch via [PortraitProvider.forNames], so every provider is
+     * consulted once per call instead of once per name. Names that no provider can resolve are
+     * remembered as misses and left out of the result. Names that another thread is resolving at
+     * the same time are awaited instead of resolved twice.
+     *
+     * @param classNames Fully qualified class names to resolve
+     * @return The resolved descriptors keyed by class name, in the iteration order of [classNames]
+     */
+    fun forNames(classNames: Collection<String>): Map<String, PClass<*>> {
+        val resolved = HashMap<String, PClass<*>>()
+        val pending = lookupCached(classNames, resolved)
+        if (pending.isNotEmpty()) {
+            resolved.putAll(resolveBatch(pending))
+        }
+        return inRequestOrder(classNames, resolved)
+    }
+
+    /**
+     * Resolves several class names in one call, splitting the uncached names into independent
+     * batches that run in parallel on [executor].
+     *
+     * The calling thread blocks until every batch has completed. If a batch fails, the first
+     * failure is rethrown once all batches have finished. Called from inside a provider while this
+     * thread is itself resolving names, the batch runs inline instead: worker threads could not tell
+     * that the names this thread has claimed are its own, and would wait on them forever.
+     *
+     * @param classNames Fully qualified class names to resolve
+     * @param executor Executor used to run the provider batches
+     * @return The resolved descriptors keyed by class name, in the iteration order of [classNames]
+     */
+    fun forNames(classNames: Collection<String>, executor: Executor): Map<String, PClass<*>> {
+        val resolved = HashMap<String, PClass<*>>()
+        val pending = lookupCached(classNames, resolved)
+        if (pending.size > 1 && resolutionStack.get().isEmpty()) {
+            val chunkCount = minOf(pending.size, Runtime.getRuntime().availableProcessors())
+            val chunks = pending.chunked((pending.size + chunkCount - 1) / chunkCount)
+            val batch = Batch(chunks.size)
+            for (chunk in chunks) {
+                executor.execute { batch.execute { resolveBatch(chunk) } }
+            }
+            batch.await().forEach { resolved.putAll(it) }
+        } else if (pending.isNotEmpty()) {
+            resolved.putAll(resolveBatch(pending))
+        }
+        return inRequestOrder(classNames, resolved)
+    }
+
+    /**
+     * Copies cached descriptors for [classNames] into [resolved] and returns the distinct names
+     * that still need to be resolved by the providers. Known misses are dropped.
+     */
+    private fun lookupCached(classNames: Collection<String>, resolved: MutableMap<String, PClass<*>>): List<String> {
+        val pending = ArrayList<String>()
+        val frozen = frozen
+        for (className in LinkedHashSet(classNames)) {
+            if (frozen != null) {
+                val hit = frozen.get(className)
+                if (hit != null) {
+                    resolved[className] = hit
+                    continue
+                }
+                if (!frozen.admitsMiss(className)) continue
+            }
+            val cached = cache.get(className)
+            if (PortraitMetricsRegistry.enabled) {
+                reportCacheLookup(className, cached)
+            }
+            when {
+                cached == null -> pending.add(className)
+                cached !is UnresolvedPClass<*> -> resolved[className] = cached
+            }
+        }
+        return pending
+    }
+
+    /**
+     * Resolves [classNames] single-flight: names that another thread is already resolving are
+     * awaited, and the rest are claimed in [inFlight] and resolved by [askProviders]. Nested
+     * batches resolve every name themselves, like nested [load] calls.
+     */
+    private fun resolveBatch(classNames: List<String>): Map<String, PClass<*>> {
+        val result = HashMap<String, PClass<*>>(classNames.size)
+        val stack = resolutionStack.get()
+        val nested = stack.isNotEmpty()
+        val owned = LinkedHashMap<String, Resolution>()
+        val awaited = LinkedHashMap<String, Resolution>()
+        val unclaimed = ArrayList<String>()
+
+        for (className in classNames) {
+            val resolution = Resolution()
+            val inFlightResolution = inFlight.putIfAbsent(className, resolution)
+            when {
+                inFlightResolution == null -> owned[className] = resolution
+                nested -> unclaimed.add(className)
+                else -> awaited[className] = inFlightResolution
+            }
+        }
+
+        // Re-check owned names, as load() does, in case a previous owner published meanwhile
+        val iterator = owned.entries.iterator()
+        while (iterator.hasNext()) {
+            val (className, resolution) = iterator.next()
+            val published = cache.peek(className) ?: continue
+            iterator.remove()
+            try {
+                result[className] = completeFromCache<Any>(className, published, resolution)
+            } catch (_: PortraitNotFoundException) {
+                // Known miss, left out of the result
+            }
+        }
+
+        stack.add(BatchEntry)
+        try {
+            result.putAll(askProviders(owned.keys.toList() + unclaimed))
+            for ((className, resolution) in owned) {
+                val pClass = result[className]
+                if (pClass != null) {
+                    resolution.complete(pClass)
+                } else {
+                    resolution.fail(PortraitNotFoundException("No Portrait available for $className"))
+                }
+            }
+        } catch (e: Throwable) {
+            owned.values.forEach { it.fail(e) }
+            throw e
+        } finally {
+            stack.removeAt(stack.lastIndex)
+            owned.forEach { (className, resolution) -> inFlight.remove(className, resolution) }
+        }
+
+        for ((className, resolution) in awaited) {
+            try {
+                result[className] = resolution.await()
+            } catch (_: PortraitNotFoundException) {
+                // Resolved as a miss by the owning thread
+            }
+        }
+        return result
+    }
+
+    /**
+     * Offers [classNames] to each provider in priority order, narrowing the batch to the names
+     * still unresolved after every provider, and publishes the outcome to [cache].
+     */
+    private fun askProviders(classNames: List<String>): Map<String, PClass<*>> {
+        val result = HashMap<String, PClass<*>>(classNames.size)
+        var remaining: List<String> = classNames
+        for (provider in providers) {
+            if (remaining.isEmpty()) break
+
+            val offered = remaining.filter { routing.isCandidate(provider, it) }
+            if (offered.isEmpty()) continue
+
+            val found = if (PortraitMetricsRegistry.enabled) {
+                timedForNames(provider, offered)
+            } else {
+                provider.forNames(offered)
+            }
+            if (found.isEmpty()) continue
+
+            val unresolved = ArrayList<String>(remaining.size)
+            for (className in remaining) {
+                val pClass = found[className]
+                if (pClass == null) {
+                    unresolved.add(className)
+                } else {
+                    result[className] = cache.putResolved(className, pClass)
+                }
+            }
+            remaining = unresolved
+        }
+
+        remaining.forEach { cache.putMissing(it) }
+        return result
+    }
+
+    private fun inRequestOrder(classNames: Collection<String>, resolved: Map<String, PClass<*>>): Map<String, PClass<*>> {
+        val result = LinkedHashMap<String, PClass<*>>(resolved.size)
+        for (className in classNames) {
+            val pClass = resolved[className] ?: continue
+            result[className] = pClass
+        }
+        return result
+    }
+
+    /**
+     * Lists the class names that this context's providers have enumerated via
+     * [PortraitProvider.knownClassNames], such as every class covered by generated portraits.
+     *
+     * Classes served by open-ended providers (for example JVM reflection) are not included.
+     *
+     * @return Enumerated class names in lexicographic order
+     */
+    fun knownClassNames(): List<String> = routing.knownClassNames("")
+
+    /**
+     * Lists the enumerated class names that belong to [packageName] or any of its subpackages.
+     *
+     * Useful for plugin discovery over generated portraits without scanning the classpath.
+     *
+     * @param packageName Package to search, e.g. `com.example.plugins`
+     * @return Enumerated class names under the package in lexicographic order
+     */
+    fun knownClassNames(packageName: String): List<String> {
+        return if (packageName.isEmpty()) knownClassNames() else routing.knownClassNames("$packageName.")
+    }
+
+    /**
+     * Lists every class and declared member that carries [annotationClass].
+     *
+     * Generated providers answer from an index emitted at build time, so no class metadata is
+     * decoded. Providers that enumerate their classes without an index are scanned once, the first
+     * time any annotation is looked up. Classes served only by open-ended providers (for example JVM
+     * reflection) are not included, as they cannot be enumerated.
+     *
+     * Elements are reported only by the provider that this context consults first for their class,
+     * so member positions always refer to the descriptors returned by [forName].
+     *
+     * @param annotationClass Annotation type to look up
+     * @return The annotated elements, classes in provider order and members in declaration order
+     */
+    fun annotatedWith(annotationClass: PClass<out Annotation>): List<PAnnotatedElement> {
+        val annotationClassName = annotationClass.qualifiedName
+        annotated[annotationClassName]?.let { return it }
+        val elements = collectAnnotated(annotationClassName)
+        return annotated.putIfAbsent(annotationClassName, elements) ?: elements
+    }
+
+    private fun collectAnnotated(annotationClassName: String): List<PAnnotatedElement> {
+        val result = ArrayList<PAnnotatedElement>()
+        for (provider in providers) {
+            val elements = provider.annotatedWith(annotationClassName)
+                ?: scannedIndex(provider)?.annotatedWith(annotationClassName)
+                ?: continue
+            elements.filterTo(result) { routing.providersFor(it.className).firstOrNull() === provider }
+        }
+        return result
+    }
+
+    private fun scannedIndex(provider: PortraitProvider): AnnotationScanIndex? {
+        val classNames = routing.claimedBy(provider) ?: return null
+        synchronized(scannedAnnotations) { scannedAnnotations[provider] }?.let { return it }
+
+        // Resolved outside the lock: forNames may wait for other threads' resolutions, which may
+        // in turn scan annotations. Concurrent scans build equal indexes and the first one wins.
+        val index = AnnotationScanIndex(forNames(classNames).values)
+        synchronized(scannedAnnotations) {
+            return scannedAnnotations.putIfAbsent(provider, index) ?: index
+        }
+    }
+
+    /**
+     * Returns the canonical unresolved placeholder for [className], so repeated misses share one
+     * instance for as long as the miss is cached.
+     */
+    internal fun <T : Any> unresolved(className: String): PClass<T> {
+        @Suppress("UNCHECKED_CAST")
+        return cache.putMissing(className) as PClass<T>
+    }
+
+    /**
+     * Internal method that tries each provider in priority order to resolve a class name.
+     *
+     * Resolution is single-flight per class name: concurrent callers asking for the same name wait
+     * for the one in-flight provider lookup instead of repeating it. Cycles are detected per thread
+     * through a resolution stack shared by all contexts, so a second thread requesting a class that
+     * is still loading is never mistaken for a circular dependency. Nested lookups that hit a name
+     * owned by another thread resolve it themselves rather than wait, which rules out cross-thread
+     * deadlocks, including between contexts.
+     *
+     * @param className The class name to resolve
+     * @return A PClass if any provider can handle it
+     * @throws RuntimeException if no providers are available or circular dependency detected
+     */
+    internal fun <T : Any> load(className: String): PClass<T> {
+        val frozen = frozen
+        if (frozen != null) {
+            val hit = frozen.get(className)
+            if (hit != null) {
+                @Suppress("UNCHECKED_CAST")
+                return hit as PClass<T>
+            }
+            if (!frozen.admitsMiss(className)) {
+                throw PortraitNotFoundException("No Portrait available for $className: registry is frozen")
+            }
+        }
+
+        // Check cache first
+        val cached = cache.get(className)
+        if (PortraitMetricsRegistry.enabled) {
+            reportCacheLookup(className, cached)
+        }
+        if (cached != null) {
+            return unwrapCached(className, cached)
+        }
+
+        val stack = resolutionStack.get()
+        val key = ResolutionKey(this, className)
+        if (key in stack) {
+            throw IllegalStateException("Circular dependency detected while loading class: $className")
+        }
+
+        val resolution = Resolution()
+        val inFlightResolution = inFlight.putIfAbsent(className, resolution)
+        if (inFlightResolution != null && stack.isEmpty()) {
+            @Suppress("UNCHECKED_CAST")
+            return inFlightResolution.await() as PClass<T>
+        }
+
+        val owner = inFlightResolution == null
+        if (owner) {
+            // A previous owner may have published and left between the cache read above and
+            // putIfAbsent; answer from its outcome instead of asking the providers again
+            val published = cache.peek(className)
+            if (published != null) {
+                return completeFromCache(className, published, resolution)
+            }
+        }
+
+        stack.add(key)
+        try {
+            val result = resolve<T>(className)
+            if (owner) resolution.complete(result)
+            return result
+        } catch (e: Throwable) {
+            if (owner) resolution.fail(e)
+            throw e
+        } finally {
+            stack.removeAt(stack.lastIndex)
+            if (owner) inFlight.remove(className, resolution)
+        }
+    }
+
+    private fun <T : Any> completeFromCache(className: String, cached: PClass<*>, resolution: Resolution): PClass<T> {
+        try {
+            val result = unwrapCached<T>(className, cached)
+            resolution.complete(result)
+            return result
+        } catch (e: PortraitNotFoundException) {
+            resolution.fail(e)
+            throw e
+        } finally {
+            inFlight.remove(className, resolution)
+        }
+    }
+
+    /**
+     * Asks each provider in priority order for [className] and publishes the outcome to [cache].
+     */
+    private fun <T : Any> resolve(className: String): PClass<T> {
+        try {
+            if (providers.isEmpty()) {
+                throw IllegalStateException("No PortraitProvider implementation found on classpath")
+            }
+
+            for (provider in routing.providersFor(className)) {
+                val result = if (PortraitMetricsRegistry.enabled) {
+                    timedForName<T>(provider, className)
+                } else {
+                    provider.forName<T>(className)
+                }
+                if (result != null) {
+                    // Cache the successful result, keeping the first one published
+                    @Suppress("UNCHECKED_CAST")
+                    return cache.putResolved(className, result) as PClass<T>
+                }
+            }
+
+            // No provider could handle this class
+            cache.putMissing(className)
+            throw PortraitNotFoundException("No Portrait available for $className")
+        } catch (e: Exception) {
+            if (e is PortraitNotFoundException) {
+                cache.putMissing(className)
+            } else {
+                e.printStackTrace()
+            }
+            throw e
+        }
+    }
+
+    private fun reportCacheLookup(className: String, cached: PClass<*>?) {
+        if (cached != null) {
+            PortraitMetricsRegistry.listener.onCacheHit(className)
+        } else {
+            PortraitMetricsRegistry.listener.onCacheMiss(className)
+        }
+    }
+
+    private fun <T : Any> timedForName(provider: PortraitProvider, className: String): PClass<T>? {
+        val start = System.nanoTime()
+        val result = provider.forName<T>(className)
+        PortraitMetricsRegistry.listener.onProviderLookup(
+            provider, className, result != null, System.nanoTime() - start
+        )
+        return result
+    }
+
+    /**
+     * Batch counterpart of [timedForName]: the provider's time is split evenly across [classNames].
+     */
+    private fun timedForNames(provider: PortraitProvider, classNames: List<String>): Map<String, PClass<*>> {
+        val start = System.nanoTime()
+        val result = provider.forNames(classNames)
+        val elapsedPerName = (System.nanoTime() - start) / classNames.size
+        for (className in classNames) {
+            PortraitMetricsRegistry.listener.onProviderLookup(
+                provider, className, className in result, elapsedPerName
+            )
+        }
+        return result
+    }
+
+    private fun <T : Any> unwrapCached(className: String, cached: PClass<*>): PClass<T> {
+        if (cached is UnresolvedPClass<*>) {
+            throw PortraitNotFoundException("No Portrait available for $className")
+        }
+        @Suppress("UNCHECKED_CAST")
+        return cached as PClass<T>
+    }
+
+    /**
+     * Completion tracker for the parallel batches started by [forNames].
+     *
+     * Waiting parks on a [CompletableFuture] rather than an object monitor, so a virtual thread
+     * waiting here does not pin its carrier. Any [Throwable] a batch raises, errors included, is
+     * recorded so that the waiting thread is always released.
+     */
+    private class Batch(pending: Int) {
+        private val results = ConcurrentLinkedQueue<Map<String, PClass<*>>>()
+        private val failure = AtomicReference<Throwable?>()
+        private val remaining = AtomicInteger(pending)
+        private val done = CompletableFuture<Unit>()
+
+        fun execute(task: () -> Map<String, PClass<*>>) {
+            try {
+                results.add(task())
+            } catch (e: Throwable) {
+                failure.compareAndSet(null, e)
+            } finally {
+                if (remaining.decrementAndGet() == 0) {
+                    done.complete(Unit)
+                }
+            }
+        }
+
+        fun await(): Collection<Map<String, PClass<*>>> {
+            done.join()
+            failure.get()?.let { throw it }
+            return results
+        }
+    }
+
+    /**
+     * Single-flight handle shared by every thread that requests the same class name while its
+     * provider lookup is still running.
+     *
+     * Waiters park on a [CompletableFuture] rather than an object monitor, so virtual threads
+     * waiting for another thread's lookup do not pin their carriers. TeaVM's class library
+     * provides [CompletableFuture] as well, and on its single thread a lookup only ever finds
+     * resolutions it owns itself, so it never joins one that is still pending.
+     */
+    private class Resolution {
+        private val future = CompletableFuture<PClass<*>>()
+
+        fun complete(value: PClass<*>) {
+            future.complete(value)
+        }
+
+        fun fail(error: Throwable) {
+            future.completeExceptionally(error)
+        }
+
+        fun await(): PClass<*> {
+            try {
+                return future.join()
+            } catch (e: CompletionException) {
+                // Rethrow the owner's failure as it was raised
+                throw e.cause ?: e
+            }
+        }
+    }
+
+    /**
+     * Publishes the descriptors resolved so far as an immutable, read-optimised snapshot.
+     *
+     * Later lookups of those names read the snapshot without locks, sentinel checks or cache
+     * bookkeeping, which suits applications whose set of reflected types is fixed after warmup.
+     * Lookups of other names are handled according to [policy]. Descriptors in the snapshot stay
+     * strongly reachable until [clearCache], regardless of the cache's reference policy. Calling
+     * this again replaces the snapshot with one that also covers names resolved since.
+     *
+     * @param policy How lookups for names outside the snapshot are handled
+     * @return Number of descriptors in the snapshot
+     */
+    @JvmOverloads
+    fun freeze(policy: PortraitFreezePolicy = PortraitFreezePolicy.FALLBACK): Int {
+        val entries = frozen?.entries() ?: HashMap()
+        entries.putAll(cache.resolvedEntries())
+        val table = FrozenPortraitTable(entries, policy)
+        frozen = table
+        return table.size
+    }
+
+    /**
+     * Returns whether [freeze] has been called since the cache was last cleared.
+     */
+    fun isFrozen(): Boolean = frozen != null
+
+    /**
+     * Clears this context's cache and drops any snapshot published by [freeze]. Other contexts
+     * keep their entries.
+     */
+    fun clearCache() {
+        frozen = null
+        cache.clear()
+        annotated.clear()
+        synchronized(scannedAnnotations) {
+            scannedAnnotations.clear()
+        }
+        Portrait.clearIdentityCache()
+    }
+
+    /**
+     * Returns a snapshot of this context's cache counters.
+     *
+     * @return Current cache statistics
+     */
+    fun cacheStats(): PortraitCacheStats = cache.stats()
+
+    override fun toString(): String {
+        return "PortraitContext(classLoader=${classLoader ?: "default"})"
+    }
+
+    private data class ResolutionKey(val context: PortraitContext, val className: String)
+
+    /**
+     * Stack entry for a running batch. Lookups nested in a batch count as nested, but a batch
+     * member is only reported as a cycle once its own [load] is on the stack.
+     */
+    private object BatchEntry
+
+    private companion object {
+        /**
+         * Lookups the current thread is resolving across all contexts, innermost last: a
+         * [ResolutionKey] per [load] and a [BatchEntry] per batch. Used to detect cycles and to tell
+         * top-level from nested lookups.
+         */
+        private val resolutionStack = object : ThreadLocal<MutableList<Any>>() {
+            override fun initialValue(): MutableList<Any> = ArrayList()
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package tech.kaffa.portrait
+
+/**
+ * What a frozen registry does with a lookup for a name that was not resolved before
+ * [Portrait.freeze].
+ */
+enum class PortraitFreezePolicy {
+    /** Resolve the name through the providers and the regular cache, as before the freeze. */
+    FALLBACK,
+
+    /** Treat the name as missing: `forName` throws and `forNameOrNull` returns `null`. */
+    FAIL,
+
+    /**
+     * Like [FALLBACK], but first report the name to the installed
+     * [tech.kaffa.portrait.metrics.PortraitMetrics.onFrozenMiss] listener, once per name. Nothing is
+     * logged: without a registered listener this behaves exactly like [FALLBACK].
+     */
+    REPORT
+}
@@ -0,0 +1,54 @@
+package tech.kaffa.portrait
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+
+/**
+ * Completion handle returned by [Portrait.preload].
+ *
+ * Preloading is best-effort: classes that fail to resolve are counted in
+ * [PreloadStats.classesFailed] rather than aborting the run. [await] only throws if the run
+ * itself could not be carried out, for example when no provider is available.
+ *
+ * Waiting parks on a [CompletableFuture] rather than an object monitor, so a virtual thread
+ * awaiting a preload does not pin its carrier.
+ */
+class PreloadHandle internal constructor() {
+
+    private val result = CompletableFuture<PreloadStats>()
+
+    /**
+     * Whether the preload run has finished, successfully or not.
+     */
+    val isDone: Boolean
+        get() = result.isDone
+
+    /**
+     * Returns the statistics of a finished run, or `null` while it is still in progress or if
+     * it failed.
+     */
+    fun statsOrNull(): PreloadStats? =
+        if (result.isDone && !result.isCompletedExceptionally) result.join() else null
+
+    /**
+     * Blocks until the preload run finishes and returns its statistics.
+     *
+     * @return Statistics of the completed run
+     * @throws IllegalStateException if the run failed
+     */
+    fun await(): PreloadStats {
+        try {
+            return result.join()
+        } catch (e: CompletionException) {
+            throw IllegalStateException("Preload failed", e.cause ?: e)
+        }
+    }
+
+    internal fun complete(stats: PreloadStats) {
+        result.complete(stats)
+    }
+
+    internal fun fail(error: Throwable) {
+        result.completeExceptionally(error)
+    }
+}
@@ -0,0 +1,16 @@
+package tech.kaffa.portrait
+
+/**
+ * Summary of a [Portrait.preload] run.
+ *
+ * @param classesLoaded Classes resolved and materialised
+ * @param classesFailed Classes that matched the filter but could not be resolved or materialised
+ * @param bytesDecoded Serialized metadata bytes decoded while materialising
+ * @param elapsedNanos Wall-clock duration of the run in nanoseconds
+ */
+data class PreloadStats(
+    val classesLoaded: Int,
+    val classesFailed: Int,
+    val bytesDecoded: Long,
+    val elapsedNanos: Long
+)
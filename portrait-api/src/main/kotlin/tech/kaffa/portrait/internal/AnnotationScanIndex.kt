@@ -0,0 +1,49 @@
+package tech.kaffa.portrait.internal
+
+import tech.kaffa.portrait.PAnnotatedElement
+import tech.kaffa.portrait.PAnnotation
+import tech.kaffa.portrait.PClass
+
+/**
+ * Reverse annotation index built by scanning resolved descriptors, for providers that enumerate
+ * their classes but do not ship an index of their own.
+ *
+ * Every class, constructor, method and field of [classes] is visited once; afterwards lookups are
+ * a single map access.
+ *
+ * @param classes Descriptors to scan
+ */
+internal class AnnotationScanIndex(classes: Collection<PClass<*>>) {
+
+    private val elements = HashMap<String, MutableList<PAnnotatedElement>>()
+
+    init {
+        for (pClass in classes) {
+            val className = pClass.qualifiedName
+            add(pClass.annotations, PAnnotatedElement(className, PAnnotatedElement.Kind.CLASS))
+            pClass.constructors.forEachIndexed { index, constructor ->
+                add(constructor.annotations, PAnnotatedElement(className, PAnnotatedElement.Kind.CONSTRUCTOR, index))
+            }
+            pClass.methods.forEachIndexed { index, method ->
+                add(method.annotations, PAnnotatedElement(className, PAnnotatedElement.Kind.METHOD, index))
+            }
+            pClass.fields.forEachIndexed { index, field ->
+                add(field.annotations, PAnnotatedElement(className, PAnnotatedElement.Kind.FIELD, index))
+            }
+        }
+    }
+
+    fun annotatedWith(annotationClassName: String): List<PAnnotatedElement> {
+        return elements[annotationClassName] ?: emptyList()
+    }
+
+    private fun add(annotations: List<PAnnotation<*>>, element: PAnnotatedElement) {
+        for (annotation in annotations) {
+            val annotated = elements.getOrPut(annotation.annotationClass.qualifiedName) { ArrayList() }
+            // Repeated annotations list their element once
+            if (annotated.lastOrNull() != element) {
+                annotated.add(element)
+            }
+        }
+    }
+}
@@ -13,7 +13,7 @@ import tech.kaffa.portrait.proxy.ProxyHandler
  */
 internal class ArrayPClass<T : Any>(private val arrayTypeName: String) : PClass<T>() {
 
-    override val simpleName: String by lazy {
+    override val simpleName: String by lazy(LazyThreadSafetyMode.PUBLICATION) {
         val (component, dims) = splitArray(arrayTypeName)
         primitiveMap.getOrElse(component) {
             component
@@ -32,10 +32,10 @@ internal class ArrayPClass<T : Any>(private val arrayTypeName: String) : PClass<
     override val isEnum: Boolean = false
     override val objectInstance: T? = null
     override val enumConstants: Array<T>? = null
-    override val superclass: PClass<*> by lazy {
+    override val superclass: PClass<*> by lazy(LazyThreadSafetyMode.PUBLICATION) {
         Portrait.forNameOrUnresolved(OBJECT_CLASS_NAME)
     }
-    override val interfaces: List<PClass<*>> by lazy {
+    override val interfaces: List<PClass<*>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
         listOf(
             Portrait.forNameOrUnresolved(CLONEABLE_CLASS_NAME),
             Portrait.forNameOrUnresolved(SERIALIZABLE_CLASS_NAME)
@@ -0,0 +1,54 @@
+package tech.kaffa.portrait.internal
+
+/**
+ * Constructor chosen by `newInstance(vararg)` for each tuple of argument classes.
+ *
+ * Entries sit in a small copy-on-write array that lookups scan without locking, comparing argument
+ * classes by identity. The first [capacity] tuples are kept; further tuples are selected again on
+ * every call rather than displacing them. Failed selections are not stored: arguments that match
+ * no constructor are searched again, and fail again, on every call. Racing writers may drop each
+ * other's entry, which only costs that tuple another selection.
+ *
+ * @param capacity Maximum number of argument tuples to remember
+ */
+class ConstructorSelectionCache(private val capacity: Int = DEFAULT_CAPACITY) {
+
+    @Volatile
+    private var entries: Array<Entry> = emptyArray()
+
+    /**
+     * Returns the constructor index for the classes of [args], asking [select] on a miss.
+     *
+     * @param select Index of the constructor that accepts [args], or a negative value when none does
+     */
+    fun indexOf(args: Array<out Any?>, select: (Array<out Any?>) -> Int): Int {
+        val current = entries
+        for (entry in current) {
+            if (entry.matches(args)) return entry.index
+        }
+
+        val index = select(args)
+        if (index >= 0 && current.size < capacity) {
+            entries = current + Entry(Array(args.size) { args[it]?.javaClass }, index)
+        }
+        return index
+    }
+
+    /**
+     * Runtime classes of constructor arguments, null for null arguments, and the index they select.
+     */
+    private class Entry(private val types: Array<Class<*>?>, val index: Int) {
+
+        fun matches(args: Array<out Any?>): Boolean {
+            if (types.size != args.size) return false
+            for (i in types.indices) {
+                if (types[i] !== args[i]?.javaClass) return false
+            }
+            return true
+        }
+    }
+
+    companion object {
+        const val DEFAULT_CAPACITY = 16
+    }
+}
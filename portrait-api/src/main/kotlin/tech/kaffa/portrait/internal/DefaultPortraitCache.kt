@@ -0,0 +1,188 @@
+package tech.kaffa.portrait.internal
+
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PortraitCachePolicy
+import tech.kaffa.portrait.PortraitCacheStats
+import tech.kaffa.portrait.provider.PortraitCache
+import java.lang.ref.Reference
+import java.lang.ref.ReferenceQueue
+import java.lang.ref.SoftReference
+import java.lang.ref.WeakReference
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Built-in [PortraitCache] driven by a [PortraitCachePolicy].
+ *
+ * Resolved descriptors live in a concurrent map, either directly or behind weak/soft references.
+ * Misses live in a separately bounded, access-ordered map so that arbitrary lookup strings cannot
+ * grow the heap without limit; each miss keeps one canonical [UnresolvedPClass].
+ *
+ * @param policy Limits and reference strength to apply
+ * @param clock Millisecond time source used for miss expiry
+ */
+internal class DefaultPortraitCache(
+    private val policy: PortraitCachePolicy,
+    private val clock: () -> Long = { System.currentTimeMillis() }
+) : PortraitCache {
+
+    private val hits = AtomicLong()
+    private val misses = AtomicLong()
+    private val evictions = AtomicLong()
+
+    private val resolved = ConcurrentHashMap<String, Any>()
+    private val queue = ReferenceQueue<PClass<*>>()
+    private val missing = MissingEntries(policy.maxMissingEntries)
+
+    override fun get(className: String): PClass<*>? = lookup(className, counted = true)
+
+    override fun peek(className: String): PClass<*>? = lookup(className, counted = false)
+
+    private fun lookup(className: String, counted: Boolean): PClass<*>? {
+        expungeCollected()
+
+        val entry = resolved[className]
+        if (entry != null) {
+            val value = unwrap(entry)
+            if (value != null) {
+                if (counted) hits.incrementAndGet()
+                return value
+            }
+            if (resolved.remove(className, entry)) {
+                evictions.incrementAndGet()
+            }
+        }
+
+        val unresolved = synchronized(missing) { lookupMissing(className) }
+        if (unresolved != null) {
+            if (counted) hits.incrementAndGet()
+            return unresolved
+        }
+
+        if (counted) misses.incrementAndGet()
+        return null
+    }
+
+    override fun putResolved(className: String, pClass: PClass<*>): PClass<*> {
+        expungeCollected()
+
+        val entry = wrap(className, pClass)
+        while (true) {
+            val existing = resolved.putIfAbsent(className, entry) ?: return pClass
+            val live = unwrap(existing)
+            if (live != null) {
+                return live
+            }
+            if (resolved.replace(className, existing, entry)) {
+                evictions.incrementAndGet()
+                return pClass
+            }
+        }
+    }
+
+    override fun putMissing(className: String): PClass<*> {
+        synchronized(missing) {
+            lookupMissing(className)?.let { return it }
+
+            val unresolved = UnresolvedPClass<Any>(className)
+            if (policy.maxMissingEntries > 0) {
+                missing[className] = MissingEntry(unresolved, clock())
+            }
+            return unresolved
+        }
+    }
+
+    override fun resolvedEntries(): Map<String, PClass<*>> {
+        val snapshot = HashMap<String, PClass<*>>(resolved.size)
+        for ((className, entry) in resolved) {
+            val value = unwrap(entry) ?: continue
+            snapshot[className] = value
+        }
+        return snapshot
+    }
+
+    override fun clear() {
+        resolved.clear()
+        synchronized(missing) { missing.clear() }
+        while (queue.poll() != null) {
+            // Drain references to entries that no longer exist
+        }
+    }
+
+    override fun stats(): PortraitCacheStats {
+        val missingCount = synchronized(missing) { missing.size }
+        return PortraitCacheStats(
+            hits = hits.get(),
+            misses = misses.get(),
+            evictions = evictions.get(),
+            resolvedEntries = resolved.size,
+            missingEntries = missingCount
+        )
+    }
+
+    /**
+     * Must be called while holding the [missing] lock.
+     */
+    private fun lookupMissing(className: String): UnresolvedPClass<*>? {
+        val entry = missing[className] ?: return null
+        val ttl = policy.missingEntryTtlMillis
+        if (ttl > 0 && clock() - entry.createdAt >= ttl) {
+            missing.remove(className)
+            evictions.incrementAndGet()
+            return null
+        }
+        return entry.unresolved
+    }
+
+    private fun wrap(className: String, pClass: PClass<*>): Any {
+        return when (policy.valueReferences) {
+            PortraitCachePolicy.ValueReferences.STRONG -> pClass
+            PortraitCachePolicy.ValueReferences.WEAK -> WeakEntry(className, pClass, queue)
+            PortraitCachePolicy.ValueReferences.SOFT -> SoftEntry(className, pClass, queue)
+        }
+    }
+
+    private fun unwrap(entry: Any): PClass<*>? {
+        return if (entry is Reference<*>) entry.get() as PClass<*>? else entry as PClass<*>
+    }
+
+    private fun expungeCollected() {
+        while (true) {
+            val reference = queue.poll() ?: return
+            val className = (reference as KeyedEntry).className
+            if (resolved.remove(className, reference)) {
+                evictions.incrementAndGet()
+            }
+        }
+    }
+
+    private interface KeyedEntry {
+        val className: String
+    }
+
+    private class WeakEntry(
+        override val className: String,
+        value: PClass<*>,
+        queue: ReferenceQueue<PClass<*>>
+    ) : WeakReference<PClass<*>>(value, queue), KeyedEntry
+
+    private class SoftEntry(
+        override val className: String,
+        value: PClass<*>,
+        queue: ReferenceQueue<PClass<*>>
+    ) : SoftReference<PClass<*>>(value, queue), KeyedEntry
+
+    private class MissingEntry(val unresolved: UnresolvedPClass<*>, val createdAt: Long)
+
+    private inner class MissingEntries(private val capacity: Int) :
+        LinkedHashMap<String, MissingEntry>(16, 0.75f, true) {
+
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, MissingEntry>): Boolean {
+            val evict = size > capacity
+            if (evict) {
+                evictions.incrementAndGet()
+            }
+            return evict
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package tech.kaffa.portrait.internal
+
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PortraitFreezePolicy
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Immutable snapshot of resolved descriptors published by `PortraitContext.freeze`.
+ *
+ * Names live in an open-addressing table with linear probing, sized to a power of two at most half
+ * full. Keys and values sit in parallel arrays that are never written after construction, so
+ * lookups take no locks, allocate nothing and usually touch a single slot. Descriptors that carry a
+ * provider-assigned id are also kept in a sorted id array, so [forId] is a binary search.
+ *
+ * @param entries Resolved descriptors keyed by class name
+ * @param policy How lookups for names outside the snapshot are handled
+ * @param reporter Receives the names missed under [PortraitFreezePolicy.REPORT]; the metrics listener by default
+ */
+internal class FrozenPortraitTable(
+    entries: Map<String, PClass<*>>,
+    val policy: PortraitFreezePolicy,
+    private val reporter: (String) -> Unit = ::reportToMetrics
+) {
+
+    private val mask: Int
+    private val keys: Array<String?>
+    private val values: Array<PClass<*>?>
+
+    /**
+     * Names outside the snapshot that were already reported under [PortraitFreezePolicy.REPORT], at most
+     * [MAX_REPORTED_NAMES]; once full, further names are reported without being remembered.
+     */
+    private val reported = ConcurrentHashMap.newKeySet<String>()
+
+    /** Ids of the numbered descriptors in ascending order, parallel to [idValues] */
+    private val ids: IntArray
+    private val idValues: Array<PClass<*>>
+
+    val size: Int = entries.size
+
+    init {
+        val capacity = Integer.highestOneBit(maxOf(entries.size * 2 - 1, 1)) shl 1
+        mask = capacity - 1
+        keys = arrayOfNulls(capacity)
+        values = arrayOfNulls(capacity)
+        for ((className, pClass) in entries) {
+            var slot = spread(className.hashCode()) and mask
+            while (keys[slot] != null) {
+                slot = (slot + 1) and mask
+            }
+            keys[slot] = className
+            values[slot] = pClass
+        }
+        val numbered = entries.values.filter { it.id != PClass.NO_ID }.sortedBy { it.id }.distinctBy { it.id }
+        ids = IntArray(numbered.size) { numbered[it].id }
+        idValues = numbered.toTypedArray()
+    }
+
+    fun get(className: String): PClass<*>? {
+        var slot = spread(className.hashCode()) and mask
+        while (true) {
+            val key = keys[slot] ?: return null
+            if (key == className) return values[slot]
+            slot = (slot + 1) and mask
+        }
+    }
+
+    fun forId(id: Int): PClass<*>? {
+        val index = ids.binarySearch(id)
+        return if (index >= 0) idValues[index] else null
+    }
+
+    fun entries(): MutableMap<String, PClass<*>> {
+        val entries = HashMap<String, PClass<*>>(size)
+        for (slot in keys.indices) {
+            val key = keys[slot] ?: continue
+            entries[key] = values[slot]!!
+        }
+        return entries
+    }
+
+    /**
+     * Applies [policy] to a lookup of [className] that missed the snapshot.
+     *
+     * @return Whether the lookup may continue through the regular resolution path
+     */
+    fun admitsMiss(className: String): Boolean {
+        return when (policy) {
+            PortraitFreezePolicy.FALLBACK -> true
+            PortraitFreezePolicy.FAIL -> false
+            PortraitFreezePolicy.REPORT -> {
+                if (className !in reported) {
+                    if (reported.size < MAX_REPORTED_NAMES) reported.add(className)
+                    reporter(className)
+                }
+                true
+            }
+        }
+    }
+
+    private fun spread(hash: Int): Int = hash xor (hash ushr 16)
+
+    companion object {
+        /** Bound of the deduplication set, so a stream of distinct misses cannot grow it without limit */
+        const val MAX_REPORTED_NAMES = 4096
+
+        private fun reportToMetrics(className: String) {
+            if (PortraitMetricsRegistry.enabled) PortraitMetricsRegistry.listener.onFrozenMiss(className)
+        }
+    }
+}
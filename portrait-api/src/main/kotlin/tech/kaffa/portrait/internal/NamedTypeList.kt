@@ -0,0 +1,39 @@
+package tech.kaffa.portrait.internal
+
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PortraitContext
+
+/**
+ * Read-only list of the types named by [names], each looked up through [context] when read.
+ *
+ * Lets a long-lived descriptor expose its parameter or supertype lists without keeping other types'
+ * descriptors: the list holds names only, is created once, and every element read goes through the
+ * context's cache. Signature matching uses [matches], which compares names and resolves nothing for
+ * the common case.
+ */
+class NamedTypeList(
+    val names: List<String>,
+    private val context: PortraitContext
+) : AbstractList<PClass<*>>() {
+
+    override val size: Int get() = names.size
+
+    override fun get(index: Int): PClass<*> = context.forNameOrUnresolved(names[index])
+
+    /**
+     * Returns whether the types of this list equal [expected], element by element, for as many
+     * elements as [expected] has.
+     */
+    fun matches(expected: Array<out PClass<*>>): Boolean {
+        for (i in expected.indices) {
+            val name = names[i]
+            if (name == expected[i].qualifiedName) continue
+            // Metadata spells arrays in source form and descriptors may not; compare resolved types
+            if (isArrayName(name) && get(i) == expected[i]) continue
+            return false
+        }
+        return true
+    }
+
+    private fun isArrayName(name: String): Boolean = name.endsWith("[]") || name.startsWith("[")
+}
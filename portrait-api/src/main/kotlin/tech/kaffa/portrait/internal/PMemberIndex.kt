@@ -0,0 +1,67 @@
+package tech.kaffa.portrait.internal
+
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PConstructor
+import tech.kaffa.portrait.PField
+import tech.kaffa.portrait.PMethod
+
+/**
+ * Lookup tables over the declared members of a [PClass], built once on first use.
+ *
+ * Methods are grouped by name and then by arity, constructors by arity, and fields by name, so a
+ * signature lookup only compares parameter descriptors of members that can possibly match. Parameter
+ * lists that are [NamedTypeList]s are compared by name, without resolving their types.
+ * Within a bucket members keep the order of the descriptor's lists, which keeps lookups
+ * deterministic when a provider exposes several members with the same signature.
+ */
+internal class PMemberIndex<T : Any>(pClass: PClass<T>) {
+
+    private val constructorsByArity: Array<List<PConstructor<T>>> =
+        bucketByArity(pClass.constructors) { it.parameterCount }
+
+    private val methodsByName: Map<String, Overloads> = pClass.methods
+        .groupByTo(HashMap()) { it.name }
+        .mapValuesTo(HashMap(pClass.methods.size)) { (_, overloads) -> Overloads(overloads) }
+
+    private val fieldsByName: Map<String, PField> = HashMap<String, PField>(pClass.fields.size).also { index ->
+        // Keep the first field for a name, matching a linear scan
+        pClass.fields.forEach { field -> index.putIfAbsent(field.name, field) }
+    }
+
+    fun constructor(parameterTypes: Array<out PClass<*>>): PConstructor<T>? {
+        if (parameterTypes.size >= constructorsByArity.size) return null
+        return constructorsByArity[parameterTypes.size].firstOrNull { it.parameterTypes.matches(parameterTypes) }
+    }
+
+    fun methodsNamed(name: String): List<PMethod> = methodsByName[name]?.all ?: emptyList()
+
+    fun method(name: String, parameterTypes: Array<out PClass<*>>): PMethod? {
+        val overloads = methodsByName[name] ?: return null
+        if (parameterTypes.size >= overloads.byArity.size) return null
+        return overloads.byArity[parameterTypes.size].firstOrNull { it.parameterTypes.matches(parameterTypes) }
+    }
+
+    fun field(name: String): PField? = fieldsByName[name]
+
+    private class Overloads(val all: List<PMethod>) {
+        val byArity: Array<List<PMethod>> = bucketByArity(all) { it.parameterCount }
+    }
+
+    private companion object {
+        inline fun <M> bucketByArity(members: List<M>, arity: (M) -> Int): Array<List<M>> {
+            val arities = IntArray(members.size) { arity(members[it]) }
+            val buckets = Array(if (members.isEmpty()) 0 else arities.max() + 1) { ArrayList<M>(1) }
+            members.forEachIndexed { index, member -> buckets[arities[index]].add(member) }
+            @Suppress("UNCHECKED_CAST")
+            return buckets as Array<List<M>>
+        }
+
+        fun List<PClass<*>>.matches(expected: Array<out PClass<*>>): Boolean {
+            if (this is NamedTypeList) return matches(expected)
+            for (i in expected.indices) {
+                if (this[i] != expected[i]) return false
+            }
+            return true
+        }
+    }
+}
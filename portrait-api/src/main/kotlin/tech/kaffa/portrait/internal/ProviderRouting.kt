@@ -0,0 +1,101 @@
+package tech.kaffa.portrait.internal
+
+import tech.kaffa.portrait.provider.PortraitProvider
+import java.util.Arrays
+import java.util.IdentityHashMap
+
+/**
+ * Routing index that narrows the providers consulted for a class name.
+ *
+ * Providers that enumerate their classes via [PortraitProvider.knownClassNames] are only
+ * consulted for those names; open-ended providers are consulted for every name. Candidate lists
+ * keep the priority order of [providers], so routing never changes which provider wins.
+ *
+ * Building the index also checks that no two providers report the same
+ * [PortraitProvider.idNamespace]: ids of such providers collide, and `forId` would silently
+ * answer with whichever provider comes first.
+ *
+ * @param providers Providers sorted by descending priority
+ * @throws IllegalStateException if two providers share an id namespace
+ */
+internal class ProviderRouting(providers: List<PortraitProvider>) {
+
+    private val openProviders: List<PortraitProvider>
+    private val claims = IdentityHashMap<PortraitProvider, Set<String>>()
+    private val routes = HashMap<String, List<PortraitProvider>>()
+    private val sortedNames: Array<String>
+
+    init {
+        val namespaces = HashMap<Int, PortraitProvider>()
+        for (provider in providers) {
+            val namespace = provider.idNamespace() ?: continue
+            val other = namespaces.put(namespace, provider) ?: continue
+            throw IllegalStateException(
+                "${other.javaClass.name} and ${provider.javaClass.name} both assign class ids in namespace " +
+                    "$namespace; generate them with distinct --id-namespace values"
+            )
+        }
+
+        for (provider in providers) {
+            val known = provider.knownClassNames() ?: continue
+            claims[provider] = HashSet(known)
+        }
+        openProviders = providers.filter { it !in claims }
+
+        // Names claimed by the same closed providers share one candidate list
+        val claimants = HashMap<String, MutableList<PortraitProvider>>()
+        for (provider in providers) {
+            val known = claims[provider] ?: continue
+            for (className in known) {
+                claimants.getOrPut(className) { ArrayList(1) }.add(provider)
+            }
+        }
+        val candidateLists = HashMap<List<PortraitProvider>, List<PortraitProvider>>()
+        for ((className, claimedBy) in claimants) {
+            routes[className] = candidateLists.getOrPut(claimedBy) {
+                providers.filter { it in claimedBy || it !in claims }
+            }
+        }
+
+        sortedNames = claimants.keys.toTypedArray().also { Arrays.sort(it) }
+    }
+
+    /**
+     * Returns the providers to consult for [className], in priority order.
+     */
+    fun providersFor(className: String): List<PortraitProvider> {
+        return routes[className] ?: openProviders
+    }
+
+    /**
+     * Returns whether [provider] can possibly resolve [className].
+     */
+    fun isCandidate(provider: PortraitProvider, className: String): Boolean {
+        val known = claims[provider] ?: return true
+        return className in known
+    }
+
+    /**
+     * Returns the class names [provider] enumerated, or null if it is open-ended.
+     */
+    fun claimedBy(provider: PortraitProvider): Set<String>? = claims[provider]
+
+    /**
+     * Returns the enumerated class names starting with [prefix], in lexicographic order.
+     */
+    fun knownClassNames(prefix: String): List<String> {
+        if (prefix.isEmpty()) {
+            return sortedNames.asList()
+        }
+        var index = Arrays.binarySearch(sortedNames, prefix)
+        if (index < 0) {
+            index = -index - 1
+        }
+        val result = ArrayList<String>()
+        while (index < sortedNames.size && sortedNames[index].startsWith(prefix)) {
+            result.add(sortedNames[index])
+            index++
+        }
+        return result
+    }
+}
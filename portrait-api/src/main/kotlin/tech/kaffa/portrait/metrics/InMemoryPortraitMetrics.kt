@@ -0,0 +1,101 @@
+package tech.kaffa.portrait.metrics
+
+import tech.kaffa.portrait.PConstructor
+import tech.kaffa.portrait.PField
+import tech.kaffa.portrait.PMethod
+import tech.kaffa.portrait.provider.PortraitProvider
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * [PortraitMetrics] that aggregates events in memory: counters for cache and invocation
+ * events and [LatencyHistogram]s for provider lookups and metadata decoding.
+ *
+ * Register it via ServiceLoader and read it back through [PortraitMetricsRegistry.listener]:
+ * ```kotlin
+ * val metrics = PortraitMetricsRegistry.listener as InMemoryPortraitMetrics
+ * println(metrics.providerLookups)
+ * ```
+ */
+class InMemoryPortraitMetrics : PortraitMetrics {
+
+    private val cacheHitCount = AtomicLong()
+    private val cacheMissCount = AtomicLong()
+    private val decodedByteCount = AtomicLong()
+    private val methodInvocationCount = AtomicLong()
+    private val constructorInvocationCount = AtomicLong()
+    private val fieldReadCount = AtomicLong()
+    private val fieldWriteCount = AtomicLong()
+    private val proxyDispatchCount = AtomicLong()
+    private val frozenMissCount = AtomicLong()
+    private val lookupHistograms = ConcurrentHashMap<String, LatencyHistogram>()
+
+    /** Time spent decoding class metadata. */
+    val metadataDecoding = LatencyHistogram()
+
+    val cacheHits: Long get() = cacheHitCount.get()
+    val cacheMisses: Long get() = cacheMissCount.get()
+    val decodedBytes: Long get() = decodedByteCount.get()
+    val methodInvocations: Long get() = methodInvocationCount.get()
+    val constructorInvocations: Long get() = constructorInvocationCount.get()
+    val fieldReads: Long get() = fieldReadCount.get()
+    val fieldWrites: Long get() = fieldWriteCount.get()
+    val proxyDispatches: Long get() = proxyDispatchCount.get()
+    val frozenMisses: Long get() = frozenMissCount.get()
+
+    /** Provider lookup latency keyed by provider class name. */
+    val providerLookups: Map<String, LatencyHistogram> get() = HashMap(lookupHistograms)
+
+    override fun onCacheHit(className: String) {
+        cacheHitCount.incrementAndGet()
+    }
+
+    override fun onCacheMiss(className: String) {
+        cacheMissCount.incrementAndGet()
+    }
+
+    override fun onProviderLookup(provider: PortraitProvider, className: String, resolved: Boolean, elapsedNanos: Long) {
+        lookupHistograms.getOrPut(provider.javaClass.name) { LatencyHistogram() }.record(elapsedNanos)
+    }
+
+    override fun onMetadataDecoded(className: String, byteCount: Int, elapsedNanos: Long) {
+        decodedByteCount.addAndGet(byteCount.toLong())
+        metadataDecoding.record(elapsedNanos)
+    }
+
+    override fun onFrozenMiss(className: String) {
+        frozenMissCount.incrementAndGet()
+    }
+
+    override fun onMethodInvoked(method: PMethod) {
+        methodInvocationCount.incrementAndGet()
+    }
+
+    override fun onConstructorInvoked(constructor: PConstructor<*>) {
+        constructorInvocationCount.incrementAndGet()
+    }
+
+    override fun onFieldRead(field: PField) {
+        fieldReadCount.incrementAndGet()
+    }
+
+    override fun onFieldWritten(field: PField) {
+        fieldWriteCount.incrementAndGet()
+    }
+
+    override fun onProxyDispatch(method: PMethod) {
+        proxyDispatchCount.incrementAndGet()
+    }
+
+    /**
+     * Resets every counter and histogram.
+     */
+    fun reset() {
+        listOf(
+            cacheHitCount, cacheMissCount, decodedByteCount, methodInvocationCount,
+            constructorInvocationCount, fieldReadCount, fieldWriteCount, proxyDispatchCount, frozenMissCount
+        ).forEach { it.set(0) }
+        lookupHistograms.clear()
+        metadataDecoding.reset()
+    }
+}
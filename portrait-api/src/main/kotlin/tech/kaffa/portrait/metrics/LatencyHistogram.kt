@@ -0,0 +1,96 @@
+package tech.kaffa.portrait.metrics
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * Lock-free histogram of durations with power-of-two nanosecond buckets.
+ *
+ * Bucket `i` counts samples in `[2^(i-1), 2^i)` nanoseconds (bucket 0 holds zero), so percentiles are reported as
+ * the upper bound of the bucket they fall in, i.e. within a factor of two of the true value.
+ */
+class LatencyHistogram {
+
+    private val buckets = AtomicLongArray(BUCKET_COUNT)
+    private val totalCount = AtomicLong()
+    private val totalNanos = AtomicLong()
+    private val maxSample = AtomicLong()
+
+    /**
+     * Records one sample.
+     *
+     * @param nanos Duration in nanoseconds; negative values are recorded as zero
+     */
+    fun record(nanos: Long) {
+        val value = if (nanos < 0) 0 else nanos
+        buckets.incrementAndGet(bucketOf(value))
+        totalCount.incrementAndGet()
+        totalNanos.addAndGet(value)
+        while (true) {
+            val max = maxSample.get()
+            if (value <= max || maxSample.compareAndSet(max, value)) break
+        }
+    }
+
+    /** Number of recorded samples. */
+    val count: Long get() = totalCount.get()
+
+    /** Sum of all recorded durations in nanoseconds. */
+    val sumNanos: Long get() = totalNanos.get()
+
+    /** Largest recorded duration in nanoseconds. */
+    val maxNanos: Long get() = maxSample.get()
+
+    /** Mean duration in nanoseconds, or 0 when empty. */
+    val meanNanos: Double
+        get() {
+            val samples = count
+            return if (samples == 0L) 0.0 else sumNanos.toDouble() / samples
+        }
+
+    /**
+     * Returns an upper bound for the given percentile.
+     *
+     * @param percentile Value between 0 and 100
+     * @return Upper bound in nanoseconds of the bucket holding the percentile, or 0 when empty
+     */
+    fun percentileNanos(percentile: Double): Long {
+        require(percentile in 0.0..100.0) { "percentile must be within 0..100: $percentile" }
+        val samples = count
+        if (samples == 0L) return 0
+        val rank = maxOf(1L, Math.ceil(samples * percentile / 100.0).toLong())
+        var seen = 0L
+        for (i in 0 until BUCKET_COUNT) {
+            seen += buckets.get(i)
+            if (seen >= rank) {
+                return minOf(upperBoundOf(i), maxNanos)
+            }
+        }
+        return maxNanos
+    }
+
+    /**
+     * Discards every recorded sample.
+     */
+    fun reset() {
+        for (i in 0 until BUCKET_COUNT) {
+            buckets.set(i, 0)
+        }
+        totalCount.set(0)
+        totalNanos.set(0)
+        maxSample.set(0)
+    }
+
+    override fun toString(): String {
+        return "LatencyHistogram(count=$count, mean=${meanNanos}ns, p50=${percentileNanos(50.0)}ns, " +
+            "p99=${percentileNanos(99.0)}ns, max=${maxNanos}ns)"
+    }
+
+    private fun bucketOf(nanos: Long): Int = 64 - java.lang.Long.numberOfLeadingZeros(nanos)
+
+    private fun upperBoundOf(bucket: Int): Long = (1L shl bucket) - 1
+
+    private companion object {
+        const val BUCKET_COUNT = 64
+    }
+}
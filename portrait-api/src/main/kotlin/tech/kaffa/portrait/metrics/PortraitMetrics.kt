@@ -0,0 +1,88 @@
+package tech.kaffa.portrait.metrics
+
+import tech.kaffa.portrait.PConstructor
+import tech.kaffa.portrait.PField
+import tech.kaffa.portrait.PMethod
+import tech.kaffa.portrait.provider.PortraitProvider
+
+/**
+ * Optional listener that receives resolution, decoding and invocation events from Portrait and
+ * its runtimes.
+ *
+ * The first implementation discovered via ServiceLoader is installed once, when
+ * [PortraitMetricsRegistry] is initialised. Without one, every hook is guarded by the constant
+ * [PortraitMetricsRegistry.enabled] flag, which the JIT folds away.
+ *
+ * Callbacks run on the thread that triggered the event and may be invoked concurrently, so
+ * implementations must be thread-safe and cheap. Every callback defaults to a no-op.
+ *
+ * Example registration:
+ * ```
+ * // In META-INF/services/tech.kaffa.portrait.metrics.PortraitMetrics
+ * tech.kaffa.portrait.metrics.InMemoryPortraitMetrics
+ * ```
+ */
+interface PortraitMetrics {
+
+    /**
+     * A class name lookup was answered from the registry cache, or a class lookup from the
+     * runtime's identity cache.
+     */
+    fun onCacheHit(className: String) {}
+
+    /**
+     * A class name lookup was not cached and had to consult the providers.
+     */
+    fun onCacheMiss(className: String) {}
+
+    /**
+     * A provider was asked to resolve [className]. When several names are offered to a provider in
+     * one batch, each of them is reported with an even share of the batch's time.
+     *
+     * @param provider Provider that was consulted
+     * @param className Requested class name
+     * @param resolved Whether the provider returned a descriptor
+     * @param elapsedNanos Time spent in the provider
+     */
+    fun onProviderLookup(provider: PortraitProvider, className: String, resolved: Boolean, elapsedNanos: Long) {}
+
+    /**
+     * Serialized class metadata was decoded.
+     *
+     * @param className Class whose metadata was decoded
+     * @param byteCount Size of the decoded metadata in bytes
+     * @param elapsedNanos Time spent decoding
+     */
+    fun onMetadataDecoded(className: String, byteCount: Int, elapsedNanos: Long) {}
+
+    /**
+     * A frozen registry with the [tech.kaffa.portrait.PortraitFreezePolicy.REPORT] policy was asked
+     * for [className], which was not resolved before the freeze. Reported once per name.
+     */
+    fun onFrozenMiss(className: String) {}
+
+    /**
+     * A method was invoked through [PMethod.invoke].
+     */
+    fun onMethodInvoked(method: PMethod) {}
+
+    /**
+     * A constructor was invoked through [PConstructor.newInstance].
+     */
+    fun onConstructorInvoked(constructor: PConstructor<*>) {}
+
+    /**
+     * A field was read through [PField.get].
+     */
+    fun onFieldRead(field: PField) {}
+
+    /**
+     * A field was written through [PField.set].
+     */
+    fun onFieldWritten(field: PField) {}
+
+    /**
+     * A proxy forwarded a call for [method] to its handler.
+     */
+    fun onProxyDispatch(method: PMethod) {}
+}
@@ -0,0 +1,31 @@
+package tech.kaffa.portrait.metrics
+
+import java.util.ServiceLoader
+
+/**
+ * Holds the [PortraitMetrics] listener that runtimes report to.
+ *
+ * Both fields are static finals resolved once at class initialisation. Hooks are written as
+ * ```
+ * if (PortraitMetricsRegistry.enabled) PortraitMetricsRegistry.listener.onMethodInvoked(this)
+ * ```
+ * so that, with no listener installed, the JIT treats the branch as dead code and the hook
+ * costs nothing.
+ */
+object PortraitMetricsRegistry {
+
+    /**
+     * The installed listener, or a no-op when none was discovered.
+     */
+    @JvmField
+    val listener: PortraitMetrics = ServiceLoader.load(PortraitMetrics::class.java).firstOrNull()
+        ?: NoOpPortraitMetrics
+
+    /**
+     * Whether a listener is installed.
+     */
+    @JvmField
+    val enabled: Boolean = listener !== NoOpPortraitMetrics
+
+    private object NoOpPortraitMetrics : PortraitMetrics
+}
@@ -0,0 +1,56 @@
+package tech.kaffa.portrait.provider
+
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PortraitCachePolicy
+
+/**
+ * Optional service interface for caching [PClass] descriptors by the identity of their host [Class].
+ *
+ * `Portrait.of(Class)`, `Portrait.of(KClass)` and `Portrait.from(instance)` consult the first
+ * implementation discovered via ServiceLoader before falling back to the name-keyed registry. This
+ * lets runtimes that support `java.lang.ClassValue` resolve an existing `Class` object without
+ * hashing or comparing its name. Targets such as TeaVM or native images simply ship no
+ * implementation and keep using the name-keyed path.
+ *
+ * Implementations must only remember successful resolutions. Misses are reported by the resolver
+ * through exceptions, which must propagate without caching anything, so negative caching and
+ * `Portrait.clearCache()` keep their existing semantics. Descriptors are held with the reference
+ * strength of the configured [PortraitCachePolicy]. The cache only remembers descriptors that the
+ * context caches handed out, so a frozen context never sees a name it would not have served.
+ * Lookups answered here are not counted in `Portrait.cacheStats()`.
+ *
+ * Example registration:
+ * ```
+ * // In META-INF/services/tech.kaffa.portrait.provider.ClassIdentityCache
+ * com.example.MyClassIdentityCache
+ * ```
+ */
+interface ClassIdentityCache {
+
+    /**
+     * Returns the descriptor associated with [clazz], invoking [resolver] on the first request and
+     * remembering its result for subsequent calls.
+     *
+     * @param clazz Java class whose descriptor is requested
+     * @param resolver Fallback used when no descriptor is cached yet; throws when resolution fails
+     * @return The cached or freshly resolved descriptor
+     */
+    fun get(clazz: Class<*>, resolver: (Class<*>) -> PClass<*>): PClass<*>
+
+    /**
+     * Drops every cached association. Invoked by `Portrait.clearCache()`.
+     */
+    fun clear()
+
+    /**
+     * Applies the reference strength of [policy] and drops every cached association. Invoked when
+     * the cache is created and by `Portrait.configureCache`.
+     *
+     * The default implementation only calls [clear], keeping descriptors strongly reachable.
+     *
+     * @param policy Policy whose [PortraitCachePolicy.valueReferences] should be honoured
+     */
+    fun configure(policy: PortraitCachePolicy) {
+        clear()
+    }
+}
@@ -0,0 +1,81 @@
+package tech.kaffa.portrait.provider
+
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PortraitCacheStats
+
+/**
+ * Service interface for the name-keyed registry that backs `Portrait.forName` and friends.
+ *
+ * The registry stores two kinds of entries:
+ * - **Resolved** descriptors returned by a [PortraitProvider]
+ * - **Missing** names that no provider could resolve, represented by a canonical
+ *   `UnresolvedPClass` so repeated misses neither re-run providers nor allocate new placeholders
+ *
+ * The first implementation discovered via ServiceLoader replaces the built-in cache, whose
+ * behavior can otherwise be tuned with `Portrait.configureCache(PortraitCachePolicy)`.
+ * Implementations must be thread-safe.
+ *
+ * Example registration:
+ * ```
+ * // In META-INF/services/tech.kaffa.portrait.provider.PortraitCache
+ * com.example.MyPortraitCache
+ * ```
+ */
+interface PortraitCache {
+
+    /**
+     * Looks up an entry.
+     *
+     * @param className Fully qualified class name
+     * @return The resolved descriptor, the canonical unresolved placeholder for a known-missing
+     *         name, or `null` if nothing is cached
+     */
+    fun get(className: String): PClass<*>?
+
+    /**
+     * Looks up an entry like [get] without counting it in [stats]. Used to check the cache once
+     * more after a lookup has claimed a name, so that lookup is still counted once.
+     *
+     * The default implementation delegates to [get].
+     *
+     * @param className Fully qualified class name
+     * @return The same answer [get] would give
+     */
+    fun peek(className: String): PClass<*>? = get(className)
+
+    /**
+     * Records a resolved descriptor, keeping any live entry published concurrently.
+     *
+     * @param className Fully qualified class name
+     * @param pClass Descriptor returned by a provider
+     * @return The descriptor now associated with [className]
+     */
+    fun putResolved(className: String, pClass: PClass<*>): PClass<*>
+
+    /**
+     * Records that no provider can resolve [className].
+     *
+     * @param className Fully qualified class name
+     * @return The canonical unresolved placeholder for [className]
+     */
+    fun putMissing(className: String): PClass<*>
+
+    /**
+     * Returns a snapshot of the resolved descriptors currently cached, used by `Portrait.freeze`.
+     *
+     * The default implementation returns an empty map, which makes a freeze publish nothing.
+     *
+     * @return Live resolved descriptors keyed by class name
+     */
+    fun resolvedEntries(): Map<String, PClass<*>> = emptyMap()
+
+    /**
+     * Drops every entry. Counters returned by [stats] are kept.
+     */
+    fun clear()
+
+    /**
+     * Returns a snapshot of the hit, miss and eviction counters.
+     */
+    fun stats(): PortraitCacheStats
+}
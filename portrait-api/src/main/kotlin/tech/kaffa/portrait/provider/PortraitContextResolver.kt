@@ -0,0 +1,36 @@
+package tech.kaffa.portrait.provider
+
+import tech.kaffa.portrait.PortraitContext
+
+/**
+ * Optional service interface that assigns classes to a [PortraitContext] based on their class loader.
+ *
+ * `Portrait.of(Class)`, `Portrait.of(KClass)` and `Portrait.from(instance)` ask the first
+ * implementation discovered via ServiceLoader which context should resolve a class. Application
+ * servers and plugin hosts load every deployment through its own class loader; giving each loader
+ * its own context keeps that deployment's descriptors out of the global registry, so they can be
+ * collected together with the loader instead of pinning it in metaspace.
+ *
+ * Runtimes without class loaders (TeaVM, native targets) ship no implementation and resolve every
+ * class through the default context.
+ *
+ * Example registration:
+ * ```
+ * // In META-INF/services/tech.kaffa.portrait.provider.PortraitContextResolver
+ * com.example.MyPortraitContextResolver
+ * ```
+ */
+interface PortraitContextResolver {
+
+    /**
+     * Returns the context that should resolve [clazz].
+     *
+     * Implementations create contexts through [factory] and are responsible for keeping them for
+     * as long as the loader is alive, without keeping the loader itself reachable.
+     *
+     * @param clazz Class about to be resolved
+     * @param factory Creates a new context bound to the given class loader
+     * @return The context for [clazz], or `null` to use the default context
+     */
+    fun contextFor(clazz: Class<*>, factory: (ClassLoader) -> PortraitContext): PortraitContext?
+}
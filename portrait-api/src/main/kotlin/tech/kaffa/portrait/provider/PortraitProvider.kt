@@ -1,5 +1,6 @@
 package tech.kaffa.portrait.provider
 
+import tech.kaffa.portrait.PAnnotatedElement
 import tech.kaffa.portrait.PClass
 
 /**
@@ -56,4 +57,93 @@ interface PortraitProvider {
      * @return A PClass instance if successful, null if this provider cannot handle it
      */
     fun <T : Any> forName(className: String): PClass<T>?
+
+    /**
+     * Returns every class name this provider can resolve, or `null` if the set is open-ended.
+     *
+     * Providers with a fixed set of classes, such as generated ones, should return it: the
+     * registry then routes lookups for other names past this provider without calling [forName],
+     * and the names become available through `Portrait.knownClassNames`.
+     *
+     * When a collection is returned, [forName] must return null for every name outside it.
+     * The registry calls this method once, the first time a class is looked up.
+     *
+     * @return The resolvable class names, or null if they cannot be enumerated
+     */
+    fun knownClassNames(): Collection<String>? = null
+
+    /**
+     * Attempts to resolve several class names at once.
+     *
+     * The default implementation calls [forName] for each name. Providers that can answer a
+     * batch more cheaply than name-by-name, for example by consulting an index once, may
+     * override it.
+     *
+     * The same rules as for [forName] apply: names this provider cannot handle are simply
+     * absent from the result, and exceptions are reserved for unexpected errors.
+     *
+     * @param classNames Fully qualified class names to resolve
+     * @return The descriptors this provider could resolve, keyed by class name
+     */
+    fun forNames(classNames: Collection<String>): Map<String, PClass<*>> {
+        val result = LinkedHashMap<String, PClass<*>>(classNames.size)
+        for (className in classNames) {
+            val pClass = forName<Any>(className) ?: continue
+            result[className] = pClass
+        }
+        return result
+    }
+
+    /**
+     * Returns every class and declared member this provider knows to carry the annotation named
+     * [annotationClassName], or `null` if the provider keeps no such index.
+     *
+     * Generated providers answer from an index emitted at build time, so no class metadata is
+     * decoded. When `null` is returned for a provider that enumerates [knownClassNames], the
+     * registry builds the index itself by scanning those classes once.
+     *
+     * Member positions in the returned elements refer to the lists of the [PClass] this provider
+     * returns from [forName].
+     *
+     * @param annotationClassName Fully qualified name of the annotation type
+     * @return The annotated elements, or null if the provider cannot answer without scanning
+     */
+    fun annotatedWith(annotationClassName: String): Collection<PAnnotatedElement>? = null
+
+    /**
+     * Resolves the class this provider assigned the integer [id], or returns `null` if it assigns
+     * no such id.
+     *
+     * Ids are reported by [PClass.id]. Generated providers assign them at build time under a
+     * namespace of their own, so serializers can write a class as an int. Providers return null for
+     * ids of another namespace, and ids kept in a class id file survive changes to the set of
+     * generated classes.
+     *
+     * @param id Id previously read from [PClass.id]
+     * @return The descriptor with that id, or null if this provider does not know it
+     */
+    fun forId(id: Int): PClass<*>? = null
+
+    /**
+     * Returns the namespace of the ids this provider assigns, or `null` if it assigns none.
+     *
+     * No two providers of a context may report the same namespace; the context fails its first
+     * lookup when they do, as their ids would collide.
+     *
+     * @return The id namespace, or null if this provider assigns no ids
+     */
+    fun idNamespace(): Int? = null
+
+    /**
+     * Returns a provider that resolves classes through [classLoader].
+     *
+     * Called when a [tech.kaffa.portrait.PortraitContext] is created for a class loader other than
+     * Portrait's own. Providers that look classes up by name, such as JVM reflection, should return
+     * an instance bound to that loader. The default implementation returns this provider unchanged,
+     * which suits providers with a fixed set of classes.
+     *
+     * @param classLoader Loader the returned provider should resolve classes through
+     * @return A provider scoped to [classLoader]
+     */
+    fun forClassLoader(classLoader: ClassLoader): PortraitProvider = this
 }
\ No newline at end of file
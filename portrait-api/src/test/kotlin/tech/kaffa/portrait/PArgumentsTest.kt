@@ -0,0 +1,59 @@
+package tech.kaffa.portrait
+
+import kotlin.test.Test
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNull
+
+class PArgumentsTest {
+
+    @Test
+    fun `primitives round trip through typed getters`() {
+        val args = PArguments(8)
+            .setBoolean(0, true)
+            .setByte(1, 1)
+            .setChar(2, 'c')
+            .setShort(3, 3)
+            .setInt(4, -4)
+            .setLong(5, Long.MAX_VALUE)
+            .setFloat(6, 6.5f)
+            .setDouble(7, -7.25)
+
+        assertEquals(true, args.getBoolean(0))
+        assertEquals(1.toByte(), args.getByte(1))
+        assertEquals('c', args.getChar(2))
+        assertEquals(3.toShort(), args.getShort(3))
+        assertEquals(-4, args.getInt(4))
+        assertEquals(Long.MAX_VALUE, args.getLong(5))
+        assertEquals(6.5f, args.getFloat(6))
+        assertEquals(-7.25, args.getDouble(7))
+    }
+
+    @Test
+    fun `toArray boxes primitives and keeps references`() {
+        val args = PArguments(3).set(0, "text").setInt(1, 42).set(2, null)
+
+        assertContentEquals(arrayOf<Any?>("text", 42, null), args.toArray())
+    }
+
+    @Test
+    fun `typed getters unbox reference slots`() {
+        val args = PArguments(1).set(0, 42)
+
+        assertEquals(42, args.getInt(0))
+    }
+
+    @Test
+    fun `slots can be overwritten with a different kind`() {
+        val args = PArguments(1).setLong(0, 5L).set(0, "reference")
+
+        assertEquals("reference", args.get(0))
+        assertFailsWith<ClassCastException> { args.getLong(0) }
+    }
+
+    @Test
+    fun `unset slots are null`() {
+        assertNull(PArguments(1).get(0))
+    }
+}
@@ -153,7 +153,9 @@ class PClassTest {
         val stringConstructor = mockk<PConstructor<TestClass>>(relaxed = true)
 
         every { zeroArgConstructor.parameterTypes } returns emptyList()
+        every { zeroArgConstructor.parameterCount } returns 0
         every { stringConstructor.parameterTypes } returns listOf(stringParameterType)
+        every { stringConstructor.parameterCount } returns 1
 
         val pClass = TestablePClass(
             qualifiedName = "tech.kaffa.portrait.TestClass",
@@ -171,6 +173,7 @@ class PClassTest {
         val zeroArgConstructor = mockk<PConstructor<TestClass>>()
 
         every { zeroArgConstructor.parameterTypes } returns emptyList()
+        every { zeroArgConstructor.parameterCount } returns 0
         every { zeroArgConstructor.newInstance() } returns instance
 
         val pClass = TestablePClass(
@@ -192,6 +195,7 @@ class PClassTest {
 
         val constructor = mockk<PConstructor<TestClass>>()
         every { constructor.parameterTypes } returns listOf(parameterType)
+        every { constructor.parameterCount } returns 1
         every { constructor.newInstance(null) } returns expected
 
         val pClass = TestablePClass(
@@ -213,8 +217,10 @@ class PClassTest {
 
         every { matching.name } returns "target"
         every { matching.parameterTypes } returns listOf(parameterType)
+        every { matching.parameterCount } returns 1
         every { other.name } returns "target"
         every { other.parameterTypes } returns emptyList()
+        every { other.parameterCount } returns 0
 
         val pClass = TestablePClass<TestClass>(
             qualifiedName = "tech.kaffa.portrait.TestClass",
@@ -227,6 +233,29 @@ class PClassTest {
         assertNull(pClass.getMethod("missing"))
     }
 
+    @Test
+    fun `default getMethod only compares overloads of the requested arity`() {
+        val first = mockk<PClass<*>>()
+        val second = mockk<PClass<*>>()
+        val unary = mockk<PMethod>()
+        val binary = mockk<PMethod>()
+
+        every { unary.name } returns "target"
+        every { unary.parameterCount } returns 1
+        every { binary.name } returns "target"
+        every { binary.parameterCount } returns 2
+        every { binary.parameterTypes } returns listOf(first, second)
+
+        val pClass = TestablePClass<TestClass>(
+            qualifiedName = "tech.kaffa.portrait.TestClass",
+            methods = listOf(unary, binary)
+        )
+
+        assertSame(binary, pClass.getMethod("target", first, second))
+        assertNull(pClass.getMethod("target", first, second, first))
+        verify(exactly = 0) { unary.parameterTypes }
+    }
+
     @Test
     fun `default getField finds field by name`() {
         val field = mockk<PField>()
@@ -1,8 +1,15 @@
 package tech.kaffa.portrait
 
+import tech.kaffa.portrait.internal.DefaultPortraitCache
+import tech.kaffa.portrait.provider.PortraitCache
+import tech.kaffa.portrait.testing.TestPortraitProvider
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
 import kotlin.test.AfterTest
 import kotlin.test.BeforeTest
 import kotlin.test.Test
+import kotlin.test.assertEquals
 import kotlin.test.assertSame
 import kotlin.test.assertTrue
 
@@ -41,11 +48,100 @@ class PortraitCacheTest {
         assertTrue(Portrait.isUnresolved(unresolvedSecond))
     }
 
+    @Test
+    fun `repeated misses share one unresolved placeholder`() {
+        val first = Portrait.forNameOrUnresolved("unknown.class.Name")
+        val second = Portrait.forNameOrUnresolved("unknown.class.Name")
+
+        assertSame(first, second)
+    }
+
+    @Test
+    fun `configured miss limit bounds negative entries`() {
+        Portrait.configureCache(PortraitCachePolicy(maxMissingEntries = 4))
+        try {
+            repeat(100) { Portrait.forNameOrNull("unknown.class.Name$it") }
+
+            val stats = Portrait.cacheStats()
+            assertEquals(4, stats.missingEntries)
+            assertEquals(96, stats.evictions)
+        } finally {
+            Portrait.configureCache(PortraitCachePolicy.DEFAULT)
+        }
+    }
+
     @Test
     fun `clearCache is idempotent`() {
         repeat(10) {
             Portrait.clearCache()
         }
     }
-}
 
+    @Test
+    fun `concurrent lookups of the same class resolve once`() {
+        TestPortraitProvider.slowResolutions.set(0)
+        val results = Collections.synchronizedList(ArrayList<PClass<*>>())
+        val failures = Collections.synchronizedList(ArrayList<Throwable>())
+
+        val threads = List(8) {
+            Thread {
+                try {
+                    results.add(Portrait.forName(TestPortraitProvider.SLOW_CLASS_NAME))
+                } catch (e: Throwable) {
+                    failures.add(e)
+                }
+            }
+        }
+        threads.forEach { it.start() }
+        threads.forEach { it.join() }
+
+        assertTrue(failures.isEmpty(), "Unexpected failures: $failures")
+        assertEquals(8, results.size)
+        assertEquals(1, TestPortraitProvider.slowResolutions.get())
+        assertTrue(results.all { it === results.first() })
+    }
+
+    @Test
+    fun `lookup that misses just before the owner publishes does not resolve again`() {
+        TestPortraitProvider.slowResolutions.set(0)
+        val missed = CountDownLatch(1)
+        val published = CountDownLatch(1)
+        val cache = StalledMissCache(DefaultPortraitCache(PortraitCachePolicy()), missed, published)
+        val context = PortraitContext(null, cache)
+        var late: PClass<*>? = null
+
+        val lateThread = Thread { late = context.forName(TestPortraitProvider.SLOW_CLASS_NAME) }
+        cache.stalledThread = lateThread
+        lateThread.start()
+        assertTrue(missed.await(10, TimeUnit.SECONDS))
+
+        // Resolve, publish and leave while the late thread sits between its cache miss and putIfAbsent
+        val owner = context.forName(TestPortraitProvider.SLOW_CLASS_NAME)
+        published.countDown()
+        lateThread.join()
+
+        assertSame(owner, late)
+        assertEquals(1, TestPortraitProvider.slowResolutions.get())
+    }
+
+    /**
+     * Cache whose first lookup on [stalledThread] reports its miss and then waits for [resume].
+     */
+    private class StalledMissCache(
+        private val delegate: PortraitCache,
+        private val missed: CountDownLatch,
+        private val resume: CountDownLatch
+    ) : PortraitCache by delegate {
+        @Volatile
+        var stalledThread: Thread? = null
+
+        override fun get(className: String): PClass<*>? {
+            val entry = delegate.get(className)
+            if (Thread.currentThread() === stalledThread && missed.count > 0) {
+                missed.countDown()
+                resume.await()
+            }
+            return entry
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package tech.kaffa.portrait
+
+import tech.kaffa.portrait.testing.TestPortraitProvider
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+
+class PortraitForIdTest {
+
+    @BeforeTest
+    fun setUp() {
+        Portrait.clearCache()
+    }
+
+    @Test
+    fun `forId resolves the class its provider numbered`() {
+        val pClass = Portrait.forId(TestPortraitProvider.TEST_CLASS_ID)
+
+        assertEquals(TestClass::class.java.name, pClass.qualifiedName)
+        assertEquals(TestPortraitProvider.TEST_CLASS_ID, pClass.id)
+    }
+
+    @Test
+    fun `forId and forName return the same descriptor`() {
+        val byName = Portrait.forName(TestClass::class.java.name)
+
+        assertSame(byName, Portrait.forId(byName.id))
+    }
+
+    @Test
+    fun `unknown ids are not found`() {
+        assertNull(Portrait.forIdOrNull(42))
+        assertNull(Portrait.forIdOrNull(PClass.NO_ID))
+        assertFailsWith<PortraitNotFoundException> { Portrait.forId(42) }
+    }
+
+    @Test
+    fun `descriptors without a provider id report NO_ID`() {
+        assertEquals(PClass.NO_ID, Portrait.intClass().id)
+    }
+}
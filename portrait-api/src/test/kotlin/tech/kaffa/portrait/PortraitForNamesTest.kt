@@ -0,0 +1,106 @@
+package tech.kaffa.portrait
+
+import tech.kaffa.portrait.testing.TestPortraitProvider
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertNotNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class PortraitForNamesTest {
+
+    @BeforeTest
+    fun setUp() {
+        Portrait.clearCache()
+    }
+
+    @Test
+    fun `forNames resolves known names and omits misses`() {
+        val result = Portrait.forNames(listOf("unknown.class.Name", TestClass::class.java.name, "int"))
+
+        assertEquals(listOf(TestClass::class.java.name, "int"), result.keys.toList())
+        assertSame(Portrait.of(TestClass::class.java), result[TestClass::class.java.name])
+        assertSame(Portrait.intClass(), result["int"])
+    }
+
+    @Test
+    fun `forNames records misses in the cache`() {
+        Portrait.forNames(listOf("unknown.class.Name"))
+
+        val stats = Portrait.cacheStats()
+        Portrait.forNameOrNull("unknown.class.Name")
+
+        assertEquals(stats.hits + 1, Portrait.cacheStats().hits)
+    }
+
+    @Test
+    fun `forNames with executor matches sequential resolution`() {
+        val names = listOf("int", "long", "unknown.class.Name", TestClass::class.java.name, "[I")
+        val sequential = Portrait.forNames(names)
+        Portrait.clearCache()
+
+        val executor = Executors.newFixedThreadPool(4)
+        try {
+            val parallel = Portrait.forNames(names, executor)
+
+            assertEquals(sequential.keys.toList(), parallel.keys.toList())
+            assertTrue(parallel.values.none { Portrait.isUnresolved(it) })
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    @Test
+    fun `forNames waits for a name another thread is resolving`() {
+        TestPortraitProvider.slowResolutions.set(0)
+        var single: PClass<*>? = null
+        val thread = Thread { single = Portrait.forName(TestPortraitProvider.SLOW_CLASS_NAME) }
+        thread.start()
+        while (TestPortraitProvider.slowResolutions.get() == 0) {
+            Thread.yield()
+        }
+
+        val batch = Portrait.forNames(listOf(TestPortraitProvider.SLOW_CLASS_NAME, TestClass::class.java.name))
+        thread.join()
+
+        assertEquals(1, TestPortraitProvider.slowResolutions.get())
+        assertSame(single, batch[TestPortraitProvider.SLOW_CLASS_NAME])
+    }
+
+    @Test
+    fun `forNames with executor releases the caller when a batch raises an error`() {
+        val executor = Executors.newFixedThreadPool(2)
+        try {
+            assertFailsWith<LinkageError> {
+                Portrait.forNames(listOf(TestPortraitProvider.FAILING_CLASS_NAME, "int"), executor)
+            }
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    @Test
+    fun `forNames with executor resolves inline when nested in a resolution`() {
+        val executor = Executors.newFixedThreadPool(2)
+        TestPortraitProvider.nestedExecutor = executor
+        try {
+            var resolved: PClass<*>? = null
+            // Run apart from the test thread, so a deadlock fails the test instead of hanging it
+            val thread = Thread { resolved = Portrait.forName(TestPortraitProvider.NESTED_CLASS_NAME) }
+            thread.isDaemon = true
+            thread.start()
+            thread.join(TimeUnit.SECONDS.toMillis(10))
+
+            assertFalse(thread.isAlive, "Nested forNames deadlocked")
+            assertNotNull(resolved)
+        } finally {
+            TestPortraitProvider.nestedExecutor = null
+            executor.shutdown()
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package tech.kaffa.portrait
+
+import tech.kaffa.portrait.testing.TestPortraitProvider
+import kotlin.test.AfterTest
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class PortraitFreezeTest {
+
+    @BeforeTest
+    fun setUp() {
+        Portrait.clearCache()
+    }
+
+    @AfterTest
+    fun tearDown() {
+        Portrait.clearCache()
+    }
+
+    @Test
+    fun `frozen lookups return the snapshot without touching the cache`() {
+        val resolved = Portrait.forName(TestClass::class.java.name)
+
+        assertTrue(Portrait.freeze() >= 1)
+        assertTrue(Portrait.defaultContext().isFrozen())
+
+        val hitsBefore = Portrait.cacheStats().hits
+        assertSame(resolved, Portrait.forName(TestClass::class.java.name))
+        assertEquals(hitsBefore, Portrait.cacheStats().hits)
+    }
+
+    @Test
+    fun `fail policy rejects names resolved after the freeze`() {
+        Portrait.forName(TestClass::class.java.name)
+        Portrait.freeze(PortraitFreezePolicy.FAIL)
+
+        assertNull(Portrait.forNameOrNull(TestPortraitProvider.SLOW_CLASS_NAME))
+        assertFailsWith<PortraitNotFoundException> { Portrait.forName(TestPortraitProvider.SLOW_CLASS_NAME) }
+        assertTrue(Portrait.forNames(listOf(TestPortraitProvider.SLOW_CLASS_NAME)).isEmpty())
+    }
+
+    @Test
+    fun `frozen ids are answered from the snapshot`() {
+        val resolved = Portrait.forName(TestClass::class.java.name)
+        Portrait.freeze(PortraitFreezePolicy.FAIL)
+
+        assertSame(resolved, Portrait.forIdOrNull(TestPortraitProvider.TEST_CLASS_ID))
+    }
+
+    @Test
+    fun `fail policy rejects ids of classes resolved after the freeze`() {
+        Portrait.freeze(PortraitFreezePolicy.FAIL)
+
+        assertNull(Portrait.forIdOrNull(TestPortraitProvider.TEST_CLASS_ID))
+        assertFailsWith<PortraitNotFoundException> { Portrait.forId(TestPortraitProvider.TEST_CLASS_ID) }
+        assertEquals(0, Portrait.cacheStats().resolvedEntries)
+    }
+
+    @Test
+    fun `fallback policy keeps resolving new names`() {
+        Portrait.freeze(PortraitFreezePolicy.FALLBACK)
+
+        assertNotNull(Portrait.forNameOrNull(TestClass::class.java.name))
+    }
+
+    @Test
+    fun `clearCache drops the snapshot`() {
+        Portrait.forName(TestClass::class.java.name)
+        Portrait.freeze(PortraitFreezePolicy.FAIL)
+
+        Portrait.clearCache()
+
+        assertFalse(Portrait.defaultContext().isFrozen())
+        assertNotNull(Portrait.forNameOrNull(TestPortraitProvider.SLOW_CLASS_NAME))
+    }
+}
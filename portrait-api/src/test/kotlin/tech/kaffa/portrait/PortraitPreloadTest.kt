@@ -0,0 +1,64 @@
+package tech.kaffa.portrait
+
+import java.util.concurrent.Executors
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertIs
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class PortraitPreloadTest {
+
+    @BeforeTest
+    fun setUp() {
+        Portrait.clearCache()
+    }
+
+    @Test
+    fun `preload without executor completes synchronously`() {
+        val handle = Portrait.preload { it == TestClass::class.java.name }
+
+        assertTrue(handle.isDone)
+        val stats = handle.await()
+        assertEquals(1, stats.classesLoaded)
+        assertEquals(0, stats.classesFailed)
+    }
+
+    @Test
+    fun `preload on executor resolves matching classes`() {
+        val executor = Executors.newSingleThreadExecutor()
+        try {
+            val stats = Portrait.preload(executor) { it == TestClass::class.java.name }.await()
+
+            assertEquals(1, stats.classesLoaded)
+            assertEquals(1, Portrait.cacheStats().resolvedEntries)
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    @Test
+    fun `preload with rejecting filter loads nothing`() {
+        val stats = Portrait.preload { false }.await()
+
+        assertEquals(0, stats.classesLoaded)
+        assertEquals(0, stats.classesFailed)
+    }
+
+    @Test
+    fun `preload on executor fails the handle when the run raises an error`() {
+        val executor = Executors.newSingleThreadExecutor()
+        try {
+            val handle = Portrait.preload(executor) { throw StackOverflowError() }
+
+            val failure = assertFailsWith<IllegalStateException> { handle.await() }
+            assertIs<StackOverflowError>(failure.cause)
+            assertTrue(handle.isDone)
+            assertNull(handle.statsOrNull())
+        } finally {
+            executor.shutdown()
+        }
+    }
+}
@@ -85,4 +85,20 @@ class PortraitProviderTest {
         assertNotNull(provider.forName<List<String>>("java.util.List"))
         assertNull(provider.forName<String>("java.lang.String"))
     }
+
+    @Test
+    fun `default forNames resolves each name through forName`() {
+        val mockPClass = mockk<PClass<String>>()
+        val provider = object : PortraitProvider {
+            override fun priority(): Int = 50
+
+            @Suppress("UNCHECKED_CAST")
+            override fun <T : Any> forName(className: String): PClass<T>? =
+                if (className == "known.Class") mockPClass as PClass<T> else null
+        }
+
+        val result = provider.forNames(listOf("unknown.Class", "known.Class"))
+
+        assertEquals(mapOf<String, PClass<*>>("known.Class" to mockPClass), result)
+    }
 }
@@ -0,0 +1,58 @@
+package tech.kaffa.portrait.internal
+
+import io.mockk.every
+import io.mockk.mockk
+import tech.kaffa.portrait.PAnnotatedElement
+import tech.kaffa.portrait.PAnnotation
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PField
+import tech.kaffa.portrait.PMethod
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class AnnotationScanIndexTest {
+
+    @Test
+    fun `scan indexes classes and members by annotation name`() {
+        val marker = annotation("com.example.Marker")
+        val route = annotation("com.example.Route")
+
+        val plainMethod = mockk<PMethod>()
+        val routeMethod = mockk<PMethod>()
+        val field = mockk<PField>()
+        every { plainMethod.annotations } returns emptyList()
+        every { routeMethod.annotations } returns listOf(route, route)
+        every { field.annotations } returns listOf(marker)
+
+        val pClass = mockk<PClass<*>>()
+        every { pClass.qualifiedName } returns "com.example.Routes"
+        every { pClass.annotations } returns listOf(marker)
+        every { pClass.constructors } returns emptyList()
+        every { pClass.methods } returns listOf(plainMethod, routeMethod)
+        every { pClass.fields } returns listOf(field)
+
+        val index = AnnotationScanIndex(listOf(pClass))
+
+        assertEquals(
+            listOf(
+                PAnnotatedElement("com.example.Routes", PAnnotatedElement.Kind.CLASS),
+                PAnnotatedElement("com.example.Routes", PAnnotatedElement.Kind.FIELD, 0)
+            ),
+            index.annotatedWith("com.example.Marker")
+        )
+        assertEquals(
+            listOf(PAnnotatedElement("com.example.Routes", PAnnotatedElement.Kind.METHOD, 1)),
+            index.annotatedWith("com.example.Route")
+        )
+        assertTrue(index.annotatedWith("com.example.Missing").isEmpty())
+    }
+
+    private fun annotation(name: String): PAnnotation<*> {
+        val annotationClass = mockk<PClass<Annotation>>()
+        every { annotationClass.qualifiedName } returns name
+        val annotation = mockk<PAnnotation<Annotation>>()
+        every { annotation.annotationClass } returns annotationClass
+        return annotation
+    }
+}
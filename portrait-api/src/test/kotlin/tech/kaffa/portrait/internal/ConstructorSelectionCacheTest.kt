@@ -0,0 +1,50 @@
+package tech.kaffa.portrait.internal
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class ConstructorSelectionCacheTest {
+
+    @Test
+    fun `selection runs once per tuple of argument classes`() {
+        val cache = ConstructorSelectionCache()
+        var selections = 0
+
+        repeat(3) { assertEquals(1, cache.indexOf(arrayOf("a", 1)) { selections++; 1 }) }
+        assertEquals(1, selections)
+
+        assertEquals(2, cache.indexOf(arrayOf("a", null)) { selections++; 2 })
+        assertEquals(2, cache.indexOf(arrayOf("b", null)) { selections++; 3 })
+        assertEquals(2, selections)
+    }
+
+    @Test
+    fun `failed selections are not remembered`() {
+        val cache = ConstructorSelectionCache()
+        var selections = 0
+
+        repeat(3) { assertEquals(-1, cache.indexOf(arrayOf(1L)) { selections++; -1 }) }
+
+        assertEquals(3, selections)
+    }
+
+    @Test
+    fun `tuples past the capacity are selected on every call`() {
+        val cache = ConstructorSelectionCache(capacity = 2)
+        var selections = 0
+        val select: (Array<out Any?>) -> Int = { selections++; 0 }
+
+        cache.indexOf(arrayOf("a"), select)
+        cache.indexOf(arrayOf(1), select)
+        cache.indexOf(arrayOf("a"), select)
+        cache.indexOf(arrayOf(1L), select)
+        assertEquals(3, selections)
+
+        // The first two tuples stay cached, the one past the capacity is never stored
+        cache.indexOf(arrayOf("a"), select)
+        cache.indexOf(arrayOf(1), select)
+        assertEquals(3, selections)
+        cache.indexOf(arrayOf(1L), select)
+        assertEquals(4, selections)
+    }
+}
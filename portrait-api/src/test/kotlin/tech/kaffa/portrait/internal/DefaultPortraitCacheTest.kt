@@ -0,0 +1,107 @@
+package tech.kaffa.portrait.internal
+
+import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.PortraitCachePolicy
+import tech.kaffa.portrait.TestClass
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class DefaultPortraitCacheTest {
+
+    @Test
+    fun `missing entries are canonical`() {
+        val cache = DefaultPortraitCache(PortraitCachePolicy())
+
+        val first = cache.putMissing("missing.Name")
+        val second = cache.putMissing("missing.Name")
+
+        assertSame(first, second)
+        assertSame(first, cache.get("missing.Name"))
+        assertTrue(Portrait.isUnresolved(first))
+    }
+
+    @Test
+    fun `missing entries are bounded by least recent use`() {
+        val cache = DefaultPortraitCache(PortraitCachePolicy(maxMissingEntries = 2))
+
+        cache.putMissing("a")
+        cache.putMissing("b")
+        cache.get("a")
+        cache.putMissing("c")
+
+        assertNull(cache.get("b"))
+        assertTrue(Portrait.isUnresolved(cache.get("a")!!))
+        assertTrue(Portrait.isUnresolved(cache.get("c")!!))
+        assertEquals(2, cache.stats().missingEntries)
+        assertEquals(1, cache.stats().evictions)
+    }
+
+    @Test
+    fun `missing entries expire after ttl`() {
+        var now = 0L
+        val cache = DefaultPortraitCache(PortraitCachePolicy(missingEntryTtlMillis = 100)) { now }
+
+        val first = cache.putMissing("expiring.Name")
+        now = 99
+        assertSame(first, cache.get("expiring.Name"))
+
+        now = 100
+        assertNull(cache.get("expiring.Name"))
+        assertNotSame(first, cache.putMissing("expiring.Name"))
+        assertEquals(1, cache.stats().evictions)
+    }
+
+    @Test
+    fun `zero capacity disables negative caching`() {
+        val cache = DefaultPortraitCache(PortraitCachePolicy(maxMissingEntries = 0))
+
+        cache.putMissing("missing.Name")
+
+        assertNull(cache.get("missing.Name"))
+        assertEquals(0, cache.stats().missingEntries)
+    }
+
+    @Test
+    fun `resolved entries keep the first published descriptor`() {
+        val cache = DefaultPortraitCache(PortraitCachePolicy())
+        val first = Portrait.of(TestClass::class.java)
+        val second = UnresolvedPClass<Any>(TestClass::class.java.name)
+
+        assertSame(first, cache.putResolved("x", first))
+        assertSame(first, cache.putResolved("x", second))
+        assertSame(first, cache.get("x"))
+    }
+
+    @Test
+    fun `weak values still return live descriptors`() {
+        val cache = DefaultPortraitCache(
+            PortraitCachePolicy(valueReferences = PortraitCachePolicy.ValueReferences.WEAK)
+        )
+        val descriptor = Portrait.of(TestClass::class.java)
+
+        cache.putResolved("x", descriptor)
+
+        assertSame(descriptor, cache.get("x"))
+    }
+
+    @Test
+    fun `stats count hits and misses`() {
+        val cache = DefaultPortraitCache(PortraitCachePolicy())
+        cache.putResolved("x", Portrait.of(TestClass::class.java))
+        cache.putMissing("y")
+
+        cache.get("x")
+        cache.get("y")
+        cache.get("z")
+
+        val stats = cache.stats()
+        assertEquals(2, stats.hits)
+        assertEquals(1, stats.misses)
+        assertEquals(1, stats.resolvedEntries)
+        assertEquals(1, stats.missingEntries)
+    }
+}
@@ -0,0 +1,89 @@
+package tech.kaffa.portrait.internal
+
+import io.mockk.every
+import io.mockk.mockk
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PortraitFreezePolicy
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class FrozenPortraitTableTest {
+
+    @Test
+    fun `every snapshot entry is found`() {
+        val entries = (0 until 1000).associate { "com.example.Type$it" to UnresolvedPClass<Any>("com.example.Type$it") }
+
+        val table = FrozenPortraitTable(entries, PortraitFreezePolicy.FALLBACK)
+
+        assertEquals(1000, table.size)
+        entries.forEach { (className, pClass) -> assertSame(pClass, table.get(className)) }
+        assertNull(table.get("com.example.Missing"))
+        assertEquals(entries, table.entries())
+    }
+
+    @Test
+    fun `colliding hashes are probed`() {
+        // "Aa" and "BB" share a String hash code
+        val first = UnresolvedPClass<Any>("Aa")
+        val second = UnresolvedPClass<Any>("BB")
+
+        val table = FrozenPortraitTable(mapOf("Aa" to first, "BB" to second), PortraitFreezePolicy.FALLBACK)
+
+        assertSame(first, table.get("Aa"))
+        assertSame(second, table.get("BB"))
+        assertNull(table.get("C#"))
+    }
+
+    @Test
+    fun `empty snapshot finds nothing`() {
+        val table = FrozenPortraitTable(emptyMap(), PortraitFreezePolicy.FAIL)
+
+        assertNull(table.get("any.Name"))
+        assertFalse(table.admitsMiss("any.Name"))
+        assertTrue(FrozenPortraitTable(emptyMap(), PortraitFreezePolicy.REPORT).admitsMiss("any.Name"))
+    }
+
+    @Test
+    fun `REPORT reports each missed name once through the reporter`() {
+        val reported = mutableListOf<String>()
+        val table = FrozenPortraitTable(emptyMap(), PortraitFreezePolicy.REPORT) { reported.add(it) }
+
+        assertTrue(table.admitsMiss("com.example.First"))
+        assertTrue(table.admitsMiss("com.example.First"))
+        assertTrue(table.admitsMiss("com.example.Second"))
+
+        assertEquals(listOf("com.example.First", "com.example.Second"), reported)
+    }
+
+    @Test
+    fun `REPORT stops remembering names past the bound but keeps reporting them`() {
+        val reported = mutableListOf<String>()
+        val table = FrozenPortraitTable(emptyMap(), PortraitFreezePolicy.REPORT) { reported.add(it) }
+
+        repeat(FrozenPortraitTable.MAX_REPORTED_NAMES) { table.admitsMiss("com.example.Type$it") }
+        table.admitsMiss("com.example.Overflow")
+        table.admitsMiss("com.example.Overflow")
+        table.admitsMiss("com.example.Type0")
+
+        assertEquals(FrozenPortraitTable.MAX_REPORTED_NAMES + 2, reported.size)
+        assertEquals(listOf("com.example.Overflow", "com.example.Overflow"), reported.takeLast(2))
+    }
+
+    @Test
+    fun `numbered entries are found by id`() {
+        val numbered = (0 until 10).associate { n ->
+            "com.example.Type$n" to mockk<PClass<*>> { every { id } returns n * 3 }
+        }
+        val entries = numbered + ("com.example.Unnumbered" to UnresolvedPClass<Any>("com.example.Unnumbered"))
+
+        val table = FrozenPortraitTable(entries, PortraitFreezePolicy.FAIL)
+
+        numbered.values.forEach { assertSame(it, table.forId(it.id)) }
+        assertNull(table.forId(1))
+        assertNull(table.forId(PClass.NO_ID))
+    }
+}
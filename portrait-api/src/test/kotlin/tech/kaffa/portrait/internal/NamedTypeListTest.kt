@@ -0,0 +1,41 @@
+package tech.kaffa.portrait.internal
+
+import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.TestClass
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class NamedTypeListTest {
+
+    @BeforeTest
+    fun setUp() {
+        Portrait.clearCache()
+    }
+
+    @Test
+    fun `elements are looked up by name through the context`() {
+        val types = NamedTypeList(listOf(TestClass::class.java.name, "int"), Portrait.defaultContext())
+
+        assertEquals(2, types.size)
+        assertSame(Portrait.forName(TestClass::class.java.name), types[0])
+        assertSame(Portrait.forName("int"), types[1])
+    }
+
+    @Test
+    fun `matches compares names without resolving them`() {
+        val types = NamedTypeList(listOf("com.example.Missing", "int"), Portrait.defaultContext())
+        val missing = UnresolvedPClass<Any>("com.example.Missing")
+        val int = Portrait.forName("int")
+        val statsBefore = Portrait.cacheStats()
+
+        assertTrue(types.matches(arrayOf(missing, int)))
+        assertFalse(types.matches(arrayOf(int, int)))
+        assertTrue(types.matches(arrayOf(missing)))
+
+        assertEquals(statsBefore, Portrait.cacheStats())
+    }
+}
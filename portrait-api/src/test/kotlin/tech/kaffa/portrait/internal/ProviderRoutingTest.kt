@@ -0,0 +1,78 @@
+package tech.kaffa.portrait.internal
+
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.TestClass
+import tech.kaffa.portrait.provider.PortraitProvider
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class ProviderRoutingTest {
+
+    private class FakeProvider(
+        private val priority: Int,
+        private val known: Collection<String>?,
+        private val namespace: Int? = null
+    ) : PortraitProvider {
+        override fun priority(): Int = priority
+        override fun <T : Any> forName(className: String): PClass<T>? = null
+        override fun knownClassNames(): Collection<String>? = known
+        override fun idNamespace(): Int? = namespace
+    }
+
+    private val generatedA = FakeProvider(150, listOf("com.example.a.First", "com.example.a.Second"))
+    private val generatedB = FakeProvider(140, listOf("com.example.b.Third", "com.example.a.First"))
+    private val internal = FakeProvider(200, null)
+    private val jvm = FakeProvider(100, null)
+    private val routing = ProviderRouting(listOf(internal, generatedA, generatedB, jvm))
+
+    @Test
+    fun `unclaimed names skip closed providers`() {
+        assertEquals(listOf(internal, jvm), routing.providersFor("com.example.Other"))
+    }
+
+    @Test
+    fun `claimed names keep priority order`() {
+        assertEquals(listOf(internal, generatedA, jvm), routing.providersFor("com.example.a.Second"))
+        assertEquals(listOf(internal, generatedA, generatedB, jvm), routing.providersFor("com.example.a.First"))
+    }
+
+    @Test
+    fun `isCandidate honours claims`() {
+        assertTrue(routing.isCandidate(jvm, "com.example.Other"))
+        assertTrue(routing.isCandidate(generatedB, "com.example.b.Third"))
+        assertFalse(routing.isCandidate(generatedB, "com.example.a.Second"))
+    }
+
+    @Test
+    fun `knownClassNames filters by prefix`() {
+        assertEquals(
+            listOf("com.example.a.First", "com.example.a.Second"),
+            routing.knownClassNames("com.example.a.")
+        )
+        assertEquals(3, routing.knownClassNames("").size)
+        assertEquals(emptyList(), routing.knownClassNames("org."))
+    }
+
+    @Test
+    fun `providers with distinct id namespaces are accepted`() {
+        ProviderRouting(listOf(FakeProvider(150, emptyList(), 1), FakeProvider(140, emptyList(), 2), jvm))
+    }
+
+    @Test
+    fun `providers sharing an id namespace are rejected`() {
+        val error = assertFailsWith<IllegalStateException> {
+            ProviderRouting(listOf(FakeProvider(150, emptyList(), 7), jvm, FakeProvider(140, emptyList(), 7)))
+        }
+        assertTrue("--id-namespace" in error.message.orEmpty())
+    }
+
+    @Test
+    fun `Portrait lists enumerated classes by package`() {
+        assertTrue(TestClass::class.java.name in Portrait.knownClassNames())
+        assertTrue(TestClass::class.java.name in Portrait.knownClassNames(TestClass::class.java.`package`.name))
+    }
+}
@@ -0,0 +1,46 @@
+package tech.kaffa.portrait.metrics
+
+import io.mockk.mockk
+import tech.kaffa.portrait.PMethod
+import tech.kaffa.portrait.testing.TestPortraitProvider
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class InMemoryPortraitMetricsTest {
+
+    @Test
+    fun `aggregates counters and histograms`() {
+        val metrics = InMemoryPortraitMetrics()
+        val method = mockk<PMethod>()
+
+        metrics.onCacheHit("a")
+        metrics.onCacheMiss("b")
+        metrics.onProviderLookup(TestPortraitProvider(), "b", false, 1_000)
+        metrics.onMetadataDecoded("c", 256, 5_000)
+        metrics.onMethodInvoked(method)
+        metrics.onProxyDispatch(method)
+
+        assertEquals(1, metrics.cacheHits)
+        assertEquals(1, metrics.cacheMisses)
+        assertEquals(256, metrics.decodedBytes)
+        assertEquals(1, metrics.metadataDecoding.count)
+        assertEquals(1, metrics.methodInvocations)
+        assertEquals(1, metrics.proxyDispatches)
+        assertEquals(1, metrics.providerLookups.getValue(TestPortraitProvider::class.java.name).count)
+    }
+
+    @Test
+    fun `reset clears all counters`() {
+        val metrics = InMemoryPortraitMetrics()
+        metrics.onCacheHit("a")
+        metrics.onMetadataDecoded("c", 256, 5_000)
+        metrics.onFrozenMiss("d")
+
+        metrics.reset()
+
+        assertEquals(0, metrics.cacheHits)
+        assertEquals(0, metrics.decodedBytes)
+        assertEquals(0, metrics.frozenMisses)
+        assertEquals(0, metrics.metadataDecoding.count)
+    }
+}
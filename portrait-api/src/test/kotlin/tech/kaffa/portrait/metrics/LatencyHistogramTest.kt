@@ -0,0 +1,39 @@
+package tech.kaffa.portrait.metrics
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class LatencyHistogramTest {
+
+    @Test
+    fun `empty histogram reports zeros`() {
+        val histogram = LatencyHistogram()
+
+        assertEquals(0, histogram.count)
+        assertEquals(0.0, histogram.meanNanos)
+        assertEquals(0, histogram.percentileNanos(99.0))
+    }
+
+    @Test
+    fun `percentiles are bounded by power of two buckets`() {
+        val histogram = LatencyHistogram()
+        repeat(99) { histogram.record(100) }
+        histogram.record(10_000)
+
+        assertEquals(100, histogram.count)
+        assertEquals(10_000, histogram.maxNanos)
+        assertEquals(127, histogram.percentileNanos(50.0))
+        assertEquals(127, histogram.percentileNanos(99.0))
+        assertEquals(10_000, histogram.percentileNanos(100.0))
+    }
+
+    @Test
+    fun `reset clears samples`() {
+        val histogram = LatencyHistogram()
+        histogram.record(42)
+        histogram.reset()
+
+        assertEquals(0, histogram.count)
+        assertEquals(0, histogram.maxNanos)
+    }
+}
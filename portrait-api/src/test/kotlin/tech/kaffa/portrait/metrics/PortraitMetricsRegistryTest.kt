@@ -0,0 +1,14 @@
+package tech.kaffa.portrait.metrics
+
+import kotlin.test.Test
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class PortraitMetricsRegistryTest {
+
+    @Test
+    fun `metrics are disabled without a registered listener`() {
+        assertFalse(PortraitMetricsRegistry.enabled)
+        assertTrue(PortraitMetricsRegistry.listener !is InMemoryPortraitMetrics)
+    }
+}
@@ -5,9 +5,12 @@ import tech.kaffa.portrait.PClass
 import tech.kaffa.portrait.PConstructor
 import tech.kaffa.portrait.PField
 import tech.kaffa.portrait.PMethod
+import tech.kaffa.portrait.Portrait
 import tech.kaffa.portrait.TestClass
 import tech.kaffa.portrait.provider.PortraitProvider
 import tech.kaffa.portrait.proxy.ProxyHandler
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
 
 /**
  * Simple PortraitProvider used by tests to validate the public API behavior without
@@ -16,6 +19,15 @@ import tech.kaffa.portrait.proxy.ProxyHandler
  * The provider only recognizes [TestClass] and falls back to [UnresolvedPClass] for
  * anything else. This ensures the loading pipeline remains exercised when providers
  * are present while still allowing tests to cover failure paths.
+ *
+ * [TestClass] is also the only class with an id, [TEST_CLASS_ID].
+ *
+ * [SLOW_CLASS_NAME] is also recognized after a short delay; [slowResolutions] counts how
+ * often the provider was asked for it so tests can observe concurrent resolution.
+ *
+ * [FAILING_CLASS_NAME] raises a [LinkageError], and resolving [NESTED_CLASS_NAME] first resolves it
+ * again together with `int` through `forNames` on [nestedExecutor], as a provider resolving its
+ * dependencies in parallel would.
  */
 class TestPortraitProvider : PortraitProvider {
     override fun priority(): Int = 250
@@ -23,10 +35,48 @@ class TestPortraitProvider : PortraitProvider {
     override fun <T : Any> forName(className: String): PClass<T>? {
         return when (className) {
             TestClass::class.java.name -> safeCast(TestClassPortrait)
+            SLOW_CLASS_NAME -> {
+                slowResolutions.incrementAndGet()
+                Thread.sleep(SLOW_RESOLUTION_MILLIS)
+                safeCast(TestClassPortrait)
+            }
+            FAILING_CLASS_NAME -> throw LinkageError("Cannot link $className")
+            NESTED_CLASS_NAME -> {
+                val executor = nestedExecutor
+                if (executor != null && !resolvingNested.get()) {
+                    resolvingNested.set(true)
+                    try {
+                        Portrait.forNames(listOf(NESTED_CLASS_NAME, "int"), executor)
+                    } finally {
+                        resolvingNested.set(false)
+                    }
+                }
+                safeCast(TestClassPortrait)
+            }
             else -> null
         }
     }
 
+    override fun knownClassNames(): Collection<String> =
+        listOf(TestClass::class.java.name, SLOW_CLASS_NAME, FAILING_CLASS_NAME, NESTED_CLASS_NAME)
+
+    override fun forId(id: Int): PClass<*>? = if (id == TEST_CLASS_ID) TestClassPortrait else null
+
+    companion object {
+        const val TEST_CLASS_ID = 0
+        const val SLOW_CLASS_NAME = "tech.kaffa.portrait.testing.SlowResolved"
+        const val FAILING_CLASS_NAME = "tech.kaffa.portrait.testing.FailsToLink"
+        const val NESTED_CLASS_NAME = "tech.kaffa.portrait.testing.ResolvesNested"
+        private const val SLOW_RESOLUTION_MILLIS = 100L
+
+        val slowResolutions = AtomicInteger()
+
+        @Volatile
+        var nestedExecutor: Executor? = null
+
+        private val resolvingNested = ThreadLocal.withInitial { false }
+    }
+
     @Suppress("UNCHECKED_CAST")
     private fun <T : Any> safeCast(pClass: PClass<out Any>): PClass<T> {
         return pClass as PClass<T>
@@ -36,6 +86,7 @@ class TestPortraitProvider : PortraitProvider {
 private object TestClassPortrait : PClass<TestClass>() {
     override val simpleName: String = TestClass::class.java.simpleName
     override val qualifiedName: String = TestClass::class.java.name
+    override val id: Int = TestPortraitProvider.TEST_CLASS_ID
 
     override val isAbstract: Boolean = false
     override val isSealed: Boolean = false
@@ -0,0 +1,65 @@
+package tech.kaffa.portrait.codegen
+
+import tech.kaffa.portrait.aot.ClassIds
+import java.io.File
+import java.util.Properties
+
+/**
+ * Local class ids of one codegen run, laid out into full ids by [ClassIds].
+ *
+ * Ids are assigned independently of the provider's perfect hash. Names are numbered in sorted
+ * order, after every id recorded by a previous run when an id file is used, so classes keep their
+ * ids as others are added or removed. Ids of removed classes stay reserved in the file and are
+ * never handed to another class.
+ *
+ * @property namespace Namespace of the generated provider, the high bits of every id
+ * @param localIds Local id of every name, including the reserved names of removed classes
+ */
+class ClassIdAssignment(
+    val namespace: Int,
+    private val localIds: Map<String, Int>
+) {
+
+    /** Number of local ids in use, reserved ones included; the size of id-indexed tables */
+    val localIdCount: Int = (localIds.values.maxOrNull() ?: -1) + 1
+
+    fun localIdOf(className: String): Int =
+        localIds[className] ?: throw IllegalArgumentException("No class id assigned to $className")
+
+    fun idOf(className: String): Int = ClassIds.of(namespace, localIdOf(className))
+
+    /**
+     * Writes every assignment, reserved ones included, as `className=localId` lines sorted by name.
+     */
+    fun write(file: File) {
+        file.absoluteFile.parentFile?.mkdirs()
+        file.bufferedWriter().use { writer ->
+            writer.write("# Portrait class ids, keep under version control to keep ids stable\n")
+            localIds.toSortedMap().forEach { (className, localId) -> writer.write("$className=$localId\n") }
+        }
+    }
+
+    companion object {
+        /**
+         * Assigns local ids to [classNames], keeping the ids recorded in [idFile] when it exists.
+         */
+        fun assign(classNames: Collection<String>, namespace: Int, idFile: File? = null): ClassIdAssignment {
+            val localIds = HashMap(idFile?.takeIf { it.isFile }?.let(::read) ?: emptyMap())
+            var next = (localIds.values.maxOrNull() ?: -1) + 1
+            classNames.sorted().forEach { className ->
+                if (className !in localIds) localIds[className] = next++
+            }
+            require(next - 1 <= ClassIds.MAX_LOCAL_ID) { "Too many classes for one provider: $next" }
+            return ClassIdAssignment(namespace, localIds)
+        }
+
+        private fun read(file: File): Map<String, Int> {
+            val properties = Properties()
+            file.bufferedReader().use { properties.load(it) }
+            return properties.stringPropertyNames().associateWith { className ->
+                properties.getProperty(className).trim().toIntOrNull()
+                    ?: throw IllegalArgumentException("Invalid class id for $className in $file")
+            }
+        }
+    }
+}
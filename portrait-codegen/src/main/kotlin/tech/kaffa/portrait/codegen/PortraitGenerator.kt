@@ -2,23 +2,43 @@ package tech.kaffa.portrait.codegen
 
 import net.bytebuddy.ByteBuddy
 import net.bytebuddy.ClassFileVersion
+import net.bytebuddy.description.type.TypeDescription
 import net.bytebuddy.dynamic.ClassFileLocator
 import net.bytebuddy.dynamic.DynamicType
 import net.bytebuddy.pool.TypePool
 import org.slf4j.LoggerFactory
+import tech.kaffa.portrait.aot.ClassIds
+import tech.kaffa.portrait.aot.PerfectHash
+import tech.kaffa.portrait.aot.meta.PClassEntry
+import tech.kaffa.portrait.aot.meta.serde.MetadataSerializer
+import tech.kaffa.portrait.aot.meta.serde.MetadataStore
+import tech.kaffa.portrait.codegen.annotation.AnnotationClassFactory
 import tech.kaffa.portrait.codegen.generator.DirectoryOutputTarget
 import tech.kaffa.portrait.codegen.generator.JarOutputTarget
 import tech.kaffa.portrait.codegen.generator.OutputTarget
 import tech.kaffa.portrait.codegen.portrait.PortraitClassFactory
 import tech.kaffa.portrait.codegen.provider.GeneratedPortraitProviderFactory
+import tech.kaffa.portrait.codegen.provider.MetadataStoreHolderFactory
 import tech.kaffa.portrait.codegen.proxy.ProxyClassFactory
 import tech.kaffa.portrait.codegen.utils.ExplicitClassLocator
 import java.io.Closeable
 import java.io.File
 
+/**
+ * Generates the Portrait, proxy, annotation and provider classes for a scanned classpath.
+ *
+ * @param providerPackage Package of the generated provider; artifacts loaded together need distinct packages
+ * @param idNamespace Namespace of the generated class ids, by default derived from the provider's name. Derived
+ * namespaces can collide, so set it explicitly, distinct per artifact, when several artifacts are loaded together
+ * @param classIdFile File that records the assigned class ids across runs, so they stay stable
+ */
 class PortraitGenerator private constructor(
     private val output: OutputTarget,
-    private val scan: ClasspathScanner.Result
+    private val scan: ClasspathScanner.Result,
+    private val metadataOutput: MetadataOutput,
+    private val providerPackage: String,
+    private val idNamespace: Int?,
+    private val classIdFile: File?
 ) : Closeable {
     private val byteBuddy = ByteBuddy().with(ClassFileVersion.JAVA_V8)
     private val generatedTypes = ExplicitClassLocator()
@@ -48,15 +68,46 @@ class PortraitGenerator private constructor(
             output.writeGeneratedClass(proxy)
         }
 
-        for (portrait in generatePortraitClasses(generatedProxies)) {
+        // Names are dispatched through a perfect hash over every portrait candidate. Class ids are
+        // assigned apart from its slots, which move whenever the set of candidates changes, and are
+        // known before the Portrait classes that report them are generated.
+        val portraitTypes = resolvePortraitTypes()
+        val portraitNames = portraitTypes.map { it.name }
+        val displacements = PerfectHash.build(portraitNames)
+        val namespace = idNamespace
+            ?: ClassIds.defaultNamespace(GeneratedPortraitProviderFactory.providerClassName(providerPackage))
+        val classIds = ClassIdAssignment.assign(portraitNames, namespace, classIdFile)
+
+        val generatedAnnotations = mutableMapOf<String, AnnotationClassFactory.Result>()
+        for (annotation in generateAnnotationClasses(portraitTypes)) {
+            generatedAnnotations[annotation.superType.name] = annotation
+            generatedTypes.add(annotation.dynamicType)
+            output.writeGeneratedClass(annotation)
+        }
+
+        val storeHolder = when (metadataOutput) {
+            MetadataOutput.EMBEDDED -> null
+            MetadataOutput.STORE -> MetadataStoreHolderFactory(byteBuddy, typePool).make(mapped = false, providerPackage)
+            MetadataOutput.MAPPED_STORE -> MetadataStoreHolderFactory(byteBuddy, typePool).make(mapped = true, providerPackage)
+        }
+
+        val portraits = generatePortraitClasses(
+            portraitTypes, classIds, storeHolder, generatedProxies, generatedAnnotations
+        )
+        for (portrait in portraits) {
             generatedPortraits.add(portrait)
             generatedTypes.add(portrait.dynamicType)
             output.writeGeneratedClass(portrait)
         }
 
         if (generatedPortraits.isNotEmpty()) {
-            generatePortraitProvider(generatedPortraits)
+            if (storeHolder != null) {
+                output.writeGeneratedClass(storeHolder)
+                writeMetadataStore(generatedPortraits, classIds.localIdCount, storeHolder.resource)
+            }
+            generatePortraitProvider(generatedPortraits, displacements, classIds)
         }
+        classIdFile?.let(classIds::write)
     }
 
     private fun generateProxyClasses(): Sequence<ProxyClassFactory.Result> {
@@ -82,12 +133,33 @@ class PortraitGenerator private constructor(
             }
     }
 
-    private fun generatePortraitClasses(
-        generatedProxies: MutableMap<String, ProxyClassFactory.Result>
-    ): Sequence<PortraitClassFactory.Result> {
-        val factory = PortraitClassFactory(byteBuddy, typePool, generatedProxies)
+    private fun generateAnnotationClasses(
+        portraitTypes: List<TypeDescription>
+    ): Sequence<AnnotationClassFactory.Result> {
+        val factory = AnnotationClassFactory(byteBuddy, typePool)
 
-        return (scan.proxyTargets + scan.reflectives).asSequence()
+        return portraitTypes.asSequence()
+            .filter { it.isAnnotation }
+            .mapNotNull { typeDescription ->
+                try {
+                    if (!AnnotationClassFactory.supports(typeDescription)) {
+                        logger.debug(
+                            "Skipping annotation implementation for ${typeDescription.name} " +
+                                    "because it has annotation-typed attributes"
+                        )
+                        null
+                    } else {
+                        factory.make(typeDescription)
+                    }
+                } catch (e: Exception) {
+                    logger.warn("Failed to generate annotation class for ${typeDescription.name}: ${e.message}", e)
+                    null
+                }
+            }
+    }
+
+    private fun resolvePortraitTypes(): List<TypeDescription> {
+        return (scan.proxyTargets + scan.reflectives).sorted()
             .mapNotNull { className ->
                 try {
                     val typeDescription = typePool.describe(className).resolve()
@@ -95,7 +167,7 @@ class PortraitGenerator private constructor(
                         logger.debug("Skipping portrait generation for $className because it is not public")
                         null
                     } else {
-                        factory.make(typeDescription)
+                        typeDescription
                     }
                 } catch (e: Exception) {
                     logger.warn("Failed to generate portrait class for $className: ${e.message}", e)
@@ -104,16 +176,76 @@ class PortraitGenerator private constructor(
             }
     }
 
-    private fun generatePortraitProvider(generatedPortraits: Set<PortraitClassFactory.Result>) {
+    private fun generatePortraitClasses(
+        portraitTypes: List<TypeDescription>,
+        classIds: ClassIdAssignment,
+        storeHolder: MetadataStoreHolderFactory.Result?,
+        generatedProxies: MutableMap<String, ProxyClassFactory.Result>,
+        generatedAnnotations: Map<String, AnnotationClassFactory.Result>
+    ): Sequence<PortraitClassFactory.Result> {
+        val factory = PortraitClassFactory(
+            byteBuddy,
+            typePool,
+            generatedProxies,
+            metadataStoreHolder = storeHolder?.holderInternalName,
+            generatedAnnotations = generatedAnnotations
+        )
+
+        return portraitTypes.asSequence()
+            .mapNotNull { typeDescription ->
+                try {
+                    factory.make(typeDescription, classIds.idOf(typeDescription.name))
+                } catch (e: Exception) {
+                    logger.warn("Failed to generate portrait class for ${typeDescription.name}: ${e.message}", e)
+                    null
+                }
+            }
+    }
+
+    private fun generatePortraitProvider(
+        generatedPortraits: Set<PortraitClassFactory.Result>,
+        displacements: IntArray,
+        classIds: ClassIdAssignment
+    ) {
         val providerFactory = GeneratedPortraitProviderFactory(byteBuddy, typePool)
-        val providerResult = providerFactory.make(generatedPortraits)
+        val providerResult = providerFactory.make(generatedPortraits, displacements, classIds, providerPackage)
 
         output.writeGeneratedClass(providerResult)
         output.writeServiceProviderEntry(providerResult.providerClassName)
     }
 
+    /**
+     * Writes the metadata of [generatedPortraits] as one store at [resource], with a record per
+     * local class id.
+     */
+    private fun writeMetadataStore(
+        generatedPortraits: Set<PortraitClassFactory.Result>,
+        classCount: Int,
+        resource: String
+    ) {
+        val entries = arrayOfNulls<PClassEntry>(classCount)
+        generatedPortraits.forEach { entries[ClassIds.localIdOf(it.classId)] = it.classEntry }
+
+        output.writeResource(resource, MetadataSerializer().serializeStore(entries.asList()))
+    }
+
     enum class OutputType { JAR, FOLDER }
 
+    /** Where the generated Portrait classes keep their metadata. */
+    enum class MetadataOutput {
+        /** A Base64 string embedded in each Portrait class, with its own string table */
+        EMBEDDED,
+
+        /**
+         * One store with a shared string table next to the provider, at [MetadataStore.resourceFor]
+         * of its package, read into a byte array
+         */
+        STORE,
+
+        /** Like [STORE], but memory-mapped when it is a plain file; JVM targets only */
+        MAPPED_STORE
+    }
+
     companion object {
         private val logger = LoggerFactory.getLogger(PortraitGenerator::class.java)
 
@@ -121,25 +253,62 @@ class PortraitGenerator private constructor(
          * Construct a [PortraitGenerator] that writes to a JAR at [outputPath].
          * Remember to call [close] (or use Kotlin's `use {}`) after [generate].
          */
-        fun forJar(outputPath: String, scan: ClasspathScanner.Result): PortraitGenerator {
-            return PortraitGenerator(JarOutputTarget(File(outputPath), logger), scan)
+        fun forJar(
+            outputPath: String,
+            scan: ClasspathScanner.Result,
+            metadataOutput: MetadataOutput = MetadataOutput.EMBEDDED,
+            providerPackage: String = GeneratedPortraitProviderFactory.DEFAULT_PACKAGE,
+            idNamespace: Int? = null,
+            classIdFile: File? = null
+        ): PortraitGenerator {
+            return PortraitGenerator(
+                JarOutputTarget(File(outputPath), logger),
+                scan,
+                metadataOutput,
+                providerPackage,
+                idNamespace,
+                classIdFile
+            )
         }
 
         /**
          * Construct a [PortraitGenerator] that writes class files into the folder at [outputPath].
          * Remember to call [close] (or use Kotlin's `use {}`) after [generate].
          */
-        fun forFolder(outputPath: String, scan: ClasspathScanner.Result): PortraitGenerator {
-            return PortraitGenerator(DirectoryOutputTarget(File(outputPath), logger), scan)
+        fun forFolder(
+            outputPath: String,
+            scan: ClasspathScanner.Result,
+            metadataOutput: MetadataOutput = MetadataOutput.EMBEDDED,
+            providerPackage: String = GeneratedPortraitProviderFactory.DEFAULT_PACKAGE,
+            idNamespace: Int? = null,
+            classIdFile: File? = null
+        ): PortraitGenerator {
+            return PortraitGenerator(
+                DirectoryOutputTarget(File(outputPath), logger),
+                scan,
+                metadataOutput,
+                providerPackage,
+                idNamespace,
+                classIdFile
+            )
         }
 
         /**
          * Generic factory that selects the output implementation by [type].
          */
-        fun forType(type: OutputType, outputPath: String, scan: ClasspathScanner.Result): PortraitGenerator {
+        fun forType(
+            type: OutputType,
+            outputPath: String,
+            scan: ClasspathScanner.Result,
+            metadataOutput: MetadataOutput = MetadataOutput.EMBEDDED,
+            providerPackage: String = GeneratedPortraitProviderFactory.DEFAULT_PACKAGE,
+            idNamespace: Int? = null,
+            classIdFile: File? = null
+        ): PortraitGenerator {
             return when (type) {
-                OutputType.JAR -> forJar(outputPath, scan)
-                OutputType.FOLDER -> forFolder(outputPath, scan)
+                OutputType.JAR -> forJar(outputPath, scan, metadataOutput, providerPackage, idNamespace, classIdFile)
+                OutputType.FOLDER ->
+                    forFolder(outputPath, scan, metadataOutput, providerPackage, idNamespace, classIdFile)
             }
         }
     }
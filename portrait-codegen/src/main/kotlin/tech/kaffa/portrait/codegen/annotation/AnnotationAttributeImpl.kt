@@ -0,0 +1,36 @@
+package tech.kaffa.portrait.codegen.annotation
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import net.bytebuddy.jar.asm.Type
+import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
+
+/**
+ * ByteCode implementation for an attribute method of a generated annotation class. Arrays are
+ * returned as copies, as the JVM's annotations do, so callers cannot change the instance.
+ */
+class AnnotationAttributeImpl(
+    private val ownerInternalName: String,
+    private val attribute: MethodDescription
+) : BytecodeImplementation() {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        val type = attribute.attributeType
+
+        mv.loadAttributeField(ownerInternalName, attribute)
+        if (type.isArray) {
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, type.descriptor, "clone", "()Ljava/lang/Object;", false)
+            mv.visitTypeInsn(Opcodes.CHECKCAST, type.descriptor)
+        }
+
+        mv.visitInsn(Type.getType(type.descriptor).getOpcode(Opcodes.IRETURN))
+        return ByteCodeAppender.Size(type.stackSize.size, method.stackSize)
+    }
+}
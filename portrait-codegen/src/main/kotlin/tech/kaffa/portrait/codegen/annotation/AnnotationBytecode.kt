@@ -0,0 +1,51 @@
+package tech.kaffa.portrait.codegen.annotation
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.description.type.TypeDescription
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+
+// Bytecode shared by the generated annotation implementations, whose fields are named after the attributes
+
+internal const val ANNOTATION_VALUES = "tech/kaffa/portrait/aot/AnnotationValues"
+
+internal val MethodDescription.attributeType: TypeDescription get() = returnType.asErasure()
+
+internal fun MethodVisitor.loadAttributeField(ownerInternalName: String, attribute: MethodDescription) {
+    visitVarInsn(Opcodes.ALOAD, 0)
+    visitFieldInsn(Opcodes.GETFIELD, ownerInternalName, attribute.name, attribute.attributeType.descriptor)
+}
+
+internal fun MethodVisitor.pushInt(value: Int) {
+    when (value) {
+        in -1..5 -> visitInsn(Opcodes.ICONST_0 + value)
+        in Byte.MIN_VALUE..Byte.MAX_VALUE -> visitIntInsn(Opcodes.BIPUSH, value)
+        in Short.MIN_VALUE..Short.MAX_VALUE -> visitIntInsn(Opcodes.SIPUSH, value)
+        else -> visitLdcInsn(value)
+    }
+}
+
+internal fun MethodVisitor.boxIfNeeded(type: TypeDescription) {
+    if (!type.isPrimitive) return
+    val wrapper = wrapperInternalName(type)
+    visitMethodInsn(Opcodes.INVOKESTATIC, wrapper, "valueOf", "(${type.descriptor})L$wrapper;", false)
+}
+
+internal fun wrapperInternalName(primitiveType: TypeDescription): String = when (primitiveType.descriptor) {
+    "Z" -> "java/lang/Boolean"
+    "B" -> "java/lang/Byte"
+    "C" -> "java/lang/Character"
+    "S" -> "java/lang/Short"
+    "I" -> "java/lang/Integer"
+    "J" -> "java/lang/Long"
+    "F" -> "java/lang/Float"
+    "D" -> "java/lang/Double"
+    else -> throw IllegalArgumentException("Not a primitive type: ${primitiveType.name}")
+}
+
+/**
+ * Descriptor of an `Arrays.equals`/`Arrays.hashCode` parameter for [arrayType]: reference arrays
+ * use the `Object[]` overloads.
+ */
+internal fun arraysParameterDescriptor(arrayType: TypeDescription): String =
+    if (arrayType.componentType!!.isPrimitive) arrayType.descriptor else "[Ljava/lang/Object;"
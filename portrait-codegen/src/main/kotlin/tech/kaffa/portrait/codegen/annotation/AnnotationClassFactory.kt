@@ -0,0 +1,122 @@
+package tech.kaffa.portrait.codegen.annotation
+
+import net.bytebuddy.ByteBuddy
+import net.bytebuddy.asm.AsmVisitorWrapper
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.description.modifier.FieldManifestation
+import net.bytebuddy.description.modifier.TypeManifestation
+import net.bytebuddy.description.modifier.Visibility
+import net.bytebuddy.description.type.TypeDescription
+import net.bytebuddy.dynamic.DynamicType
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy
+import net.bytebuddy.implementation.FixedValue
+import net.bytebuddy.jar.asm.ClassWriter
+import net.bytebuddy.pool.TypePool
+import tech.kaffa.portrait.codegen.PortraitGenerator
+import net.bytebuddy.matcher.ElementMatchers.`is` as matchExactly
+
+/**
+ * Generates a final implementation class for an annotation type, so that
+ * [tech.kaffa.portrait.aot.StaticPAnnotation.get] returns a plain object instead of a proxy.
+ *
+ * The class takes the properties of a `PAnnotationEntry` in its constructor and keeps each
+ * attribute in a final field. `equals`, `hashCode` and `toString` follow the contract of
+ * [java.lang.annotation.Annotation], so instances compare equal to the JVM's own.
+ */
+class AnnotationClassFactory(private val byteBuddy: ByteBuddy, private val typePool: TypePool) {
+
+    data class Result(
+        val superType: TypeDescription,
+        override val dynamicType: DynamicType,
+        val constructor: MethodDescription
+    ) : PortraitGenerator.GeneratedClass
+
+    private fun generatedClassName(annotationType: TypeDescription): String {
+        val originalName = annotationType.name
+        return if (originalName.startsWith("java.")) {
+            "tech.kaffa.portrait.generated.jdk.${originalName}PortraitAnnotation"
+        } else {
+            "$originalName\$PortraitAnnotation"
+        }
+    }
+
+    fun make(annotationType: TypeDescription): Result {
+        require(supports(annotationType)) {
+            "Only annotations with primitive, String, Class and enum attributes are supported. " +
+                    "Annotation: ${annotationType.name}"
+        }
+
+        val className = generatedClassName(annotationType)
+        val internalName = className.replace('.', '/')
+        val attributes = attributesOf(annotationType)
+
+        var builder: DynamicType.Builder<Any> = byteBuddy
+            .subclass(Any::class.java, ConstructorStrategy.Default.NO_CONSTRUCTORS)
+            .name(className)
+            .modifiers(Visibility.PUBLIC, TypeManifestation.FINAL)
+            .implement(annotationType)
+
+        for (attribute in attributes) {
+            builder = builder.defineField(
+                attribute.name,
+                attribute.returnType.asErasure(),
+                Visibility.PRIVATE,
+                FieldManifestation.FINAL
+            )
+        }
+
+        builder = builder
+            .defineConstructor(Visibility.PUBLIC)
+            .withParameters(Map::class.java)
+            .intercept(AnnotationConstructorImpl(internalName, attributes))
+
+        for (attribute in attributes) {
+            builder = builder
+                .method(matchExactly(attribute))
+                .intercept(AnnotationAttributeImpl(internalName, attribute))
+        }
+
+        builder = builder
+            .defineMethod("annotationType", Class::class.java, Visibility.PUBLIC)
+            .intercept(FixedValue.value(annotationType))
+            .defineMethod("equals", Boolean::class.javaPrimitiveType, Visibility.PUBLIC)
+            .withParameters(Any::class.java)
+            .intercept(AnnotationEqualsImpl(internalName, annotationType, attributes))
+            .defineMethod("hashCode", Int::class.javaPrimitiveType, Visibility.PUBLIC)
+            .intercept(AnnotationHashCodeImpl(internalName, attributes))
+            .defineMethod("toString", String::class.java, Visibility.PUBLIC)
+            .intercept(AnnotationToStringImpl(internalName, annotationType.name, attributes))
+
+        val dynamicType = builder.visit(
+            AsmVisitorWrapper.ForDeclaredMethods()
+                .writerFlags(ClassWriter.COMPUTE_FRAMES or ClassWriter.COMPUTE_MAXS)
+        ).make(typePool)
+
+        return Result(
+            annotationType,
+            dynamicType,
+            dynamicType.typeDescription.declaredMethods.first { it.isConstructor }
+        )
+    }
+
+    companion object {
+
+        /** The attribute methods of [annotationType], in declaration order. */
+        fun attributesOf(annotationType: TypeDescription): List<MethodDescription.InDefinedShape> =
+            annotationType.declaredMethods.filter { it.isAbstract && !it.isStatic }
+
+        /**
+         * Whether every attribute of [annotationType] can be rebuilt from metadata. Nested
+         * annotations are kept only as text, so annotation types using them keep the proxy.
+         */
+        fun supports(annotationType: TypeDescription): Boolean =
+            annotationType.isAnnotation && attributesOf(annotationType).all { attribute ->
+                val type = attribute.returnType.asErasure()
+                isSupportedValue(if (type.isArray) type.componentType!! else type)
+            }
+
+        private fun isSupportedValue(type: TypeDescription): Boolean =
+            type.isPrimitive || type.isEnum ||
+                    type.represents(String::class.java) || type.represents(Class::class.java)
+    }
+}
@@ -0,0 +1,146 @@
+package tech.kaffa.portrait.codegen.annotation
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.description.type.TypeDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.Label
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
+
+/**
+ * ByteCode implementation for the `(Map)` constructor of a generated annotation class. Each field
+ * is read from the map by attribute name and converted through `AnnotationValues`; enum constants
+ * are resolved with the enum's own `valueOf`.
+ */
+class AnnotationConstructorImpl(
+    private val ownerInternalName: String,
+    private val attributes: List<MethodDescription>
+) : BytecodeImplementation() {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        mv.visitVarInsn(Opcodes.ALOAD, 0)
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false)
+
+        for (attribute in attributes) {
+            val type = attribute.attributeType
+
+            mv.visitVarInsn(Opcodes.ALOAD, 0)
+            mv.visitVarInsn(Opcodes.ALOAD, 1)
+            mv.visitLdcInsn(attribute.name)
+            mv.visitMethodInsn(
+                Opcodes.INVOKEINTERFACE,
+                "java/util/Map",
+                "get",
+                "(Ljava/lang/Object;)Ljava/lang/Object;",
+                true
+            )
+
+            if (type.isArray) convertArray(mv, type) else convertValue(mv, type)
+
+            mv.visitFieldInsn(Opcodes.PUTFIELD, ownerInternalName, attribute.name, type.descriptor)
+        }
+
+        mv.visitInsn(Opcodes.RETURN)
+        return ByteCodeAppender.Size(6, method.stackSize + 3)
+    }
+
+    private fun convertValue(mv: MethodVisitor, type: TypeDescription) {
+        when {
+            type.isPrimitive -> invokeConverter(mv, "to${valueName(type)}", type.descriptor)
+            type.represents(Class::class.java) -> invokeConverter(mv, "toClass", "Ljava/lang/Class;")
+            type.represents(String::class.java) -> invokeConverter(mv, "toStringValue", "Ljava/lang/String;")
+            else -> {
+                // Enum constant: null stays null, anything else goes through valueOf
+                invokeConverter(mv, "toStringValue", "Ljava/lang/String;")
+                val isNull = Label()
+                val done = Label()
+                mv.visitInsn(Opcodes.DUP)
+                mv.visitJumpInsn(Opcodes.IFNULL, isNull)
+                invokeValueOf(mv, type)
+                mv.visitJumpInsn(Opcodes.GOTO, done)
+                mv.visitLabel(isNull)
+                mv.visitInsn(Opcodes.POP)
+                mv.visitInsn(Opcodes.ACONST_NULL)
+                mv.visitLabel(done)
+            }
+        }
+    }
+
+    private fun convertArray(mv: MethodVisitor, arrayType: TypeDescription) {
+        val componentType = arrayType.componentType!!
+        when {
+            componentType.isPrimitive ->
+                invokeConverter(mv, "to${valueName(componentType)}Array", arrayType.descriptor)
+            componentType.represents(Class::class.java) ->
+                invokeConverter(mv, "toClassArray", "[Ljava/lang/Class;")
+            componentType.represents(String::class.java) ->
+                invokeConverter(mv, "toStringArray", "[Ljava/lang/String;")
+            else -> {
+                // Enum constants: names[i] -> valueOf, into a new array of the enum type
+                invokeConverter(mv, "toStringArray", "[Ljava/lang/String;")
+                mv.visitVarInsn(Opcodes.ASTORE, NAMES_LOCAL)
+                mv.visitVarInsn(Opcodes.ALOAD, NAMES_LOCAL)
+                mv.visitInsn(Opcodes.ARRAYLENGTH)
+                mv.visitTypeInsn(Opcodes.ANEWARRAY, componentType.internalName)
+                mv.visitVarInsn(Opcodes.ASTORE, CONSTANTS_LOCAL)
+
+                val loop = Label()
+                val done = Label()
+                mv.visitInsn(Opcodes.ICONST_0)
+                mv.visitVarInsn(Opcodes.ISTORE, INDEX_LOCAL)
+                mv.visitLabel(loop)
+                mv.visitVarInsn(Opcodes.ILOAD, INDEX_LOCAL)
+                mv.visitVarInsn(Opcodes.ALOAD, NAMES_LOCAL)
+                mv.visitInsn(Opcodes.ARRAYLENGTH)
+                mv.visitJumpInsn(Opcodes.IF_ICMPGE, done)
+                mv.visitVarInsn(Opcodes.ALOAD, CONSTANTS_LOCAL)
+                mv.visitVarInsn(Opcodes.ILOAD, INDEX_LOCAL)
+                mv.visitVarInsn(Opcodes.ALOAD, NAMES_LOCAL)
+                mv.visitVarInsn(Opcodes.ILOAD, INDEX_LOCAL)
+                mv.visitInsn(Opcodes.AALOAD)
+                invokeValueOf(mv, componentType)
+                mv.visitInsn(Opcodes.AASTORE)
+                mv.visitIincInsn(INDEX_LOCAL, 1)
+                mv.visitJumpInsn(Opcodes.GOTO, loop)
+                mv.visitLabel(done)
+                mv.visitVarInsn(Opcodes.ALOAD, CONSTANTS_LOCAL)
+            }
+        }
+    }
+
+    private fun invokeConverter(mv: MethodVisitor, name: String, returnDescriptor: String) {
+        mv.visitMethodInsn(
+            Opcodes.INVOKESTATIC,
+            ANNOTATION_VALUES,
+            name,
+            "(Ljava/lang/Object;)$returnDescriptor",
+            false
+        )
+    }
+
+    private fun invokeValueOf(mv: MethodVisitor, enumType: TypeDescription) {
+        mv.visitMethodInsn(
+            Opcodes.INVOKESTATIC,
+            enumType.internalName,
+            "valueOf",
+            "(Ljava/lang/String;)${enumType.descriptor}",
+            false
+        )
+    }
+
+    private fun valueName(primitiveType: TypeDescription): String =
+        primitiveType.name.replaceFirstChar { it.uppercaseChar() }
+
+    private companion object {
+        // Locals after `this` and the properties map
+        const val NAMES_LOCAL = 2
+        const val CONSTANTS_LOCAL = 3
+        const val INDEX_LOCAL = 4
+    }
+}
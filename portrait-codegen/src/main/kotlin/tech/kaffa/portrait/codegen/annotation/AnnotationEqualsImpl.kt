@@ -0,0 +1,108 @@
+package tech.kaffa.portrait.codegen.annotation
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.description.type.TypeDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.Label
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
+
+/**
+ * ByteCode implementation for `equals` of a generated annotation class: any instance of the
+ * annotation type with equal attributes is equal, whoever implemented it. Floating point values
+ * compare like `Float.equals`/`Double.equals`, and arrays by content.
+ */
+class AnnotationEqualsImpl(
+    private val ownerInternalName: String,
+    private val annotationType: TypeDescription,
+    private val attributes: List<MethodDescription>
+) : BytecodeImplementation() {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        val notSame = Label()
+        val isAnnotation = Label()
+        val notEqual = Label()
+
+        mv.visitVarInsn(Opcodes.ALOAD, 0)
+        mv.visitVarInsn(Opcodes.ALOAD, 1)
+        mv.visitJumpInsn(Opcodes.IF_ACMPNE, notSame)
+        mv.visitInsn(Opcodes.ICONST_1)
+        mv.visitInsn(Opcodes.IRETURN)
+
+        mv.visitLabel(notSame)
+        mv.visitVarInsn(Opcodes.ALOAD, 1)
+        mv.visitTypeInsn(Opcodes.INSTANCEOF, annotationType.internalName)
+        mv.visitJumpInsn(Opcodes.IFNE, isAnnotation)
+        mv.visitInsn(Opcodes.ICONST_0)
+        mv.visitInsn(Opcodes.IRETURN)
+
+        mv.visitLabel(isAnnotation)
+        mv.visitVarInsn(Opcodes.ALOAD, 1)
+        mv.visitTypeInsn(Opcodes.CHECKCAST, annotationType.internalName)
+        mv.visitVarInsn(Opcodes.ASTORE, OTHER_LOCAL)
+
+        for (attribute in attributes) {
+            mv.loadAttributeField(ownerInternalName, attribute)
+            mv.visitVarInsn(Opcodes.ALOAD, OTHER_LOCAL)
+            mv.visitMethodInsn(
+                Opcodes.INVOKEINTERFACE,
+                annotationType.internalName,
+                attribute.internalName,
+                attribute.descriptor,
+                true
+            )
+            compareAndJump(mv, attribute.attributeType, notEqual)
+        }
+
+        mv.visitInsn(Opcodes.ICONST_1)
+        mv.visitInsn(Opcodes.IRETURN)
+
+        mv.visitLabel(notEqual)
+        mv.visitInsn(Opcodes.ICONST_0)
+        mv.visitInsn(Opcodes.IRETURN)
+
+        return ByteCodeAppender.Size(4, method.stackSize + 1)
+    }
+
+    /** Compares the two values of [type] on the stack and jumps to [notEqual] if they differ. */
+    private fun compareAndJump(mv: MethodVisitor, type: TypeDescription, notEqual: Label) {
+        when {
+            type.isArray -> {
+                val parameter = arraysParameterDescriptor(type)
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/util/Arrays", "equals", "($parameter$parameter)Z", false)
+                mv.visitJumpInsn(Opcodes.IFEQ, notEqual)
+            }
+            !type.isPrimitive -> {
+                mv.visitMethodInsn(
+                    Opcodes.INVOKESTATIC,
+                    "java/util/Objects",
+                    "equals",
+                    "(Ljava/lang/Object;Ljava/lang/Object;)Z",
+                    false
+                )
+                mv.visitJumpInsn(Opcodes.IFEQ, notEqual)
+            }
+            type.descriptor == "J" -> {
+                mv.visitInsn(Opcodes.LCMP)
+                mv.visitJumpInsn(Opcodes.IFNE, notEqual)
+            }
+            type.descriptor == "F" || type.descriptor == "D" -> {
+                val descriptor = "(${type.descriptor}${type.descriptor})I"
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, wrapperInternalName(type), "compare", descriptor, false)
+                mv.visitJumpInsn(Opcodes.IFNE, notEqual)
+            }
+            else -> mv.visitJumpInsn(Opcodes.IF_ICMPNE, notEqual)
+        }
+    }
+
+    private companion object {
+        // Local holding the other annotation, after `this` and the argument
+        const val OTHER_LOCAL = 2
+    }
+}
@@ -0,0 +1,59 @@
+package tech.kaffa.portrait.codegen.annotation
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.description.type.TypeDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
+
+/**
+ * ByteCode implementation for `hashCode` of a generated annotation class, as specified by
+ * [java.lang.annotation.Annotation.hashCode]: the sum over all attributes of
+ * `(127 * name.hashCode()) ^ valueHash`. The name part is folded into a constant.
+ */
+class AnnotationHashCodeImpl(
+    private val ownerInternalName: String,
+    private val attributes: List<MethodDescription>
+) : BytecodeImplementation() {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        mv.visitInsn(Opcodes.ICONST_0)
+
+        for (attribute in attributes) {
+            mv.pushInt(127 * attribute.name.hashCode())
+            mv.loadAttributeField(ownerInternalName, attribute)
+            hashValue(mv, attribute.attributeType)
+            mv.visitInsn(Opcodes.IXOR)
+            mv.visitInsn(Opcodes.IADD)
+        }
+
+        mv.visitInsn(Opcodes.IRETURN)
+        return ByteCodeAppender.Size(4, method.stackSize)
+    }
+
+    private fun hashValue(mv: MethodVisitor, type: TypeDescription) {
+        when {
+            type.isArray -> {
+                val parameter = arraysParameterDescriptor(type)
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/util/Arrays", "hashCode", "($parameter)I", false)
+            }
+            type.isPrimitive -> {
+                val wrapper = wrapperInternalName(type)
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, wrapper, "hashCode", "(${type.descriptor})I", false)
+            }
+            else -> mv.visitMethodInsn(
+                Opcodes.INVOKESTATIC,
+                "java/util/Objects",
+                "hashCode",
+                "(Ljava/lang/Object;)I",
+                false
+            )
+        }
+    }
+}
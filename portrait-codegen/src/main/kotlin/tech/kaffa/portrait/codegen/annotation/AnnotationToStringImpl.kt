@@ -0,0 +1,57 @@
+package tech.kaffa.portrait.codegen.annotation
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
+
+/**
+ * ByteCode implementation for `toString` of a generated annotation class. The attribute names and
+ * boxed values are handed to `AnnotationValues.format`, which renders them like the proxy-based
+ * annotations do.
+ */
+class AnnotationToStringImpl(
+    private val ownerInternalName: String,
+    private val annotationTypeName: String,
+    private val attributes: List<MethodDescription>
+) : BytecodeImplementation() {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        mv.visitLdcInsn(annotationTypeName)
+
+        mv.pushInt(attributes.size)
+        mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/String")
+        attributes.forEachIndexed { index, attribute ->
+            mv.visitInsn(Opcodes.DUP)
+            mv.pushInt(index)
+            mv.visitLdcInsn(attribute.name)
+            mv.visitInsn(Opcodes.AASTORE)
+        }
+
+        mv.pushInt(attributes.size)
+        mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/Object")
+        attributes.forEachIndexed { index, attribute ->
+            mv.visitInsn(Opcodes.DUP)
+            mv.pushInt(index)
+            mv.loadAttributeField(ownerInternalName, attribute)
+            mv.boxIfNeeded(attribute.attributeType)
+            mv.visitInsn(Opcodes.AASTORE)
+        }
+
+        mv.visitMethodInsn(
+            Opcodes.INVOKESTATIC,
+            ANNOTATION_VALUES,
+            "format",
+            "(Ljava/lang/String;[Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/String;",
+            false
+        )
+        mv.visitInsn(Opcodes.ARETURN)
+        return ByteCodeAppender.Size(7, method.stackSize)
+    }
+}
@@ -1,6 +1,7 @@
 package tech.kaffa.portrait.codegen.cli
 
 import com.github.ajalt.clikt.core.CliktCommand
+import com.github.ajalt.clikt.parameters.options.default
 import com.github.ajalt.clikt.parameters.options.flag
 import com.github.ajalt.clikt.parameters.options.help
 import com.github.ajalt.clikt.parameters.options.multiple
@@ -8,11 +9,16 @@ import com.github.ajalt.clikt.parameters.options.option
 import com.github.ajalt.clikt.parameters.options.required
 import com.github.ajalt.clikt.parameters.options.validate
 import com.github.ajalt.clikt.parameters.types.choice
+import com.github.ajalt.clikt.parameters.types.int
 import com.github.ajalt.clikt.parameters.types.path
+import com.github.ajalt.clikt.parameters.types.restrictTo
 import org.slf4j.LoggerFactory
+import tech.kaffa.portrait.aot.ClassIds
 import tech.kaffa.portrait.codegen.ClasspathScanner
 import tech.kaffa.portrait.codegen.PortraitGenerator
+import tech.kaffa.portrait.codegen.PortraitGenerator.MetadataOutput
 import tech.kaffa.portrait.codegen.PortraitGenerator.OutputType
+import tech.kaffa.portrait.codegen.provider.GeneratedPortraitProviderFactory
 import tech.kaffa.portrait.codegen.utils.ClasslibConfiguration
 import tech.kaffa.portrait.internal.InternalPortraitProvider
 import tech.kaffa.portrait.provider.PortraitProvider
@@ -66,6 +72,30 @@ class Portrait : CliktCommand(
         .choice("jar", "folder", ignoreCase = true)
         .help("Output format: 'jar' or 'folder' (auto-detected from output path if not specified)")
 
+    private val metadata by option("--metadata")
+        .choice("embedded", "store", ignoreCase = true)
+        .default("embedded")
+        .help(
+            "Metadata layout: 'embedded' in each Portrait class, or 'store' for one shared " +
+                    "portrait-metadata.bin in the provider package (memory-mapped on the JVM unless --teavm)"
+        )
+
+    private val providerPackage by option("--provider-package")
+        .default(GeneratedPortraitProviderFactory.DEFAULT_PACKAGE)
+        .help("Package of the generated provider; artifacts loaded together need distinct packages")
+
+    private val idNamespace by option("--id-namespace")
+        .int()
+        .restrictTo(0..ClassIds.MAX_NAMESPACE)
+        .help(
+            "Namespace of the generated class ids (derived from --provider-package if not specified); " +
+                    "required when more than one generated artifact is loaded, as derived namespaces can collide"
+        )
+
+    private val classIdFile by option("--class-ids")
+        .path(canBeFile = true, canBeDir = false)
+        .help("File recording the assigned class ids, read and updated on every run to keep ids stable")
+
     // New, ergonomic runtime flags
     private val runtimeJars by option("--runtime-jar")
         .path(mustExist = true, canBeFile = true, canBeDir = false)
@@ -136,7 +166,15 @@ class Portrait : CliktCommand(
 
             logger.info("Generating Portrait classes...")
             PortraitGenerator
-                .forType(outputType, outputPath, scanResult)
+                .forType(
+                    outputType,
+                    outputPath,
+                    scanResult,
+                    toMetadataOutput(metadata),
+                    providerPackage,
+                    idNamespace,
+                    classIdFile?.toFile()
+                )
                 .use { generator -> generator.generate() }
 
             logger.info("Portrait code generation completed successfully")
@@ -213,6 +251,15 @@ class Portrait : CliktCommand(
         }
     }
 
+    private fun toMetadataOutput(choice: String): MetadataOutput {
+        return when (choice.lowercase()) {
+            "embedded" -> MetadataOutput.EMBEDDED
+            // TeaVM has no FileChannel, so the store is read into a byte array there
+            "store" -> if (teavm) MetadataOutput.STORE else MetadataOutput.MAPPED_STORE
+            else -> error("Unsupported metadata output: $choice")
+        }
+    }
+
     private fun pluralize(count: Int, singular: String, plural: String = "${singular}s"): String {
         return if (count == 1) "1 $singular" else "$count $plural"
     }
@@ -34,6 +34,13 @@ class DirectoryOutputTarget(
         logger.debug("Generated service provider entry: ${serviceFile.absolutePath} -> $providerClassName")
     }
 
+    override fun writeResource(path: String, bytes: ByteArray) {
+        val resourceFile = File(outputDir, path)
+        resourceFile.parentFile.mkdirs()
+        resourceFile.writeBytes(bytes)
+        logger.debug("Generated resource: ${resourceFile.absolutePath}")
+    }
+
     override fun close() {
         // Nothing to close for directory output
     }
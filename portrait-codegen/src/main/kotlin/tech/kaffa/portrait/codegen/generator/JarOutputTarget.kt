@@ -40,6 +40,13 @@ class JarOutputTarget(
         logger.debug("Generated service provider entry: $entryName -> $providerClassName")
     }
 
+    override fun writeResource(path: String, bytes: ByteArray) {
+        jarOut.putNextEntry(JarEntry(path))
+        jarOut.write(bytes)
+        jarOut.closeEntry()
+        logger.debug("Generated resource: $path")
+    }
+
     override fun close() {
         jarOut.close()
     }
@@ -6,4 +6,7 @@ import java.io.Closeable
 interface OutputTarget : Closeable {
     fun writeGeneratedClass(generated: PortraitGenerator.GeneratedClass)
     fun writeServiceProviderEntry(providerClassName: String)
+
+    /** Writes [bytes] as the resource at [path], relative to the output root. */
+    fun writeResource(path: String, bytes: ByteArray)
 }
\ No newline at end of file
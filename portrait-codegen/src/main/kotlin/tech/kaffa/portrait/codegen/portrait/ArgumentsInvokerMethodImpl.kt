@@ -0,0 +1,101 @@
+package tech.kaffa.portrait.codegen.portrait
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.description.type.TypeDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import net.bytebuddy.jar.asm.Type
+
+/**
+ * Implements `invokeMethodWith(int, Object, PArguments)`, reading each argument through the
+ * `PArguments` getter matching its parameter type so primitives are never boxed. When
+ * [returnType] is set, implements `invokeXxxMethod(int, Object, PArguments)` instead, which
+ * returns the unboxed result and rejects methods with a different return type.
+ */
+class ArgumentsInvokerMethodImpl(
+    superType: TypeDescription,
+    methods: List<IndexedValue<MethodDescription>>,
+    private val returnType: TypeDescription? = null
+) : TableSwitchingImplementation<MethodDescription>(superType, methods) {
+
+    companion object {
+        const val ARGUMENTS_PARAM = 3
+        private const val ARGUMENTS_INTERNAL_NAME = "tech/kaffa/portrait/PArguments"
+    }
+
+    override fun isSupported(item: MethodDescription): Boolean =
+        returnType == null || item.returnType.asErasure() == returnType
+
+    override fun getUnsupportedItemMessage(): String =
+        "Method does not return ${returnType?.name} in ${superType.name}"
+
+    override fun generateItemImplementation(
+        item: MethodDescription,
+        methodVisitor: MethodVisitor,
+        implementationContext: Implementation.Context,
+        instrumentedMethod: MethodDescription
+    ) {
+        if (!item.isStatic) {
+            loadAndCastInstance(methodVisitor, INSTANCE_PARAM, item.declaringType.asErasure())
+        }
+
+        for ((paramIndex, parameter) in item.parameters.withIndex()) {
+            loadCarriedArgument(methodVisitor, paramIndex, parameter.type)
+        }
+
+        invokeMethod(methodVisitor, item)
+
+        if (returnType != null) {
+            // Return the unboxed result
+            methodVisitor.visitInsn(Type.getType(returnType.descriptor).getOpcode(Opcodes.IRETURN))
+            return
+        }
+
+        if (item.returnType.represents(Void.TYPE)) {
+            methodVisitor.visitInsn(Opcodes.ACONST_NULL)
+        } else {
+            boxIfNeeded(methodVisitor, item.returnType)
+        }
+        methodVisitor.visitInsn(Opcodes.ARETURN)
+    }
+
+    /**
+     * Load argument [index] from the PArguments parameter via `getXxx(int)` for primitives or
+     * `get(int)` plus a cast for references
+     */
+    private fun loadCarriedArgument(mv: MethodVisitor, index: Int, type: TypeDescription.Generic) {
+        mv.visitVarInsn(Opcodes.ALOAD, ARGUMENTS_PARAM)
+        mv.visitLdcInsn(index)
+
+        val erasure = type.asErasure()
+        if (erasure.isPrimitive) {
+            val getter = "get" + erasure.name.replaceFirstChar { it.uppercaseChar() }
+            mv.visitMethodInsn(
+                Opcodes.INVOKEVIRTUAL,
+                ARGUMENTS_INTERNAL_NAME,
+                getter,
+                "(I)${erasure.descriptor}",
+                false
+            )
+        } else {
+            mv.visitMethodInsn(
+                Opcodes.INVOKEVIRTUAL,
+                ARGUMENTS_INTERNAL_NAME,
+                "get",
+                "(I)Ljava/lang/Object;",
+                false
+            )
+            mv.visitTypeInsn(Opcodes.CHECKCAST, erasure.internalName)
+        }
+    }
+
+    override fun getIndexOutOfBoundsMessage(): String =
+        "Invalid method index for ${superType.name}"
+
+    override fun calculateMaxStack(): Int {
+        // Conservative estimate: instance + max parameters (wide ones count twice) + getter operands
+        val maxParams = items.maxOfOrNull { it.value.parameters.size } ?: 0
+        return maxOf(CONSERVATIVE_MINIMUM, maxParams * 2 + BASE_STACK_OVERHEAD)
+    }
+}
@@ -6,12 +6,24 @@ import net.bytebuddy.description.type.TypeDescription
 import net.bytebuddy.implementation.Implementation
 import net.bytebuddy.jar.asm.MethodVisitor
 import net.bytebuddy.jar.asm.Opcodes
+import net.bytebuddy.jar.asm.Type
 
+/**
+ * Implements `getFieldValue(int, Object)`, or `getXxxFieldValue(int, Object)` returning the
+ * unboxed value when [primitiveType] is set. Primitive variants reject fields of other types.
+ */
 class FieldGetterMethodImpl(
     superType: TypeDescription,
-    fields: List<IndexedValue<FieldDescription>>
+    fields: List<IndexedValue<FieldDescription>>,
+    private val primitiveType: TypeDescription? = null
 ) : TableSwitchingImplementation<FieldDescription>(superType, fields) {
 
+    override fun isSupported(item: FieldDescription): Boolean =
+        primitiveType == null || item.type.asErasure() == primitiveType
+
+    override fun getUnsupportedItemMessage(): String =
+        "Field is not of type ${primitiveType?.name} in ${superType.name}"
+
     override fun generateItemImplementation(
         item: FieldDescription,
         methodVisitor: MethodVisitor,
@@ -20,10 +32,15 @@ class FieldGetterMethodImpl(
     ) {
         accessField(methodVisitor, item, read = true)
 
-        boxIfNeeded(methodVisitor, item.type)
+        if (primitiveType == null) {
+            boxIfNeeded(methodVisitor, item.type)
 
-        // Return the result
-        methodVisitor.visitInsn(Opcodes.ARETURN)
+            // Return the result
+            methodVisitor.visitInsn(Opcodes.ARETURN)
+        } else {
+            // Return the unboxed result
+            methodVisitor.visitInsn(Type.getType(primitiveType.descriptor).getOpcode(Opcodes.IRETURN))
+        }
     }
 
     override fun getIndexOutOfBoundsMessage(): String =
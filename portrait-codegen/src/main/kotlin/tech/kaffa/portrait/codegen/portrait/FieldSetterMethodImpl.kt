@@ -6,12 +6,24 @@ import net.bytebuddy.description.type.TypeDescription
 import net.bytebuddy.implementation.Implementation
 import net.bytebuddy.jar.asm.MethodVisitor
 import net.bytebuddy.jar.asm.Opcodes
+import net.bytebuddy.jar.asm.Type
 
+/**
+ * Implements `setFieldValue(int, Object, Object)`, or `setXxxFieldValue(int, Object, xxx)` taking
+ * the unboxed value when [primitiveType] is set. Primitive variants reject fields of other types.
+ */
 class FieldSetterMethodImpl(
     superType: TypeDescription,
-    fields: List<IndexedValue<FieldDescription>>
+    fields: List<IndexedValue<FieldDescription>>,
+    private val primitiveType: TypeDescription? = null
 ) : TableSwitchingImplementation<FieldDescription>(superType, fields) {
 
+    override fun isSupported(item: FieldDescription): Boolean =
+        primitiveType == null || item.type.asErasure() == primitiveType
+
+    override fun getUnsupportedItemMessage(): String =
+        "Field is not of type ${primitiveType?.name} in ${superType.name}"
+
     override fun generateItemImplementation(
         item: FieldDescription,
         methodVisitor: MethodVisitor,
@@ -22,15 +34,20 @@ class FieldSetterMethodImpl(
             loadAndCastInstance(methodVisitor, INSTANCE_PARAM, item.declaringType.asErasure())
         }
 
-        methodVisitor.visitVarInsn(Opcodes.ALOAD, VALUE_PARAM)
-
-        if (item.type.isPrimitive) {
-            unboxIfNeeded(methodVisitor, item.type)
+        if (primitiveType != null) {
+            // Primitive variants receive the value unboxed
+            methodVisitor.visitVarInsn(Type.getType(primitiveType.descriptor).getOpcode(Opcodes.ILOAD), VALUE_PARAM)
         } else {
-            methodVisitor.visitTypeInsn(
-                Opcodes.CHECKCAST,
-                item.type.asErasure().internalName
-            )
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, VALUE_PARAM)
+
+            if (item.type.isPrimitive) {
+                unboxIfNeeded(methodVisitor, item.type)
+            } else {
+                methodVisitor.visitTypeInsn(
+                    Opcodes.CHECKCAST,
+                    item.type.asErasure().internalName
+                )
+            }
         }
 
         val opcode = if (item.isStatic) Opcodes.PUTSTATIC else Opcodes.PUTFIELD
@@ -3,39 +3,160 @@ package tech.kaffa.portrait.codegen.portrait
 import net.bytebuddy.description.method.MethodDescription
 import net.bytebuddy.description.type.TypeDescription
 import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.Label
 import net.bytebuddy.jar.asm.MethodVisitor
 import net.bytebuddy.jar.asm.Opcodes
+import net.bytebuddy.jar.asm.Type
+import tech.kaffa.portrait.aot.StaticPortrait
 
+/**
+ * Implements `invokeConstructor(int, Object[])`, or `invokeConstructorN(int, Object...)` with N
+ * separate argument parameters when [arity] is set. Fixed-arity variants reject constructors with
+ * a different parameter count.
+ *
+ * With [selectByArguments] it implements `invokeBestConstructor(Object[])` instead: a switch on
+ * the argument count, then `instanceof` checks against each candidate's parameters in declaration
+ * order. The first constructor that accepts the arguments is invoked. With [returnIndex] as well,
+ * the same checks implement `bestConstructorIndex(Object[])`, which returns that constructor's
+ * index, or -1 when none accepts the arguments.
+ */
 class InstantiatorMethodImpl(
     superType: TypeDescription,
-    constructors: List<IndexedValue<MethodDescription>>
+    constructors: List<IndexedValue<MethodDescription>>,
+    private val arity: Int? = null,
+    private val selectByArguments: Boolean = false,
+    private val returnIndex: Boolean = false
 ) : TableSwitchingImplementation<MethodDescription>(superType, constructors) {
 
+    override fun apply(
+        methodVisitor: MethodVisitor,
+        implementationContext: Implementation.Context,
+        instrumentedMethod: MethodDescription
+    ): ByteCodeAppender.Size {
+        if (!selectByArguments) return super.apply(methodVisitor, implementationContext, instrumentedMethod)
+
+        with(methodVisitor) {
+            val byArity = items.groupBy { it.value.parameters.size }.toSortedMap()
+            val arityLabels = Array(byArity.size) { Label() }
+            val noMatch = Label()
+
+            visitVarInsn(Opcodes.ALOAD, BEST_ARGS_PARAM)
+            visitInsn(Opcodes.ARRAYLENGTH)
+            visitLookupSwitchInsn(noMatch, byArity.keys.toIntArray(), arityLabels)
+
+            for ((candidates, arityLabel) in byArity.values.zip(arityLabels)) {
+                visitLabel(arityLabel)
+                for ((index, constructor) in candidates) {
+                    val nextCandidate = Label()
+                    for ((paramIndex, parameter) in constructor.parameters.withIndex()) {
+                        checkArgument(this, paramIndex, parameter.type.asErasure(), nextCandidate)
+                    }
+                    if (returnIndex) {
+                        visitLdcInsn(index)
+                        visitInsn(Opcodes.IRETURN)
+                    } else {
+                        invokeConstructor(constructor, this, BEST_ARGS_PARAM)
+                    }
+                    visitLabel(nextCandidate)
+                }
+                visitJumpInsn(Opcodes.GOTO, noMatch)
+            }
+
+            visitLabel(noMatch)
+            if (returnIndex) {
+                visitInsn(Opcodes.ICONST_M1)
+                visitInsn(Opcodes.IRETURN)
+                return ByteCodeAppender.Size(calculateMaxStack(), instrumentedMethod.stackSize)
+            }
+            visitVarInsn(Opcodes.ALOAD, BEST_ARGS_PARAM)
+            visitMethodInsn(
+                Opcodes.INVOKESTATIC,
+                Type.getInternalName(StaticPortrait::class.java),
+                "noMatchingConstructor",
+                "([Ljava/lang/Object;)Ljava/lang/IllegalArgumentException;",
+                false
+            )
+            visitInsn(Opcodes.ATHROW)
+        }
+
+        return ByteCodeAppender.Size(calculateMaxStack(), instrumentedMethod.stackSize)
+    }
+
+    /**
+     * Jumps to [rejected] unless argument [paramIndex] can be passed as [type]: null is accepted by
+     * reference parameters, and primitive parameters take instances of their wrapper.
+     */
+    private fun checkArgument(mv: MethodVisitor, paramIndex: Int, type: TypeDescription, rejected: Label) {
+        if (type.represents(Any::class.java)) return
+
+        val accepted = Label()
+        if (!type.isPrimitive) {
+            loadBestArgument(mv, paramIndex)
+            mv.visitJumpInsn(Opcodes.IFNULL, accepted)
+        }
+
+        loadBestArgument(mv, paramIndex)
+        val parameterType = Type.getType(type.descriptor)
+        val checkedType = if (type.isPrimitive) getWrapperType(parameterType) else parameterType
+        mv.visitTypeInsn(Opcodes.INSTANCEOF, checkedType.internalName)
+        mv.visitJumpInsn(Opcodes.IFEQ, rejected)
+        mv.visitLabel(accepted)
+    }
+
+    private fun loadBestArgument(mv: MethodVisitor, paramIndex: Int) {
+        mv.visitVarInsn(Opcodes.ALOAD, BEST_ARGS_PARAM)
+        mv.visitLdcInsn(paramIndex)
+        mv.visitInsn(Opcodes.AALOAD)
+    }
+
+    override fun isSupported(item: MethodDescription): Boolean =
+        arity == null || item.parameters.size == arity
+
+    override fun getUnsupportedItemMessage(): String =
+        "Constructor does not take $arity arguments in ${superType.name}"
+
     override fun generateItemImplementation(
         item: MethodDescription,
         methodVisitor: MethodVisitor,
         implementationContext: Implementation.Context,
         instrumentedMethod: MethodDescription
     ) {
-        val declaringType = item.declaringType.asErasure()
+        invokeConstructor(item, methodVisitor, if (arity == null) INSTANCE_PARAM else null)
+    }
+
+    /**
+     * Creates the instance with [constructor] and returns it. Arguments are read from the array in
+     * [argsArrayParam], or from separate parameters when it is null.
+     */
+    private fun invokeConstructor(
+        constructor: MethodDescription,
+        methodVisitor: MethodVisitor,
+        argsArrayParam: Int?
+    ) {
+        val declaringType = constructor.declaringType.asErasure()
 
         methodVisitor.visitTypeInsn(Opcodes.NEW, declaringType.internalName)
         methodVisitor.visitInsn(Opcodes.DUP)
 
-        for ((paramIndex, parameter) in item.parameters.withIndex()) {
-            loadArrayElement(
-                methodVisitor,
-                INSTANCE_PARAM,
-                paramIndex,
-                parameter.type
-            )
+        for ((paramIndex, parameter) in constructor.parameters.withIndex()) {
+            if (argsArrayParam != null) {
+                loadArrayElement(
+                    methodVisitor,
+                    argsArrayParam,
+                    paramIndex,
+                    parameter.type
+                )
+            } else {
+                loadArgument(methodVisitor, FIRST_ARG_PARAM + paramIndex, parameter.type)
+            }
         }
 
         methodVisitor.visitMethodInsn(
             Opcodes.INVOKESPECIAL,
             declaringType.internalName,
-            item.internalName,
-            item.descriptor,
+            constructor.internalName,
+            constructor.descriptor,
             false
         )
 
@@ -51,4 +172,12 @@ class InstantiatorMethodImpl(
         val maxParams = items.maxOfOrNull { it.value.parameters.size } ?: 0
         return maxOf(CONSERVATIVE_MINIMUM, maxParams + INSTANCE_AND_DUP_OVERHEAD + BOXING_OVERHEAD)
     }
+
+    private companion object {
+        /** First argument slot of `invokeConstructorN(int index, Object a0, ...)` */
+        const val FIRST_ARG_PARAM = 2
+
+        /** Arguments array slot of `invokeBestConstructor(Object[] args)` */
+        const val BEST_ARGS_PARAM = 1
+    }
 }
@@ -6,11 +6,23 @@ import net.bytebuddy.implementation.Implementation
 import net.bytebuddy.jar.asm.MethodVisitor
 import net.bytebuddy.jar.asm.Opcodes
 
+/**
+ * Implements `invokeMethod(int, Object, Object[])`, or `invokeMethodN(int, Object, Object...)`
+ * with N separate argument parameters when [arity] is set. Fixed-arity variants reject methods
+ * with a different parameter count.
+ */
 class InvokerMethodImpl(
     superType: TypeDescription,
-    methods: List<IndexedValue<MethodDescription>>
+    methods: List<IndexedValue<MethodDescription>>,
+    private val arity: Int? = null
 ) : TableSwitchingImplementation<MethodDescription>(superType, methods) {
 
+    override fun isSupported(item: MethodDescription): Boolean =
+        arity == null || item.parameters.size == arity
+
+    override fun getUnsupportedItemMessage(): String =
+        "Method does not take $arity arguments in ${superType.name}"
+
     override fun generateItemImplementation(
         item: MethodDescription,
         methodVisitor: MethodVisitor,
@@ -22,14 +34,18 @@ class InvokerMethodImpl(
             loadAndCastInstance(methodVisitor, INSTANCE_PARAM, item.declaringType.asErasure())
         }
 
-        // Load arguments from array using helper method
+        // Load arguments from the array, or from the separate parameters of fixed-arity variants
         for ((paramIndex, parameter) in item.parameters.withIndex()) {
-            loadArrayElement(
-                methodVisitor,
-                ARGS_ARRAY_PARAM,
-                paramIndex,
-                parameter.type
-            )
+            if (arity == null) {
+                loadArrayElement(
+                    methodVisitor,
+                    ARGS_ARRAY_PARAM,
+                    paramIndex,
+                    parameter.type
+                )
+            } else {
+                loadArgument(methodVisitor, FIRST_ARG_PARAM + paramIndex, parameter.type)
+            }
         }
 
         invokeMethod(methodVisitor, item)
@@ -53,4 +69,9 @@ class InvokerMethodImpl(
         val maxParams = items.maxOfOrNull { it.value.parameters.size } ?: 0
         return maxOf(CONSERVATIVE_MINIMUM, maxParams + BASE_STACK_OVERHEAD)
     }
+
+    private companion object {
+        /** First argument slot of `invokeMethodN(int index, Object instance, Object a0, ...)` */
+        const val FIRST_ARG_PARAM = 3
+    }
 }
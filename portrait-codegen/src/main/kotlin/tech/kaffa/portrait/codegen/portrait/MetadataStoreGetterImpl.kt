@@ -0,0 +1,35 @@
+package tech.kaffa.portrait.codegen.portrait
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import tech.kaffa.portrait.codegen.provider.MetadataStoreInitializerImpl
+import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
+
+/**
+ * ByteCode implementation for `getMetadataStore()`, which returns the store loaded by the
+ * generated holder class.
+ *
+ * @param holderInternalName Internal name of the metadata store holder
+ */
+class MetadataStoreGetterImpl(
+    private val holderInternalName: String
+) : BytecodeImplementation() {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        mv.visitFieldInsn(
+            Opcodes.GETSTATIC,
+            holderInternalName,
+            MetadataStoreInitializerImpl.STORE_FIELD,
+            MetadataStoreInitializerImpl.STORE_DESCRIPTOR
+        )
+        mv.visitInsn(Opcodes.ARETURN)
+        return ByteCodeAppender.Size(1, method.stackSize)
+    }
+}
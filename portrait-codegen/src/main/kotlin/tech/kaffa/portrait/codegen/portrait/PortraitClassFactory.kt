@@ -11,6 +11,8 @@ import net.bytebuddy.ByteBuddy
 import net.bytebuddy.asm.AsmVisitorWrapper
 import net.bytebuddy.description.field.FieldDescription
 import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.description.modifier.FieldManifestation
+import net.bytebuddy.description.modifier.Ownership
 import net.bytebuddy.description.modifier.Visibility
 import net.bytebuddy.description.type.TypeDescription
 import net.bytebuddy.dynamic.DynamicType
@@ -19,24 +21,44 @@ import net.bytebuddy.implementation.MethodCall
 import net.bytebuddy.jar.asm.ClassWriter
 import net.bytebuddy.pool.TypePool
 import org.slf4j.LoggerFactory
+import tech.kaffa.portrait.PArguments
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.aot.AnnotationInstantiator
+import tech.kaffa.portrait.aot.BestConstructorInvoker
 import tech.kaffa.portrait.aot.ProxyMethodIndexer
+import tech.kaffa.portrait.aot.StaticClassHeader
+import tech.kaffa.portrait.aot.StaticPClass
 import tech.kaffa.portrait.aot.StaticPortrait
+import tech.kaffa.portrait.aot.StoredMetadata
 import tech.kaffa.portrait.aot.meta.PClassEntry
 import tech.kaffa.portrait.aot.meta.serde.MetadataSerializer
+import tech.kaffa.portrait.aot.meta.serde.MetadataStore
 import tech.kaffa.portrait.codegen.PortraitGenerator
+import tech.kaffa.portrait.codegen.annotation.AnnotationClassFactory
 import tech.kaffa.portrait.codegen.proxy.ProxyClassFactory
 import tech.kaffa.portrait.codegen.utils.interfaceNames
 import tech.kaffa.portrait.codegen.utils.superclassNameOrNull
+import tech.kaffa.portrait.codegen.utils.supertypeNames
 import tech.kaffa.portrait.codegen.utils.toAnnotationEntries
 import tech.kaffa.portrait.codegen.utils.toPConstructorEntry
 import tech.kaffa.portrait.codegen.utils.toPFieldEntry
 import tech.kaffa.portrait.codegen.utils.toPMethodEntry
 import tech.kaffa.portrait.proxy.ProxyHandler
 
+/**
+ * Generates the `$Portrait` class of each reflective type.
+ *
+ * @param metadataStoreHolder Internal name of the metadata store holder when metadata goes to the
+ * shared store, or null to embed each class's metadata in its Portrait class
+ * @param generatedAnnotations Annotation implementations by annotation type name, instantiated by
+ * the Portrait classes of those annotation types
+ */
 class PortraitClassFactory(
     private val byteBuddy: ByteBuddy,
     private val typePool: TypePool,
-    private val generatedProxies: MutableMap<String, ProxyClassFactory.Result>
+    private val generatedProxies: MutableMap<String, ProxyClassFactory.Result>,
+    private val metadataStoreHolder: String? = null,
+    private val generatedAnnotations: Map<String, AnnotationClassFactory.Result> = emptyMap()
 ) {
     private val logger = LoggerFactory.getLogger(PortraitClassFactory::class.java)
 
@@ -51,10 +73,17 @@ class PortraitClassFactory(
 
     data class Result(
         val superType: TypeDescription,
-        override val dynamicType: DynamicType
+        override val dynamicType: DynamicType,
+        val classEntry: PClassEntry,
+        val classId: Int
     ) : PortraitGenerator.GeneratedClass
 
-    fun make(superType: TypeDescription): Result {
+    /**
+     * Generates the Portrait class for [superType].
+     *
+     * @param classId Id the generated provider resolves this class by, reported through [StaticClassHeader]
+     */
+    fun make(superType: TypeDescription, classId: Int = PClass.NO_ID): Result {
         val kotlinMetadata = extractKotlinMetadata(superType)
 
         val className = generatedClassName(superType)
@@ -78,6 +107,21 @@ class PortraitClassFactory(
                     .build()
             )
             .name(className)
+            .defineField(
+                SingletonInitializerImpl.INSTANCE_FIELD,
+                StaticPortrait::class.java,
+                Visibility.PUBLIC,
+                Ownership.STATIC,
+                FieldManifestation.FINAL
+            )
+            .defineField(
+                SingletonInitializerImpl.PCLASS_FIELD,
+                StaticPClass::class.java,
+                Visibility.PUBLIC,
+                Ownership.STATIC,
+                FieldManifestation.FINAL
+            )
+            .initializer(SingletonInitializerImpl(className.replace('.', '/')))
             .defineMethod("getClassName", String::class.java, Visibility.PUBLIC)
             .intercept(FixedValue.value(superType.name))
 
@@ -108,6 +152,25 @@ class PortraitClassFactory(
                 .defineMethod("invokeConstructor", Object::class.java, Visibility.PUBLIC)
                 .withParameters(Int::class.javaPrimitiveType, Array<Any>::class.java)
                 .intercept(InstantiatorMethodImpl(superType, constructors))
+
+            for (arity in declaredArities(constructors)) {
+                builder = builder
+                    .defineMethod("invokeConstructor$arity", Object::class.java, Visibility.PUBLIC)
+                    .withParameters(listOf(Int::class.javaPrimitiveType!!) + List(arity) { Object::class.java })
+                    .intercept(InstantiatorMethodImpl(superType, constructors, arity))
+            }
+
+            // newInstance(vararg) picks its constructor here, without resolving argument descriptors
+            builder = builder
+                .implement(BestConstructorInvoker::class.java)
+                .defineMethod("invokeBestConstructor", Object::class.java, Visibility.PUBLIC)
+                .withParameters(Array<Any>::class.java)
+                .intercept(InstantiatorMethodImpl(superType, constructors, selectByArguments = true))
+                .defineMethod("bestConstructorIndex", Int::class.javaPrimitiveType, Visibility.PUBLIC)
+                .withParameters(Array<Any>::class.java)
+                .intercept(
+                    InstantiatorMethodImpl(superType, constructors, selectByArguments = true, returnIndex = true)
+                )
         }
 
         // Add method support
@@ -116,6 +179,31 @@ class PortraitClassFactory(
                 .defineMethod("invokeMethod", Object::class.java, Visibility.PUBLIC)
                 .withParameters(Int::class.javaPrimitiveType, Object::class.java, Array<Any>::class.java)
                 .intercept(InvokerMethodImpl(superType, methods))
+
+            for (arity in declaredArities(methods)) {
+                builder = builder
+                    .defineMethod("invokeMethod$arity", Object::class.java, Visibility.PUBLIC)
+                    .withParameters(
+                        listOf(Int::class.javaPrimitiveType!!, Object::class.java) + List(arity) { Object::class.java }
+                    )
+                    .intercept(InvokerMethodImpl(superType, methods, arity))
+            }
+
+            builder = builder
+                .defineMethod("invokeMethodWith", Object::class.java, Visibility.PUBLIC)
+                .withParameters(Int::class.javaPrimitiveType, Object::class.java, PArguments::class.java)
+                .intercept(ArgumentsInvokerMethodImpl(superType, methods))
+
+            val primitiveReturnTypes = methods.map { it.value.returnType.asErasure() }
+                .filter { it in SPECIALIZED_RETURN_TYPES }
+                .distinct()
+            for (returnType in primitiveReturnTypes) {
+                val typeName = returnType.name.replaceFirstChar { it.uppercaseChar() }
+                builder = builder
+                    .defineMethod("invoke${typeName}Method", returnType, Visibility.PUBLIC)
+                    .withParameters(Int::class.javaPrimitiveType, Object::class.java, PArguments::class.java)
+                    .intercept(ArgumentsInvokerMethodImpl(superType, methods, returnType))
+            }
         }
 
         // Add field support
@@ -127,6 +215,22 @@ class PortraitClassFactory(
                 .defineMethod("setFieldValue", Void.TYPE, Visibility.PUBLIC)
                 .withParameters(Int::class.javaPrimitiveType, Object::class.java, Object::class.java)
                 .intercept(FieldSetterMethodImpl(superType, fields))
+
+            val primitiveTypes = fields.map { it.value.type.asErasure() }.filter { it.isPrimitive }.distinct()
+            for (primitiveType in primitiveTypes) {
+                val typeName = primitiveType.name.replaceFirstChar { it.uppercaseChar() }
+                builder = builder
+                    .defineMethod("get${typeName}FieldValue", primitiveType, Visibility.PUBLIC)
+                    .withParameters(Int::class.javaPrimitiveType, Object::class.java)
+                    .intercept(FieldGetterMethodImpl(superType, fields, primitiveType))
+                    .defineMethod("set${typeName}FieldValue", Void.TYPE, Visibility.PUBLIC)
+                    .withParameters(
+                        TypeDescription.ForLoadedType.of(Int::class.javaPrimitiveType),
+                        TypeDescription.ForLoadedType.of(Object::class.java),
+                        primitiveType
+                    )
+                    .intercept(FieldSetterMethodImpl(superType, fields, primitiveType))
+            }
         }
 
         val proxy = generatedProxies[superType.name]
@@ -142,23 +246,84 @@ class PortraitClassFactory(
                 .intercept(MethodCall.construct(proxyConstructor).withAllArguments())
         }
 
+        val annotationImplementation = generatedAnnotations[superType.name]
+
+        if (annotationImplementation != null) {
+            builder = builder
+                .implement(AnnotationInstantiator::class.java)
+                .defineMethod("newAnnotation", Annotation::class.java, Visibility.PUBLIC)
+                .withParameters(Map::class.java)
+                .intercept(MethodCall.construct(annotationImplementation.constructor).withAllArguments())
+        }
+
         val metadata = createClassEntry(
             superType, kotlinMetadata, constructors, methods, fields, proxy?.proxiedMethods
         )
 
+        // Stored records are addressed by class id, so classes without one keep embedded metadata
+        val storeHolder = metadataStoreHolder?.takeIf { classId >= 0 }
         builder = builder
             .defineMethod("getMetadata", String::class.java, Visibility.PUBLIC)
-            .intercept(FixedValue.value(MetadataSerializer().serialize(metadata)))
+            .intercept(FixedValue.value(if (storeHolder != null) "" else MetadataSerializer().serialize(metadata)))
+
+        if (storeHolder != null) {
+            builder = builder
+                .implement(StoredMetadata::class.java)
+                .defineMethod("getMetadataStore", MetadataStore::class.java, Visibility.PUBLIC)
+                .intercept(MetadataStoreGetterImpl(storeHolder))
+        }
+
+        // Header constants let StaticPClass answer identity and flag checks without decoding
+        builder = builder
+            .implement(StaticClassHeader::class.java)
+            .defineMethod("getSimpleName", String::class.java, Visibility.PUBLIC)
+            .intercept(FixedValue.value(metadata.simpleName))
+            .defineMethod("getClassFlags", Int::class.javaPrimitiveType, Visibility.PUBLIC)
+            .intercept(FixedValue.value(classFlags(metadata)))
+            .defineMethod("getSuperclassName", String::class.java, Visibility.PUBLIC)
+            .intercept(metadata.superclassName?.let { FixedValue.value(it) } ?: FixedValue.nullValue())
+            .defineMethod("getConstructorCount", Int::class.javaPrimitiveType, Visibility.PUBLIC)
+            .intercept(FixedValue.value(metadata.constructors.size))
+            .defineMethod("getMethodCount", Int::class.javaPrimitiveType, Visibility.PUBLIC)
+            .intercept(FixedValue.value(metadata.declaredMethods.size))
+            .defineMethod("getFieldCount", Int::class.javaPrimitiveType, Visibility.PUBLIC)
+            .intercept(FixedValue.value(metadata.declaredFields.size))
+            .defineMethod("getClassId", Int::class.javaPrimitiveType, Visibility.PUBLIC)
+            .intercept(FixedValue.value(classId))
 
         return Result(
             superType,
             builder.visit(
                 AsmVisitorWrapper.ForDeclaredMethods()
                     .writerFlags(ClassWriter.COMPUTE_FRAMES or ClassWriter.COMPUTE_MAXS)
-            ).make(typePool)
+            ).make(typePool),
+            metadata,
+            classId
         )
     }
 
+    /**
+     * Arities up to [TableSwitchingImplementation.MAX_FIXED_ARITY] that at least one of [members]
+     * takes; the remaining fixed-arity entry points keep StaticPortrait's array-based fallback.
+     */
+    private fun declaredArities(members: List<IndexedValue<MethodDescription>>): List<Int> =
+        members.map { it.value.parameters.size }
+            .filter { it <= TableSwitchingImplementation.MAX_FIXED_ARITY }
+            .distinct()
+            .sorted()
+
+    private fun classFlags(entry: PClassEntry): Int {
+        var flags = 0
+        if (entry.isAbstract) flags = flags or StaticClassHeader.IS_ABSTRACT
+        if (entry.isSealed) flags = flags or StaticClassHeader.IS_SEALED
+        if (entry.isData) flags = flags or StaticClassHeader.IS_DATA
+        if (entry.isCompanion) flags = flags or StaticClassHeader.IS_COMPANION
+        if (entry.isObject) flags = flags or StaticClassHeader.IS_OBJECT
+        if (entry.isEnum) flags = flags or StaticClassHeader.IS_ENUM
+        if (entry.isInterface) flags = flags or StaticClassHeader.IS_INTERFACE
+        return flags
+    }
+
     private fun extractKotlinMetadata(superType: TypeDescription): KmClass? {
         try {
             val metadataAnnotation = superType.declaredAnnotations.ofType(Metadata::class.java)?.load()
@@ -195,6 +360,7 @@ class PortraitClassFactory(
             javaClassName = typeDescription.typeName,
             superclassName = typeDescription.superclassNameOrNull(),
             interfaceNames = typeDescription.interfaceNames(),
+            supertypeNames = typeDescription.supertypeNames(),
             annotations = typeDescription.toAnnotationEntries(),
             constructors = constructors.map { (_, methodDescription) ->
                 methodDescription.toPConstructorEntry(typeDescription.typeName)
@@ -210,4 +376,13 @@ class PortraitClassFactory(
             } ?: emptyList()
         )
     }
+
+    private companion object {
+        /** Return types that get a dedicated `invokeXxxMethod(int, Object, PArguments)` */
+        val SPECIALIZED_RETURN_TYPES: List<TypeDescription> = listOf(
+            Int::class.javaPrimitiveType!!,
+            Long::class.javaPrimitiveType!!,
+            Double::class.javaPrimitiveType!!
+        ).map { TypeDescription.ForLoadedType.of(it) }
+    }
 }
@@ -0,0 +1,60 @@
+package tech.kaffa.portrait.codegen.portrait
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+
+/**
+ * Type initializer that creates the canonical instances of a generated Portrait class.
+ *
+ * Stores one instance of the Portrait class in [INSTANCE_FIELD] and the
+ * StaticPClass wrapping it in [PCLASS_FIELD]. The JVM runs it on first access
+ * to either field, so the Portrait class doubles as its own lazy holder. Prepended to the type
+ * initializer, so it must not return.
+ *
+ * @param portraitInternalName Internal name of the generated Portrait class
+ */
+class SingletonInitializerImpl(
+    private val portraitInternalName: String
+) : ByteCodeAppender {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        mv.visitTypeInsn(Opcodes.NEW, portraitInternalName)
+        mv.visitInsn(Opcodes.DUP)
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, portraitInternalName, "<init>", "()V", false)
+        mv.visitFieldInsn(Opcodes.PUTSTATIC, portraitInternalName, INSTANCE_FIELD, PORTRAIT_DESCRIPTOR)
+
+        mv.visitTypeInsn(Opcodes.NEW, STATIC_PCLASS_INTERNAL_NAME)
+        mv.visitInsn(Opcodes.DUP)
+        mv.visitFieldInsn(Opcodes.GETSTATIC, portraitInternalName, INSTANCE_FIELD, PORTRAIT_DESCRIPTOR)
+        mv.visitMethodInsn(
+            Opcodes.INVOKESPECIAL,
+            STATIC_PCLASS_INTERNAL_NAME,
+            "<init>",
+            "($PORTRAIT_DESCRIPTOR)V",
+            false
+        )
+        mv.visitFieldInsn(Opcodes.PUTSTATIC, portraitInternalName, PCLASS_FIELD, PCLASS_DESCRIPTOR)
+
+        return ByteCodeAppender.Size(3, method.stackSize)
+    }
+
+    companion object {
+        /** Static field holding the canonical Portrait instance */
+        const val INSTANCE_FIELD = "INSTANCE"
+
+        /** Static field holding the canonical StaticPClass */
+        const val PCLASS_FIELD = "PCLASS"
+
+        const val PCLASS_DESCRIPTOR = "Ltech/kaffa/portrait/aot/StaticPClass;"
+
+        private const val STATIC_PCLASS_INTERNAL_NAME = "tech/kaffa/portrait/aot/StaticPClass"
+        private const val PORTRAIT_DESCRIPTOR = "Ltech/kaffa/portrait/aot/StaticPortrait;"
+    }
+}
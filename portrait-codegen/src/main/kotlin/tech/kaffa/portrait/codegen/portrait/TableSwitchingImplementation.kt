@@ -26,6 +26,9 @@ abstract class TableSwitchingImplementation<T>(
         const val ARGS_ARRAY_PARAM = 3
         const val VALUE_PARAM = 3
 
+        /** Highest arity for which fixed-arity `invokeMethodN`/`invokeConstructorN` are generated */
+        const val MAX_FIXED_ARITY = 6
+
         // Stack calculation constants
         const val BASE_STACK_OVERHEAD = 4
         const val INSTANCE_AND_DUP_OVERHEAD = 2
@@ -43,14 +46,16 @@ abstract class TableSwitchingImplementation<T>(
             // Load index parameter (first parameter)
             visitVarInsn(Opcodes.ILOAD, 1)
 
-            // Table switch for item selection
-            val labels = Array(items.size) { Label() }
+            // Table switch for item selection; unsupported items share a single rejecting case
+            val unsupportedLabel = Label()
+            val labels = Array(items.size) { if (isSupported(items[it].value)) Label() else unsupportedLabel }
             val defaultLabel = Label()
 
             visitTableSwitchInsn(0, items.size - 1, defaultLabel, *labels)
 
             // Generate code for each item
             for ((index, item) in items.withIndex()) {
+                if (labels[index] === unsupportedLabel) continue
                 visitLabel(labels[index])
 
                 // Generate specific implementation for this item
@@ -64,12 +69,17 @@ abstract class TableSwitchingImplementation<T>(
                 // No need to jump to end label since each case returns directly
             }
 
+            if (labels.any { it === unsupportedLabel }) {
+                visitLabel(unsupportedLabel)
+                generateThrow(this, "java/lang/IllegalArgumentException", getUnsupportedItemMessage())
+            }
+
             // Default case - throw IndexOutOfBoundsException
             visitLabel(defaultLabel)
-            generateIndexOutOfBoundsException(this)
+            generateThrow(this, "java/lang/IndexOutOfBoundsException", getIndexOutOfBoundsMessage())
         }
 
-        return ByteCodeAppender.Size(calculateMaxStack(), instrumentedMethod.parameters.size + 1)
+        return ByteCodeAppender.Size(calculateMaxStack(), instrumentedMethod.stackSize)
     }
 
     /**
@@ -92,6 +102,18 @@ abstract class TableSwitchingImplementation<T>(
      */
     protected abstract fun getIndexOutOfBoundsMessage(): String
 
+    /**
+     * Whether the generated method can dispatch to [item]; unsupported items throw
+     * IllegalArgumentException with [getUnsupportedItemMessage]
+     */
+    protected open fun isSupported(item: T): Boolean = true
+
+    /**
+     * Get the error message for items rejected by [isSupported]
+     */
+    protected open fun getUnsupportedItemMessage(): String =
+        "Unsupported index for ${superType.name}"
+
     /**
      * Load instance parameter and cast to correct type
      */
@@ -155,9 +177,25 @@ abstract class TableSwitchingImplementation<T>(
         mv.visitVarInsn(Opcodes.ALOAD, arrayParamIndex)
         mv.visitLdcInsn(elementIndex)
         mv.visitInsn(Opcodes.AALOAD)
-        unboxIfNeeded(mv, elementType)
-        if (!elementType.isPrimitive) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, elementType.asErasure().internalName)
+        castArgument(mv, elementType)
+    }
+
+    /**
+     * Load an Object parameter with unboxing if needed
+     */
+    protected fun loadArgument(
+        mv: MethodVisitor,
+        paramIndex: Int,
+        type: TypeDescription.Generic
+    ) {
+        mv.visitVarInsn(Opcodes.ALOAD, paramIndex)
+        castArgument(mv, type)
+    }
+
+    private fun castArgument(mv: MethodVisitor, type: TypeDescription.Generic) {
+        unboxIfNeeded(mv, type)
+        if (!type.isPrimitive) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, type.asErasure().internalName)
         }
     }
 
@@ -214,7 +252,7 @@ abstract class TableSwitchingImplementation<T>(
     /**
      * Get wrapper type for primitive
      */
-    private fun getWrapperType(primitiveType: Type): Type = when (primitiveType.sort) {
+    protected fun getWrapperType(primitiveType: Type): Type = when (primitiveType.sort) {
         Type.BOOLEAN -> Type.getType(java.lang.Boolean::class.java)
         Type.BYTE -> Type.getType(java.lang.Byte::class.java)
         Type.CHAR -> Type.getType(java.lang.Character::class.java)
@@ -241,17 +279,17 @@ abstract class TableSwitchingImplementation<T>(
         else -> throw IllegalArgumentException("Not a primitive type: $primitiveType")
     }
 
-    private fun generateIndexOutOfBoundsException(mv: MethodVisitor) {
-        // NEW IndexOutOfBoundsException
-        mv.visitTypeInsn(Opcodes.NEW, "java/lang/IndexOutOfBoundsException")
+    private fun generateThrow(mv: MethodVisitor, exceptionType: String, message: String) {
+        // NEW exception
+        mv.visitTypeInsn(Opcodes.NEW, exceptionType)
         // DUP
         mv.visitInsn(Opcodes.DUP)
         // LDC message
-        mv.visitLdcInsn(getIndexOutOfBoundsMessage())
-        // INVOKESPECIAL IndexOutOfBoundsException.<init>(String)
+        mv.visitLdcInsn(message)
+        // INVOKESPECIAL exception.<init>(String)
         mv.visitMethodInsn(
             Opcodes.INVOKESPECIAL,
-            "java/lang/IndexOutOfBoundsException",
+            exceptionType,
             "<init>",
             "(Ljava/lang/String;)V",
             false
@@ -0,0 +1,97 @@
+package tech.kaffa.portrait.codegen.provider
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.Label
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
+
+/**
+ * ByteCode implementation for the provider's annotatedWith method.
+ *
+ * Dispatches on the annotation class name by hash/equals to the static method holding that
+ * annotation's encoded elements and decodes them through `AnnotatedElementCodec`. Unknown
+ * annotations yield an empty list rather than null, since the index covers every generated class.
+ *
+ * @param indexMethodNames Static `String[]` method name for each annotation class name
+ */
+class AnnotatedWithMethodImpl(
+    private val indexMethodNames: Map<String, String>
+) : BytecodeImplementation() {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        val emptyLabel = Label()
+
+        if (indexMethodNames.isNotEmpty()) {
+            mv.visitVarInsn(Opcodes.ALOAD, 1)
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false)
+
+            val hashGroups = indexMethodNames.entries.groupBy { (annotationName, _) -> annotationName.hashCode() }
+            val sortedHashes = hashGroups.keys.sorted()
+            val hashLabels = sortedHashes.associateWith { Label() }
+
+            mv.visitLookupSwitchInsn(
+                emptyLabel,
+                sortedHashes.toIntArray(),
+                sortedHashes.map { hashLabels.getValue(it) }.toTypedArray()
+            )
+
+            val ownerInternalName = context.instrumentedType.internalName
+            sortedHashes.forEach { hash ->
+                val entries = hashGroups.getValue(hash)
+                mv.visitLabel(hashLabels.getValue(hash))
+
+                entries.forEachIndexed { index, (annotationName, indexMethodName) ->
+                    val nextLabel = if (index < entries.size - 1) Label() else emptyLabel
+
+                    mv.visitVarInsn(Opcodes.ALOAD, 1)
+                    mv.visitLdcInsn(annotationName)
+                    mv.visitMethodInsn(
+                        Opcodes.INVOKEVIRTUAL,
+                        "java/lang/String",
+                        "equals",
+                        "(Ljava/lang/Object;)Z",
+                        false
+                    )
+                    mv.visitJumpInsn(Opcodes.IFEQ, nextLabel)
+
+                    mv.visitMethodInsn(
+                        Opcodes.INVOKESTATIC,
+                        ownerInternalName,
+                        indexMethodName,
+                        "()[Ljava/lang/String;",
+                        false
+                    )
+                    mv.visitMethodInsn(
+                        Opcodes.INVOKESTATIC,
+                        CODEC_INTERNAL_NAME,
+                        "decode",
+                        "([Ljava/lang/String;)Ljava/util/List;",
+                        false
+                    )
+                    mv.visitInsn(Opcodes.ARETURN)
+
+                    if (index < entries.size - 1) {
+                        mv.visitLabel(nextLabel)
+                    }
+                }
+            }
+        }
+
+        mv.visitLabel(emptyLabel)
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/util/Collections", "emptyList", "()Ljava/util/List;", false)
+        mv.visitInsn(Opcodes.ARETURN)
+
+        return ByteCodeAppender.Size(2, 2)
+    }
+
+    private companion object {
+        const val CODEC_INTERNAL_NAME = "tech/kaffa/portrait/aot/meta/serde/AnnotatedElementCodec"
+    }
+}
@@ -0,0 +1,39 @@
+package tech.kaffa.portrait.codegen.provider
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+
+/**
+ * Type initializer of the generated provider that decodes the perfect-hash displacements, shipped as
+ * the string constants returned by [chunksMethodName], into [PortraitForSlotMethodImpl.DISPLACEMENTS_FIELD].
+ * Prepended to the type initializer, so it must not return.
+ *
+ * @param chunksMethodName Static `String[]` method returning the encoded displacements
+ */
+class DisplacementsInitializerImpl(
+    private val chunksMethodName: String
+) : ByteCodeAppender {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        val ownerInternalName = context.instrumentedType.internalName
+
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, ownerInternalName, chunksMethodName, "()[Ljava/lang/String;", false)
+        mv.visitMethodInsn(
+            Opcodes.INVOKESTATIC,
+            "tech/kaffa/portrait/aot/PerfectHash",
+            "decode",
+            "([Ljava/lang/String;)[I",
+            false
+        )
+        mv.visitFieldInsn(Opcodes.PUTSTATIC, ownerInternalName, PortraitForSlotMethodImpl.DISPLACEMENTS_FIELD, "[I")
+
+        return ByteCodeAppender.Size(1, method.stackSize)
+    }
+}
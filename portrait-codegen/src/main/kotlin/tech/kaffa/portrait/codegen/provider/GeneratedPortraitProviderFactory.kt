@@ -2,6 +2,7 @@ package tech.kaffa.portrait.codegen.provider
 
 import net.bytebuddy.ByteBuddy
 import net.bytebuddy.asm.AsmVisitorWrapper
+import net.bytebuddy.description.modifier.FieldManifestation
 import net.bytebuddy.description.modifier.Ownership
 import net.bytebuddy.description.modifier.Visibility
 import net.bytebuddy.description.type.TypeDescription
@@ -10,8 +11,14 @@ import net.bytebuddy.implementation.FixedValue
 import net.bytebuddy.jar.asm.ClassWriter
 import net.bytebuddy.pool.TypePool
 import org.slf4j.LoggerFactory
+import tech.kaffa.portrait.PAnnotatedElement
 import tech.kaffa.portrait.PClass
-import tech.kaffa.portrait.aot.StaticPortrait
+import tech.kaffa.portrait.aot.ClassIds
+import tech.kaffa.portrait.aot.PerfectHash
+import tech.kaffa.portrait.aot.StaticPClass
+import tech.kaffa.portrait.aot.meta.PAnnotationEntry
+import tech.kaffa.portrait.aot.meta.serde.AnnotatedElementCodec
+import tech.kaffa.portrait.codegen.ClassIdAssignment
 import tech.kaffa.portrait.codegen.PortraitGenerator
 import tech.kaffa.portrait.codegen.portrait.PortraitClassFactory
 import tech.kaffa.portrait.provider.PortraitProvider
@@ -21,6 +28,14 @@ import tech.kaffa.portrait.provider.PortraitProvider
  *
  * This factory creates a provider class that implements PortraitProvider and contains
  * static mappings to all the generated Portrait classes from the current codegen execution.
+ * Names are dispatched through a minimal perfect hash built at codegen time: one hash, one
+ * tableswitch and one verifying `equals` per lookup. Class ids are assigned separately by
+ * [ClassIdAssignment] and carry the provider's namespace, which `forId()` checks before mapping
+ * the local id back with a tableswitch alone, and which `idNamespace()` reports so a context can
+ * reject two providers that share it.
+ * The provider also reports those class names through `knownClassNames()` so the registry
+ * can skip it for names it does not generate, and answers `annotatedWith()` from a reverse
+ * annotation index so annotation lookups decode no class metadata.
  */
 class GeneratedPortraitProviderFactory(
     private val byteBuddy: ByteBuddy,
@@ -35,26 +50,32 @@ class GeneratedPortraitProviderFactory(
      * Creates a GeneratedPortraitProvider class that provides all the given portrait classes.
      *
      * @param generatedPortraits List of generated portrait results with their DynamicTypes
-     * @param packageName Package name for the generated provider (default: tech.kaffa.portrait.generated)
+     * @param displacements Perfect-hash displacements over the names of every portrait candidate
+     * @param classIds Ids the generated portraits report
+     * @param packageName Package name for the generated provider (default: [DEFAULT_PACKAGE])
      * @return Result containing the generated provider class
      */
     fun make(
         generatedPortraits: Set<PortraitClassFactory.Result>,
-        packageName: String = "tech.kaffa.portrait.generated"
+        displacements: IntArray,
+        classIds: ClassIdAssignment,
+        packageName: String = DEFAULT_PACKAGE
     ): Result {
-        val providerClassName = "$packageName.GeneratedPortraitProvider"
+        val providerClassName = providerClassName(packageName)
 
-        // Create mapping from original class name to portrait class name
-        val portraitMap = generatedPortraits.associate { result ->
-            result.superType.name to result.dynamicType.typeDescription.name
+        // Original and Portrait class name by hash slot and by local id; classes that failed to
+        // generate and reserved ids leave holes
+        val slots = arrayOfNulls<Pair<String, String>>(displacements.size)
+        val localIds = arrayOfNulls<Pair<String, String>>(classIds.localIdCount)
+        generatedPortraits.forEach { result ->
+            val names = result.superType.name to result.dynamicType.typeDescription.name
+            slots[PerfectHash.slot(result.superType.name, displacements)] = names
+            localIds[ClassIds.localIdOf(result.classId)] = names
         }
 
-        val shards = portraitMap.entries.groupBy { entry ->
-            entry.key.firstOrNull()?.code ?: -1
-        }
-
-        val shardMethodNames = mutableMapOf<Int, String>()
-        val shardKeys = shards.keys.filter { it >= 0 }.sorted()
+        val byNameMethodNames = mutableListOf<String>()
+        val byIdMethodNames = mutableListOf<String>()
+        val knownNamesMethodNames = mutableListOf<String>()
 
         var builder = byteBuddy
             .subclass(PortraitProvider::class.java)
@@ -65,30 +86,90 @@ class GeneratedPortraitProviderFactory(
                 Visibility.PUBLIC
             )
             .intercept(FixedValue.value(150)) // Priority 150 (between JVM=100 and WellKnown=200)
+            .defineField(
+                PortraitForSlotMethodImpl.DISPLACEMENTS_FIELD,
+                IntArray::class.java,
+                Visibility.PRIVATE,
+                Ownership.STATIC,
+                FieldManifestation.FINAL
+            )
+            .initializer(DisplacementsInitializerImpl(DISPLACEMENT_CHUNKS_METHOD))
+            // Displacements ship as string constants
+            .defineMethod(DISPLACEMENT_CHUNKS_METHOD, Array<String>::class.java, Visibility.PRIVATE, Ownership.STATIC)
+            .intercept(StringArrayMethodImpl(PerfectHash.encode(displacements)))
+
+        slots.indices.step(PortraitForSlotMethodImpl.CHUNK_SIZE).forEachIndexed { chunk, firstSlot ->
+            val lastSlot = minOf(firstSlot + PortraitForSlotMethodImpl.CHUNK_SIZE, slots.size)
+            val chunkSlots = slots.asList().subList(firstSlot, lastSlot)
+
+            val byNameMethodName = "portraitForName_$chunk"
+            byNameMethodNames.add(byNameMethodName)
+            builder = builder
+                .defineMethod(byNameMethodName, StaticPClass::class.java, Visibility.PRIVATE, Ownership.STATIC)
+                .withParameters(String::class.java, Int::class.javaPrimitiveType)
+                .intercept(PortraitForSlotMethodImpl(firstSlot, chunkSlots, verifyName = true))
 
-        shardKeys.forEach { codePoint ->
-            val shardEntries = shards.getValue(codePoint)
-            val shardMap = shardEntries.associate { it.key to it.value }
-            val suffix = codePoint.takeIf { it in Char.MIN_VALUE.code..Char.MAX_VALUE.code }
-                ?.toChar()
-                ?.takeIf { it.isLetterOrDigit() }
-                ?.toString()
-                ?: "u${codePoint.toString(16).padStart(4, '0')}"
-            val methodName = "portraitForName_$suffix"
-            shardMethodNames[codePoint] = methodName
+            val knownNamesMethodName = "knownClassNames_$chunk"
+            knownNamesMethodNames.add(knownNamesMethodName)
+            builder = builder
+                .defineMethod(knownNamesMethodName, Array<String>::class.java, Visibility.PRIVATE, Ownership.STATIC)
+                .intercept(StringArrayMethodImpl(chunkSlots.mapNotNull { it?.first }))
+        }
+
+        localIds.indices.step(PortraitForSlotMethodImpl.CHUNK_SIZE).forEachIndexed { chunk, firstId ->
+            val lastId = minOf(firstId + PortraitForSlotMethodImpl.CHUNK_SIZE, localIds.size)
+            val chunkIds = localIds.asList().subList(firstId, lastId)
 
+            val byIdMethodName = "portraitForId_$chunk"
+            byIdMethodNames.add(byIdMethodName)
             builder = builder
-                .defineMethod(methodName, StaticPortrait::class.java, Visibility.PRIVATE, Ownership.STATIC)
-                .withParameters(String::class.java)
-                .intercept(PortraitForFirstCharMethodImpl(shardMap))
+                .defineMethod(byIdMethodName, StaticPClass::class.java, Visibility.PRIVATE, Ownership.STATIC)
+                .withParameters(Int::class.javaPrimitiveType)
+                .intercept(PortraitForSlotMethodImpl(firstId, chunkIds, verifyName = false))
         }
 
-        val firstChars = shardKeys.toIntArray()
+        val annotationIndex = annotationIndex(generatedPortraits)
+        val annotationMethodNames = LinkedHashMap<String, String>(annotationIndex.size)
+        annotationIndex.entries.forEachIndexed { ordinal, (annotationName, elements) ->
+            val methodName = "annotatedWith_$ordinal"
+            annotationMethodNames[annotationName] = methodName
+
+            // Each encoded element is its own String constant; widely used annotations such as
+            // kotlin.Metadata are split into chunk methods joined at runtime
+            val implementation = if (elements.size <= StringArrayMethodImpl.CHUNK_SIZE) {
+                StringArrayMethodImpl(elements)
+            } else {
+                val chunks = elements.chunked(StringArrayMethodImpl.CHUNK_SIZE).mapIndexed { chunk, chunkElements ->
+                    "${methodName}_$chunk" to chunkElements
+                }
+                chunks.forEach { (chunkMethodName, chunkElements) ->
+                    builder = builder
+                        .defineMethod(chunkMethodName, Array<String>::class.java, Visibility.PRIVATE, Ownership.STATIC)
+                        .intercept(StringArrayMethodImpl(chunkElements))
+                }
+                StringArrayConcatMethodImpl(chunks.map { (chunkMethodName, chunkElements) ->
+                    chunkMethodName to chunkElements.size
+                })
+            }
+            builder = builder
+                .defineMethod(methodName, Array<String>::class.java, Visibility.PRIVATE, Ownership.STATIC)
+                .intercept(implementation)
+        }
 
         val dynamicType = builder
             .defineMethod("forName", PClass::class.java, Visibility.PUBLIC)
             .withParameters(String::class.java)
-            .intercept(PortraitForNameMethodImpl(firstChars, shardMethodNames))
+            .intercept(PortraitForNameMethodImpl(byNameMethodNames))
+            .defineMethod("forId", PClass::class.java, Visibility.PUBLIC)
+            .withParameters(Int::class.javaPrimitiveType)
+            .intercept(PortraitForIdMethodImpl(classIds.namespace, byIdMethodNames))
+            .defineMethod("idNamespace", Int::class.javaObjectType, Visibility.PUBLIC)
+            .intercept(FixedValue.value(classIds.namespace))
+            .defineMethod("knownClassNames", Collection::class.java, Visibility.PUBLIC)
+            .intercept(KnownClassNamesMethodImpl(generatedPortraits.size, knownNamesMethodNames))
+            .defineMethod("annotatedWith", Collection::class.java, Visibility.PUBLIC)
+            .withParameters(String::class.java)
+            .intercept(AnnotatedWithMethodImpl(annotationMethodNames))
             .visit(
                 AsmVisitorWrapper.ForDeclaredMethods()
                     .writerFlags(ClassWriter.COMPUTE_FRAMES or ClassWriter.COMPUTE_MAXS)
@@ -98,4 +179,42 @@ class GeneratedPortraitProviderFactory(
         return Result(dynamicType, providerClassName)
     }
 
+    /**
+     * Groups the annotated classes and members of [generatedPortraits] by annotation class name,
+     * encoded with [AnnotatedElementCodec]. Member indices are positions in the metadata lists, which
+     * are the lists StaticPClass exposes.
+     */
+    private fun annotationIndex(generatedPortraits: Set<PortraitClassFactory.Result>): Map<String, List<String>> {
+        val index = sortedMapOf<String, MutableList<String>>()
+
+        fun add(annotations: List<PAnnotationEntry>, element: PAnnotatedElement) {
+            annotations.map { it.annotationClassName }.distinct().forEach { annotationName ->
+                index.getOrPut(annotationName) { mutableListOf() }.add(AnnotatedElementCodec.encode(element))
+            }
+        }
+
+        generatedPortraits.sortedBy { it.superType.name }.forEach { result ->
+            val entry = result.classEntry
+            val className = result.superType.name
+            add(entry.annotations, PAnnotatedElement(className, PAnnotatedElement.Kind.CLASS))
+            entry.constructors.forEachIndexed { i, constructor ->
+                add(constructor.annotations, PAnnotatedElement(className, PAnnotatedElement.Kind.CONSTRUCTOR, i))
+            }
+            entry.declaredMethods.forEachIndexed { i, method ->
+                add(method.annotations, PAnnotatedElement(className, PAnnotatedElement.Kind.METHOD, i))
+            }
+            entry.declaredFields.forEachIndexed { i, field ->
+                add(field.annotations, PAnnotatedElement(className, PAnnotatedElement.Kind.FIELD, i))
+            }
+        }
+        return index
+    }
+
+    companion object {
+        const val DEFAULT_PACKAGE = "tech.kaffa.portrait.generated"
+
+        private const val DISPLACEMENT_CHUNKS_METHOD = "displacementChunks"
+
+        fun providerClassName(packageName: String): String = "$packageName.GeneratedPortraitProvider"
+    }
 }
@@ -0,0 +1,53 @@
+package tech.kaffa.portrait.codegen.provider
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
+
+/**
+ * ByteCode implementation for the top-level knownClassNames method that concatenates every shard's names.
+ */
+class KnownClassNamesMethodImpl(
+    private val totalCount: Int,
+    private val shardMethodNames: List<String>
+) : BytecodeImplementation() {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        mv.visitTypeInsn(Opcodes.NEW, "java/util/ArrayList")
+        mv.visitInsn(Opcodes.DUP)
+        mv.visitLdcInsn(totalCount)
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/util/ArrayList", "<init>", "(I)V", false)
+        mv.visitVarInsn(Opcodes.ASTORE, 1)
+
+        val ownerInternalName = context.instrumentedType.internalName
+        shardMethodNames.forEach { methodName ->
+            mv.visitVarInsn(Opcodes.ALOAD, 1)
+            mv.visitMethodInsn(
+                Opcodes.INVOKESTATIC,
+                ownerInternalName,
+                methodName,
+                "()[Ljava/lang/String;",
+                false
+            )
+            mv.visitMethodInsn(
+                Opcodes.INVOKESTATIC,
+                "java/util/Collections",
+                "addAll",
+                "(Ljava/util/Collection;[Ljava/lang/Object;)Z",
+                false
+            )
+            mv.visitInsn(Opcodes.POP)
+        }
+
+        mv.visitVarInsn(Opcodes.ALOAD, 1)
+        mv.visitInsn(Opcodes.ARETURN)
+        return ByteCodeAppender.Size(3, 2)
+    }
+}
@@ -0,0 +1,66 @@
+package tech.kaffa.portrait.codegen.provider
+
+import net.bytebuddy.ByteBuddy
+import net.bytebuddy.description.modifier.FieldManifestation
+import net.bytebuddy.description.modifier.Ownership
+import net.bytebuddy.description.modifier.Visibility
+import net.bytebuddy.dynamic.DynamicType
+import net.bytebuddy.pool.TypePool
+import tech.kaffa.portrait.aot.meta.serde.MetadataStore
+import tech.kaffa.portrait.codegen.PortraitGenerator
+
+/**
+ * Factory for the holder class of the shared [MetadataStore], used when metadata is written to a
+ * store resource instead of being embedded in each Portrait class.
+ *
+ * The holder is generated next to the provider and names its store in a `RESOURCE` constant, the
+ * path [MetadataStore.resourceFor] derives from that package, so stores of artifacts generated
+ * into different packages never shadow each other. It loads the store through its own class in
+ * its type initializer, so the store is read once per class loader, on first use, without locking
+ * in the runtime.
+ */
+class MetadataStoreHolderFactory(
+    private val byteBuddy: ByteBuddy,
+    private val typePool: TypePool
+) {
+    data class Result(
+        override val dynamicType: DynamicType,
+        val holderInternalName: String,
+        val resource: String
+    ) : PortraitGenerator.GeneratedClass
+
+    /**
+     * Creates the holder class.
+     *
+     * @param mapped Whether to memory-map the store; only valid for JVM targets
+     * @param packageName Package of the generated provider, which the holder and its store share
+     */
+    fun make(mapped: Boolean, packageName: String = GeneratedPortraitProviderFactory.DEFAULT_PACKAGE): Result {
+        val holderClassName = "$packageName.GeneratedMetadataStore"
+        val holderInternalName = holderClassName.replace('.', '/')
+        val resource = MetadataStore.resourceFor(packageName)
+
+        val dynamicType = byteBuddy
+            .subclass(Any::class.java)
+            .name(holderClassName)
+            .defineField(
+                MetadataStoreInitializerImpl.RESOURCE_FIELD,
+                String::class.java,
+                Visibility.PUBLIC,
+                Ownership.STATIC,
+                FieldManifestation.FINAL
+            )
+            .value(resource)
+            .defineField(
+                MetadataStoreInitializerImpl.STORE_FIELD,
+                MetadataStore::class.java,
+                Visibility.PUBLIC,
+                Ownership.STATIC,
+                FieldManifestation.FINAL
+            )
+            .initializer(MetadataStoreInitializerImpl(holderInternalName, resource, mapped))
+            .make(typePool)
+
+        return Result(dynamicType, holderInternalName, resource)
+    }
+}
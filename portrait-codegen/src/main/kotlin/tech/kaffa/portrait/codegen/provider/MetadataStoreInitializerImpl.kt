@@ -0,0 +1,57 @@
+package tech.kaffa.portrait.codegen.provider
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import net.bytebuddy.jar.asm.Type
+
+/**
+ * Type initializer of the metadata store holder that loads the store at [resource] through the
+ * holder's own class into [STORE_FIELD]. Prepended to the type initializer, so it must not return.
+ *
+ * @param holderInternalName Internal name of the holder class
+ * @param resource Resource path of the store, also the value of [RESOURCE_FIELD]
+ * @param mapped Whether to load through `MappedMetadataStore`, which TeaVM cannot link
+ */
+class MetadataStoreInitializerImpl(
+    private val holderInternalName: String,
+    private val resource: String,
+    private val mapped: Boolean
+) : ByteCodeAppender {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        val loaderInternalName = if (mapped) MAPPED_LOADER_INTERNAL_NAME else STORE_INTERNAL_NAME
+
+        mv.visitLdcInsn(Type.getObjectType(holderInternalName))
+        mv.visitLdcInsn(resource)
+        mv.visitMethodInsn(
+            Opcodes.INVOKESTATIC,
+            loaderInternalName,
+            "load",
+            "(Ljava/lang/Class;Ljava/lang/String;)$STORE_DESCRIPTOR",
+            false
+        )
+        mv.visitFieldInsn(Opcodes.PUTSTATIC, holderInternalName, STORE_FIELD, STORE_DESCRIPTOR)
+
+        return ByteCodeAppender.Size(2, method.stackSize)
+    }
+
+    companion object {
+        /** Static field holding the loaded store */
+        const val STORE_FIELD = "STORE"
+
+        /** Constant naming the resource path of the store */
+        const val RESOURCE_FIELD = "RESOURCE"
+
+        const val STORE_DESCRIPTOR = "Ltech/kaffa/portrait/aot/meta/serde/MetadataStore;"
+
+        private const val STORE_INTERNAL_NAME = "tech/kaffa/portrait/aot/meta/serde/MetadataStore"
+        private const val MAPPED_LOADER_INTERNAL_NAME = "tech/kaffa/portrait/aot/meta/serde/MappedMetadataStore"
+    }
+}
@@ -0,0 +1,62 @@
+package tech.kaffa.portrait.codegen.provider
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.Label
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import tech.kaffa.portrait.aot.ClassIds
+import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
+
+/**
+ * ByteCode implementation for the top-level forId method. Ids of another provider's [namespace]
+ * answer null; otherwise the local id selects the chunk method and its tableswitch case directly,
+ * so no name is hashed or compared.
+ *
+ * @param namespace Namespace of this provider's ids, see [ClassIds]
+ * @param chunkMethodNames Static `(int)` method name per chunk of [PortraitForSlotMethodImpl.CHUNK_SIZE] local ids
+ */
+class PortraitForIdMethodImpl(
+    private val namespace: Int,
+    private val chunkMethodNames: List<String>
+) : BytecodeImplementation() {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        val returnNullLabel = Label()
+
+        if (chunkMethodNames.isNotEmpty()) {
+            mv.visitVarInsn(Opcodes.ILOAD, 1)
+            mv.visitIntInsn(Opcodes.BIPUSH, ClassIds.NAMESPACE_SHIFT)
+            mv.visitInsn(Opcodes.IUSHR)
+            mv.visitLdcInsn(namespace)
+            mv.visitJumpInsn(Opcodes.IF_ICMPNE, returnNullLabel)
+
+            mv.visitVarInsn(Opcodes.ILOAD, 1)
+            mv.visitLdcInsn(ClassIds.MAX_LOCAL_ID)
+            mv.visitInsn(Opcodes.IAND)
+            mv.visitVarInsn(Opcodes.ISTORE, 2)
+
+            PortraitForSlotMethodImpl.visitChunkDispatch(
+                mv,
+                context.instrumentedType.internalName,
+                2,
+                chunkMethodNames,
+                PortraitForSlotMethodImpl.BY_ID_DESCRIPTOR,
+                returnNullLabel
+            ) {
+                mv.visitVarInsn(Opcodes.ILOAD, 2)
+            }
+        }
+
+        mv.visitLabel(returnNullLabel)
+        mv.visitInsn(Opcodes.ACONST_NULL)
+        mv.visitInsn(Opcodes.ARETURN)
+
+        return ByteCodeAppender.Size(2, 3)
+    }
+}
@@ -9,11 +9,15 @@ import net.bytebuddy.jar.asm.Opcodes
 import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
 
 /**
- * ByteCode implementation for the top-level forName method that shards dispatch by first character.
+ * ByteCode implementation for the top-level forName method.
+ *
+ * Probes the provider's perfect hash through `PerfectHash.slot`, then hands the name and slot to the
+ * chunk method holding that slot, which verifies the name with a single `equals`.
+ *
+ * @param chunkMethodNames Static `(String, int)` method name per chunk of [PortraitForSlotMethodImpl.CHUNK_SIZE] slots
  */
 class PortraitForNameMethodImpl(
-    private val firstChars: IntArray,
-    private val methodNames: Map<Int, String>
+    private val chunkMethodNames: List<String>
 ) : BytecodeImplementation() {
 
     override fun apply(
@@ -21,80 +25,45 @@ class PortraitForNameMethodImpl(
         context: Implementation.Context,
         method: MethodDescription
     ): ByteCodeAppender.Size {
-        if (firstChars.isEmpty()) {
+        if (chunkMethodNames.isEmpty()) {
             mv.visitInsn(Opcodes.ACONST_NULL)
             mv.visitInsn(Opcodes.ARETURN)
             return ByteCodeAppender.Size(1, 2)
         }
 
         val returnNullLabel = Label()
+        val ownerInternalName = context.instrumentedType.internalName
 
         mv.visitVarInsn(Opcodes.ALOAD, 1)
         mv.visitJumpInsn(Opcodes.IFNULL, returnNullLabel)
-        mv.visitVarInsn(Opcodes.ALOAD, 1)
-        mv.visitMethodInsn(
-            Opcodes.INVOKEVIRTUAL,
-            "java/lang/String",
-            "length",
-            "()I",
-            false
-        )
-        mv.visitJumpInsn(Opcodes.IFEQ, returnNullLabel)
 
         mv.visitVarInsn(Opcodes.ALOAD, 1)
-        mv.visitInsn(Opcodes.ICONST_0)
+        mv.visitFieldInsn(Opcodes.GETSTATIC, ownerInternalName, PortraitForSlotMethodImpl.DISPLACEMENTS_FIELD, "[I")
         mv.visitMethodInsn(
-            Opcodes.INVOKEVIRTUAL,
-            "java/lang/String",
-            "charAt",
-            "(I)C",
+            Opcodes.INVOKESTATIC,
+            "tech/kaffa/portrait/aot/PerfectHash",
+            "slot",
+            "(Ljava/lang/String;[I)I",
             false
         )
+        mv.visitVarInsn(Opcodes.ISTORE, 2)
 
-        val defaultLabel = returnNullLabel
-        val caseLabels = firstChars.map { Label() }
-
-        mv.visitLookupSwitchInsn(
-            defaultLabel,
-            firstChars,
-            caseLabels.toTypedArray()
-        )
-
-        val ownerInternalName = context.instrumentedType.internalName
-        val staticPClassInternalName = "tech/kaffa/portrait/aot/StaticPClass"
-        firstChars.forEachIndexed { index, codePoint ->
-            mv.visitLabel(caseLabels[index])
-            val methodName = methodNames.getValue(codePoint)
-
+        PortraitForSlotMethodImpl.visitChunkDispatch(
+            mv,
+            ownerInternalName,
+            2,
+            chunkMethodNames,
+            PortraitForSlotMethodImpl.BY_NAME_DESCRIPTOR,
+            returnNullLabel
+        ) {
             mv.visitVarInsn(Opcodes.ALOAD, 1)
-            mv.visitMethodInsn(
-                Opcodes.INVOKESTATIC,
-                ownerInternalName,
-                methodName,
-                "(Ljava/lang/String;)Ltech/kaffa/portrait/aot/StaticPortrait;",
-                false
-            )
-            mv.visitVarInsn(Opcodes.ASTORE, 2)
-            mv.visitVarInsn(Opcodes.ALOAD, 2)
-            mv.visitJumpInsn(Opcodes.IFNULL, returnNullLabel)
-
-            mv.visitTypeInsn(Opcodes.NEW, staticPClassInternalName)
-            mv.visitInsn(Opcodes.DUP)
-            mv.visitVarInsn(Opcodes.ALOAD, 2)
-            mv.visitMethodInsn(
-                Opcodes.INVOKESPECIAL,
-                staticPClassInternalName,
-                "<init>",
-                "(Ltech/kaffa/portrait/aot/StaticPortrait;)V",
-                false
-            )
-            mv.visitInsn(Opcodes.ARETURN)
+            mv.visitVarInsn(Opcodes.ILOAD, 2)
         }
 
         mv.visitLabel(returnNullLabel)
         mv.visitInsn(Opcodes.ACONST_NULL)
         mv.visitInsn(Opcodes.ARETURN)
 
-        return ByteCodeAppender.Size(3, 3)
+        return ByteCodeAppender.Size(2, 3)
     }
 }
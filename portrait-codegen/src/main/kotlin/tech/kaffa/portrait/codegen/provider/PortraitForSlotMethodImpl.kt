@@ -0,0 +1,121 @@
+package tech.kaffa.portrait.codegen.provider
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.Label
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import tech.kaffa.portrait.codegen.portrait.SingletonInitializerImpl
+import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
+
+/**
+ * ByteCode implementation for the static methods that map a chunk of perfect-hash slots or local
+ * class ids to the canonical StaticPClass of each class with a single tableswitch.
+ *
+ * With [verifyName] the method takes `(String name, int slot)` and answers only when the class in
+ * the slot has that name, which completes a perfect-hash lookup; otherwise it takes `(int localId)`.
+ * Empty entries, left by classes whose Portrait failed to generate or by the reserved ids of
+ * removed classes, answer null.
+ *
+ * @param firstSlot Slot or local id of the first entry of [slots]
+ * @param slots Original and Portrait class name per slot or local id, or null for an empty entry
+ * @param verifyName Whether to compare the requested name with the class in the slot
+ */
+class PortraitForSlotMethodImpl(
+    private val firstSlot: Int,
+    private val slots: List<Pair<String, String>?>,
+    private val verifyName: Boolean
+) : BytecodeImplementation() {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        val nullLabel = Label()
+        val labels = slots.map { if (it == null) nullLabel else Label() }
+
+        mv.visitVarInsn(Opcodes.ILOAD, if (verifyName) 1 else 0)
+        mv.visitTableSwitchInsn(firstSlot, firstSlot + slots.size - 1, nullLabel, *labels.toTypedArray())
+
+        slots.forEachIndexed { index, slot ->
+            val (className, portraitClassName) = slot ?: return@forEachIndexed
+            mv.visitLabel(labels[index])
+
+            if (verifyName) {
+                mv.visitVarInsn(Opcodes.ALOAD, 0)
+                mv.visitLdcInsn(className)
+                mv.visitMethodInsn(
+                    Opcodes.INVOKEVIRTUAL,
+                    "java/lang/String",
+                    "equals",
+                    "(Ljava/lang/Object;)Z",
+                    false
+                )
+                mv.visitJumpInsn(Opcodes.IFEQ, nullLabel)
+            }
+
+            mv.visitFieldInsn(
+                Opcodes.GETSTATIC,
+                portraitClassName.replace('.', '/'),
+                SingletonInitializerImpl.PCLASS_FIELD,
+                SingletonInitializerImpl.PCLASS_DESCRIPTOR
+            )
+            mv.visitInsn(Opcodes.ARETURN)
+        }
+
+        mv.visitLabel(nullLabel)
+        mv.visitInsn(Opcodes.ACONST_NULL)
+        mv.visitInsn(Opcodes.ARETURN)
+
+        return ByteCodeAppender.Size(2, method.stackSize)
+    }
+
+    companion object {
+        /** Slots per chunk method, keeping each tableswitch well below the method size limit */
+        const val CHUNK_SHIFT = 10
+        const val CHUNK_SIZE = 1 shl CHUNK_SHIFT
+
+        /** Private static field of the provider holding the perfect-hash displacements */
+        const val DISPLACEMENTS_FIELD = "DISPLACEMENTS"
+
+        const val BY_NAME_DESCRIPTOR = "(Ljava/lang/String;I)${SingletonInitializerImpl.PCLASS_DESCRIPTOR}"
+        const val BY_ID_DESCRIPTOR = "(I)${SingletonInitializerImpl.PCLASS_DESCRIPTOR}"
+
+        /**
+         * Emits a jump to the chunk method holding the slot in local [slotLocal] and returns its
+         * answer. Slots outside every chunk fall through to [defaultLabel].
+         */
+        internal fun visitChunkDispatch(
+            mv: MethodVisitor,
+            ownerInternalName: String,
+            slotLocal: Int,
+            chunkMethodNames: List<String>,
+            descriptor: String,
+            defaultLabel: Label,
+            loadArguments: () -> Unit
+        ) {
+            if (chunkMethodNames.size == 1) {
+                // The chunk's own tableswitch rejects out-of-range slots
+                loadArguments()
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, ownerInternalName, chunkMethodNames[0], descriptor, false)
+                mv.visitInsn(Opcodes.ARETURN)
+                return
+            }
+
+            val labels = chunkMethodNames.map { Label() }
+            mv.visitVarInsn(Opcodes.ILOAD, slotLocal)
+            mv.visitIntInsn(Opcodes.BIPUSH, CHUNK_SHIFT)
+            mv.visitInsn(Opcodes.ISHR)
+            mv.visitTableSwitchInsn(0, chunkMethodNames.size - 1, defaultLabel, *labels.toTypedArray())
+
+            chunkMethodNames.forEachIndexed { index, methodName ->
+                mv.visitLabel(labels[index])
+                loadArguments()
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, ownerInternalName, methodName, descriptor, false)
+                mv.visitInsn(Opcodes.ARETURN)
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package tech.kaffa.portrait.codegen.provider
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import tech.kaffa.portrait.codegen.provider.StringArrayMethodImpl.Companion.pushInt
+import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
+
+/**
+ * ByteCode implementation for static methods that return one `String[]` joined from the arrays of
+ * the static [StringArrayMethodImpl] chunk methods, in order.
+ *
+ * @param chunks Name and element count of each chunk method
+ */
+class StringArrayConcatMethodImpl(
+    private val chunks: List<Pair<String, Int>>
+) : BytecodeImplementation() {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        pushInt(mv, chunks.sumOf { it.second })
+        mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/String")
+        mv.visitVarInsn(Opcodes.ASTORE, 0)
+
+        val ownerInternalName = context.instrumentedType.internalName
+        var offset = 0
+        chunks.forEach { (methodName, size) ->
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, ownerInternalName, methodName, "()[Ljava/lang/String;", false)
+            mv.visitInsn(Opcodes.ICONST_0)
+            mv.visitVarInsn(Opcodes.ALOAD, 0)
+            pushInt(mv, offset)
+            pushInt(mv, size)
+            mv.visitMethodInsn(
+                Opcodes.INVOKESTATIC,
+                "java/lang/System",
+                "arraycopy",
+                "(Ljava/lang/Object;ILjava/lang/Object;II)V",
+                false
+            )
+            offset += size
+        }
+
+        mv.visitVarInsn(Opcodes.ALOAD, 0)
+        mv.visitInsn(Opcodes.ARETURN)
+        return ByteCodeAppender.Size(5, 1)
+    }
+}
@@ -0,0 +1,52 @@
+package tech.kaffa.portrait.codegen.provider
+
+import net.bytebuddy.description.method.MethodDescription
+import net.bytebuddy.implementation.Implementation
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender
+import net.bytebuddy.jar.asm.MethodVisitor
+import net.bytebuddy.jar.asm.Opcodes
+import tech.kaffa.portrait.codegen.utils.BytecodeImplementation
+
+/**
+ * ByteCode implementation for static methods that return a `String[]` literal built from constants.
+ *
+ * Every element costs a few bytes of code and two constant pool entries, so callers split long
+ * lists into chunks of [CHUNK_SIZE] and join them with [StringArrayConcatMethodImpl].
+ */
+class StringArrayMethodImpl(
+    private val values: List<String>
+) : BytecodeImplementation() {
+
+    override fun apply(
+        mv: MethodVisitor,
+        context: Implementation.Context,
+        method: MethodDescription
+    ): ByteCodeAppender.Size {
+        pushInt(mv, values.size)
+        mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/String")
+
+        values.forEachIndexed { index, value ->
+            mv.visitInsn(Opcodes.DUP)
+            pushInt(mv, index)
+            mv.visitLdcInsn(value)
+            mv.visitInsn(Opcodes.AASTORE)
+        }
+
+        mv.visitInsn(Opcodes.ARETURN)
+        return ByteCodeAppender.Size(4, 0)
+    }
+
+    companion object {
+        /** Elements per literal method, the same bound as the name dispatch chunks */
+        const val CHUNK_SIZE = PortraitForSlotMethodImpl.CHUNK_SIZE
+
+        internal fun pushInt(mv: MethodVisitor, value: Int) {
+            when (value) {
+                in -1..5 -> mv.visitInsn(Opcodes.ICONST_0 + value)
+                in Byte.MIN_VALUE..Byte.MAX_VALUE -> mv.visitIntInsn(Opcodes.BIPUSH, value)
+                in Short.MIN_VALUE..Short.MAX_VALUE -> mv.visitIntInsn(Opcodes.SIPUSH, value)
+                else -> mv.visitLdcInsn(value)
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package tech.kaffa.portrait.codegen.utils
 
 import net.bytebuddy.description.annotation.AnnotationDescription
+import net.bytebuddy.description.enumeration.EnumerationDescription
 import net.bytebuddy.description.field.FieldDescription
 import net.bytebuddy.description.method.MethodDescription
 import net.bytebuddy.description.method.ParameterDescription
@@ -68,7 +69,7 @@ fun AnnotationDescription.toAnnotationEntry(): PAnnotationEntry {
             .filter { !it.isConstructor }
             .associate { method ->
                 val value = try {
-                    getValue(method.name)?.resolve()
+                    normalizeAnnotationValue(getValue(method.name)?.resolve())
                 } catch (e: Exception) {
                     logger.debug(
                         "Failed to resolve annotation property '${method.name}' for annotation '${annotationType.typeName}': ${e.message}",
@@ -81,3 +82,23 @@ fun AnnotationDescription.toAnnotationEntry(): PAnnotationEntry {
             .filterValues { it != null }
     )
 }
+
+/**
+ * Maps a resolved annotation value to the forms the metadata encodes: arrays become lists, enum
+ * constants their names and classes their binary names, which the generated annotation
+ * implementations convert back.
+ */
+private fun normalizeAnnotationValue(value: Any?): Any? = when (value) {
+    is EnumerationDescription -> value.value
+    is TypeDescription -> value.name
+    is BooleanArray -> value.toList()
+    is ByteArray -> value.toList()
+    is CharArray -> value.toList()
+    is ShortArray -> value.toList()
+    is IntArray -> value.toList()
+    is LongArray -> value.toList()
+    is FloatArray -> value.toList()
+    is DoubleArray -> value.toList()
+    is Array<*> -> value.map { normalizeAnnotationValue(it) }
+    else -> value
+}
@@ -29,6 +29,35 @@ fun TypeDescription.superclassNameOrNull(): String? {
 fun TypeDescription.interfaceNames(): List<String> =
     interfaces.asErasures().map { it.typeName }
 
+/**
+ * Returns the names of every class and interface this type inherits from, directly or
+ * transitively, in ascending order.
+ *
+ * The runtime treats a non-empty table as the complete closure, so when any supertype cannot be
+ * resolved from the type pool the result is empty and the runtime walks the hierarchy instead.
+ */
+fun TypeDescription.supertypeNames(): List<String> {
+    val names = sortedSetOf<String>()
+    val pending = ArrayDeque<TypeDescription>()
+    pending.add(this)
+    while (pending.isNotEmpty()) {
+        val type = pending.removeFirst()
+        val supertypes = try {
+            listOfNotNull(type.superclassNameOrNull()?.let { type.superClass.asErasure() }) +
+                type.interfaces.asErasures()
+        } catch (_: IllegalStateException) {
+            // Unresolvable in the type pool, so the closure would be incomplete
+            return emptyList()
+        }
+        for (supertype in supertypes) {
+            if (names.add(supertype.typeName)) {
+                pending.add(supertype)
+            }
+        }
+    }
+    return names.toList()
+}
+
 fun TypeDescription.qualifiedNameOrNull(): String? =
     typeName.takeIf { it.contains(".") }
 
@@ -5,10 +5,20 @@ import io.github.classgraph.ScanResult
 import io.mockk.every
 import io.mockk.mockk
 import net.bytebuddy.dynamic.ClassFileLocator
+import tech.kaffa.portrait.aot.ClassIds
+import tech.kaffa.portrait.aot.meta.serde.MetadataStore
+import tech.kaffa.portrait.codegen.provider.GeneratedPortraitProviderFactory
+import tech.kaffa.portrait.codegen.utils.ClasslibConfiguration
+import tech.kaffa.portrait.provider.PortraitProvider
 import kotlin.test.Test
 import java.io.File
 import java.lang.reflect.Modifier
+import java.net.URLClassLoader
+import kotlin.test.assertEquals
+import kotlin.test.assertNotEquals
 import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertSame
 import kotlin.test.assertTrue
 
 class PortraitGeneratorTest {
@@ -161,5 +171,102 @@ class PortraitGeneratorTest {
         assertTrue(Modifier.isPrivate(generateProxyMethod.modifiers))
         assertTrue(Modifier.isPrivate(generatePortraitMethod.modifiers))
     }
-}
 
+    @Test
+    fun `PortraitGenerator keeps class ids of separately generated providers apart`() {
+        val classpath = System.getProperty("java.class.path")
+        val reflectives = setOf(TestClass::class.java.name, TestDataClass::class.java.name)
+        val locator = ClasslibConfiguration.forCurrentRuntime().createLocator()
+        val firstDir = File("build/test-generated-providers/first").apply { deleteRecursively() }
+        val secondDir = File("build/test-generated-providers/second").apply { deleteRecursively() }
+
+        ClasspathScanner(classpath, locator).scan().use { result ->
+            val scan = result.copy(proxyTargets = emptySet(), reflectives = reflectives)
+            PortraitGenerator.forFolder(firstDir.path, scan, providerPackage = "com.example.first", idNamespace = 1)
+                .use { it.generate() }
+            PortraitGenerator.forFolder(secondDir.path, scan, providerPackage = "com.example.second", idNamespace = 2)
+                .use { it.generate() }
+        }
+
+        val first = loadProvider(firstDir, "com.example.first")
+        val second = loadProvider(secondDir, "com.example.second")
+        val firstClass = assertNotNull(first.forName<Any>(TestClass::class.java.name))
+        val secondClass = assertNotNull(second.forName<Any>(TestClass::class.java.name))
+
+        assertNotEquals(firstClass.id, secondClass.id)
+        assertEquals(1, ClassIds.namespaceOf(firstClass.id))
+        assertEquals(2, ClassIds.namespaceOf(secondClass.id))
+        assertEquals(1, first.idNamespace())
+        assertEquals(2, second.idNamespace())
+        assertSame(firstClass, first.forId(firstClass.id))
+        assertSame(secondClass, second.forId(secondClass.id))
+        assertNull(first.forId(secondClass.id))
+        assertNull(second.forId(firstClass.id))
+    }
+
+    @Test
+    fun `PortraitGenerator keeps class ids recorded in the class id file`() {
+        val classpath = System.getProperty("java.class.path")
+        val locator = ClasslibConfiguration.forCurrentRuntime().createLocator()
+        val outputDir = File("build/test-generated-providers/stable").apply { deleteRecursively() }
+        val idFile = outputDir.resolve("class-ids.properties")
+
+        fun generate(vararg reflectives: Class<*>): PortraitProvider {
+            ClasspathScanner(classpath, locator).scan().use { result ->
+                val scan = result.copy(proxyTargets = emptySet(), reflectives = reflectives.map { it.name }.toSet())
+                PortraitGenerator.forFolder(outputDir.path, scan, idNamespace = 3, classIdFile = idFile)
+                    .use { it.generate() }
+            }
+            return loadProvider(outputDir, GeneratedPortraitProviderFactory.DEFAULT_PACKAGE)
+        }
+
+        val before = assertNotNull(generate(TestDataClass::class.java).forName<Any>(TestDataClass::class.java.name))
+        // TestClass sorts before TestDataClass, so a fresh assignment would renumber TestDataClass
+        val after = assertNotNull(
+            generate(TestClass::class.java, TestDataClass::class.java).forName<Any>(TestDataClass::class.java.name)
+        )
+
+        assertEquals(before.id, after.id)
+    }
+
+    @Test
+    fun `PortraitGenerator writes one metadata store per provider package`() {
+        val classpath = System.getProperty("java.class.path")
+        val reflectives = setOf(TestClass::class.java.name)
+        val locator = ClasslibConfiguration.forCurrentRuntime().createLocator()
+        val packages = listOf("com.example.first", "com.example.second")
+        val dirs = packages.map { File("build/test-generated-stores/$it").apply { deleteRecursively() } }
+
+        ClasspathScanner(classpath, locator).scan().use { result ->
+            val scan = result.copy(proxyTargets = emptySet(), reflectives = reflectives)
+            packages.zip(dirs).forEachIndexed { namespace, (packageName, dir) ->
+                PortraitGenerator.forFolder(
+                    dir.path,
+                    scan,
+                    PortraitGenerator.MetadataOutput.STORE,
+                    providerPackage = packageName,
+                    idNamespace = namespace
+                ).use { it.generate() }
+            }
+        }
+
+        packages.zip(dirs).forEach { (packageName, dir) ->
+            val resource = MetadataStore.resourceFor(packageName)
+            assertTrue(File(dir, resource).isFile, "Missing $resource")
+
+            val provider = loadProvider(dir, packageName)
+            val holder = provider.javaClass.classLoader.loadClass("$packageName.GeneratedMetadataStore")
+            assertEquals(resource, holder.getField("RESOURCE").get(null))
+
+            val pClass = assertNotNull(provider.forName<Any>(TestClass::class.java.name))
+            assertEquals(TestClass::class.java.name, pClass.qualifiedName)
+            assertTrue(pClass.methods.isNotEmpty())
+        }
+    }
+
+    private fun loadProvider(classesDir: File, packageName: String): PortraitProvider {
+        val loader = URLClassLoader(arrayOf(classesDir.toURI().toURL()), javaClass.classLoader)
+        val providerClass = loader.loadClass(GeneratedPortraitProviderFactory.providerClassName(packageName))
+        return providerClass.getDeclaredConstructor().newInstance() as PortraitProvider
+    }
+}
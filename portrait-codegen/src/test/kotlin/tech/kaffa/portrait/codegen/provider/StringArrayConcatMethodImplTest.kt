@@ -0,0 +1,37 @@
+package tech.kaffa.portrait.codegen.provider
+
+import net.bytebuddy.ByteBuddy
+import net.bytebuddy.description.modifier.Ownership
+import net.bytebuddy.description.modifier.Visibility
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class StringArrayConcatMethodImplTest {
+
+    @Test
+    fun `chunked string arrays are joined in order`() {
+        val values = (0 until StringArrayMethodImpl.CHUNK_SIZE * 2 + 3).map { "element-$it" }
+        val chunks = values.chunked(StringArrayMethodImpl.CHUNK_SIZE).mapIndexed { chunk, elements ->
+            "values_$chunk" to elements
+        }
+
+        var builder = ByteBuddy().subclass(Any::class.java).name("tech.kaffa.portrait.codegen.provider.ChunkedStrings")
+        chunks.forEach { (methodName, elements) ->
+            builder = builder
+                .defineMethod(methodName, Array<String>::class.java, Visibility.PUBLIC, Ownership.STATIC)
+                .intercept(StringArrayMethodImpl(elements))
+        }
+        val type = builder
+            .defineMethod("values", Array<String>::class.java, Visibility.PUBLIC, Ownership.STATIC)
+            .intercept(StringArrayConcatMethodImpl(chunks.map { (methodName, elements) -> methodName to elements.size }))
+            .make()
+            .load(javaClass.classLoader, ClassLoadingStrategy.Default.WRAPPER)
+            .loaded
+
+        @Suppress("UNCHECKED_CAST")
+        val joined = type.getMethod("values").invoke(null) as Array<String>
+
+        assertEquals(values, joined.toList())
+    }
+}
@@ -2,6 +2,9 @@ package tech.kaffa.portrait.codegen.utils
 
 import io.mockk.every
 import io.mockk.mockk
+import net.bytebuddy.ByteBuddy
+import net.bytebuddy.dynamic.ClassFileLocator
+import net.bytebuddy.pool.TypePool
 import net.bytebuddy.description.annotation.AnnotationDescription
 import net.bytebuddy.description.annotation.AnnotationList
 import net.bytebuddy.description.method.MethodDescription
@@ -12,6 +15,7 @@ import net.bytebuddy.description.type.TypeList
 import kotlin.test.Test
 import kotlin.test.assertEquals
 import kotlin.test.assertFalse
+import kotlin.test.assertTrue
 import kotlin.test.assertNull
 
 class UtilsTest {
@@ -84,6 +88,30 @@ class UtilsTest {
         assertEquals("java.lang.Object", stringTypeDesc.superclassNameOrNull())
     }
 
+    @Test
+    fun `supertype names list the whole resolvable closure`() {
+        val supertypes = TypeDescription.ForLoadedType.of(java.util.ArrayList::class.java).supertypeNames()
+
+        assertEquals(supertypes.sorted(), supertypes)
+        assertTrue("java.util.AbstractList" in supertypes)
+        assertTrue("java.util.Collection" in supertypes)
+        assertTrue("java.lang.Object" in supertypes)
+    }
+
+    @Test
+    fun `supertype names are empty when a supertype is missing from the classpath`() {
+        val missing = ByteBuddy().subclass(Any::class.java).name("com.example.MissingBase").make()
+        val child = ByteBuddy().subclass(missing.typeDescription).name("com.example.Child").make()
+        val locator = ClassFileLocator.Compound(
+            ClassFileLocator.Simple.of(child.typeDescription.name, child.bytes),
+            ClassFileLocator.ForClassLoader.ofSystemLoader()
+        )
+
+        val childType = TypePool.Default.of(locator).describe("com.example.Child").resolve()
+
+        assertEquals(emptyList(), childType.supertypeNames())
+    }
+
     @Test
     fun `TypeDescription interface names extraction`() {
         val mockTypeDesc = mockk<TypeDescription>()
@@ -0,0 +1,17 @@
+package tech.kaffa.portrait.aot;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+
+/**
+ * Implemented by the generated Portrait classes of annotation types, so annotation instances are
+ * generated final classes rather than proxies. Classes generated before this interface existed,
+ * and annotation types whose attributes codegen cannot materialize, do not implement it.
+ * DO NOT IMPLEMENT MANUALLY.
+ * This interface is meant for Portrait Codegen only.
+ */
+public interface AnnotationInstantiator {
+
+    // Properties of a PAnnotationEntry, keyed by attribute name
+    Annotation newAnnotation(Map<String, Object> properties);
+}
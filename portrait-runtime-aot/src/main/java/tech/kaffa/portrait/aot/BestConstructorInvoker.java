@@ -0,0 +1,21 @@
+package tech.kaffa.portrait.aot;
+
+/**
+ * Constructor selection generated into StaticPortrait subclasses, so newInstance(vararg) picks a
+ * constructor by arity and instanceof checks instead of resolving argument descriptors. Classes
+ * generated before this interface existed, and classes without public constructors, do not
+ * implement it.
+ * DO NOT IMPLEMENT MANUALLY.
+ * This interface is meant for Portrait Codegen only.
+ */
+public interface BestConstructorInvoker {
+
+    // Invokes the first declared constructor with args.length parameters that accepts args: null
+    // for reference parameters, an instance of the wrapper for primitive ones. Throws
+    // IllegalArgumentException when there is none.
+    Object invokeBestConstructor(Object[] args);
+
+    // Index of the constructor invokeBestConstructor would invoke with args, or -1 when there is
+    // none. Lets instrumented calls report the constructor without selecting it any other way.
+    int bestConstructorIndex(Object[] args);
+}
@@ -0,0 +1,35 @@
+package tech.kaffa.portrait.aot;
+
+/**
+ * Class header constants generated into StaticPortrait subclasses, so identity and flag checks
+ * never decode the metadata. Classes generated before this interface existed do not implement it.
+ * DO NOT IMPLEMENT MANUALLY.
+ * This interface is meant for Portrait Codegen only.
+ */
+public interface StaticClassHeader {
+
+    // Bits of getClassFlags()
+    int IS_ABSTRACT = 1;
+    int IS_SEALED = 1 << 1;
+    int IS_DATA = 1 << 2;
+    int IS_COMPANION = 1 << 3;
+    int IS_OBJECT = 1 << 4;
+    int IS_ENUM = 1 << 5;
+    int IS_INTERFACE = 1 << 6;
+
+    String getSimpleName();
+
+    int getClassFlags();
+
+    // Null when the class has no superclass
+    String getSuperclassName();
+
+    int getConstructorCount();
+
+    int getMethodCount();
+
+    int getFieldCount();
+
+    // Id laid out by ClassIds, whose local part also addresses the metadata store; PClass.NO_ID when it has none
+    int getClassId();
+}
@@ -1,8 +1,11 @@
 package tech.kaffa.portrait.aot;
 
+import tech.kaffa.portrait.PArguments;
 import tech.kaffa.portrait.proxy.ProxyCreationException;
 import tech.kaffa.portrait.proxy.ProxyHandler;
 
+import java.util.Arrays;
+
 /**
  * Base class for static portrait reflection metadata.
  * DO NOT IMPLEMENT MANUALLY.
@@ -10,6 +13,8 @@ import tech.kaffa.portrait.proxy.ProxyHandler;
  */
 public abstract class StaticPortrait<T> {
 
+    private static final Object[] NO_ARGS = new Object[0];
+
     public abstract String getClassName();
 
     // Metadata
@@ -32,11 +37,92 @@ public abstract class StaticPortrait<T> {
         throw new IndexOutOfBoundsException("No constructors available");
     }
 
+    // Fixed-arity constructors; generated only for arities the class declares
+    public T invokeConstructor0(int index) {
+        return invokeConstructor(index, NO_ARGS);
+    }
+
+    public T invokeConstructor1(int index, Object a0) {
+        return invokeConstructor(index, new Object[]{a0});
+    }
+
+    public T invokeConstructor2(int index, Object a0, Object a1) {
+        return invokeConstructor(index, new Object[]{a0, a1});
+    }
+
+    public T invokeConstructor3(int index, Object a0, Object a1, Object a2) {
+        return invokeConstructor(index, new Object[]{a0, a1, a2});
+    }
+
+    public T invokeConstructor4(int index, Object a0, Object a1, Object a2, Object a3) {
+        return invokeConstructor(index, new Object[]{a0, a1, a2, a3});
+    }
+
+    public T invokeConstructor5(int index, Object a0, Object a1, Object a2, Object a3, Object a4) {
+        return invokeConstructor(index, new Object[]{a0, a1, a2, a3, a4});
+    }
+
+    public T invokeConstructor6(int index, Object a0, Object a1, Object a2, Object a3, Object a4, Object a5) {
+        return invokeConstructor(index, new Object[]{a0, a1, a2, a3, a4, a5});
+    }
+
+    // Thrown by the generated invokeBestConstructor when no constructor accepts the arguments
+    protected static IllegalArgumentException noMatchingConstructor(Object[] args) {
+        return new IllegalArgumentException("No matching constructor found for arguments: " + Arrays.toString(args));
+    }
+
     // Methods
     public Object invokeMethod(int index, Object instance, Object[] args) {
         throw new IndexOutOfBoundsException("No methods available");
     }
 
+    // Fixed-arity methods; generated only for arities the class declares
+    public Object invokeMethod0(int index, Object instance) {
+        return invokeMethod(index, instance, NO_ARGS);
+    }
+
+    public Object invokeMethod1(int index, Object instance, Object a0) {
+        return invokeMethod(index, instance, new Object[]{a0});
+    }
+
+    public Object invokeMethod2(int index, Object instance, Object a0, Object a1) {
+        return invokeMethod(index, instance, new Object[]{a0, a1});
+    }
+
+    public Object invokeMethod3(int index, Object instance, Object a0, Object a1, Object a2) {
+        return invokeMethod(index, instance, new Object[]{a0, a1, a2});
+    }
+
+    public Object invokeMethod4(int index, Object instance, Object a0, Object a1, Object a2, Object a3) {
+        return invokeMethod(index, instance, new Object[]{a0, a1, a2, a3});
+    }
+
+    public Object invokeMethod5(int index, Object instance, Object a0, Object a1, Object a2, Object a3, Object a4) {
+        return invokeMethod(index, instance, new Object[]{a0, a1, a2, a3, a4});
+    }
+
+    public Object invokeMethod6(
+            int index, Object instance, Object a0, Object a1, Object a2, Object a3, Object a4, Object a5) {
+        return invokeMethod(index, instance, new Object[]{a0, a1, a2, a3, a4, a5});
+    }
+
+    // Methods with unboxed arguments and results; typed variants generated only for return types the class declares
+    public Object invokeMethodWith(int index, Object instance, PArguments args) {
+        return invokeMethod(index, instance, args.toArray());
+    }
+
+    public int invokeIntMethod(int index, Object instance, PArguments args) {
+        return (Integer) invokeMethodWith(index, instance, args);
+    }
+
+    public long invokeLongMethod(int index, Object instance, PArguments args) {
+        return (Long) invokeMethodWith(index, instance, args);
+    }
+
+    public double invokeDoubleMethod(int index, Object instance, PArguments args) {
+        return (Double) invokeMethodWith(index, instance, args);
+    }
+
     // Fields
     public Object getFieldValue(int index, Object instance) {
         throw new IndexOutOfBoundsException("No fields available");
@@ -45,4 +131,69 @@ public abstract class StaticPortrait<T> {
     public void setFieldValue(int index, Object instance, Object value) {
         throw new IndexOutOfBoundsException("No fields available");
     }
+
+    // Primitive fields; generated only for primitive types the class declares fields of
+    public boolean getBooleanFieldValue(int index, Object instance) {
+        return (Boolean) getFieldValue(index, instance);
+    }
+
+    public void setBooleanFieldValue(int index, Object instance, boolean value) {
+        setFieldValue(index, instance, value);
+    }
+
+    public byte getByteFieldValue(int index, Object instance) {
+        return (Byte) getFieldValue(index, instance);
+    }
+
+    public void setByteFieldValue(int index, Object instance, byte value) {
+        setFieldValue(index, instance, value);
+    }
+
+    public char getCharFieldValue(int index, Object instance) {
+        return (Character) getFieldValue(index, instance);
+    }
+
+    public void setCharFieldValue(int index, Object instance, char value) {
+        setFieldValue(index, instance, value);
+    }
+
+    public short getShortFieldValue(int index, Object instance) {
+        return (Short) getFieldValue(index, instance);
+    }
+
+    public void setShortFieldValue(int index, Object instance, short value) {
+        setFieldValue(index, instance, value);
+    }
+
+    public int getIntFieldValue(int index, Object instance) {
+        return (Integer) getFieldValue(index, instance);
+    }
+
+    public void setIntFieldValue(int index, Object instance, int value) {
+        setFieldValue(index, instance, value);
+    }
+
+    public long getLongFieldValue(int index, Object instance) {
+        return (Long) getFieldValue(index, instance);
+    }
+
+    public void setLongFieldValue(int index, Object instance, long value) {
+        setFieldValue(index, instance, value);
+    }
+
+    public float getFloatFieldValue(int index, Object instance) {
+        return (Float) getFieldValue(index, instance);
+    }
+
+    public void setFloatFieldValue(int index, Object instance, float value) {
+        setFieldValue(index, instance, value);
+    }
+
+    public double getDoubleFieldValue(int index, Object instance) {
+        return (Double) getFieldValue(index, instance);
+    }
+
+    public void setDoubleFieldValue(int index, Object instance, double value) {
+        setFieldValue(index, instance, value);
+    }
 }
\ No newline at end of file
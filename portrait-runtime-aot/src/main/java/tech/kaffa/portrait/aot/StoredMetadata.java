@@ -0,0 +1,14 @@
+package tech.kaffa.portrait.aot;
+
+import tech.kaffa.portrait.aot.meta.serde.MetadataStore;
+
+/**
+ * Implemented by StaticPortrait subclasses whose metadata is a record of the shared MetadataStore,
+ * addressed by the class id, instead of the string returned by getMetadata(), which is then empty.
+ * DO NOT IMPLEMENT MANUALLY.
+ * This interface is meant for Portrait Codegen only.
+ */
+public interface StoredMetadata extends StaticClassHeader {
+
+    MetadataStore getMetadataStore();
+}
@@ -0,0 +1,174 @@
+package tech.kaffa.portrait.aot
+
+/**
+ * Conversions from decoded annotation properties to attribute values, called by the annotation
+ * implementations generated by portrait-codegen.
+ *
+ * Metadata keeps byte, short and char values, enum constants and classes as strings, and arrays as
+ * lists; each function accepts those forms. Attributes missing from the metadata become zero,
+ * null or an empty array.
+ */
+object AnnotationValues {
+
+    @JvmStatic
+    fun toBoolean(value: Any?): Boolean = when (value) {
+        is Boolean -> value
+        is String -> value.toBoolean()
+        else -> false
+    }
+
+    @JvmStatic
+    fun toByte(value: Any?): Byte = when (value) {
+        is Number -> value.toByte()
+        is String -> value.toByte()
+        else -> 0
+    }
+
+    @JvmStatic
+    fun toChar(value: Any?): Char = when (value) {
+        is Char -> value
+        is String -> value.firstOrNull() ?: '\u0000'
+        else -> '\u0000'
+    }
+
+    @JvmStatic
+    fun toShort(value: Any?): Short = when (value) {
+        is Number -> value.toShort()
+        is String -> value.toShort()
+        else -> 0
+    }
+
+    @JvmStatic
+    fun toInt(value: Any?): Int = when (value) {
+        is Number -> value.toInt()
+        is String -> value.toInt()
+        else -> 0
+    }
+
+    @JvmStatic
+    fun toLong(value: Any?): Long = when (value) {
+        is Number -> value.toLong()
+        is String -> value.toLong()
+        else -> 0L
+    }
+
+    @JvmStatic
+    fun toFloat(value: Any?): Float = when (value) {
+        is Number -> value.toFloat()
+        is String -> value.toFloat()
+        else -> 0f
+    }
+
+    @JvmStatic
+    fun toDouble(value: Any?): Double = when (value) {
+        is Number -> value.toDouble()
+        is String -> value.toDouble()
+        else -> 0.0
+    }
+
+    /** Strings, and the names of enum constants. */
+    @JvmStatic
+    fun toStringValue(value: Any?): String? = value?.toString()
+
+    @JvmStatic
+    fun toClass(value: Any?): Class<*>? = when (value) {
+        null -> null
+        is Class<*> -> value
+        else -> classForName(value.toString())
+    }
+
+    @JvmStatic
+    fun toBooleanArray(value: Any?): BooleanArray =
+        elements(value).let { BooleanArray(it.size) { i -> toBoolean(it[i]) } }
+
+    @JvmStatic
+    fun toByteArray(value: Any?): ByteArray =
+        elements(value).let { ByteArray(it.size) { i -> toByte(it[i]) } }
+
+    @JvmStatic
+    fun toCharArray(value: Any?): CharArray =
+        elements(value).let { CharArray(it.size) { i -> toChar(it[i]) } }
+
+    @JvmStatic
+    fun toShortArray(value: Any?): ShortArray =
+        elements(value).let { ShortArray(it.size) { i -> toShort(it[i]) } }
+
+    @JvmStatic
+    fun toIntArray(value: Any?): IntArray =
+        elements(value).let { IntArray(it.size) { i -> toInt(it[i]) } }
+
+    @JvmStatic
+    fun toLongArray(value: Any?): LongArray =
+        elements(value).let { LongArray(it.size) { i -> toLong(it[i]) } }
+
+    @JvmStatic
+    fun toFloatArray(value: Any?): FloatArray =
+        elements(value).let { FloatArray(it.size) { i -> toFloat(it[i]) } }
+
+    @JvmStatic
+    fun toDoubleArray(value: Any?): DoubleArray =
+        elements(value).let { DoubleArray(it.size) { i -> toDouble(it[i]) } }
+
+    /** Strings, and the names of enum constants. */
+    @JvmStatic
+    fun toStringArray(value: Any?): Array<String?> =
+        elements(value).let { Array(it.size) { i -> toStringValue(it[i]) } }
+
+    @JvmStatic
+    fun toClassArray(value: Any?): Array<Class<*>?> =
+        elements(value).let { Array(it.size) { i -> toClass(it[i]) } }
+
+    /**
+     * Formats an annotation as `@type(name=value, ...)`, with the attributes in the given order.
+     */
+    @JvmStatic
+    fun format(typeName: String, names: Array<String>, values: Array<Any?>): String {
+        if (names.isEmpty()) return "@$typeName"
+        return names.indices.joinToString(", ", prefix = "@$typeName(", postfix = ")") { i ->
+            "${names[i]}=${formatValue(values[i])}"
+        }
+    }
+
+    internal fun formatValue(value: Any?): String = when (val normalized = normalize(value)) {
+        null -> "null"
+        is String -> "\"$normalized\""
+        is Char -> "'$normalized'"
+        is Class<*> -> "${normalized.name}.class"
+        is List<*> -> normalized.joinToString(prefix = "[", postfix = "]") { formatValue(it) }
+        else -> normalized.toString()
+    }
+
+    /** Arrays become lists, so values compare and hash by content. */
+    internal fun normalize(value: Any?): Any? = when (value) {
+        null -> null
+        is BooleanArray -> value.toList()
+        is ByteArray -> value.toList()
+        is CharArray -> value.toList()
+        is ShortArray -> value.toList()
+        is IntArray -> value.toList()
+        is LongArray -> value.toList()
+        is FloatArray -> value.toList()
+        is DoubleArray -> value.toList()
+        is Array<*> -> value.map { normalize(it) }
+        else -> value
+    }
+
+    private fun elements(value: Any?): List<*> = when (value) {
+        null -> emptyList<Any?>()
+        is List<*> -> value
+        else -> normalize(value) as? List<*> ?: listOf(value)
+    }
+
+    private fun classForName(name: String): Class<*> = when (name) {
+        "boolean" -> Boolean::class.javaPrimitiveType!!
+        "byte" -> Byte::class.javaPrimitiveType!!
+        "char" -> Char::class.javaPrimitiveType!!
+        "short" -> Short::class.javaPrimitiveType!!
+        "int" -> Int::class.javaPrimitiveType!!
+        "long" -> Long::class.javaPrimitiveType!!
+        "float" -> Float::class.javaPrimitiveType!!
+        "double" -> Double::class.javaPrimitiveType!!
+        "void" -> Void.TYPE
+        else -> Class.forName(name)
+    }
+}
@@ -0,0 +1,45 @@
+package tech.kaffa.portrait.aot
+
+/**
+ * Layout of the class ids reported by generated descriptors through `PClass.id`.
+ *
+ * An id packs the namespace of the generated provider in its high bits and the class' local id in
+ * its low [NAMESPACE_SHIFT] bits. Namespaces keep the ids of different generated providers apart,
+ * and local ids are assigned by portrait-codegen independently of the provider's perfect hash, so
+ * an id stays the same when other classes are added to or removed from the generated set.
+ * Ids are never negative, leaving `PClass.NO_ID` free.
+ */
+object ClassIds {
+
+    /** Number of low bits holding the local id */
+    const val NAMESPACE_SHIFT = 20
+
+    /** Largest local id, about a million classes per provider */
+    const val MAX_LOCAL_ID = (1 shl NAMESPACE_SHIFT) - 1
+
+    /** Largest namespace that keeps ids positive */
+    const val MAX_NAMESPACE = Int.MAX_VALUE ushr NAMESPACE_SHIFT
+
+    @JvmStatic
+    fun of(namespace: Int, localId: Int): Int {
+        require(namespace in 0..MAX_NAMESPACE) { "Class id namespace $namespace is outside 0..$MAX_NAMESPACE" }
+        require(localId in 0..MAX_LOCAL_ID) { "Local class id $localId is outside 0..$MAX_LOCAL_ID" }
+        return (namespace shl NAMESPACE_SHIFT) or localId
+    }
+
+    @JvmStatic
+    fun namespaceOf(id: Int): Int = id ushr NAMESPACE_SHIFT
+
+    @JvmStatic
+    fun localIdOf(id: Int): Int = id and MAX_LOCAL_ID
+
+    /**
+     * Default namespace of the generated provider named [providerClassName]: a stable hash into
+     * 2048 values, meant for a single generated artifact. Two providers may well hash to the same
+     * namespace, so artifacts loaded together need explicit, distinct namespaces (`--id-namespace`);
+     * a context refuses providers that report the same one.
+     */
+    @JvmStatic
+    fun defaultNamespace(providerClassName: String): Int =
+        PerfectHash.hash(0, providerClassName) ushr (NAMESPACE_SHIFT + 1)
+}
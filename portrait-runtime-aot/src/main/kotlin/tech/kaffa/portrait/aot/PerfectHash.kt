@@ -0,0 +1,133 @@
+package tech.kaffa.portrait.aot
+
+/**
+ * Minimal perfect hash over the class names of a generated provider, built by portrait-codegen and
+ * probed by the generated `forName`.
+ *
+ * Uses hash-and-displace: `String.hashCode()` picks a bucket, and the bucket's displacement either
+ * seeds a second hash or, when negative, encodes the slot directly. Every name lands in its own
+ * slot in `0 until size`. Names outside the set also map to a slot, so callers verify the name held
+ * there. Slots change whenever the set does, so class ids are assigned separately, see [ClassIds].
+ *
+ * Displacements are shipped as string constants, [CHUNK_SIZE] ints per constant, to stay within the
+ * class-file limit on the length of a single constant.
+ */
+object PerfectHash {
+
+    const val CHUNK_SIZE = 4096
+
+    private const val MAX_SEED = 1 shl 20
+
+    /**
+     * Returns the slot of [name] in the table described by [displacements], or -1 for an empty table.
+     */
+    @JvmStatic
+    fun slot(name: String, displacements: IntArray): Int {
+        val size = displacements.size
+        if (size == 0) return -1
+        val displacement = displacements[(name.hashCode() and Int.MAX_VALUE) % size]
+        if (displacement < 0) return -displacement - 1
+        return (hash(displacement, name) and Int.MAX_VALUE) % size
+    }
+
+    /**
+     * Seeded FNV-1a over the chars of [name] with a murmur finalizer. Unlike `String.hashCode()` it
+     * separates names that share a hash code.
+     */
+    @JvmStatic
+    fun hash(seed: Int, name: String): Int {
+        var h = FNV_OFFSET xor (seed * FNV_PRIME)
+        for (i in 0 until name.length) {
+            h = (h xor name[i].code) * FNV_PRIME
+        }
+        h = h xor (h ushr 16)
+        h *= -0x7a143595
+        h = h xor (h ushr 13)
+        h *= -0x3d4d51cb
+        return h xor (h ushr 16)
+    }
+
+    /**
+     * Builds the displacements for [names], which must be distinct. The table has exactly
+     * `names.size` slots; use [slot] to find where each name landed.
+     */
+    @JvmStatic
+    fun build(names: List<String>): IntArray {
+        val size = names.size
+        val buckets = Array(size) { ArrayList<String>(1) }
+        names.forEach { buckets[(it.hashCode() and Int.MAX_VALUE) % size].add(it) }
+
+        val displacements = IntArray(size)
+        val taken = BooleanArray(size)
+        val order = buckets.indices.sortedByDescending { buckets[it].size }
+
+        // Largest buckets first, while most slots are still free
+        for (bucket in order) {
+            val members = buckets[bucket]
+            if (members.size <= 1) break
+            displacements[bucket] = place(members, taken)
+        }
+
+        // Single names take any free slot directly, so no seed search is needed for them
+        var free = 0
+        for (bucket in order) {
+            if (buckets[bucket].size != 1) continue
+            while (taken[free]) free++
+            taken[free] = true
+            displacements[bucket] = -free - 1
+        }
+        return displacements
+    }
+
+    private fun place(members: List<String>, taken: BooleanArray): Int {
+        val size = taken.size
+        val slots = IntArray(members.size)
+        seeds@ for (seed in 1..MAX_SEED) {
+            for (i in members.indices) {
+                val slot = (hash(seed, members[i]) and Int.MAX_VALUE) % size
+                if (taken[slot]) continue@seeds
+                for (j in 0 until i) {
+                    if (slots[j] == slot) continue@seeds
+                }
+                slots[i] = slot
+            }
+            slots.forEach { taken[it] = true }
+            return seed
+        }
+        throw IllegalArgumentException("No perfect hash seed found for $members")
+    }
+
+    /**
+     * Packs [displacements] into string constants of [CHUNK_SIZE] ints, two chars per int.
+     */
+    @JvmStatic
+    fun encode(displacements: IntArray): List<String> {
+        return (displacements.indices step CHUNK_SIZE).map { start ->
+            val end = minOf(start + CHUNK_SIZE, displacements.size)
+            buildString((end - start) * 2) {
+                for (i in start until end) {
+                    append((displacements[i] ushr 16).toChar())
+                    append(displacements[i].toChar())
+                }
+            }
+        }
+    }
+
+    /**
+     * Reverses [encode].
+     */
+    @JvmStatic
+    fun decode(chunks: Array<String>): IntArray {
+        val displacements = IntArray(chunks.sumOf { it.length } / 2)
+        var index = 0
+        for (chunk in chunks) {
+            for (i in 0 until chunk.length step 2) {
+                displacements[index++] = (chunk[i].code shl 16) or chunk[i + 1].code
+            }
+        }
+        return displacements
+    }
+
+    private const val FNV_OFFSET = -0x7ee3623b
+    private const val FNV_PRIME = 0x01000193
+}
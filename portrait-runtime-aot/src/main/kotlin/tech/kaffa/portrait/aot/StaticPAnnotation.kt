@@ -3,26 +3,40 @@ package tech.kaffa.portrait.aot
 import tech.kaffa.portrait.PAnnotation
 import tech.kaffa.portrait.PClass
 import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.PortraitContext
 import tech.kaffa.portrait.aot.meta.PAnnotationEntry
 
 /**
  * AOT implementation of PAnnotation that uses precomputed metadata.
+ *
+ * The annotation type is resolved through [context] on each access rather than kept, see [StaticPClass].
+ *
+ * @param context Context that resolves the annotation type, the annotated element's one
  */
 class StaticPAnnotation<T : Annotation>(
-    private val annotationEntry: PAnnotationEntry
+    private val annotationEntry: PAnnotationEntry,
+    private val context: PortraitContext = Portrait.defaultContext()
 ) : PAnnotation<T>() {
 
-    override val annotationClass: PClass<T> by lazy {
-        @Suppress("UNCHECKED_CAST")
-        Portrait.forNameOrUnresolved(annotationEntry.annotationClassName) as PClass<T>
-    }
+    @Suppress("UNCHECKED_CAST")
+    override val annotationClass: PClass<T>
+        get() = context.forNameOrUnresolved(annotationEntry.annotationClassName) as PClass<T>
 
     override val simpleName: String get() = annotationEntry.simpleName
     override val qualifiedName: String? get() = annotationEntry.qualifiedName
 
     private val properties: Map<String, Any?> get() = annotationEntry.properties
 
-    private val proxyInstance: T by lazy {
+    // The implementation codegen generated for the annotation type when there is one, else a proxy
+    private val instance: T by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        (annotationClass as? StaticPClass<T>)?.newAnnotation(properties) ?: createProxyInstance()
+    }
+
+    override fun getValue(propertyName: String): Any? = properties[propertyName]
+
+    override fun get(): T = instance
+
+    private fun createProxyInstance(): T =
         annotationClass.createProxy { self, method, args ->
             when (method.name) {
                 "annotationType" -> resolveAnnotationType()
@@ -32,11 +46,6 @@ class StaticPAnnotation<T : Annotation>(
                 else -> properties[method.name]
             }
         }
-    }
-
-    override fun getValue(propertyName: String): Any? = properties[propertyName]
-
-    override fun get(): T = proxyInstance
 
     private fun resolveAnnotationType(): Class<out Annotation> {
         @Suppress("UNCHECKED_CAST")
@@ -67,40 +76,15 @@ class StaticPAnnotation<T : Annotation>(
 
     private fun buildStringRepresentation(): String {
         val typeName = qualifiedName ?: annotationEntry.annotationClassName
-        if (properties.isEmpty()) return "@$typeName"
-        val body = properties.entries.joinToString(", ") { (key, value) ->
-            "$key=${formatValue(value)}"
-        }
-        return "@$typeName($body)"
+        return AnnotationValues.format(typeName, properties.keys.toTypedArray(), properties.values.toTypedArray())
     }
 
-    private fun normalizedHash(value: Any?): Int = when (val normalized = normalize(value)) {
+    private fun normalizedHash(value: Any?): Int = when (val normalized = AnnotationValues.normalize(value)) {
         null -> 0
         is List<*> -> normalized.fold(1) { acc, item -> 31 * acc + normalizedHash(item) }
         else -> normalized.hashCode()
     }
 
     private fun valuesEqual(expected: Any?, actual: Any?): Boolean =
-        normalize(expected) == normalize(actual)
-
-    private fun formatValue(value: Any?): String = when (val normalized = normalize(value)) {
-        null -> "null"
-        is String -> "\"$normalized\""
-        is List<*> -> normalized.joinToString(prefix = "[", postfix = "]") { formatValue(it) }
-        else -> normalized.toString()
-    }
-
-    private fun normalize(value: Any?): Any? = when (value) {
-        null -> null
-        is BooleanArray -> value.toList()
-        is ByteArray -> value.toList()
-        is CharArray -> value.toList()
-        is ShortArray -> value.toList()
-        is IntArray -> value.toList()
-        is LongArray -> value.toList()
-        is FloatArray -> value.toList()
-        is DoubleArray -> value.toList()
-        is Array<*> -> value.map { normalize(it) }
-        else -> value
-    }
+        AnnotationValues.normalize(expected) == AnnotationValues.normalize(actual)
 }
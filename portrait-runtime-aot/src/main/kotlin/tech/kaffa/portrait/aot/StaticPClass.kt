@@ -2,44 +2,93 @@ package tech.kaffa.portrait.aot
 
 import tech.kaffa.portrait.PAnnotation
 import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PClassVisitor
 import tech.kaffa.portrait.PConstructor
 import tech.kaffa.portrait.PField
 import tech.kaffa.portrait.PMethod
 import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.PortraitContext
 import tech.kaffa.portrait.aot.meta.PClassEntry
+import tech.kaffa.portrait.aot.meta.PClassHeaderEntry
 import tech.kaffa.portrait.aot.meta.serde.MetadataDeserializer
+import tech.kaffa.portrait.aot.meta.serde.MetadataReader
 import tech.kaffa.portrait.internal.BoxedPrimitives
+import tech.kaffa.portrait.internal.ConstructorSelectionCache
+import tech.kaffa.portrait.internal.NamedTypeList
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
 import tech.kaffa.portrait.proxy.ProxyHandler
 
 /**
  * AOT implementation of PClass that uses precomputed metadata and StaticPortrait for reflection operations.
  *
  * This implementation provides reflection capabilities at compile time using generated metadata
- * and delegates actual operations to the associated StaticPortrait instance.
+ * and delegates actual operations to the associated StaticPortrait instance. Generated providers
+ * hand out one canonical instance per type, held in a static field of the generated Portrait class,
+ * so its decoded metadata and its own members survive cache clears.
+ *
+ * That static field lives as long as the generated class, which a weak or soft cache policy,
+ * `clearCache` or a per-loader context cannot release. The canonical instance therefore keeps no
+ * reference to other types' descriptors: supertypes and member, parameter and annotation types are
+ * looked up by name through [context] on every access, so they are held, evicted and cleared by
+ * that context's cache alone. The price is a cache lookup per access instead of a field read.
+ * Type lists are [NamedTypeList] views built once over the metadata's names, so reading one
+ * allocates nothing, and signature lookups compare parameter names without resolving them.
  *
  * @param T The type represented by this PClass
  * @param staticPortrait The StaticPortrait instance for this class
+ * @param context Context that resolves the type names referenced by the metadata
  */
 class StaticPClass<T : Any>(
-    private val staticPortrait: StaticPortrait<T>
+    private val staticPortrait: StaticPortrait<T>,
+    private val context: PortraitContext
 ) : PClass<T>(), ProxyMethodIndexer {
 
-    val classEntry: PClassEntry by lazy {
-        MetadataDeserializer().deserialize(staticPortrait.metadata)
+    /**
+     * Creates the descriptor owned by the context of the class loader that defined the generated
+     * Portrait class, which is how generated providers create their canonical instances.
+     */
+    constructor(staticPortrait: StaticPortrait<T>) : this(staticPortrait, Portrait.contextOf(staticPortrait.javaClass))
+
+    // Lazies here use PUBLICATION: racing threads may both decode, but only the first value is
+    // published and no monitor is held across metadata decoding or provider lookups, which would
+    // pin a virtual thread's carrier.
+    private val metadataDelegate = lazy(LazyThreadSafetyMode.PUBLICATION) {
+        val stored = staticPortrait as? StoredMetadata
+        stored?.metadataStore?.open(ClassIds.localIdOf(stored.classId)) ?: MetadataDeserializer().open(staticPortrait.metadata)
     }
 
-    override val simpleName: String get() = classEntry.simpleName
-    override val qualifiedName: String get() = classEntry.qualifiedName
-    override val isAbstract: Boolean get() = classEntry.isAbstract
-    override val isSealed: Boolean get() = classEntry.isSealed
-    override val isData: Boolean get() = classEntry.isData
-    override val isCompanion: Boolean get() = classEntry.isCompanion
-    override val isEnum: Boolean get() = classEntry.isEnum
-    override val isInterface: Boolean get() = classEntry.isInterface
+    // Opening decodes only the header; each member section is decoded by the lazy that needs it
+    private val metadata: MetadataReader by metadataDelegate
+
+    private val header: PClassHeaderEntry get() = metadata.header
+
+    /** Fully decoded metadata; prefer the member lists, which decode only the sections they need. */
+    val classEntry: PClassEntry by lazy(LazyThreadSafetyMode.PUBLICATION) { metadata.toClassEntry() }
+
+    // Constants generated alongside the metadata; null for classes generated before them
+    private val classHeader: StaticClassHeader? = staticPortrait as? StaticClassHeader
+
+    override val simpleName: String get() = classHeader?.simpleName ?: header.simpleName
+    override val qualifiedName: String
+        get() = if (classHeader != null) staticPortrait.className else header.qualifiedName
+    override val id: Int get() = classHeader?.classId ?: PClass.NO_ID
+    override val isAbstract: Boolean get() = hasFlag(StaticClassHeader.IS_ABSTRACT) { it.isAbstract }
+    override val isSealed: Boolean get() = hasFlag(StaticClassHeader.IS_SEALED) { it.isSealed }
+    override val isData: Boolean get() = hasFlag(StaticClassHeader.IS_DATA) { it.isData }
+    override val isCompanion: Boolean get() = hasFlag(StaticClassHeader.IS_COMPANION) { it.isCompanion }
+    override val isEnum: Boolean get() = hasFlag(StaticClassHeader.IS_ENUM) { it.isEnum }
+    override val isInterface: Boolean get() = hasFlag(StaticClassHeader.IS_INTERFACE) { it.isInterface }
+
+    private val isObject: Boolean get() = hasFlag(StaticClassHeader.IS_OBJECT) { it.isObject }
+
+    private inline fun hasFlag(flag: Int, fromMetadata: (PClassHeaderEntry) -> Boolean): Boolean {
+        val classHeader = classHeader ?: return fromMetadata(header)
+        return (classHeader.classFlags and flag) != 0
+    }
 
     override val enumConstants: Array<T>?
         get() =
-            if (classEntry.isEnum) {
+            if (isEnum) {
                 try {
                     staticPortrait.enumConstants
                 } catch (e: UnsupportedOperationException) {
@@ -51,7 +100,7 @@ class StaticPClass<T : Any>(
 
     override val objectInstance: T?
         get() =
-            if (classEntry.isObject) {
+            if (isObject) {
                 try {
                     staticPortrait.objectInstance
                 } catch (e: UnsupportedOperationException) {
@@ -61,36 +110,52 @@ class StaticPClass<T : Any>(
                 null
             }
 
-    override val superclass: PClass<*>? by lazy {
-        val superclassName = classEntry.superclassName ?: return@lazy null
-        Portrait.forNameOrUnresolved(superclassName)
+    override val superclass: PClass<*>?
+        get() {
+            val superclassName = (if (classHeader != null) classHeader.superclassName else header.superclassName)
+                ?: return null
+            return context.forNameOrUnresolved(superclassName)
+        }
+
+    override val interfaces: List<PClass<*>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        NamedTypeList(header.interfaceNames, context)
     }
 
-    override val interfaces: List<PClass<*>> by lazy {
-        classEntry.interfaceNames.map { interfaceName ->
-            Portrait.forNameOrUnresolved(interfaceName)
+    // Constructor chosen per tuple of argument classes, for classes without generated selection
+    private val constructorSelection = ConstructorSelectionCache()
+
+    override fun newInstance(vararg args: Any?): T {
+        val invoker = staticPortrait as? BestConstructorInvoker
+        val index = when {
+            invoker == null -> constructorSelection.indexOf(args, ::findConstructorIndex)
+            !PortraitMetricsRegistry.enabled -> {
+                @Suppress("UNCHECKED_CAST")
+                return invoker.invokeBestConstructor(args) as T
+            }
+            // Same generated selection; the chosen constructor reports the call it makes
+            else -> invoker.bestConstructorIndex(args)
         }
+        if (index < 0) {
+            throw IllegalArgumentException("No matching constructor found for arguments: ${args.contentToString()}")
+        }
+        return constructors[index].newInstance(*args)
     }
 
-    override fun newInstance(vararg args: Any?): T {
+    private fun findConstructorIndex(args: Array<out Any?>): Int {
         // Find the constructor that matches the arguments using Portrait's
         // assignability (handles boxing, subtyping, arrays). Accept null for
         // reference types and reject for primitive parameters.
-        val ctor = constructors.find { ctor ->
-            if (ctor.parameterTypes.size != args.size) return@find false
+        return constructors.indexOfFirst { ctor ->
+            if (ctor.parameterCount != args.size) return@indexOfFirst false
             ctor.parameterTypes.zip(args.asList()).all { (paramType, arg) ->
                 if (arg == null) {
                     !paramType.isPrimitive
                 } else {
-                    val argType = Portrait.forNameOrUnresolved(arg.javaClass.name)
+                    val argType = Portrait.fromOrUnresolved(arg)
                     paramType.isAssignableFrom(argType)
                 }
             }
-        } ?: throw IllegalArgumentException(
-            "No matching constructor found for arguments: ${args.contentToString()}"
-        )
-
-        return ctor.newInstance(*args)
+        }
     }
 
     override fun isAssignableFrom(other: PClass<*>): Boolean {
@@ -105,10 +170,25 @@ class StaticPClass<T : Any>(
         return other.isSubclassOf(this)
     }
 
+    override fun isInstance(value: Any?): Boolean {
+        if (value == null) return false
+        // Exact class match needs no descriptor for the value
+        if (value.javaClass.name == qualifiedName) return true
+        return isAssignableFrom(Portrait.fromOrUnresolved(value))
+    }
+
     override fun isSubclassOf(other: PClass<*>): Boolean {
         val otherName = other.qualifiedName
         if (qualifiedName == otherName) return false
 
+        // Binary search over the supertype table computed by portrait-codegen; no intermediate
+        // descriptor is resolved. An empty table despite direct supertypes means it was not computed.
+        val header = header
+        val supertypeNames = header.supertypeNames
+        if (supertypeNames.isNotEmpty() || (header.superclassName == null && header.interfaceNames.isEmpty())) {
+            return supertypeNames.binarySearch(otherName) >= 0
+        }
+
         // Walk superclass chain
         var current: PClass<*>? = superclass
         while (current != null) {
@@ -120,8 +200,8 @@ class StaticPClass<T : Any>(
         return interfaces.any { it.qualifiedName == otherName || it.isSubclassOf(other) }
     }
 
-    override val annotations: List<PAnnotation<*>> by lazy {
-        classEntry.annotations.map { StaticPAnnotation<Annotation>(it) }
+    override val annotations: List<PAnnotation<*>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        metadata.annotations().map { StaticPAnnotation<Annotation>(it, context) }
     }
 
     @Suppress("UNCHECKED_CAST")
@@ -131,63 +211,92 @@ class StaticPClass<T : Any>(
     override fun hasAnnotation(annotationClass: PClass<*>): Boolean =
         annotations.any { it.annotationClass == annotationClass }
 
-    override val constructors: List<PConstructor<T>> by lazy {
-        classEntry.constructors.withIndex().map { (i, constructorEntry) ->
-            StaticPConstructor(constructorEntry, i, this, staticPortrait)
-        }
+    /**
+     * Instantiates the annotation implementation generated for this annotation type from the
+     * [properties] of a [tech.kaffa.portrait.aot.meta.PAnnotationEntry], or returns null if there is none.
+     */
+    internal fun newAnnotation(properties: Map<String, Any?>): T? {
+        @Suppress("UNCHECKED_CAST")
+        return (staticPortrait as? AnnotationInstantiator)?.newAnnotation(properties) as T?
     }
 
-    override fun getConstructor(vararg parameterTypes: PClass<*>): PConstructor<T>? =
-        constructors.find { constructor ->
-            constructor.parameterTypes.size == parameterTypes.size &&
-                    constructor.parameterTypes.zip(parameterTypes.toList())
-                        .all { (constructorParamType, requestedParamType) ->
-                            constructorParamType.qualifiedName == requestedParamType.qualifiedName
-                        }
+    override val constructors: List<PConstructor<T>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        if (classHeader?.constructorCount == 0) return@lazy emptyList()
+        metadata.constructors().withIndex().map { (i, constructorEntry) ->
+            StaticPConstructor(constructorEntry, i, this, staticPortrait, context)
         }
+    }
 
-    override val methods: List<PMethod> by lazy {
-        classEntry.declaredMethods.withIndex().map { (i, methodEntry) ->
-            StaticPMethod(methodEntry, i, staticPortrait)
+    override val methods: List<PMethod> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        if (classHeader?.methodCount == 0) return@lazy emptyList()
+        metadata.methods().withIndex().map { (i, methodEntry) ->
+            StaticPMethod(methodEntry, i, staticPortrait, context)
         }
     }
 
     override fun getMethod(name: String, vararg parameterTypes: PClass<*>): PMethod? {
-        val methodsWithName = methods.filter { it.name == name }
-
-        return when {
-            parameterTypes.isEmpty() -> {
-                // If no parameter types specified, return the method only if there's exactly one with that name
-                if (methodsWithName.size == 1) methodsWithName.first() else null
-            }
+        // If no parameter types specified, return the method only if there's exactly one with that name
+        if (parameterTypes.isEmpty()) return methodsNamed(name).singleOrNull()
+        return super.getMethod(name, *parameterTypes)
+    }
 
-            else -> {
-                // If parameter types specified, find exact match
-                methodsWithName.find { method ->
-                    method.parameterTypes.size == parameterTypes.size &&
-                            method.parameterTypes.zip(parameterTypes.toList())
-                                .all { (methodParamType, requestedParamType) ->
-                                    methodParamType.qualifiedName == requestedParamType.qualifiedName
-                                }
-                }
-            }
+    override val fields: List<PField> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        if (classHeader?.fieldCount == 0) return@lazy emptyList()
+        metadata.fields().withIndex().map { (i, fieldEntry) ->
+            StaticPField(fieldEntry, i, staticPortrait, context)
         }
     }
 
-    override val fields: List<PField> by lazy {
-        classEntry.declaredFields.withIndex().map { (i, fieldEntry) ->
-            StaticPField(fieldEntry, i, staticPortrait)
+    override fun accept(visitor: PClassVisitor) {
+        // Stream straight from the metadata sections; no member descriptors are created
+        metadata.annotations().forEach { visitor.visitAnnotation(it.annotationClassName) }
+        metadata.constructors().forEachIndexed { index, constructor ->
+            visitor.visitConstructor(index, constructor.parameterTypeNames)
+        }
+        metadata.methods().forEachIndexed { index, method ->
+            visitor.visitMethod(
+                index,
+                method.name,
+                method.parameterTypeNames,
+                method.returnTypeName,
+                method.isStatic,
+                method.isFinal,
+                method.isAbstract
+            )
         }
+        metadata.fields().forEachIndexed { index, field ->
+            visitor.visitField(index, field.name, field.typeName, field.isStatic, field.isFinal)
+        }
+        visitor.visitEnd()
     }
 
-    override fun getField(name: String): PField? =
-        fields.find { it.name == name }
+    override fun preload(): Int {
+        val stored = staticPortrait as? StoredMetadata
+        val decodedBytes = when {
+            metadataDelegate.isInitialized() -> 0
+            stored != null -> stored.metadataStore.recordSize(ClassIds.localIdOf(stored.classId))
+            // Base64 packs three bytes into every four characters
+            else -> staticPortrait.metadata.length / 4 * 3
+        }
+        super.preload()
+        return decodedBytes
+    }
 
     override fun createProxy(handler: ProxyHandler<T>): T {
         return staticPortrait.createProxy(this, handler)
     }
 
+    // Built once so that proxy dispatch is an array read: no descriptor, lazy or type lookup per call
+    private val proxyMethods: Array<PMethod> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        val entries = metadata.proxyMethods()
+        Array(entries.size) { index -> StaticPMethod(entries[index], index, staticPortrait, context) }
+    }
+
     override fun method(index: Int): PMethod {
-        return StaticPMethod(classEntry.proxyMethods[index], index, staticPortrait)
+        val method = proxyMethods[index]
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onProxyDispatch(method)
+        }
+        return method
     }
 }
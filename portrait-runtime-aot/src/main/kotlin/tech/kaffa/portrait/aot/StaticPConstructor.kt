@@ -1,31 +1,38 @@
 package tech.kaffa.portrait.aot
 
+import tech.kaffa.portrait.ConstructorInvoker
 import tech.kaffa.portrait.PAnnotation
 import tech.kaffa.portrait.PClass
 import tech.kaffa.portrait.PConstructor
 import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.PortraitContext
 import tech.kaffa.portrait.aot.meta.PConstructorEntry
+import tech.kaffa.portrait.internal.NamedTypeList
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
 
 /**
  * AOT implementation of PConstructor that uses precomputed metadata.
+ *
+ * Type references are resolved through [context] on each access rather than kept, see [StaticPClass].
+ *
+ * @param context Context that resolves parameter and annotation types, the declaring class' one
  */
 class StaticPConstructor<T : Any>(
     private val constructorEntry: PConstructorEntry,
     private val index: Int,
     private val declaringPClass: PClass<T>,
-    private val staticPortrait: StaticPortrait<T>
+    private val staticPortrait: StaticPortrait<T>,
+    private val context: PortraitContext = Portrait.defaultContext()
 ) : PConstructor<T>() {
 
     override val declaringClass: PClass<T> get() = declaringPClass
 
-    override val parameterTypes: List<PClass<*>> by lazy {
-        constructorEntry.parameterTypeNames.map { typeName ->
-            Portrait.forNameOrUnresolved(typeName)
-        }
-    }
+    override val parameterTypes: List<PClass<*>> = NamedTypeList(constructorEntry.parameterTypeNames, context)
+
+    override val parameterCount: Int get() = constructorEntry.parameterTypeNames.size
 
-    override val annotations: List<PAnnotation<*>> by lazy {
-        constructorEntry.annotations.map { StaticPAnnotation<Annotation>(it) }
+    override val annotations: List<PAnnotation<*>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        constructorEntry.annotations.map { StaticPAnnotation<Annotation>(it, context) }
     }
 
     @Suppress("UNCHECKED_CAST")
@@ -36,14 +43,73 @@ class StaticPConstructor<T : Any>(
         annotations.any { it.annotationClass == annotationClass }
 
     override fun newInstance(vararg args: Any?): T {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onConstructorInvoked(this)
+        }
         return staticPortrait.invokeConstructor(index, args)
     }
 
+    private val invoker: ConstructorInvoker<T> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        StaticConstructorInvoker(this, index, staticPortrait)
+    }
+
+    override fun asInvoker(): ConstructorInvoker<T> = invoker
+
     override fun isCallableWith(vararg argumentTypes: PClass<*>): Boolean {
-        if (argumentTypes.size != parameterTypes.size) return false
+        if (argumentTypes.size != parameterCount) return false
+
+        val parameterTypes = parameterTypes
+        return argumentTypes.indices.all { parameterTypes[it].isAssignableFrom(argumentTypes[it]) }
+    }
+}
+
+/**
+ * Invoker that calls the generated fixed-arity `invokeConstructorN` entry points directly.
+ */
+private class StaticConstructorInvoker<T : Any>(
+    constructor: PConstructor<T>,
+    private val index: Int,
+    private val staticPortrait: StaticPortrait<T>
+) : ConstructorInvoker<T>(constructor) {
+
+    override fun newInstance0(): T {
+        reportInvocation()
+        return staticPortrait.invokeConstructor0(index)
+    }
+
+    override fun newInstance1(arg0: Any?): T {
+        reportInvocation()
+        return staticPortrait.invokeConstructor1(index, arg0)
+    }
+
+    override fun newInstance2(arg0: Any?, arg1: Any?): T {
+        reportInvocation()
+        return staticPortrait.invokeConstructor2(index, arg0, arg1)
+    }
+
+    override fun newInstance3(arg0: Any?, arg1: Any?, arg2: Any?): T {
+        reportInvocation()
+        return staticPortrait.invokeConstructor3(index, arg0, arg1, arg2)
+    }
+
+    override fun newInstance4(arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?): T {
+        reportInvocation()
+        return staticPortrait.invokeConstructor4(index, arg0, arg1, arg2, arg3)
+    }
+
+    override fun newInstance5(arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?, arg4: Any?): T {
+        reportInvocation()
+        return staticPortrait.invokeConstructor5(index, arg0, arg1, arg2, arg3, arg4)
+    }
+
+    override fun newInstance6(arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?, arg4: Any?, arg5: Any?): T {
+        reportInvocation()
+        return staticPortrait.invokeConstructor6(index, arg0, arg1, arg2, arg3, arg4, arg5)
+    }
 
-        return parameterTypes.zip(argumentTypes.toList()).all { (paramType, argType) ->
-            paramType.isAssignableFrom(argType)
+    private fun reportInvocation() {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onConstructorInvoked(constructor)
         }
     }
 }
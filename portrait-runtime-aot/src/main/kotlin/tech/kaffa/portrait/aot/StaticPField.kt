@@ -4,32 +4,37 @@ import tech.kaffa.portrait.PAnnotation
 import tech.kaffa.portrait.PClass
 import tech.kaffa.portrait.PField
 import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.PortraitContext
 import tech.kaffa.portrait.aot.meta.PFieldEntry
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
 
 /**
  * AOT implementation of PField that uses precomputed metadata.
+ *
+ * Type references are resolved through [context] on each access rather than kept, see [StaticPClass].
+ *
+ * @param context Context that resolves the field's type names, the declaring class' one
  */
 class StaticPField(
     private val fieldEntry: PFieldEntry,
     private val index: Int,
-    private val staticPortrait: StaticPortrait<*>
+    private val staticPortrait: StaticPortrait<*>,
+    private val context: PortraitContext = Portrait.defaultContext()
 ) : PField() {
 
     override val name: String get() = fieldEntry.name
 
-    override val type: PClass<*> by lazy {
-        Portrait.forNameOrUnresolved(fieldEntry.typeName)
-    }
+    override val type: PClass<*>
+        get() = context.forNameOrUnresolved(fieldEntry.typeName)
 
-    override val declaringClass: PClass<*> by lazy {
-        Portrait.forNameOrUnresolved(fieldEntry.declaringClassName)
-    }
+    override val declaringClass: PClass<*>
+        get() = context.forNameOrUnresolved(fieldEntry.declaringClassName)
 
     override val isStatic: Boolean get() = fieldEntry.isStatic
     override val isFinal: Boolean get() = fieldEntry.isFinal
 
-    override val annotations: List<PAnnotation<*>> by lazy {
-        fieldEntry.annotations.map { StaticPAnnotation<Annotation>(it) }
+    override val annotations: List<PAnnotation<*>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        fieldEntry.annotations.map { StaticPAnnotation<Annotation>(it, context) }
     }
 
     @Suppress("UNCHECKED_CAST")
@@ -40,10 +45,108 @@ class StaticPField(
         annotations.any { it.annotationClass == annotationClass }
 
     override fun get(instance: Any?): Any? {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onFieldRead(this)
+        }
         return staticPortrait.getFieldValue(index, instance)
     }
 
     override fun set(instance: Any?, value: Any?) {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onFieldWritten(this)
+        }
         staticPortrait.setFieldValue(index, instance, value)
     }
+
+    override fun getBoolean(instance: Any?): Boolean {
+        reportRead()
+        return staticPortrait.getBooleanFieldValue(index, instance)
+    }
+
+    override fun setBoolean(instance: Any?, value: Boolean) {
+        reportWrite()
+        staticPortrait.setBooleanFieldValue(index, instance, value)
+    }
+
+    override fun getByte(instance: Any?): Byte {
+        reportRead()
+        return staticPortrait.getByteFieldValue(index, instance)
+    }
+
+    override fun setByte(instance: Any?, value: Byte) {
+        reportWrite()
+        staticPortrait.setByteFieldValue(index, instance, value)
+    }
+
+    override fun getChar(instance: Any?): Char {
+        reportRead()
+        return staticPortrait.getCharFieldValue(index, instance)
+    }
+
+    override fun setChar(instance: Any?, value: Char) {
+        reportWrite()
+        staticPortrait.setCharFieldValue(index, instance, value)
+    }
+
+    override fun getShort(instance: Any?): Short {
+        reportRead()
+        return staticPortrait.getShortFieldValue(index, instance)
+    }
+
+    override fun setShort(instance: Any?, value: Short) {
+        reportWrite()
+        staticPortrait.setShortFieldValue(index, instance, value)
+    }
+
+    override fun getInt(instance: Any?): Int {
+        reportRead()
+        return staticPortrait.getIntFieldValue(index, instance)
+    }
+
+    override fun setInt(instance: Any?, value: Int) {
+        reportWrite()
+        staticPortrait.setIntFieldValue(index, instance, value)
+    }
+
+    override fun getLong(instance: Any?): Long {
+        reportRead()
+        return staticPortrait.getLongFieldValue(index, instance)
+    }
+
+    override fun setLong(instance: Any?, value: Long) {
+        reportWrite()
+        staticPortrait.setLongFieldValue(index, instance, value)
+    }
+
+    override fun getFloat(instance: Any?): Float {
+        reportRead()
+        return staticPortrait.getFloatFieldValue(index, instance)
+    }
+
+    override fun setFloat(instance: Any?, value: Float) {
+        reportWrite()
+        staticPortrait.setFloatFieldValue(index, instance, value)
+    }
+
+    override fun getDouble(instance: Any?): Double {
+        reportRead()
+        return staticPortrait.getDoubleFieldValue(index, instance)
+    }
+
+    override fun setDouble(instance: Any?, value: Double) {
+        reportWrite()
+        staticPortrait.setDoubleFieldValue(index, instance, value)
+    }
+
+    private fun reportRead() {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onFieldRead(this)
+        }
+    }
+
+    private fun reportWrite() {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onFieldWritten(this)
+        }
+    }
 }
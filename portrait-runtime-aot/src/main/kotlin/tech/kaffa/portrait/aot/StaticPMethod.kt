@@ -1,7 +1,9 @@
 package tech.kaffa.portrait.aot
 
 import tech.kaffa.portrait.PAnnotation
+import tech.kaffa.portrait.PArguments
 import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.MethodInvoker
 import tech.kaffa.portrait.PGenericArrayType
 import tech.kaffa.portrait.PMethod
 import tech.kaffa.portrait.PParameterizedType
@@ -9,6 +11,7 @@ import tech.kaffa.portrait.PType
 import tech.kaffa.portrait.PTypeVariable
 import tech.kaffa.portrait.PWildcardType
 import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.PortraitContext
 import tech.kaffa.portrait.aot.meta.PMethodEntry
 import tech.kaffa.portrait.aot.meta.PClassTypeEntry
 import tech.kaffa.portrait.aot.meta.PGenericArrayTypeEntry
@@ -16,44 +19,44 @@ import tech.kaffa.portrait.aot.meta.PParameterizedTypeEntry
 import tech.kaffa.portrait.aot.meta.PTypeEntry
 import tech.kaffa.portrait.aot.meta.PTypeVariableEntry
 import tech.kaffa.portrait.aot.meta.PWildcardTypeEntry
+import tech.kaffa.portrait.internal.NamedTypeList
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
 
 /**
  * AOT implementation of PMethod that uses precomputed metadata.
+ *
+ * Type references are resolved through [context] on each access rather than kept, see [StaticPClass].
+ *
+ * @param context Context that resolves the method's type names, the declaring class' one
  */
 class StaticPMethod(
     private val methodEntry: PMethodEntry,
     private val index: Int,
-    private val staticPortrait: StaticPortrait<*>
+    private val staticPortrait: StaticPortrait<*>,
+    private val context: PortraitContext = Portrait.defaultContext()
 ) : PMethod() {
 
     override val name: String get() = methodEntry.name
 
-    override val parameterTypes: List<PClass<*>> by lazy {
-        methodEntry.parameterTypeNames.map { typeName ->
-            Portrait.forNameOrUnresolved(typeName)
-        }
-    }
+    override val parameterTypes: List<PClass<*>> = NamedTypeList(methodEntry.parameterTypeNames, context)
 
     override val parameterCount: Int get() = methodEntry.parameterTypeNames.size
 
-    override val returnType: PClass<*> by lazy {
-        Portrait.forNameOrUnresolved(methodEntry.returnTypeName)
-    }
+    override val returnType: PClass<*>
+        get() = context.forNameOrUnresolved(methodEntry.returnTypeName)
 
-    override val genericReturnType: PType by lazy {
-        methodEntry.genericReturnType.toPType()
-    }
+    override val genericReturnType: PType
+        get() = methodEntry.genericReturnType.toPType(context)
 
-    override val declaringClass: PClass<*> by lazy {
-        Portrait.forNameOrUnresolved(methodEntry.declaringClassName)
-    }
+    override val declaringClass: PClass<*>
+        get() = context.forNameOrUnresolved(methodEntry.declaringClassName)
 
     override val isStatic: Boolean get() = methodEntry.isStatic
     override val isFinal: Boolean get() = methodEntry.isFinal
     override val isAbstract: Boolean get() = methodEntry.isAbstract
 
-    override val annotations: List<PAnnotation<*>> by lazy {
-        methodEntry.annotations.map { StaticPAnnotation<Annotation>(it) }
+    override val annotations: List<PAnnotation<*>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        methodEntry.annotations.map { StaticPAnnotation<Annotation>(it, context) }
     }
 
     @Suppress("UNCHECKED_CAST")
@@ -64,38 +67,129 @@ class StaticPMethod(
         annotations.any { it.annotationClass == annotationClass }
 
     override fun invoke(instance: Any?, vararg args: Any?): Any? {
+        reportInvocation()
         return staticPortrait.invokeMethod(index, instance, args)
     }
 
-    override fun isCallableWith(vararg argumentTypes: PClass<*>): Boolean {
-        if (argumentTypes.size != parameterTypes.size) return false
+    override fun invokeWith(instance: Any?, args: PArguments): Any? {
+        reportInvocation()
+        return staticPortrait.invokeMethodWith(index, instance, args)
+    }
+
+    override fun invokeInt(instance: Any?, args: PArguments): Int {
+        reportInvocation()
+        return staticPortrait.invokeIntMethod(index, instance, args)
+    }
+
+    override fun invokeLong(instance: Any?, args: PArguments): Long {
+        reportInvocation()
+        return staticPortrait.invokeLongMethod(index, instance, args)
+    }
+
+    override fun invokeDouble(instance: Any?, args: PArguments): Double {
+        reportInvocation()
+        return staticPortrait.invokeDoubleMethod(index, instance, args)
+    }
 
-        return parameterTypes.zip(argumentTypes.toList()).all { (paramType, argType) ->
-            paramType.isAssignableFrom(argType)
+    private fun reportInvocation() {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onMethodInvoked(this)
         }
     }
 
-    override val parameterAnnotations: List<List<PAnnotation<*>>> by lazy {
+    private val invoker: MethodInvoker by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        StaticMethodInvoker(this, index, staticPortrait)
+    }
+
+    override fun asInvoker(): MethodInvoker = invoker
+
+    override fun isCallableWith(vararg argumentTypes: PClass<*>): Boolean {
+        if (argumentTypes.size != parameterCount) return false
+
+        val parameterTypes = parameterTypes
+        return argumentTypes.indices.all { parameterTypes[it].isAssignableFrom(argumentTypes[it]) }
+    }
+
+    override val parameterAnnotations: List<List<PAnnotation<*>>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
         methodEntry.parameterAnnotations.map { paramAnnotations ->
-            paramAnnotations.map { StaticPAnnotation<Annotation>(it) }
+            paramAnnotations.map { StaticPAnnotation<Annotation>(it, context) }
+        }
+    }
+}
+
+/**
+ * Invoker that calls the generated fixed-arity `invokeMethodN` entry points directly.
+ */
+private class StaticMethodInvoker(
+    method: PMethod,
+    private val index: Int,
+    private val staticPortrait: StaticPortrait<*>
+) : MethodInvoker(method) {
+
+    override fun invoke0(instance: Any?): Any? {
+        reportInvocation()
+        return staticPortrait.invokeMethod0(index, instance)
+    }
+
+    override fun invoke1(instance: Any?, arg0: Any?): Any? {
+        reportInvocation()
+        return staticPortrait.invokeMethod1(index, instance, arg0)
+    }
+
+    override fun invoke2(instance: Any?, arg0: Any?, arg1: Any?): Any? {
+        reportInvocation()
+        return staticPortrait.invokeMethod2(index, instance, arg0, arg1)
+    }
+
+    override fun invoke3(instance: Any?, arg0: Any?, arg1: Any?, arg2: Any?): Any? {
+        reportInvocation()
+        return staticPortrait.invokeMethod3(index, instance, arg0, arg1, arg2)
+    }
+
+    override fun invoke4(instance: Any?, arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?): Any? {
+        reportInvocation()
+        return staticPortrait.invokeMethod4(index, instance, arg0, arg1, arg2, arg3)
+    }
+
+    override fun invoke5(instance: Any?, arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?, arg4: Any?): Any? {
+        reportInvocation()
+        return staticPortrait.invokeMethod5(index, instance, arg0, arg1, arg2, arg3, arg4)
+    }
+
+    override fun invoke6(
+        instance: Any?,
+        arg0: Any?,
+        arg1: Any?,
+        arg2: Any?,
+        arg3: Any?,
+        arg4: Any?,
+        arg5: Any?
+    ): Any? {
+        reportInvocation()
+        return staticPortrait.invokeMethod6(index, instance, arg0, arg1, arg2, arg3, arg4, arg5)
+    }
+
+    private fun reportInvocation() {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onMethodInvoked(method)
         }
     }
 }
 
-private fun PTypeEntry.toPType(): PType = when (this) {
-    is PClassTypeEntry -> Portrait.forNameOrUnresolved(className)
+private fun PTypeEntry.toPType(context: PortraitContext): PType = when (this) {
+    is PClassTypeEntry -> context.forNameOrUnresolved(className)
     is PParameterizedTypeEntry -> PParameterizedType(
-        rawType = Portrait.forNameOrUnresolved(rawTypeName),
-        ownerType = ownerType?.toPType(),
-        arguments = arguments.map { it.toPType() }
+        rawType = context.forNameOrUnresolved(rawTypeName),
+        ownerType = ownerType?.toPType(context),
+        arguments = arguments.map { it.toPType(context) }
     )
     is PTypeVariableEntry -> PTypeVariable(
         name = name,
-        bounds = bounds.map { it.toPType() }
+        bounds = bounds.map { it.toPType(context) }
     )
     is PWildcardTypeEntry -> PWildcardType(
-        upperBounds = upperBounds.map { it.toPType() },
-        lowerBounds = lowerBounds.map { it.toPType() }
+        upperBounds = upperBounds.map { it.toPType(context) },
+        lowerBounds = lowerBounds.map { it.toPType(context) }
     )
-    is PGenericArrayTypeEntry -> PGenericArrayType(componentType.toPType())
+    is PGenericArrayTypeEntry -> PGenericArrayType(componentType.toPType(context))
 }
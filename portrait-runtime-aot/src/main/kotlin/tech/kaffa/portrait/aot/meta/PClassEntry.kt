@@ -17,5 +17,7 @@ data class PClassEntry(
     val constructors: List<PConstructorEntry>,
     val declaredMethods: List<PMethodEntry>,
     val declaredFields: List<PFieldEntry>,
-    val proxyMethods: List<PMethodEntry>
+    val proxyMethods: List<PMethodEntry>,
+    /** Transitive superclasses and superinterfaces in ascending name order, for binary search. */
+    val supertypeNames: List<String> = emptyList()
 )
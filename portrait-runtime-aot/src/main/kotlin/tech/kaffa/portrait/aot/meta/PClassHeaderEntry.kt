@@ -0,0 +1,25 @@
+package tech.kaffa.portrait.aot.meta
+
+/**
+ * Class-level part of a [PClassEntry]: names, flags, supertypes and member counts, without the
+ * members themselves. Decoded from the header section alone.
+ */
+data class PClassHeaderEntry(
+    val simpleName: String,
+    val qualifiedName: String,
+    val isAbstract: Boolean,
+    val isSealed: Boolean,
+    val isData: Boolean,
+    val isCompanion: Boolean,
+    val isObject: Boolean,
+    val isEnum: Boolean,
+    val isInterface: Boolean,
+    val javaClassName: String,
+    val superclassName: String?,
+    val interfaceNames: List<String>,
+    val supertypeNames: List<String>,
+    val constructorCount: Int,
+    val methodCount: Int,
+    val fieldCount: Int,
+    val proxyMethodCount: Int
+)
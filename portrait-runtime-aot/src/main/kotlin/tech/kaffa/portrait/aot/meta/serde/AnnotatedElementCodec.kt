@@ -0,0 +1,50 @@
+package tech.kaffa.portrait.aot.meta.serde
+
+import tech.kaffa.portrait.PAnnotatedElement
+
+/**
+ * String encoding of the annotation index that portrait-codegen emits into generated providers.
+ *
+ * Each element is one string constant: a kind letter, the member index for members, a colon and
+ * the declaring class name, e.g. `T:com.example.Service` or `M3:com.example.Routes`. Keeping one
+ * constant per element avoids the class-file limit on the length of a single string constant.
+ */
+object AnnotatedElementCodec {
+
+    @JvmStatic
+    fun encode(element: PAnnotatedElement): String {
+        val kind = when (element.kind) {
+            PAnnotatedElement.Kind.CLASS -> return "$CLASS:${element.className}"
+            PAnnotatedElement.Kind.CONSTRUCTOR -> CONSTRUCTOR
+            PAnnotatedElement.Kind.METHOD -> METHOD
+            PAnnotatedElement.Kind.FIELD -> FIELD
+        }
+        return "$kind${element.index}:${element.className}"
+    }
+
+    @JvmStatic
+    fun decode(entries: Array<String>): List<PAnnotatedElement> {
+        return entries.map { decode(it) }
+    }
+
+    @JvmStatic
+    fun decode(entry: String): PAnnotatedElement {
+        val separator = entry.indexOf(':')
+        require(separator > 0) { "Malformed annotated element entry: $entry" }
+
+        val className = entry.substring(separator + 1)
+        val kind = when (entry[0]) {
+            CLASS -> return PAnnotatedElement(className, PAnnotatedElement.Kind.CLASS)
+            CONSTRUCTOR -> PAnnotatedElement.Kind.CONSTRUCTOR
+            METHOD -> PAnnotatedElement.Kind.METHOD
+            FIELD -> PAnnotatedElement.Kind.FIELD
+            else -> throw IllegalArgumentException("Unknown annotated element kind in entry: $entry")
+        }
+        return PAnnotatedElement(className, kind, entry.substring(1, separator).toInt())
+    }
+
+    private const val CLASS = 'T'
+    private const val CONSTRUCTOR = 'C'
+    private const val METHOD = 'M'
+    private const val FIELD = 'F'
+}
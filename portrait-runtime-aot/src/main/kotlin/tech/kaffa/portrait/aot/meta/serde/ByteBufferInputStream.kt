@@ -0,0 +1,42 @@
+package tech.kaffa.portrait.aot.meta.serde
+
+import java.io.InputStream
+import java.nio.ByteBuffer
+
+/**
+ * Input stream over [buffer] from [position] to its limit, using absolute reads only, so streams
+ * over one shared buffer (heap or memory-mapped) never disturb each other.
+ */
+internal class ByteBufferInputStream(
+    private val buffer: ByteBuffer,
+    position: Int
+) : InputStream() {
+
+    /** Absolute index of the next byte to read. */
+    var position: Int = position
+        private set
+
+    override fun read(): Int {
+        if (position >= buffer.limit()) return -1
+        return buffer.get(position++).toInt() and 0xFF
+    }
+
+    override fun read(b: ByteArray, off: Int, len: Int): Int {
+        if (len == 0) return 0
+        val count = minOf(len, buffer.limit() - position)
+        if (count <= 0) return -1
+        for (i in 0 until count) {
+            b[off + i] = buffer.get(position + i)
+        }
+        position += count
+        return count
+    }
+
+    override fun skip(n: Long): Long {
+        val count = minOf(n, (buffer.limit() - position).toLong()).coerceAtLeast(0L).toInt()
+        position += count
+        return count.toLong()
+    }
+
+    override fun available(): Int = buffer.limit() - position
+}
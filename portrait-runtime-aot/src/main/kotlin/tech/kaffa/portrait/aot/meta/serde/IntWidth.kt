@@ -3,11 +3,11 @@ package tech.kaffa.portrait.aot.meta.serde
 import java.io.DataInputStream
 import java.io.DataOutputStream
 
-enum class IntWidth(val id: Int, private val maxValue: Int) {
-    U8(0, 0xFF),
-    U16(1, 0xFFFF),
-    U24(2, 0xFFFFFF),
-    U32(3, Int.MAX_VALUE);
+enum class IntWidth(val id: Int, private val maxValue: Int, val byteCount: Int) {
+    U8(0, 0xFF, 1),
+    U16(1, 0xFFFF, 2),
+    U24(2, 0xFFFFFF, 3),
+    U32(3, Int.MAX_VALUE, 4);
 
     fun write(output: DataOutputStream, value: Int) {
         require(value >= 0) { "Negative values are not supported: $value" }
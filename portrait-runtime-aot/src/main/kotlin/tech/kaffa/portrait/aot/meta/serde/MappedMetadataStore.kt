@@ -0,0 +1,31 @@
+package tech.kaffa.portrait.aot.meta.serde
+
+import java.nio.channels.FileChannel
+import java.nio.file.Paths
+import java.nio.file.StandardOpenOption
+
+/**
+ * JVM loader for the [MetadataStore] that memory-maps the store when it is a plain file, so its
+ * pages are shared with the OS cache and never copied onto the heap. Stores packed in a JAR or
+ * embedded in a native image are read through [MetadataStore.load] instead.
+ *
+ * Uses file channels, which TeaVM lacks; portrait-codegen references it only when not targeting TeaVM.
+ */
+object MappedMetadataStore {
+
+    /**
+     * Maps the store at [resource], falling back to [MetadataStore.load] when it is not a plain file.
+     */
+    @JvmStatic
+    fun load(anchor: Class<*>, resource: String): MetadataStore {
+        val url = anchor.getResource("/$resource")
+        if (url == null || url.protocol != "file") {
+            return MetadataStore.load(anchor, resource)
+        }
+
+        FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ).use { channel ->
+            // The mapping stays valid after the channel is closed
+            return MetadataStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()))
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package tech.kaffa.portrait.aot.meta.serde
+
+import tech.kaffa.portrait.aot.meta.PAnnotationEntry
+import tech.kaffa.portrait.aot.meta.PClassEntry
+import tech.kaffa.portrait.aot.meta.PClassHeaderEntry
+import tech.kaffa.portrait.aot.meta.PConstructorEntry
+import tech.kaffa.portrait.aot.meta.PFieldEntry
+import tech.kaffa.portrait.aot.meta.PMethodEntry
+import tech.kaffa.portrait.aot.meta.PTypeEntry
+import tech.kaffa.portrait.aot.meta.PClassTypeEntry
+import tech.kaffa.portrait.aot.meta.PParameterizedTypeEntry
+import tech.kaffa.portrait.aot.meta.PTypeVariableEntry
+import tech.kaffa.portrait.aot.meta.PWildcardTypeEntry
+import tech.kaffa.portrait.aot.meta.PGenericArrayTypeEntry
+import java.io.DataInputStream
+import java.nio.ByteBuffer
+
+/**
+ * Random-access view over one encoded class record, as written by [MetadataSerializer].
+ *
+ * Opening a reader decodes only the section table and the [header]; annotations and each member
+ * section are decoded when requested, and a single member can be decoded by index without touching
+ * its neighbours. Strings are decoded on first use. Readers hold no mutable state beyond the string
+ * cache and are safe to share between threads; every call decodes fresh entries.
+ *
+ * A record either follows its own string table in a per-class blob, or sits in a [MetadataStore]
+ * and reads the store's shared string table.
+ *
+ * @param byteCount Size of the encoded record in bytes
+ */
+class MetadataReader internal constructor(
+    private val buffer: ByteBuffer,
+    recordStart: Int,
+    private val context: StringTable,
+    val byteCount: Int
+) {
+
+    /**
+     * Opens a per-class blob: its version and string table, followed by the class record.
+     *
+     * @param bytes Decoded (not Base64) metadata
+     */
+    constructor(bytes: ByteArray) : this(ByteBuffer.wrap(bytes))
+
+    private constructor(buffer: ByteBuffer) : this(buffer, StringTable.read(buffer))
+
+    private constructor(buffer: ByteBuffer, strings: StringTable) :
+        this(buffer, strings.end, strings, buffer.limit())
+
+    private val sectionOffsets = IntArray(MetadataSerializer.SECTION_COUNT)
+
+    /** Class-level data, decoded eagerly when the reader is opened. */
+    val header: PClassHeaderEntry
+
+    init {
+        // Section offsets are relative to the start of the record
+        val stream = streamAt(recordStart)
+        for (section in sectionOffsets.indices) {
+            sectionOffsets[section] = recordStart + stream.readInt()
+        }
+        header = readHeader(sectionStream(MetadataSerializer.SECTION_HEADER))
+    }
+
+    fun annotations(): List<PAnnotationEntry> =
+        readAnnotations(sectionStream(MetadataSerializer.SECTION_ANNOTATIONS), context)
+
+    fun constructor(index: Int): PConstructorEntry =
+        readConstructor(memberStream(MetadataSerializer.SECTION_CONSTRUCTORS, index, header.constructorCount), context)
+
+    fun constructors(): List<PConstructorEntry> =
+        readMembers(MetadataSerializer.SECTION_CONSTRUCTORS, header.constructorCount) { readConstructor(it, context) }
+
+    fun method(index: Int): PMethodEntry =
+        readMethod(memberStream(MetadataSerializer.SECTION_METHODS, index, header.methodCount), context)
+
+    fun methods(): List<PMethodEntry> =
+        readMembers(MetadataSerializer.SECTION_METHODS, header.methodCount) { readMethod(it, context) }
+
+    fun field(index: Int): PFieldEntry =
+        readField(memberStream(MetadataSerializer.SECTION_FIELDS, index, header.fieldCount), context)
+
+    fun fields(): List<PFieldEntry> =
+        readMembers(MetadataSerializer.SECTION_FIELDS, header.fieldCount) { readField(it, context) }
+
+    fun proxyMethod(index: Int): PMethodEntry =
+        readMethod(memberStream(MetadataSerializer.SECTION_PROXY_METHODS, index, header.proxyMethodCount), context)
+
+    fun proxyMethods(): List<PMethodEntry> =
+        readMembers(MetadataSerializer.SECTION_PROXY_METHODS, header.proxyMethodCount) { readMethod(it, context) }
+
+    /**
+     * Decodes every section into a complete [PClassEntry].
+     */
+    fun toClassEntry(): PClassEntry {
+        return PClassEntry(
+            simpleName = header.simpleName,
+            qualifiedName = header.qualifiedName,
+            isAbstract = header.isAbstract,
+            isSealed = header.isSealed,
+            isData = header.isData,
+            isCompanion = header.isCompanion,
+            isObject = header.isObject,
+            isEnum = header.isEnum,
+            isInterface = header.isInterface,
+            javaClassName = header.javaClassName,
+            superclassName = header.superclassName,
+            interfaceNames = header.interfaceNames,
+            annotations = annotations(),
+            constructors = constructors(),
+            declaredMethods = methods(),
+            declaredFields = fields(),
+            proxyMethods = proxyMethods(),
+            supertypeNames = header.supertypeNames
+        )
+    }
+
+    private fun streamAt(offset: Int): DataInputStream =
+        DataInputStream(ByteBufferInputStream(buffer, offset))
+
+    private fun sectionStream(section: Int): DataInputStream = streamAt(sectionOffsets[section])
+
+    private fun memberStream(section: Int, index: Int, count: Int): DataInputStream {
+        if (index < 0 || index >= count) {
+            throw IndexOutOfBoundsException("Member index $index out of bounds for length $count")
+        }
+        val sectionStart = sectionOffsets[section]
+        val offsetWidth = IntWidth.fromId(buffer.get(sectionStart).toInt() and 0xFF)
+        val offsetStream = streamAt(sectionStart + 1 + index * offsetWidth.byteCount)
+        val itemsStart = sectionStart + 1 + count * offsetWidth.byteCount
+        return streamAt(itemsStart + offsetWidth.read(offsetStream))
+    }
+
+    private inline fun <E> readMembers(section: Int, count: Int, read: (DataInputStream) -> E): List<E> {
+        if (count == 0) return emptyList()
+        // Members are laid out back to back after the offset table, so one pass reads them all
+        val stream = sectionStream(section)
+        val offsetWidth = IntWidth.fromId(stream.readUnsignedByte())
+        stream.skipBytes(count * offsetWidth.byteCount)
+        return (0 until count).map { read(stream) }
+    }
+
+    private fun readHeader(stream: DataInputStream): PClassHeaderEntry {
+        val simpleName = context.readString(stream)
+        val qualifiedName = context.readString(stream)
+        val flags = stream.readUnsignedByte()
+        val typeId = flags and ClassFlags.TYPE_MASK
+        val modifierId = (flags shr ClassFlags.MODIFIER_SHIFT) and ClassFlags.MODIFIER_MASK
+        val collectionWidthId = (flags shr ClassFlags.COLLECTION_WIDTH_SHIFT) and ClassFlags.COLLECTION_WIDTH_VALUE_MASK
+        val hasProxyMethods = (flags and ClassFlags.HAS_PROXY_METHODS) != 0
+        val collectionWidth = IntWidth.fromId(collectionWidthId)
+        val javaClassName = context.readString(stream)
+        val superclassName = if ((flags and ClassFlags.HAS_SUPERCLASS) != 0) {
+            context.readString(stream)
+        } else {
+            null
+        }
+
+        val decoded = decodeClassType(typeId, modifierId)
+
+        // Interface names
+        val interfaceCount = collectionWidth.read(stream)
+        val interfaceNames = (0 until interfaceCount).map { context.readString(stream) }
+
+        // Transitive supertypes, sorted by name
+        val supertypeWidth = IntWidth.fromId(stream.readUnsignedByte())
+        val supertypeCount = supertypeWidth.read(stream)
+        val supertypeNames = (0 until supertypeCount).map { context.readString(stream) }
+
+        // Member counts; the members live in their own sections
+        val constructorCount = collectionWidth.read(stream)
+        val methodCount = collectionWidth.read(stream)
+        val fieldCount = collectionWidth.read(stream)
+        val proxyMethodCount = if (hasProxyMethods) collectionWidth.read(stream) else 0
+
+        return PClassHeaderEntry(
+            simpleName = simpleName,
+            qualifiedName = qualifiedName,
+            isAbstract = decoded.isAbstract,
+            isSealed = decoded.isSealed,
+            isData = decoded.isData,
+            isCompanion = decoded.isCompanion,
+            isObject = decoded.isObject,
+            isEnum = decoded.isEnum,
+            isInterface = decoded.isInterface,
+            javaClassName = javaClassName,
+            superclassName = superclassName,
+            interfaceNames = interfaceNames,
+            supertypeNames = supertypeNames,
+            constructorCount = constructorCount,
+            methodCount = methodCount,
+            fieldCount = fieldCount,
+            proxyMethodCount = proxyMethodCount
+        )
+    }
+
+    private fun readConstructor(stream: DataInputStream, context: StringTable): PConstructorEntry {
+        val declaringClassName = context.readString(stream)
+
+        val parameterWidth = IntWidth.fromId(stream.readUnsignedByte())
+        val parameterCount = parameterWidth.read(stream)
+        val parameterTypeNames = (0 until parameterCount).map { context.readString(stream) }
+
+        val annotations = readAnnotations(stream, context)
+
+        return PConstructorEntry(
+            declaringClassName = declaringClassName,
+            parameterTypeNames = parameterTypeNames,
+            annotations = annotations
+        )
+    }
+
+    private fun readField(stream: DataInputStream, context: StringTable): PFieldEntry {
+        val name = context.readString(stream)
+        val typeName = context.readString(stream)
+        val declaringClassName = context.readString(stream)
+        val flags = stream.readUnsignedByte()
+
+        val annotations = readAnnotations(stream, context)
+
+        return PFieldEntry(
+            name = name,
+            typeName = typeName,
+            declaringClassName = declaringClassName,
+            isStatic = (flags and FieldFlags.IS_STATIC) != 0,
+            isFinal = (flags and FieldFlags.IS_FINAL) != 0,
+            annotations = annotations
+        )
+    }
+
+    private fun readMethod(stream: DataInputStream, context: StringTable): PMethodEntry {
+        val name = context.readString(stream)
+        val returnTypeName = context.readString(stream)
+        val genericReturnType = readType(stream, context)
+        val declaringClassName = context.readString(stream)
+        val flags = stream.readUnsignedByte()
+        val parameterWidthId = (flags shr MethodFlags.PARAM_WIDTH_SHIFT) and MethodFlags.PARAM_WIDTH_VALUE_MASK
+        val parameterWidth = IntWidth.fromId(parameterWidthId)
+
+        val parameterCount = parameterWidth.read(stream)
+        val parameterTypeNames = (0 until parameterCount).map { context.readString(stream) }
+
+        val annotations = readAnnotations(stream, context)
+
+        val parameterAnnotationCount = parameterWidth.read(stream)
+        val parameterAnnotations = (0 until parameterAnnotationCount).map {
+            readAnnotations(stream, context)
+        }
+
+        return PMethodEntry(
+            name = name,
+            parameterTypeNames = parameterTypeNames,
+            returnTypeName = returnTypeName,
+            genericReturnType = genericReturnType,
+            declaringClassName = declaringClassName,
+            isStatic = (flags and MethodFlags.IS_STATIC) != 0,
+            isFinal = (flags and MethodFlags.IS_FINAL) != 0,
+            isAbstract = (flags and MethodFlags.IS_ABSTRACT) != 0,
+            annotations = annotations,
+            parameterAnnotations = parameterAnnotations
+        )
+    }
+
+    private fun readType(stream: DataInputStream, context: StringTable): PTypeEntry {
+        return when (val kind = stream.readUnsignedByte()) {
+            MetadataSerializer.GENERIC_TYPE_CLASS -> {
+                val className = context.readString(stream)
+                PClassTypeEntry(className)
+            }
+            MetadataSerializer.GENERIC_TYPE_PARAMETERIZED -> {
+                val rawTypeName = context.readString(stream)
+                val ownerType = if (stream.readBoolean()) {
+                    readType(stream, context)
+                } else {
+                    null
+                }
+                val argWidth = IntWidth.fromId(stream.readUnsignedByte())
+                val argCount = argWidth.read(stream)
+                val arguments = (0 until argCount).map { readType(stream, context) }
+                PParameterizedTypeEntry(
+                    rawTypeName = rawTypeName,
+                    ownerType = ownerType,
+                    arguments = arguments
+                )
+            }
+            MetadataSerializer.GENERIC_TYPE_VARIABLE -> {
+                val name = context.readString(stream)
+                val boundsWidth = IntWidth.fromId(stream.readUnsignedByte())
+                val boundsCount = boundsWidth.read(stream)
+                val bounds = (0 until boundsCount).map { readType(stream, context) }
+                PTypeVariableEntry(
+                    name = name,
+                    bounds = bounds
+                )
+            }
+            MetadataSerializer.GENERIC_TYPE_WILDCARD -> {
+                val upperWidth = IntWidth.fromId(stream.readUnsignedByte())
+                val upperCount = upperWidth.read(stream)
+                val upperBounds = (0 until upperCount).map { readType(stream, context) }
+
+                val lowerWidth = IntWidth.fromId(stream.readUnsignedByte())
+                val lowerCount = lowerWidth.read(stream)
+                val lowerBounds = (0 until lowerCount).map { readType(stream, context) }
+
+                PWildcardTypeEntry(
+                    upperBounds = upperBounds,
+                    lowerBounds = lowerBounds
+                )
+            }
+            MetadataSerializer.GENERIC_TYPE_GENERIC_ARRAY -> {
+                val componentType = readType(stream, context)
+                PGenericArrayTypeEntry(componentType)
+            }
+            else -> throw IllegalArgumentException("Unknown generic type marker: $kind")
+        }
+    }
+
+    private fun readAnnotations(stream: DataInputStream, context: StringTable): List<PAnnotationEntry> {
+        val annotationCount = stream.readInt()
+        return (0 until annotationCount).map { readAnnotation(stream, context) }
+    }
+
+    private fun readAnnotation(stream: DataInputStream, context: StringTable): PAnnotationEntry {
+        val annotationClassName = context.readString(stream)
+        val simpleName = context.readString(stream)
+        val qualifiedName = if (stream.readBoolean()) {
+            context.readString(stream)
+        } else {
+            null
+        }
+
+        val propertyCount = stream.readInt()
+        val properties = mutableMapOf<String, Any?>()
+        repeat(propertyCount) {
+            val key = context.readString(stream)
+            val value = readAnnotationValue(stream, context)
+            properties[key] = value
+        }
+
+        return PAnnotationEntry(
+            annotationClassName = annotationClassName,
+            simpleName = simpleName,
+            qualifiedName = qualifiedName,
+            properties = properties
+        )
+    }
+
+    private fun readAnnotationValue(stream: DataInputStream, context: StringTable): Any? {
+        return when (val type = stream.readUnsignedByte()) {
+            MetadataSerializer.TYPE_NULL -> null
+            MetadataSerializer.TYPE_STRING -> context.readString(stream)
+            MetadataSerializer.TYPE_BOOLEAN -> stream.readBoolean()
+            MetadataSerializer.TYPE_INT -> stream.readInt()
+            MetadataSerializer.TYPE_LONG -> stream.readLong()
+            MetadataSerializer.TYPE_FLOAT -> stream.readFloat()
+            MetadataSerializer.TYPE_DOUBLE -> stream.readDouble()
+            MetadataSerializer.TYPE_LIST_U8 -> readAnnotationList(stream, context, IntWidth.U8)
+            MetadataSerializer.TYPE_LIST_U16 -> readAnnotationList(stream, context, IntWidth.U16)
+            MetadataSerializer.TYPE_LIST_U24 -> readAnnotationList(stream, context, IntWidth.U24)
+            MetadataSerializer.TYPE_LIST_INT -> readAnnotationList(stream, context, IntWidth.U32)
+            MetadataSerializer.TYPE_OTHER -> stream.readUTF()
+            else -> throw IllegalArgumentException("Unknown annotation value type: $type")
+        }
+    }
+
+    private fun readAnnotationList(
+        stream: DataInputStream,
+        context: StringTable,
+        width: IntWidth
+    ): List<Any?> {
+        val size = width.read(stream)
+        return (0 until size).map {
+            readAnnotationValue(stream, context)
+        }
+    }
+
+    private fun decodeClassType(typeId: Int, modifierId: Int): DecodedClassFlags {
+        var isAbstract = false
+        var isSealed = false
+        var isData = false
+        var isCompanion = false
+        var isObject = false
+        var isEnum = false
+        var isInterface = false
+
+        when (typeId) {
+            ClassFlags.TYPE_CLASS -> {
+                when (modifierId) {
+                    ClassFlags.CLASS_MOD_NONE -> Unit
+                    ClassFlags.CLASS_MOD_ABSTRACT -> isAbstract = true
+                    ClassFlags.CLASS_MOD_SEALED -> {
+                        isSealed = true
+                        isAbstract = true
+                    }
+                    ClassFlags.CLASS_MOD_DATA -> isData = true
+                    else -> error("Unsupported class modifier id: $modifierId")
+                }
+            }
+            ClassFlags.TYPE_INTERFACE -> {
+                isInterface = true
+                isAbstract = true
+                if (modifierId == ClassFlags.INTERFACE_MOD_SEALED) {
+                    isSealed = true
+                } else if (modifierId != ClassFlags.INTERFACE_MOD_NONE) {
+                    error("Unsupported interface modifier id: $modifierId")
+                }
+            }
+            ClassFlags.TYPE_ENUM -> {
+                isEnum = true
+                if (modifierId != ClassFlags.CLASS_MOD_NONE) {
+                    error("Unsupported enum modifier id: $modifierId")
+                }
+            }
+            ClassFlags.TYPE_OBJECT -> {
+                isObject = true
+                when (modifierId) {
+                    ClassFlags.OBJECT_MOD_NONE -> Unit
+                    ClassFlags.OBJECT_MOD_COMPANION -> isCompanion = true
+                    ClassFlags.OBJECT_MOD_DATA -> isData = true
+                    else -> error("Unsupported object modifier id: $modifierId")
+                }
+            }
+            else -> error("Unsupported class type id: $typeId")
+        }
+
+        return DecodedClassFlags(
+            isAbstract = isAbstract,
+            isSealed = isSealed,
+            isData = isData,
+            isCompanion = isCompanion,
+            isObject = isObject,
+            isEnum = isEnum,
+            isInterface = isInterface
+        )
+    }
+
+    private data class DecodedClassFlags(
+        val isAbstract: Boolean,
+        val isSealed: Boolean,
+        val isData: Boolean,
+        val isCompanion: Boolean,
+        val isObject: Boolean,
+        val isEnum: Boolean,
+        val isInterface: Boolean
+    )
+}
+
+/**
+ * Version and string table at the start of encoded metadata, shared by every record that follows.
+ *
+ * @param end Offset of the first byte after the string table
+ */
+internal class StringTable(
+    private val stringPool: ReadOnlyStringPool,
+    private val stringWidth: IntWidth,
+    val end: Int
+) {
+    fun readIndex(stream: DataInputStream): Int = stringWidth.read(stream)
+
+    fun readString(stream: DataInputStream): String =
+        stringPool.getString(readIndex(stream))
+
+    companion object {
+        fun read(buffer: ByteBuffer): StringTable {
+            val input = ByteBufferInputStream(buffer, 0)
+            val stream = DataInputStream(input)
+
+            val version = stream.readUnsignedShort()
+            if (version != MetadataSerializer.VERSION) {
+                throw IllegalArgumentException("Unsupported version: $version")
+            }
+
+            val stringWidth = IntWidth.fromId(stream.readUnsignedByte())
+            val stringCount = stringWidth.read(stream)
+            val stringOffsetWidth = IntWidth.fromId(stream.readUnsignedByte())
+            val stringOffsets = IntArray(stringCount) { stringOffsetWidth.read(stream) }
+            val stringDataLength = stream.readInt()
+            val stringDataStart = input.position
+
+            return StringTable(
+                ReadOnlyStringPool(buffer, stringDataStart, stringOffsets),
+                stringWidth,
+                stringDataStart + stringDataLength
+            )
+        }
+    }
+}
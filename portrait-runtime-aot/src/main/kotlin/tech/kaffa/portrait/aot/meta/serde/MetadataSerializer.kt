@@ -17,26 +17,132 @@ import java.util.Base64
 
 class MetadataSerializer {
 
+    /**
+     * Encodes [clazz] as a self-contained blob: version, string table, then the class record.
+     *
+     * The string table holds the per-string offsets, then the strings. The record starts with one
+     * offset per section, relative to the record, followed by the sections in
+     * [SECTION_HEADER]..[SECTION_PROXY_METHODS] order. Member sections start with an offset per
+     * member, so a single member can be decoded by index.
+     */
     fun serialize(clazz: PClassEntry): String {
         val stringPool = StringPool()
         collectClassStrings(stringPool, clazz)
 
-        val strings = stringPool.getStrings()
-        val stringIndexWidth = IntWidth.forUpperBound(strings.size - 1)
+        val output = ByteArrayOutputStream()
+        val data = DataOutputStream(output)
+
+        data.writeShort(VERSION)
+        val context = writeStringTable(data, stringPool)
+        data.write(encodeRecord(clazz, context))
+
+        return Base64.getEncoder().encodeToString(output.toByteArray())
+    }
+
+    /**
+     * Encodes [classes] as one [MetadataStore]: version, a string table shared by every class,
+     * the record offset of each class, then the class records.
+     *
+     * Records are addressed by position in [classes], which is the class id; null entries leave a
+     * hole with offset -1. Records use the same layout as in [serialize] but carry no strings.
+     */
+    fun serializeStore(classes: List<PClassEntry?>): ByteArray {
+        val stringPool = StringPool()
+        classes.forEach { clazz -> clazz?.let { collectClassStrings(stringPool, it) } }
 
         val output = ByteArrayOutputStream()
         val data = DataOutputStream(output)
 
         data.writeShort(VERSION)
+        val context = writeStringTable(data, stringPool)
+
+        val records = classes.map { clazz -> clazz?.let { encodeRecord(it, context) } }
+        data.writeInt(records.size)
+        var recordOffset = data.size() + records.size * 4
+        records.forEach { record ->
+            if (record == null) {
+                data.writeInt(-1)
+            } else {
+                data.writeInt(recordOffset)
+                recordOffset += record.size
+            }
+        }
+        records.forEach { record -> record?.let { data.write(it) } }
+
+        return output.toByteArray()
+    }
+
+    private fun writeStringTable(data: DataOutputStream, stringPool: StringPool): EncodingContext {
+        val strings = stringPool.getStrings()
+        val stringIndexWidth = IntWidth.forUpperBound(strings.size - 1)
+
+        val stringData = ByteArrayOutputStream()
+        val stringOffsets = IntArray(strings.size)
+        DataOutputStream(stringData).let { stringOutput ->
+            strings.forEachIndexed { index, string ->
+                stringOffsets[index] = stringOutput.size()
+                stringOutput.writeUTF(string)
+            }
+        }
+
         data.writeByte(stringIndexWidth.id)
         stringIndexWidth.write(data, strings.size)
 
-        strings.forEach { data.writeUTF(it) }
+        val stringOffsetWidth = IntWidth.forUpperBound(stringOffsets.lastOrNull() ?: 0)
+        data.writeByte(stringOffsetWidth.id)
+        stringOffsets.forEach { stringOffsetWidth.write(data, it) }
+        data.writeInt(stringData.size())
+        stringData.writeTo(data)
 
-        val context = EncodingContext(stringPool, stringIndexWidth)
-        writeClass(data, clazz, context)
+        return EncodingContext(stringPool, stringIndexWidth)
+    }
 
-        return Base64.getEncoder().encodeToString(output.toByteArray())
+    private fun encodeRecord(clazz: PClassEntry, context: EncodingContext): ByteArray {
+        val sections = arrayOfNulls<ByteArray>(SECTION_COUNT)
+        sections[SECTION_HEADER] = encode { writeHeader(it, clazz, context) }
+        sections[SECTION_ANNOTATIONS] = encode { writeAnnotations(it, clazz.annotations, context) }
+        sections[SECTION_CONSTRUCTORS] = encodeMembers(clazz.constructors) { data, constructor ->
+            writeConstructor(data, constructor, context)
+        }
+        sections[SECTION_METHODS] = encodeMembers(clazz.declaredMethods) { data, method ->
+            writeMethod(data, method, context)
+        }
+        sections[SECTION_FIELDS] = encodeMembers(clazz.declaredFields) { data, field ->
+            writeField(data, field, context)
+        }
+        sections[SECTION_PROXY_METHODS] = encodeMembers(clazz.proxyMethods) { data, method ->
+            writeMethod(data, method, context)
+        }
+
+        return encode { data ->
+            var sectionOffset = SECTION_COUNT * 4
+            sections.forEach { section ->
+                data.writeInt(sectionOffset)
+                sectionOffset += section!!.size
+            }
+            sections.forEach { data.write(it!!) }
+        }
+    }
+
+    private fun encode(write: (DataOutputStream) -> Unit): ByteArray {
+        val output = ByteArrayOutputStream()
+        write(DataOutputStream(output))
+        return output.toByteArray()
+    }
+
+    private fun <E> encodeMembers(
+        members: List<E>,
+        write: (DataOutputStream, E) -> Unit
+    ): ByteArray {
+        val encoded = members.map { member -> encode { write(it, member) } }
+        val offsets = encoded.runningFold(0) { offset, bytes -> offset + bytes.size }
+        val offsetWidth = IntWidth.forUpperBound(offsets.last())
+
+        return encode { data ->
+            data.writeByte(offsetWidth.id)
+            offsets.dropLast(1).forEach { offsetWidth.write(data, it) }
+            encoded.forEach { data.write(it) }
+        }
     }
 
     private fun collectClassStrings(stringPool: StringPool, clazz: PClassEntry) {
@@ -45,6 +151,7 @@ class MetadataSerializer {
         stringPool.intern(clazz.javaClassName)
         clazz.superclassName?.let { stringPool.intern(it) }
         clazz.interfaceNames.forEach { stringPool.intern(it) }
+        clazz.supertypeNames.forEach { stringPool.intern(it) }
 
         clazz.annotations.forEach { collectAnnotationStrings(stringPool, it) }
         clazz.constructors.forEach { collectConstructorStrings(stringPool, it) }
@@ -113,7 +220,7 @@ class MetadataSerializer {
         }
     }
 
-    private fun writeClass(
+    private fun writeHeader(
         data: DataOutputStream,
         clazz: PClassEntry,
         context: EncodingContext
@@ -123,10 +230,9 @@ class MetadataSerializer {
 
         val collectionWidth = IntWidth.forUpperBound(
             maxOf(
-                clazz.interfaceNames.size,
-                clazz.constructors.size,
-                clazz.declaredMethods.size,
-                clazz.declaredFields.size
+                maxOf(clazz.interfaceNames.size, clazz.constructors.size),
+                maxOf(clazz.declaredMethods.size, clazz.declaredFields.size),
+                clazz.proxyMethods.size
             )
         )
 
@@ -141,22 +247,17 @@ class MetadataSerializer {
         collectionWidth.write(data, clazz.interfaceNames.size)
         clazz.interfaceNames.forEach { context.writeIndex(data, it) }
 
-        writeAnnotations(data, clazz.annotations, context)
+        val supertypeWidth = IntWidth.forUpperBound(clazz.supertypeNames.size)
+        data.writeByte(supertypeWidth.id)
+        supertypeWidth.write(data, clazz.supertypeNames.size)
+        clazz.supertypeNames.forEach { context.writeIndex(data, it) }
 
         collectionWidth.write(data, clazz.constructors.size)
-        clazz.constructors.forEach { writeConstructor(data, it, context) }
-
         collectionWidth.write(data, clazz.declaredMethods.size)
-        clazz.declaredMethods.forEach { writeMethod(data, it, context) }
-
         collectionWidth.write(data, clazz.declaredFields.size)
-        clazz.declaredFields.forEach { writeField(data, it, context) }
-
         if (clazz.proxyMethods.isNotEmpty()) {
-            data.writeInt(clazz.proxyMethods.size)
-            clazz.proxyMethods.forEach { writeMethod(data, it, context) }
+            collectionWidth.write(data, clazz.proxyMethods.size)
         }
-
     }
 
     private fun writeConstructor(
@@ -368,7 +469,15 @@ class MetadataSerializer {
     }
 
     companion object {
-        const val VERSION = 7
+        const val VERSION = 10
+
+        const val SECTION_HEADER = 0
+        const val SECTION_ANNOTATIONS = 1
+        const val SECTION_CONSTRUCTORS = 2
+        const val SECTION_METHODS = 3
+        const val SECTION_FIELDS = 4
+        const val SECTION_PROXY_METHODS = 5
+        const val SECTION_COUNT = 6
 
         const val GENERIC_TYPE_CLASS = 0
         const val GENERIC_TYPE_PARAMETERIZED = 1
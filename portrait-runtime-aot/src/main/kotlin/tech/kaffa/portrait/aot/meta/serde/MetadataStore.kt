@@ -0,0 +1,98 @@
+package tech.kaffa.portrait.aot.meta.serde
+
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
+import java.io.DataInputStream
+import java.nio.ByteBuffer
+
+/**
+ * Metadata of every generated class in one buffer, written by [MetadataSerializer.serializeStore]
+ * to the resource named by [resourceFor] when portrait-codegen runs in store mode.
+ *
+ * The string table is shared by all classes, so a name such as `java.lang.String` is stored once
+ * and decoded at most once per store. Records are addressed by local class id, the low bits of
+ * the id described by [tech.kaffa.portrait.aot.ClassIds]. Generated code loads one
+ * store per generated provider into a static field, either as a byte array through [load] or, on the
+ * JVM, memory-mapped through [MappedMetadataStore]. Readers opened from a store share its buffer.
+ *
+ * @param buffer Encoded store; only absolute reads are used, so the buffer's position is irrelevant
+ */
+class MetadataStore(private val buffer: ByteBuffer) {
+
+    private val strings = StringTable.read(buffer)
+    private val recordOffsets: IntArray
+
+    init {
+        val stream = DataInputStream(ByteBufferInputStream(buffer, strings.end))
+        recordOffsets = IntArray(stream.readInt()) { stream.readInt() }
+    }
+
+    /** Number of local class ids covered by this store, including ids without a record. */
+    val classCount: Int get() = recordOffsets.size
+
+    /**
+     * Opens the record of the class with [classId]; only its header is decoded up front.
+     *
+     * @throws IllegalArgumentException if the store holds no record for [classId]
+     */
+    fun open(classId: Int): MetadataReader {
+        if (!PortraitMetricsRegistry.enabled) {
+            return MetadataReader(buffer, recordStart(classId), strings, recordSize(classId))
+        }
+
+        val start = System.nanoTime()
+        val reader = MetadataReader(buffer, recordStart(classId), strings, recordSize(classId))
+        PortraitMetricsRegistry.listener.onMetadataDecoded(
+            reader.header.qualifiedName,
+            reader.byteCount,
+            System.nanoTime() - start
+        )
+        return reader
+    }
+
+    /**
+     * Size in bytes of the record of the class with [classId].
+     */
+    fun recordSize(classId: Int): Int {
+        val start = recordStart(classId)
+        // Records are laid out back to back in id order, skipping ids without one
+        for (next in classId + 1 until recordOffsets.size) {
+            if (recordOffsets[next] >= 0) return recordOffsets[next] - start
+        }
+        return buffer.limit() - start
+    }
+
+    private fun recordStart(classId: Int): Int {
+        require(classId in recordOffsets.indices && recordOffsets[classId] >= 0) {
+            "No metadata stored for class id $classId"
+        }
+        return recordOffsets[classId]
+    }
+
+    companion object {
+        /** File name of a store, in the directory of the generated provider's package */
+        const val RESOURCE_NAME = "portrait-metadata.bin"
+
+        /**
+         * Resource path, relative to the class path root, of the store of the provider generated
+         * into [packageName]. Artifacts generated into different packages never share a store.
+         */
+        @JvmStatic
+        fun resourceFor(packageName: String): String =
+            if (packageName.isEmpty()) RESOURCE_NAME else "${packageName.replace('.', '/')}/$RESOURCE_NAME"
+
+        /**
+         * Reads the store at [resource] through [anchor]'s class loader into a byte array. Works on
+         * every runtime that can read class path resources, including TeaVM.
+         *
+         * @param anchor Generated class that loads the store, in the same artifact
+         * @param resource Resource path from [resourceFor]
+         * @throws IllegalStateException if the resource is missing
+         */
+        @JvmStatic
+        fun load(anchor: Class<*>, resource: String): MetadataStore {
+            val input = anchor.getResourceAsStream("/$resource")
+                ?: throw IllegalStateException("Portrait metadata store not found: $resource")
+            return MetadataStore(ByteBuffer.wrap(input.use { it.readBytes() }))
+        }
+    }
+}
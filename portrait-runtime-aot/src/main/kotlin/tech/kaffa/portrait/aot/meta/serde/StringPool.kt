@@ -1,5 +1,8 @@
 package tech.kaffa.portrait.aot.meta.serde
 
+import java.io.DataInputStream
+import java.nio.ByteBuffer
+
 class StringPool {
     private val stringToIndex = mutableMapOf<String, Int>()
     private val indexToString = mutableListOf<String>()
@@ -24,7 +27,27 @@ class StringPool {
     fun size(): Int = indexToString.size
 }
 
-class ReadOnlyStringPool(private val strings: List<String>) {
-    fun getString(index: Int): String = strings[index]
-    fun size(): Int = strings.size
+/**
+ * String table of encoded metadata; each string is decoded the first time it is read.
+ *
+ * @param buffer Encoded metadata, either one class blob or a shared metadata store
+ * @param dataStart Offset of the first string in [buffer]
+ * @param offsets Offset of each string relative to [dataStart]
+ */
+class ReadOnlyStringPool(
+    private val buffer: ByteBuffer,
+    private val dataStart: Int,
+    private val offsets: IntArray
+) {
+    // Racing readers decode the same immutable value, so the cache needs no locking
+    private val strings = arrayOfNulls<String>(offsets.size)
+
+    fun getString(index: Int): String {
+        strings[index]?.let { return it }
+        val string = DataInputStream(ByteBufferInputStream(buffer, dataStart + offsets[index])).readUTF()
+        strings[index] = string
+        return string
+    }
+
+    fun size(): Int = offsets.size
 }
@@ -0,0 +1,44 @@
+package tech.kaffa.portrait.aot
+
+import kotlin.test.Test
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class AnnotationValuesTest {
+
+    @Test
+    fun `converts metadata forms back to attribute values`() {
+        assertEquals(7.toByte(), AnnotationValues.toByte("7"))
+        assertEquals('x', AnnotationValues.toChar("x"))
+        assertEquals(3.toShort(), AnnotationValues.toShort("3"))
+        assertEquals(42, AnnotationValues.toInt(42))
+        assertEquals(1.5f, AnnotationValues.toFloat(1.5f))
+        assertEquals(String::class.java, AnnotationValues.toClass("java.lang.String"))
+        assertEquals(Int::class.javaPrimitiveType, AnnotationValues.toClass("int"))
+        assertContentEquals(intArrayOf(1, 2), AnnotationValues.toIntArray(listOf(1, 2)))
+        assertContentEquals(arrayOf<String?>("a", "b"), AnnotationValues.toStringArray(listOf("a", "b")))
+    }
+
+    @Test
+    fun `missing values become defaults`() {
+        assertEquals(false, AnnotationValues.toBoolean(null))
+        assertEquals(0L, AnnotationValues.toLong(null))
+        assertNull(AnnotationValues.toStringValue(null))
+        assertNull(AnnotationValues.toClass(null))
+        assertEquals(0, AnnotationValues.toDoubleArray(null).size)
+    }
+
+    @Test
+    fun `format renders attributes in order`() {
+        assertEquals("@com.example.Empty", AnnotationValues.format("com.example.Empty", emptyArray(), emptyArray()))
+        assertEquals(
+            "@com.example.Route(path=\"/users\", methods=[1, 2], type=java.lang.String.class)",
+            AnnotationValues.format(
+                "com.example.Route",
+                arrayOf("path", "methods", "type"),
+                arrayOf("/users", intArrayOf(1, 2), String::class.java)
+            )
+        )
+    }
+}
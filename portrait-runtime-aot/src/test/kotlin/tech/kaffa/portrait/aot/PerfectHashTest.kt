@@ -0,0 +1,50 @@
+package tech.kaffa.portrait.aot
+
+import kotlin.test.Test
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class PerfectHashTest {
+
+    @Test
+    fun `every name lands in its own slot`() {
+        val names = (0 until 5000).map { "com.example.pkg${it % 37}.Class$it" }
+
+        val displacements = PerfectHash.build(names)
+
+        assertEquals(names.size, displacements.size)
+        val slots = names.map { PerfectHash.slot(it, displacements) }
+        assertEquals(names.indices.toSet(), slots.toSet())
+    }
+
+    @Test
+    fun `names sharing a hash code get distinct slots`() {
+        // "Aa" and "BB" have the same String.hashCode()
+        val names = listOf("Aa", "BB", "com.example.Other")
+
+        val displacements = PerfectHash.build(names)
+
+        assertEquals(3, names.map { PerfectHash.slot(it, displacements) }.toSet().size)
+    }
+
+    @Test
+    fun `names outside the set still map into the table`() {
+        val displacements = PerfectHash.build(listOf("com.example.A", "com.example.B"))
+
+        val slot = PerfectHash.slot("com.example.Missing", displacements)
+
+        assertTrue(slot in 0 until 2)
+        assertEquals(-1, PerfectHash.slot("com.example.A", IntArray(0)))
+    }
+
+    @Test
+    fun `displacements survive encoding across chunks`() {
+        val displacements = IntArray(PerfectHash.CHUNK_SIZE + 3) { if (it % 2 == 0) -it - 1 else it * 65_599 }
+
+        val chunks = PerfectHash.encode(displacements)
+
+        assertEquals(2, chunks.size)
+        assertContentEquals(displacements, PerfectHash.decode(chunks.toTypedArray()))
+    }
+}
@@ -4,7 +4,9 @@ import io.mockk.every
 import io.mockk.mockk
 import kotlin.test.Test
 import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PClassVisitor
 import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.PortraitContext
 import tech.kaffa.portrait.aot.meta.PAnnotationEntry
 import tech.kaffa.portrait.aot.meta.PClassEntry
 import tech.kaffa.portrait.aot.meta.PConstructorEntry
@@ -16,6 +18,7 @@ import kotlin.test.assertEquals
 import kotlin.test.assertFalse
 import kotlin.test.assertNotNull
 import kotlin.test.assertNull
+import kotlin.test.assertSame
 import kotlin.test.assertTrue
 
 class StaticPClassTest {
@@ -286,6 +289,7 @@ class StaticPClassTest {
 
         val proxyMethod = staticPClass.method(0)
         assertEquals("proxyTestMethod", proxyMethod.name)
+        assertSame(proxyMethod, staticPClass.method(0))
     }
 
     @Test
@@ -332,6 +336,27 @@ class StaticPClassTest {
         // Interface resolution also depends on Portrait.forName
     }
 
+    @Test
+    fun `StaticPClass resolves supertypes and member types through its context`() {
+        val mockPortrait = mockk<StaticPortrait<TestClass>>()
+        val context = mockk<PortraitContext>()
+        val objectPClass = mockk<PClass<Any>>()
+        val serializablePClass = mockk<PClass<Any>>()
+        val stringPClass = mockk<PClass<Any>>()
+
+        every { mockPortrait.getClassName() } returns "com.example.TestClass"
+        every { mockPortrait.getMetadata() } returns metadataFromTestClassEntry()
+        every { context.forNameOrUnresolved("java.lang.Object") } returns objectPClass
+        every { context.forNameOrUnresolved("java.io.Serializable") } returns serializablePClass
+        every { context.forNameOrUnresolved("java.lang.String") } returns stringPClass
+
+        val staticPClass = StaticPClass(mockPortrait, context)
+
+        assertSame(objectPClass, staticPClass.superclass)
+        assertSame(serializablePClass, staticPClass.interfaces.single())
+        assertSame(stringPClass, staticPClass.getField("testField")?.type)
+    }
+
 
     @Test
     fun `StaticPClass treats boxed primitives as assignable from primitives`() {
@@ -461,5 +486,126 @@ class StaticPClassTest {
         assertTrue(staticPClass.isAbstract)
         assertFalse(staticPClass.isEnum)
     }
-}
 
+    @Test
+    fun `StaticPClass isSubclassOf uses precomputed supertype table`() {
+        val staticPClass = staticPClassFor(
+            baseFlagsEntry("Tabled").copy(
+                interfaceNames = listOf("java.io.Serializable"),
+                supertypeNames = listOf("java.io.Serializable", "java.lang.Object")
+            )
+        )
+        val serializable = mockk<PClass<*>>()
+        val comparable = mockk<PClass<*>>()
+        every { serializable.qualifiedName } returns "java.io.Serializable"
+        every { comparable.qualifiedName } returns "java.lang.Comparable"
+
+        assertTrue(staticPClass.isSubclassOf(serializable))
+        assertFalse(staticPClass.isSubclassOf(comparable))
+    }
+
+    @Test
+    fun `StaticPClass accept streams members from metadata`() {
+        val staticPClass = staticPClassFor(createTestClassEntry())
+        val visited = mutableListOf<String>()
+
+        staticPClass.accept(object : PClassVisitor {
+            override fun visitAnnotation(annotationClassName: String) {
+                visited.add("@$annotationClassName")
+            }
+
+            override fun visitConstructor(index: Int, parameterTypeNames: List<String>) {
+                visited.add("<init>#$index$parameterTypeNames")
+            }
+
+            override fun visitMethod(
+                index: Int,
+                name: String,
+                parameterTypeNames: List<String>,
+                returnTypeName: String,
+                isStatic: Boolean,
+                isFinal: Boolean,
+                isAbstract: Boolean
+            ) {
+                visited.add("$name#$index$parameterTypeNames:$returnTypeName")
+            }
+
+            override fun visitField(index: Int, name: String, typeName: String, isStatic: Boolean, isFinal: Boolean) {
+                visited.add("$name#$index:$typeName final=$isFinal")
+            }
+
+            override fun visitEnd() {
+                visited.add("end")
+            }
+        })
+
+        assertEquals(
+            listOf(
+                "@tech.kaffa.portrait.aot.TestAnnotation",
+                "<init>#0[]",
+                "testMethod#0[java.lang.String]:int",
+                "testField#0:java.lang.String final=true",
+                "end"
+            ),
+            visited
+        )
+    }
+
+    @Test
+    fun `StaticPClass preload decodes metadata once`() {
+        val mockPortrait = mockk<StaticPortrait<TestClass>>()
+        val metadata = metadataFromTestClassEntry()
+
+        every { mockPortrait.getClassName() } returns "com.example.TestClass"
+        every { mockPortrait.getMetadata() } returns metadata
+
+        val staticPClass = StaticPClass(mockPortrait)
+
+        assertEquals(metadata.length / 4 * 3, staticPClass.preload())
+        assertEquals(0, staticPClass.preload())
+        assertEquals(1, staticPClass.methods.size)
+    }
+
+    @Test
+    fun `StaticPClass answers identity and flags from header constants without decoding metadata`() {
+        val staticPClass = StaticPClass(HeaderOnlyPortrait())
+
+        assertEquals("HeaderOnly", staticPClass.simpleName)
+        assertEquals("com.example.HeaderOnly", staticPClass.qualifiedName)
+        assertTrue(staticPClass.isData)
+        assertTrue(staticPClass.isAbstract)
+        assertFalse(staticPClass.isEnum)
+        assertFalse(staticPClass.isInterface)
+        assertNull(staticPClass.superclass)
+        assertTrue(staticPClass.constructors.isEmpty())
+        assertTrue(staticPClass.fields.isEmpty())
+        assertEquals(7, staticPClass.id)
+        assertTrue(setOf<PClass<*>>(staticPClass).contains(StaticPClass(HeaderOnlyPortrait())))
+    }
+
+    @Test
+    fun `StaticPClass newInstance uses generated constructor selection without decoding metadata`() {
+        val staticPClass = StaticPClass(SelectingPortrait())
+
+        assertEquals("built:a:1", staticPClass.newInstance("a", 1))
+    }
+
+    private class SelectingPortrait : StaticPortrait<Any>(), BestConstructorInvoker {
+        override fun getClassName(): String = "com.example.Selecting"
+        override fun getMetadata(): String = throw AssertionError("Metadata must not be decoded")
+        override fun invokeBestConstructor(args: Array<Any?>): Any = "built:" + args.joinToString(":")
+        override fun bestConstructorIndex(args: Array<Any?>): Int = throw AssertionError("Selection runs once")
+    }
+
+    private class HeaderOnlyPortrait : StaticPortrait<Any>(), StaticClassHeader {
+        override fun getClassName(): String = "com.example.HeaderOnly"
+        override fun getMetadata(): String = throw AssertionError("Metadata must not be decoded")
+        override fun getSimpleName(): String = "HeaderOnly"
+        override fun getClassFlags(): Int = StaticClassHeader.IS_DATA or StaticClassHeader.IS_ABSTRACT
+        override fun getSuperclassName(): String? = null
+        override fun getConstructorCount(): Int = 0
+        override fun getMethodCount(): Int = 0
+        override fun getFieldCount(): Int = 0
+        override fun getClassId(): Int = 7
+    }
+}
@@ -2,6 +2,7 @@ package tech.kaffa.portrait.aot
 
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import kotlin.test.Test
 import tech.kaffa.portrait.PClass
 import tech.kaffa.portrait.aot.meta.PAnnotationEntry
@@ -85,6 +86,21 @@ class StaticPConstructorTest {
         assertEquals(expectedInstance, instance)
     }
 
+    @Test
+    fun `StaticPConstructor invoker calls fixed-arity entry point`() {
+        val mockPortrait = mockk<StaticPortrait<TestClass>>()
+        val constructorEntry = createTestConstructorEntry()
+        val mockDeclaringClass = mockk<PClass<TestClass>>()
+        val expectedInstance = TestClass("constructed")
+
+        every { mockPortrait.invokeConstructor2(0, "param1", 42) } returns expectedInstance
+
+        val invoker = StaticPConstructor(constructorEntry, 0, mockDeclaringClass, mockPortrait).asInvoker()
+
+        assertEquals(expectedInstance, invoker.newInstance2("param1", 42))
+        verify(exactly = 0) { mockPortrait.invokeConstructor(any(), any()) }
+    }
+
     @Test
     fun `StaticPConstructor default constructor`() {
         val mockPortrait = mockk<StaticPortrait<TestClass>>()
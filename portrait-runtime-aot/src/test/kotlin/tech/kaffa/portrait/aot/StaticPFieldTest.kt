@@ -2,6 +2,7 @@ package tech.kaffa.portrait.aot
 
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import kotlin.test.Test
 import tech.kaffa.portrait.aot.meta.PAnnotationEntry
 import tech.kaffa.portrait.aot.meta.PFieldEntry
@@ -132,6 +133,27 @@ class StaticPFieldTest {
         assertEquals(primitiveValue, value)
     }
 
+    @Test
+    fun `StaticPField primitive accessors use typed entry points`() {
+        val mockPortrait = mockk<StaticPortrait<TestClass>>(relaxUnitFun = true)
+        val primitiveFieldEntry = createTestFieldEntry().copy(
+            typeName = "long",
+            name = "counter",
+            isFinal = false
+        )
+        val testInstance = TestClass("test")
+
+        every { mockPortrait.getLongFieldValue(0, testInstance) } returns 42L
+
+        val staticPField = StaticPField(primitiveFieldEntry, 0, mockPortrait)
+
+        assertEquals(42L, staticPField.getLong(testInstance))
+        staticPField.setLong(testInstance, 7L)
+
+        verify { mockPortrait.setLongFieldValue(0, testInstance, 7L) }
+        verify(exactly = 0) { mockPortrait.getFieldValue(any(), any()) }
+    }
+
     @Test
     fun `StaticPField handles null values`() {
         val mockPortrait = mockk<StaticPortrait<TestClass>>()
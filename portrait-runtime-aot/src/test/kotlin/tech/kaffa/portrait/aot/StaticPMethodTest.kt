@@ -2,7 +2,9 @@ package tech.kaffa.portrait.aot
 
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import kotlin.test.Test
+import tech.kaffa.portrait.PArguments
 import tech.kaffa.portrait.aot.meta.PAnnotationEntry
 import tech.kaffa.portrait.aot.meta.PMethodEntry
 import tech.kaffa.portrait.aot.meta.PClassTypeEntry
@@ -107,6 +109,35 @@ class StaticPMethodTest {
         assertEquals(expectedResult, result)
     }
 
+    @Test
+    fun `StaticPMethod invoker calls fixed-arity entry point`() {
+        val mockPortrait = mockk<StaticPortrait<TestClass>>()
+        val methodEntry = createTestMethodEntry()
+        val testInstance = TestClass("test")
+
+        every { mockPortrait.invokeMethod2(1, testInstance, "param1", 42) } returns "invoker_result"
+
+        val invoker = StaticPMethod(methodEntry, 1, mockPortrait).asInvoker()
+
+        assertEquals("invoker_result", invoker.invoke2(testInstance, "param1", 42))
+        verify(exactly = 0) { mockPortrait.invokeMethod(any(), any(), any()) }
+    }
+
+    @Test
+    fun `StaticPMethod primitive invocation uses typed entry point`() {
+        val mockPortrait = mockk<StaticPortrait<TestClass>>()
+        val methodEntry = createTestMethodEntry().copy(returnTypeName = "int")
+        val testInstance = TestClass("test")
+        val args = PArguments(2).set(0, "param1").setInt(1, 42)
+
+        every { mockPortrait.invokeIntMethod(1, testInstance, args) } returns 7
+
+        val staticPMethod = StaticPMethod(methodEntry, 1, mockPortrait)
+
+        assertEquals(7, staticPMethod.invokeInt(testInstance, args))
+        verify(exactly = 0) { mockPortrait.invokeMethod(any(), any(), any()) }
+    }
+
     @Test
     fun `StaticPMethod static method invocation`() {
         val mockPortrait = mockk<StaticPortrait<TestClass>>()
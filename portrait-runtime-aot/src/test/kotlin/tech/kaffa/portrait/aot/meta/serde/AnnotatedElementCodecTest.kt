@@ -0,0 +1,31 @@
+package tech.kaffa.portrait.aot.meta.serde
+
+import tech.kaffa.portrait.PAnnotatedElement
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+
+class AnnotatedElementCodecTest {
+
+    @Test
+    fun `encoded elements decode to the same element`() {
+        val elements = listOf(
+            PAnnotatedElement("com.example.Service", PAnnotatedElement.Kind.CLASS),
+            PAnnotatedElement("com.example.Service", PAnnotatedElement.Kind.CONSTRUCTOR, 0),
+            PAnnotatedElement("com.example.Routes\$Inner", PAnnotatedElement.Kind.METHOD, 12),
+            PAnnotatedElement("com.example.Config", PAnnotatedElement.Kind.FIELD, 3)
+        )
+
+        val encoded = elements.map { AnnotatedElementCodec.encode(it) }
+
+        assertEquals("T:com.example.Service", encoded[0])
+        assertEquals("M12:com.example.Routes\$Inner", encoded[2])
+        assertEquals(elements, AnnotatedElementCodec.decode(encoded.toTypedArray()))
+    }
+
+    @Test
+    fun `malformed entries are rejected`() {
+        assertFailsWith<IllegalArgumentException> { AnnotatedElementCodec.decode("com.example.Service") }
+        assertFailsWith<IllegalArgumentException> { AnnotatedElementCodec.decode("X1:com.example.Service") }
+    }
+}
@@ -9,7 +9,10 @@ import tech.kaffa.portrait.aot.meta.PClassTypeEntry
 import tech.kaffa.portrait.aot.meta.PMethodEntry
 import tech.kaffa.portrait.aot.meta.PParameterizedTypeEntry
 import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
 import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
+import java.nio.ByteBuffer
 
 class MetadataSerializationTest {
 
@@ -48,7 +51,8 @@ class MetadataSerializationTest {
             constructors = emptyList(),
             declaredMethods = emptyList(),
             declaredFields = emptyList(),
-            proxyMethods = listOf(proxyMethodEntry)
+            proxyMethods = listOf(proxyMethodEntry),
+            supertypeNames = listOf("java.io.Serializable", "java.lang.Object")
         )
 
         val serialized = serializer.serialize(originalEntry)
@@ -65,6 +69,7 @@ class MetadataSerializationTest {
         assertEquals(originalEntry.javaClassName, deserialized.javaClassName)
         assertEquals(originalEntry.superclassName, deserialized.superclassName)
         assertEquals(originalEntry.interfaceNames, deserialized.interfaceNames)
+        assertEquals(originalEntry.supertypeNames, deserialized.supertypeNames)
         assertEquals(originalEntry.proxyMethods, deserialized.proxyMethods)
     }
 
@@ -382,5 +387,101 @@ class MetadataSerializationTest {
         assertEquals(complexClassEntry.declaredMethods.size, deserialized.declaredMethods.size)
         assertEquals(complexClassEntry.declaredFields.size, deserialized.declaredFields.size)
     }
-}
 
+    @Test
+    fun `MetadataReader decodes single members without the rest of the blob`() {
+        fun method(name: String) = PMethodEntry(
+            name = name,
+            parameterTypeNames = listOf("java.lang.String"),
+            returnTypeName = "java.lang.String",
+            genericReturnType = PClassTypeEntry("java.lang.String"),
+            declaringClassName = "com.example.Sectioned",
+            isStatic = false,
+            isFinal = true,
+            isAbstract = false,
+            annotations = emptyList(),
+            parameterAnnotations = listOf(emptyList())
+        )
+
+        val entry = PClassEntry(
+            simpleName = "Sectioned",
+            qualifiedName = "com.example.Sectioned",
+            isAbstract = false,
+            isSealed = false,
+            isData = false,
+            isCompanion = false,
+            isObject = false,
+            isEnum = false,
+            isInterface = false,
+            javaClassName = "com.example.Sectioned",
+            superclassName = "java.lang.Object",
+            interfaceNames = emptyList(),
+            annotations = emptyList(),
+            constructors = listOf(
+                PConstructorEntry("com.example.Sectioned", emptyList(), emptyList())
+            ),
+            declaredMethods = (0 until 300).map { method("m$it") },
+            declaredFields = listOf(
+                PFieldEntry("count", "int", "com.example.Sectioned", false, false, emptyList())
+            ),
+            proxyMethods = listOf(method("proxied")),
+            supertypeNames = listOf("java.lang.Object")
+        )
+
+        val reader = MetadataDeserializer().open(MetadataSerializer().serialize(entry))
+
+        assertEquals("com.example.Sectioned", reader.header.qualifiedName)
+        assertEquals(1, reader.header.constructorCount)
+        assertEquals(300, reader.header.methodCount)
+        assertEquals(1, reader.header.fieldCount)
+        assertEquals(1, reader.header.proxyMethodCount)
+        assertEquals(entry.declaredMethods[257], reader.method(257))
+        assertEquals(entry.declaredFields[0], reader.field(0))
+        assertEquals(entry.proxyMethods[0], reader.proxyMethod(0))
+        assertFailsWith<IndexOutOfBoundsException> { reader.method(300) }
+        assertEquals(entry, reader.toClassEntry())
+    }
+
+    @Test
+    fun `MetadataStore opens records by class id over a shared string table`() {
+        fun entry(name: String) = PClassEntry(
+            simpleName = name,
+            qualifiedName = "com.example.$name",
+            isAbstract = false,
+            isSealed = false,
+            isData = false,
+            isCompanion = false,
+            isObject = false,
+            isEnum = false,
+            isInterface = false,
+            javaClassName = "com.example.$name",
+            superclassName = "java.lang.Object",
+            interfaceNames = listOf("java.io.Serializable"),
+            annotations = emptyList(),
+            constructors = emptyList(),
+            declaredMethods = emptyList(),
+            declaredFields = listOf(
+                PFieldEntry("label", "java.lang.String", "com.example.$name", false, true, emptyList())
+            ),
+            proxyMethods = emptyList(),
+            supertypeNames = listOf("java.io.Serializable", "java.lang.Object")
+        )
+
+        val first = entry("First")
+        val second = entry("Second")
+        val bytes = MetadataSerializer().serializeStore(listOf(first, null, second))
+        val store = MetadataStore(ByteBuffer.wrap(bytes))
+
+        assertEquals(3, store.classCount)
+        assertEquals(first, store.open(0).toClassEntry())
+        assertEquals(second, store.open(2).toClassEntry())
+        assertEquals(store.recordSize(0), store.open(0).byteCount)
+        assertFailsWith<IllegalArgumentException> { store.open(1) }
+        assertFailsWith<IllegalArgumentException> { store.open(3) }
+
+        // Shared names are pooled once, so the store is smaller than the classes serialized apart;
+        // embedded metadata is Base64, which packs three bytes into every four characters
+        val separateSize = listOf(first, second).sumOf { MetadataSerializer().serialize(it).length / 4 * 3 }
+        assertTrue(bytes.size < separateSize)
+    }
+}
@@ -2,6 +2,7 @@ plugins {
     alias(libs.plugins.kotlin.jvm)
     `java-library`
     `maven-publish`
+    alias(libs.plugins.jmh)
 }
 
 repositories {
@@ -21,10 +22,46 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// Virtual threads need JDK 21, so the pinning test runs on its own launcher instead of the toolchain's.
+// The launcher is looked up eagerly so that builds without an installed JDK 21 skip the task
+// instead of failing; CI installs one.
+val virtualThreadTestClass = "tech.kaffa.portrait.jvm.JvmVirtualThreadResolutionTest"
+val jdk21Launcher = runCatching {
+    javaToolchains.launcherFor { languageVersion.set(JavaLanguageVersion.of(21)) }.get()
+}.getOrNull()
+
+tasks.test {
+    filter {
+        excludeTestsMatching(virtualThreadTestClass)
+    }
+}
+
+val virtualThreadTest by tasks.registering(Test::class) {
+    description = "Runs the virtual thread tests on JDK 21."
+    group = LifecycleBasePlugin.VERIFICATION_GROUP
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    if (jdk21Launcher != null) {
+        javaLauncher.set(jdk21Launcher)
+    }
+    onlyIf("a JDK 21 toolchain is installed") { jdk21Launcher != null }
+    filter {
+        includeTestsMatching(virtualThreadTestClass)
+    }
+}
+
+tasks.check {
+    dependsOn(virtualThreadTest)
+}
+
 kotlin {
     jvmToolchain(11)
 }
 
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+}
+
 java {
     withSourcesJar()
 }
@@ -0,0 +1,57 @@
+package tech.kaffa.portrait.jvm
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.PortraitContext
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares resolving a warm descriptor through the identity-keyed `ClassValue` path of
+ * `Portrait.of(Class)` with the name-keyed path that TeaVM and native targets use.
+ *
+ * Run with `./gradlew :portrait-runtime-jvm:jmh`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class ClassLookupBenchmark {
+
+    // Power-of-two length, so nextClass() can wrap with a mask
+    private val classes = arrayOf<Class<out Any>>(
+        String::class.java, ArrayList::class.java, HashMap::class.java, StringBuilder::class.java
+    )
+
+    private lateinit var context: PortraitContext
+
+    private var next = 0
+
+    @Setup
+    fun warmUp() {
+        context = Portrait.contextOf(String::class.java)
+        classes.forEach { Portrait.of(it) }
+    }
+
+    @Benchmark
+    fun identityKeyed(): PClass<*> = Portrait.of(nextClass())
+
+    @Benchmark
+    fun nameKeyed(): PClass<*> = context.forName(nextClass().name)
+
+    private fun nextClass(): Class<out Any> {
+        next = (next + 1) and (classes.size - 1)
+        return classes[next]
+    }
+}
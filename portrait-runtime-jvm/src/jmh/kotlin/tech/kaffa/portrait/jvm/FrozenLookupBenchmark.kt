@@ -0,0 +1,57 @@
+package tech.kaffa.portrait.jvm
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.PortraitFreezePolicy
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares name lookups of warm descriptors answered by the frozen snapshot with the same lookups
+ * answered by the regular cache.
+ *
+ * Run with `./gradlew :portrait-runtime-jvm:jmh`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class FrozenLookupBenchmark {
+
+    @Param("false", "true")
+    var frozen: Boolean = false
+
+    // Power-of-two length, so nextName() can wrap with a mask
+    private val classNames = arrayOf(
+        String::class.java.name, ArrayList::class.java.name, HashMap::class.java.name, StringBuilder::class.java.name
+    )
+
+    private var next = 0
+
+    @Setup
+    fun warmUp() {
+        Portrait.clearCache()
+        classNames.forEach { Portrait.forName(it) }
+        if (frozen) Portrait.freeze(PortraitFreezePolicy.FAIL)
+    }
+
+    @Benchmark
+    fun forName(): PClass<*> = Portrait.forName(nextName())
+
+    private fun nextName(): String {
+        next = (next + 1) and (classNames.size - 1)
+        return classNames[next]
+    }
+}
@@ -0,0 +1,62 @@
+package tech.kaffa.portrait.jvm
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PConstructor
+import tech.kaffa.portrait.PMethod
+import tech.kaffa.portrait.Portrait
+import java.lang.reflect.Constructor
+import java.lang.reflect.Method
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares signature lookups through the member index of a warm descriptor with the equivalent
+ * `java.lang.Class` lookups, on a class with many overloads of the looked-up name and arity.
+ *
+ * Run with `./gradlew :portrait-runtime-jvm:jmh`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class MemberLookupBenchmark {
+
+    private lateinit var pClass: PClass<StringBuilder>
+
+    private lateinit var stringType: PClass<String>
+    private lateinit var intType: PClass<*>
+
+    @Setup
+    fun warmUp() {
+        pClass = Portrait.of(StringBuilder::class.java)
+        stringType = Portrait.of(String::class.java)
+        intType = Portrait.forName("int")
+        pClass.getMethod("append", stringType)
+        pClass.getConstructor(intType)
+    }
+
+    @Benchmark
+    fun portraitMethod(): PMethod? = pClass.getMethod("insert", intType, stringType)
+
+    @Benchmark
+    fun reflectionMethod(): Method =
+        StringBuilder::class.java.getMethod("insert", Int::class.javaPrimitiveType, String::class.java)
+
+    @Benchmark
+    fun portraitConstructor(): PConstructor<StringBuilder>? = pClass.getConstructor(stringType)
+
+    @Benchmark
+    fun reflectionConstructor(): Constructor<StringBuilder> =
+        StringBuilder::class.java.getConstructor(String::class.java)
+}
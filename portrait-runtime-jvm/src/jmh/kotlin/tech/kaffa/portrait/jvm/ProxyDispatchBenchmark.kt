@@ -0,0 +1,62 @@
+package tech.kaffa.portrait.jvm
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import tech.kaffa.portrait.Portrait
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.Proxy
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares a call through a proxy from `PClass.createProxy` with the same call through a bare
+ * `java.lang.reflect.Proxy`, which bounds the dispatch cost Portrait adds on top of the JDK.
+ *
+ * Run with `./gradlew :portrait-runtime-jvm:jmh`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class ProxyDispatchBenchmark {
+
+    interface Counter {
+        fun next(value: Int): Int
+    }
+
+    private lateinit var portraitProxy: Counter
+    private lateinit var jdkProxy: Counter
+
+    private var value = 0
+
+    @Setup
+    fun warmUp() {
+        portraitProxy = Portrait.of(Counter::class.java).createProxy { _, _, args -> (args[0] as Int) + 1 }
+        jdkProxy = Proxy.newProxyInstance(
+            Counter::class.java.classLoader,
+            arrayOf(Counter::class.java),
+            InvocationHandler { _, _, args -> (args[0] as Int) + 1 }
+        ) as Counter
+    }
+
+    @Benchmark
+    fun portrait(): Int {
+        value = portraitProxy.next(value)
+        return value
+    }
+
+    @Benchmark
+    fun jdk(): Int {
+        value = jdkProxy.next(value)
+        return value
+    }
+}
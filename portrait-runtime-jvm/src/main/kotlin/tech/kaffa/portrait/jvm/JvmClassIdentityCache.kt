@@ -0,0 +1,99 @@
+package tech.kaffa.portrait.jvm
+
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PortraitCachePolicy
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
+import tech.kaffa.portrait.provider.ClassIdentityCache
+import java.lang.ref.Reference
+import java.lang.ref.SoftReference
+import java.lang.ref.WeakReference
+import java.util.*
+
+/**
+ * [ClassIdentityCache] backed by `java.lang.ClassValue`.
+ *
+ * Each `Class` lazily receives a mutable slot that stores its resolved descriptor, so repeated
+ * lookups for the same class are a single identity-keyed read. Slots live in the class' own
+ * `ClassValue` map and are therefore released together with the class and its loader.
+ * Descriptors are held strongly, weakly or softly as the configured [PortraitCachePolicy] asks.
+ *
+ * [clear] removes the slot of every class seen so far. Entries also carry the generation they were
+ * stored in, so a resolution that races with [clear] can never publish a stale descriptor.
+ *
+ * Failed resolutions leave the slot empty; the next lookup asks the resolver again, which in turn
+ * answers from the registry's negative cache.
+ *
+ * Hits are reported as cache hits to the metrics listener. Misses are reported by the resolver,
+ * which looks the class up by name in its context.
+ */
+class JvmClassIdentityCache : ClassIdentityCache {
+
+    private val slots = Slots()
+
+    /** Classes that received a slot, so [clear] can remove them from [slots]. */
+    private val tracked: MutableSet<Class<*>> = Collections.newSetFromMap(WeakHashMap())
+
+    @Volatile
+    private var generation = 0
+
+    @Volatile
+    private var valueReferences = PortraitCachePolicy.ValueReferences.STRONG
+
+    override fun get(clazz: Class<*>, resolver: (Class<*>) -> PClass<*>): PClass<*> {
+        val slot = slots.get(clazz)
+        val generation = generation
+        slot.entry?.takeIf { it.generation == generation }?.value()?.let { cached ->
+            if (PortraitMetricsRegistry.enabled) {
+                PortraitMetricsRegistry.listener.onCacheHit(clazz.name)
+            }
+            return cached
+        }
+
+        val resolved = resolver(clazz)
+        slot.entry = Entry.of(resolved, generation, valueReferences)
+        return resolved
+    }
+
+    override fun clear() {
+        val classes = synchronized(tracked) {
+            generation++
+            tracked.toList().also { tracked.clear() }
+        }
+        classes.forEach { slots.remove(it) }
+    }
+
+    override fun configure(policy: PortraitCachePolicy) {
+        valueReferences = policy.valueReferences
+        clear()
+    }
+
+    private class Entry(
+        val generation: Int,
+        private val strong: PClass<*>?,
+        private val reference: Reference<PClass<*>>?
+    ) {
+        fun value(): PClass<*>? = strong ?: reference?.get()
+
+        companion object {
+            fun of(value: PClass<*>, generation: Int, references: PortraitCachePolicy.ValueReferences): Entry {
+                return when (references) {
+                    PortraitCachePolicy.ValueReferences.STRONG -> Entry(generation, value, null)
+                    PortraitCachePolicy.ValueReferences.WEAK -> Entry(generation, null, WeakReference(value))
+                    PortraitCachePolicy.ValueReferences.SOFT -> Entry(generation, null, SoftReference(value))
+                }
+            }
+        }
+    }
+
+    private class Slot {
+        @Volatile
+        var entry: Entry? = null
+    }
+
+    private inner class Slots : ClassValue<Slot>() {
+        override fun computeValue(type: Class<*>): Slot {
+            synchronized(tracked) { tracked.add(type) }
+            return Slot()
+        }
+    }
+}
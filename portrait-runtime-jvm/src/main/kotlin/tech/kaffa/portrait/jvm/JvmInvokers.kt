@@ -0,0 +1,269 @@
+package tech.kaffa.portrait.jvm
+
+import tech.kaffa.portrait.ConstructorInvoker
+import tech.kaffa.portrait.MethodInvoker
+import tech.kaffa.portrait.PArguments
+import tech.kaffa.portrait.PConstructor
+import tech.kaffa.portrait.PMethod
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+import java.lang.reflect.Constructor
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+
+/**
+ * [MethodInvoker] backed by a `MethodHandle` adapted to `(Object receiver, Object... args)Object`.
+ *
+ * Static methods ignore the receiver. Arguments are unboxed and results boxed by the handle
+ * itself, so the matching `invokeN` call allocates nothing beyond a boxed primitive result.
+ * Other arities fall back to reflective invocation.
+ */
+internal class JvmMethodInvoker private constructor(
+    method: PMethod,
+    private val handle: MethodHandle,
+    private val arity: Int
+) : MethodInvoker(method) {
+
+    override fun invoke0(instance: Any?): Any? {
+        if (arity != 0) return super.invoke0(instance)
+        reportInvocation()
+        return handle.invoke(instance)
+    }
+
+    override fun invoke1(instance: Any?, arg0: Any?): Any? {
+        if (arity != 1) return super.invoke1(instance, arg0)
+        reportInvocation()
+        return handle.invoke(instance, arg0)
+    }
+
+    override fun invoke2(instance: Any?, arg0: Any?, arg1: Any?): Any? {
+        if (arity != 2) return super.invoke2(instance, arg0, arg1)
+        reportInvocation()
+        return handle.invoke(instance, arg0, arg1)
+    }
+
+    override fun invoke3(instance: Any?, arg0: Any?, arg1: Any?, arg2: Any?): Any? {
+        if (arity != 3) return super.invoke3(instance, arg0, arg1, arg2)
+        reportInvocation()
+        return handle.invoke(instance, arg0, arg1, arg2)
+    }
+
+    override fun invoke4(instance: Any?, arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?): Any? {
+        if (arity != 4) return super.invoke4(instance, arg0, arg1, arg2, arg3)
+        reportInvocation()
+        return handle.invoke(instance, arg0, arg1, arg2, arg3)
+    }
+
+    override fun invoke5(instance: Any?, arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?, arg4: Any?): Any? {
+        if (arity != 5) return super.invoke5(instance, arg0, arg1, arg2, arg3, arg4)
+        reportInvocation()
+        return handle.invoke(instance, arg0, arg1, arg2, arg3, arg4)
+    }
+
+    override fun invoke6(
+        instance: Any?,
+        arg0: Any?,
+        arg1: Any?,
+        arg2: Any?,
+        arg3: Any?,
+        arg4: Any?,
+        arg5: Any?
+    ): Any? {
+        if (arity != 6) return super.invoke6(instance, arg0, arg1, arg2, arg3, arg4, arg5)
+        reportInvocation()
+        return handle.invoke(instance, arg0, arg1, arg2, arg3, arg4, arg5)
+    }
+
+    private fun reportInvocation() {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onMethodInvoked(method)
+        }
+    }
+
+    companion object {
+        /**
+         * Creates a handle-backed invoker for [javaMethod], or a reflective one when the method
+         * takes more than [MethodInvoker.MAX_ARITY] arguments or cannot be unreflected.
+         */
+        fun create(method: PMethod, javaMethod: Method): MethodInvoker {
+            val arity = javaMethod.parameterCount
+            if (arity > MethodInvoker.MAX_ARITY) return MethodInvoker(method)
+
+            val handle = try {
+                MethodHandles.publicLookup().unreflect(javaMethod)
+            } catch (_: IllegalAccessException) {
+                return MethodInvoker(method)
+            }
+            val receiverTaking = if (Modifier.isStatic(javaMethod.modifiers)) {
+                MethodHandles.dropArguments(handle, 0, Any::class.java)
+            } else {
+                handle
+            }
+            return JvmMethodInvoker(method, receiverTaking.asType(MethodType.genericMethodType(arity + 1)), arity)
+        }
+    }
+}
+
+/**
+ * [ConstructorInvoker] backed by a `MethodHandle` adapted to `(Object... args)Object`.
+ *
+ * Other arities fall back to reflective instantiation.
+ */
+internal class JvmConstructorInvoker<T : Any> private constructor(
+    constructor: PConstructor<T>,
+    private val handle: MethodHandle,
+    private val arity: Int
+) : ConstructorInvoker<T>(constructor) {
+
+    override fun newInstance0(): T {
+        if (arity != 0) return super.newInstance0()
+        reportInvocation()
+        return created(handle.invoke())
+    }
+
+    override fun newInstance1(arg0: Any?): T {
+        if (arity != 1) return super.newInstance1(arg0)
+        reportInvocation()
+        return created(handle.invoke(arg0))
+    }
+
+    override fun newInstance2(arg0: Any?, arg1: Any?): T {
+        if (arity != 2) return super.newInstance2(arg0, arg1)
+        reportInvocation()
+        return created(handle.invoke(arg0, arg1))
+    }
+
+    override fun newInstance3(arg0: Any?, arg1: Any?, arg2: Any?): T {
+        if (arity != 3) return super.newInstance3(arg0, arg1, arg2)
+        reportInvocation()
+        return created(handle.invoke(arg0, arg1, arg2))
+    }
+
+    override fun newInstance4(arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?): T {
+        if (arity != 4) return super.newInstance4(arg0, arg1, arg2, arg3)
+        reportInvocation()
+        return created(handle.invoke(arg0, arg1, arg2, arg3))
+    }
+
+    override fun newInstance5(arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?, arg4: Any?): T {
+        if (arity != 5) return super.newInstance5(arg0, arg1, arg2, arg3, arg4)
+        reportInvocation()
+        return created(handle.invoke(arg0, arg1, arg2, arg3, arg4))
+    }
+
+    override fun newInstance6(arg0: Any?, arg1: Any?, arg2: Any?, arg3: Any?, arg4: Any?, arg5: Any?): T {
+        if (arity != 6) return super.newInstance6(arg0, arg1, arg2, arg3, arg4, arg5)
+        reportInvocation()
+        return created(handle.invoke(arg0, arg1, arg2, arg3, arg4, arg5))
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun created(instance: Any?): T = instance as T
+
+    private fun reportInvocation() {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onConstructorInvoked(constructor)
+        }
+    }
+
+    companion object {
+        /**
+         * Creates a handle-backed invoker for [javaConstructor], or a reflective one when the
+         * constructor takes more than [MethodInvoker.MAX_ARITY] arguments or cannot be unreflected.
+         */
+        fun <T : Any> create(constructor: PConstructor<T>, javaConstructor: Constructor<T>): ConstructorInvoker<T> {
+            val arity = javaConstructor.parameterCount
+            if (arity > MethodInvoker.MAX_ARITY) return ConstructorInvoker(constructor)
+
+            val handle = try {
+                MethodHandles.publicLookup().unreflectConstructor(javaConstructor)
+            } catch (_: IllegalAccessException) {
+                return ConstructorInvoker(constructor)
+            }
+            return JvmConstructorInvoker(constructor, handle.asType(MethodType.genericMethodType(arity)), arity)
+        }
+    }
+}
+
+/**
+ * Method handles shaped `(Object receiver, PArguments args)R` for one method, where each
+ * parameter is read through the [PArguments] getter matching its type and `R` is the method's
+ * exact return type. The typed views adapt that handle to `int`, `long`, `double` or `Object`
+ * results, so neither arguments nor primitive results are boxed.
+ */
+internal class JvmArgumentsHandles private constructor(private val handle: MethodHandle) {
+
+    val generic: MethodHandle by lazy(LazyThreadSafetyMode.PUBLICATION) { handle.asType(carrierType(Any::class.java)) }
+    val forInt: MethodHandle by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        handle.asType(carrierType(Int::class.javaPrimitiveType!!))
+    }
+    val forLong: MethodHandle by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        handle.asType(carrierType(Long::class.javaPrimitiveType!!))
+    }
+    val forDouble: MethodHandle by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        handle.asType(carrierType(Double::class.javaPrimitiveType!!))
+    }
+
+    companion object {
+        private val getters: Map<Class<*>, MethodHandle> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+            val lookup = MethodHandles.publicLookup()
+            val index = Int::class.javaPrimitiveType!!
+            val primitives = listOf<Class<*>>(
+                Boolean::class.javaPrimitiveType!!,
+                Byte::class.javaPrimitiveType!!,
+                Char::class.javaPrimitiveType!!,
+                Short::class.javaPrimitiveType!!,
+                Int::class.javaPrimitiveType!!,
+                Long::class.javaPrimitiveType!!,
+                Float::class.javaPrimitiveType!!,
+                Double::class.javaPrimitiveType!!
+            )
+            val getters = HashMap<Class<*>, MethodHandle>()
+            for (type in primitives) {
+                val name = "get" + type.name.replaceFirstChar { it.uppercaseChar() }
+                getters[type] = lookup.findVirtual(PArguments::class.java, name, MethodType.methodType(type, index))
+            }
+            getters[Any::class.java] =
+                lookup.findVirtual(PArguments::class.java, "get", MethodType.methodType(Any::class.java, index))
+            getters
+        }
+
+        /**
+         * Creates the handles for [javaMethod], or returns null when it cannot be unreflected
+         * through the public lookup.
+         */
+        fun create(javaMethod: Method): JvmArgumentsHandles? {
+            val target = try {
+                MethodHandles.publicLookup().unreflect(javaMethod)
+            } catch (_: IllegalAccessException) {
+                return null
+            }
+            val withReceiver = if (Modifier.isStatic(javaMethod.modifiers)) {
+                MethodHandles.dropArguments(target, 0, Any::class.java)
+            } else {
+                target.asType(target.type().changeParameterType(0, Any::class.java))
+            }
+
+            val parameterGetters = javaMethod.parameterTypes.mapIndexed { index, type ->
+                val getter = getters[type] ?: getters.getValue(Any::class.java)
+                MethodHandles.insertArguments(getter, 1, index)
+                    .asType(MethodType.methodType(type, PArguments::class.java))
+            }
+            val filtered = MethodHandles.filterArguments(withReceiver, 1, *parameterGetters.toTypedArray())
+
+            // Feed the single PArguments parameter to every getter
+            val reorder = IntArray(parameterGetters.size + 1) { if (it == 0) 0 else 1 }
+            val shaped = MethodHandles.permuteArguments(
+                filtered,
+                MethodType.methodType(filtered.type().returnType(), Any::class.java, PArguments::class.java),
+                *reorder
+            )
+            return JvmArgumentsHandles(shaped)
+        }
+
+        private fun carrierType(returnType: Class<*>): MethodType =
+            MethodType.methodType(returnType, Any::class.java, PArguments::class.java)
+    }
+}
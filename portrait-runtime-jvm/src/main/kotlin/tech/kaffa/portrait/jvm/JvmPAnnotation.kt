@@ -17,14 +17,14 @@ import tech.kaffa.portrait.Portrait
  */
 internal class JvmPAnnotation<T: Annotation>(private val annotation: T) : PAnnotation<T>() {
 
-    override val annotationClass: PClass<T> by lazy {
+    override val annotationClass: PClass<T> by lazy(LazyThreadSafetyMode.PUBLICATION) {
         @Suppress("UNCHECKED_CAST")
         Portrait.of(annotation.annotationClass.java) as PClass<T>
     }
-    override val simpleName: String by lazy {
+    override val simpleName: String by lazy(LazyThreadSafetyMode.PUBLICATION) {
         annotationClass.simpleName
     }
-    override val qualifiedName: String? by lazy {
+    override val qualifiedName: String? by lazy(LazyThreadSafetyMode.PUBLICATION) {
         annotationClass.qualifiedName
     }
 
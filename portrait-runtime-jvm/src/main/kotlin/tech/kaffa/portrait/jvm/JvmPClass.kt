@@ -2,13 +2,18 @@ package tech.kaffa.portrait.jvm
 
 import tech.kaffa.portrait.PAnnotation
 import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.PClassVisitor
 import tech.kaffa.portrait.PConstructor
 import tech.kaffa.portrait.PField
 import tech.kaffa.portrait.PMethod
 import tech.kaffa.portrait.Portrait
 import tech.kaffa.portrait.internal.BoxedPrimitives
+import tech.kaffa.portrait.internal.ConstructorSelectionCache
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
 import tech.kaffa.portrait.proxy.ProxyCreationException
 import tech.kaffa.portrait.proxy.ProxyHandler
+import java.lang.reflect.Constructor
+import java.lang.reflect.Field
 import java.lang.reflect.InvocationHandler
 import java.lang.reflect.Method
 import java.lang.reflect.Modifier
@@ -68,8 +73,12 @@ internal class JvmPClass<T : Any>(private val kClass: KClass<T>) : PClass<T>() {
         }
     }
 
-    override val superclass: PClass<*>? by lazy { kClass.java.superclass?.let { Portrait.of(it) } }
-    override val interfaces: List<PClass<*>> by lazy { kClass.java.interfaces.map { Portrait.of(it) } }
+    override val superclass: PClass<*>? by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        kClass.java.superclass?.let { Portrait.of(it) }
+    }
+    override val interfaces: List<PClass<*>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        kClass.java.interfaces.map { Portrait.of(it) }
+    }
     override val simpleName: String = kClass.simpleName ?: "<anonymous>"
     override val qualifiedName: String = kClass.java.name
     override val isAbstract: Boolean = Modifier.isAbstract(kClass.java.modifiers)
@@ -79,7 +88,7 @@ internal class JvmPClass<T : Any>(private val kClass: KClass<T>) : PClass<T>() {
     override val isEnum: Boolean = kClass.java.isEnum
     override val isInterface: Boolean = kClass.java.isInterface
     override val objectInstance: T? = kClass.objectInstance
-    override val enumConstants: Array<T>? by lazy {
+    override val enumConstants: Array<T>? by lazy(LazyThreadSafetyMode.PUBLICATION) {
         if (isEnum) {
             kClass.java.enumConstants
         } else {
@@ -104,7 +113,7 @@ internal class JvmPClass<T : Any>(private val kClass: KClass<T>) : PClass<T>() {
         return otherJavaClass != kClass.java && otherJavaClass.isAssignableFrom(kClass.java)
     }
 
-    override val annotations: List<PAnnotation<*>> by lazy {
+    override val annotations: List<PAnnotation<*>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
         kClass.annotations.map { JvmPAnnotation(it) }
     }
 
@@ -120,62 +129,95 @@ internal class JvmPClass<T : Any>(private val kClass: KClass<T>) : PClass<T>() {
         return kClass.annotations.any { it.annotationClass == targetClass }
     }
 
-    override val constructors: List<PConstructor<T>> by lazy {
+    /**
+     * Public declared constructors, methods and fields in the order their descriptor lists use;
+     * shared with [accept] so a visitor pass creates no descriptors.
+     */
+    private val publicConstructors: List<Constructor<*>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
         kClass.java.declaredConstructors
             .filter { Modifier.isPublic(it.modifiers) }
             .sortedWith(compareBy(
                 { it.parameterCount },
                 { it.parameterTypes.joinToString(separator = "#") { type -> type.name } }
             ))
-            .map {
-                @Suppress("UNCHECKED_CAST")
-                JvmPConstructor(it as java.lang.reflect.Constructor<T>)
-            }
-    }
-
-    override fun getConstructor(vararg parameterTypes: PClass<*>): PConstructor<T>? {
-        return try {
-            val javaTypes = parameterTypes.map { pClassToJavaClass(it) }.toTypedArray()
-            val constructor = kClass.java.getConstructor(*javaTypes)
-            JvmPConstructor(constructor)
-        } catch (e: NoSuchMethodException) {
-            null
-        }
     }
 
-    override val methods: List<PMethod> by lazy {
+    private val publicMethods: List<Method> by lazy(LazyThreadSafetyMode.PUBLICATION) {
         kClass.java.declaredMethods
             .filter { Modifier.isPublic(it.modifiers) }
-            .map { JvmPMethod(it) }
             .sortedBy { it.name }
     }
 
-    override fun getMethod(name: String, vararg parameterTypes: PClass<*>): PMethod? {
-        val candidates = methods.filter { it.name == name }
-        if (candidates.isEmpty()) return null
+    private val publicFields: List<Field> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        kClass.java.declaredFields
+            .filter { Modifier.isPublic(it.modifiers) }
+            .sortedBy { it.name }
+    }
 
-        if (parameterTypes.isEmpty()) {
-            return candidates.singleOrNull()
+    override val constructors: List<PConstructor<T>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        publicConstructors.map {
+            @Suppress("UNCHECKED_CAST")
+            JvmPConstructor(it as Constructor<T>)
         }
+    }
 
-        return candidates.firstOrNull { method ->
-            val params = method.parameterTypes
-            if (params.size != parameterTypes.size) return@firstOrNull false
-            params.zip(parameterTypes.toList()).all { (actual, expected) ->
-                actual.qualifiedName == expected.qualifiedName
-            }
+    // Constructor chosen per tuple of argument classes, so repeated calls skip descriptor matching
+    private val constructorSelection = ConstructorSelectionCache()
+
+    override fun newInstance(vararg args: Any?): T {
+        if (args.isEmpty()) return super.newInstance()
+
+        val index = constructorSelection.indexOf(args) { arguments ->
+            val selected = selectConstructor(arguments)
+            constructors.indexOfFirst { it === selected }
         }
+        if (index < 0) throw noMatchingConstructor(args)
+        return constructors[index].newInstance(*args)
     }
 
-    override val fields: List<PField> by lazy {
-        kClass.java.declaredFields
-            .filter { Modifier.isPublic(it.modifiers) }
-            .map { JvmPField(it) }
-            .sortedBy { it.name }
+    override val methods: List<PMethod> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        publicMethods.map { JvmPMethod(it) }
     }
 
-    override fun getField(name: String): PField? =
-        fields.firstOrNull { it.name == name }
+    override fun getMethod(name: String, vararg parameterTypes: PClass<*>): PMethod? {
+        if (parameterTypes.isEmpty()) return methodsNamed(name).singleOrNull()
+        return super.getMethod(name, *parameterTypes)
+    }
+
+    override val fields: List<PField> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        publicFields.map { JvmPField(it) }
+    }
+
+    override fun accept(visitor: PClassVisitor) {
+        // Stream from the reflection objects; no member descriptors are created
+        kClass.java.declaredAnnotations.forEach { visitor.visitAnnotation(it.annotationClass.java.name) }
+        publicConstructors.forEachIndexed { index, constructor ->
+            visitor.visitConstructor(index, constructor.parameterTypes.map { it.typeName })
+        }
+        publicMethods.forEachIndexed { index, method ->
+            val modifiers = method.modifiers
+            visitor.visitMethod(
+                index,
+                method.name,
+                method.parameterTypes.map { it.typeName },
+                method.returnType.typeName,
+                Modifier.isStatic(modifiers),
+                Modifier.isFinal(modifiers),
+                Modifier.isAbstract(modifiers)
+            )
+        }
+        publicFields.forEachIndexed { index, field ->
+            val modifiers = field.modifiers
+            visitor.visitField(
+                index,
+                field.name,
+                field.type.typeName,
+                Modifier.isStatic(modifiers),
+                Modifier.isFinal(modifiers)
+            )
+        }
+        visitor.visitEnd()
+    }
 
     override fun createProxy(handler: ProxyHandler<T>): T {
         // Validate that the class is suitable for proxying
@@ -212,6 +254,9 @@ private class JvmProxyInvocationHandler<T : Any>(
     override fun invoke(proxy: Any, method: Method, args: Array<out Any?>?): Any? {
         // Wrap the Java Method in a PMethod
         val pMethod = JvmPMethod(method)
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onProxyDispatch(pMethod)
+        }
 
         // Delegate to the ProxyHandler
         @Suppress("UNCHECKED_CAST")
@@ -1,9 +1,11 @@
 package tech.kaffa.portrait.jvm
 
+import tech.kaffa.portrait.ConstructorInvoker
 import tech.kaffa.portrait.PAnnotation
 import tech.kaffa.portrait.PClass
 import tech.kaffa.portrait.PConstructor
 import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
 import java.lang.reflect.Constructor
 
 /**
@@ -55,8 +57,14 @@ internal class JvmPConstructor<T : Any>(private val constructor: Constructor<T>)
         }
     }
 
-    override val declaringClass: PClass<T> by lazy { Portrait.of(constructor.declaringClass) }
-    override val parameterTypes: List<PClass<*>> by lazy { constructor.parameterTypes.map { Portrait.of(it) } }
+    override val declaringClass: PClass<T> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        Portrait.of(constructor.declaringClass)
+    }
+    override val parameterTypes: List<PClass<*>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        constructor.parameterTypes.map { Portrait.of(it) }
+    }
+    override val parameterCount: Int = constructor.parameterCount
+
     override val annotations: List<PAnnotation<*>> =
         constructor.annotations.map { JvmPAnnotation(it) }
 
@@ -74,9 +82,18 @@ internal class JvmPConstructor<T : Any>(private val constructor: Constructor<T>)
     }
 
     override fun newInstance(vararg args: Any?): T {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onConstructorInvoked(this)
+        }
         return constructor.newInstance(*args)
     }
 
+    private val invoker: ConstructorInvoker<T> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        JvmConstructorInvoker.create(this, constructor)
+    }
+
+    override fun asInvoker(): ConstructorInvoker<T> = invoker
+
     override fun isCallableWith(vararg argumentTypes: PClass<*>): Boolean {
         if (argumentTypes.size != parameterTypes.size) return false
         return parameterTypes.zip(argumentTypes).all { (paramType, argType) ->
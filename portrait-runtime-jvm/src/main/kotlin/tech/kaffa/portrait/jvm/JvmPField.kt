@@ -4,6 +4,9 @@ import tech.kaffa.portrait.PAnnotation
 import tech.kaffa.portrait.PClass
 import tech.kaffa.portrait.PField
 import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.VarHandle
 import java.lang.reflect.Field
 import java.lang.reflect.Modifier
 
@@ -57,19 +60,147 @@ internal class JvmPField(private val field: Field) : PField() {
     }
 
     override val name: String = field.name
-    override val type: PClass<*> by lazy { Portrait.of(field.type) }
-    override val declaringClass: PClass<*> by lazy { Portrait.of(field.declaringClass) }
+    override val type: PClass<*> by lazy(LazyThreadSafetyMode.PUBLICATION) { Portrait.of(field.type) }
+    override val declaringClass: PClass<*> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        Portrait.of(field.declaringClass)
+    }
     override val isStatic: Boolean = Modifier.isStatic(field.modifiers)
     override val isFinal: Boolean = Modifier.isFinal(field.modifiers)
 
     override fun get(instance: Any?): Any? {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onFieldRead(this)
+        }
         return field.get(instance)
     }
 
     override fun set(instance: Any?, value: Any?) {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onFieldWritten(this)
+        }
         field.set(instance, value)
     }
 
+    /**
+     * Handle used by the primitive accessors, or null when the field is not accessible through
+     * the public lookup; the accessors then use the reflective `Field.getXxx`/`setXxx` methods.
+     */
+    private val varHandle: VarHandle? by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        try {
+            MethodHandles.publicLookup().unreflectVarHandle(field)
+        } catch (_: IllegalAccessException) {
+            null
+        }
+    }
+
+    override fun getBoolean(instance: Any?): Boolean {
+        reportRead()
+        val handle = varHandle ?: return field.getBoolean(instance)
+        return if (isStatic) handle.get() as Boolean else handle.get(instance) as Boolean
+    }
+
+    override fun setBoolean(instance: Any?, value: Boolean) {
+        reportWrite()
+        val handle = varHandle ?: return field.setBoolean(instance, value)
+        if (isStatic) handle.set(value) else handle.set(instance, value)
+    }
+
+    override fun getByte(instance: Any?): Byte {
+        reportRead()
+        val handle = varHandle ?: return field.getByte(instance)
+        return if (isStatic) handle.get() as Byte else handle.get(instance) as Byte
+    }
+
+    override fun setByte(instance: Any?, value: Byte) {
+        reportWrite()
+        val handle = varHandle ?: return field.setByte(instance, value)
+        if (isStatic) handle.set(value) else handle.set(instance, value)
+    }
+
+    override fun getChar(instance: Any?): Char {
+        reportRead()
+        val handle = varHandle ?: return field.getChar(instance)
+        return if (isStatic) handle.get() as Char else handle.get(instance) as Char
+    }
+
+    override fun setChar(instance: Any?, value: Char) {
+        reportWrite()
+        val handle = varHandle ?: return field.setChar(instance, value)
+        if (isStatic) handle.set(value) else handle.set(instance, value)
+    }
+
+    override fun getShort(instance: Any?): Short {
+        reportRead()
+        val handle = varHandle ?: return field.getShort(instance)
+        return if (isStatic) handle.get() as Short else handle.get(instance) as Short
+    }
+
+    override fun setShort(instance: Any?, value: Short) {
+        reportWrite()
+        val handle = varHandle ?: return field.setShort(instance, value)
+        if (isStatic) handle.set(value) else handle.set(instance, value)
+    }
+
+    override fun getInt(instance: Any?): Int {
+        reportRead()
+        val handle = varHandle ?: return field.getInt(instance)
+        return if (isStatic) handle.get() as Int else handle.get(instance) as Int
+    }
+
+    override fun setInt(instance: Any?, value: Int) {
+        reportWrite()
+        val handle = varHandle ?: return field.setInt(instance, value)
+        if (isStatic) handle.set(value) else handle.set(instance, value)
+    }
+
+    override fun getLong(instance: Any?): Long {
+        reportRead()
+        val handle = varHandle ?: return field.getLong(instance)
+        return if (isStatic) handle.get() as Long else handle.get(instance) as Long
+    }
+
+    override fun setLong(instance: Any?, value: Long) {
+        reportWrite()
+        val handle = varHandle ?: return field.setLong(instance, value)
+        if (isStatic) handle.set(value) else handle.set(instance, value)
+    }
+
+    override fun getFloat(instance: Any?): Float {
+        reportRead()
+        val handle = varHandle ?: return field.getFloat(instance)
+        return if (isStatic) handle.get() as Float else handle.get(instance) as Float
+    }
+
+    override fun setFloat(instance: Any?, value: Float) {
+        reportWrite()
+        val handle = varHandle ?: return field.setFloat(instance, value)
+        if (isStatic) handle.set(value) else handle.set(instance, value)
+    }
+
+    override fun getDouble(instance: Any?): Double {
+        reportRead()
+        val handle = varHandle ?: return field.getDouble(instance)
+        return if (isStatic) handle.get() as Double else handle.get(instance) as Double
+    }
+
+    override fun setDouble(instance: Any?, value: Double) {
+        reportWrite()
+        val handle = varHandle ?: return field.setDouble(instance, value)
+        if (isStatic) handle.set(value) else handle.set(instance, value)
+    }
+
+    private fun reportRead() {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onFieldRead(this)
+        }
+    }
+
+    private fun reportWrite() {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onFieldWritten(this)
+        }
+    }
+
     override val annotations: List<PAnnotation<*>> =
         field.annotations.map { JvmPAnnotation(it) }
 
@@ -1,10 +1,13 @@
 package tech.kaffa.portrait.jvm
 
+import tech.kaffa.portrait.MethodInvoker
 import tech.kaffa.portrait.PAnnotation
+import tech.kaffa.portrait.PArguments
 import tech.kaffa.portrait.PClass
 import tech.kaffa.portrait.PMethod
 import tech.kaffa.portrait.Portrait
 import tech.kaffa.portrait.PType
+import tech.kaffa.portrait.metrics.PortraitMetricsRegistry
 import java.lang.reflect.Method
 import java.lang.reflect.Modifier
 
@@ -58,16 +61,23 @@ internal class JvmPMethod(private val method: Method) : PMethod() {
     }
 
     override val name: String = method.name
-    override val parameterTypes: List<PClass<*>> by lazy { method.parameterTypes.map { Portrait.of(it) } }
+    override val parameterTypes: List<PClass<*>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        method.parameterTypes.map { Portrait.of(it) }
+    }
     override val parameterCount: Int = method.parameterCount
-    override val returnType: PClass<*> by lazy { Portrait.of(method.returnType) }
-    override val genericReturnType: PType by lazy { method.genericReturnType.toPortraitType() }
-    override val declaringClass: PClass<*> by lazy { Portrait.of(method.declaringClass) }
+    override val returnType: PClass<*> by lazy(LazyThreadSafetyMode.PUBLICATION) { Portrait.of(method.returnType) }
+    override val genericReturnType: PType by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        method.genericReturnType.toPortraitType()
+    }
+    override val declaringClass: PClass<*> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        Portrait.of(method.declaringClass)
+    }
     override val isStatic: Boolean = Modifier.isStatic(method.modifiers)
     override val isFinal: Boolean = Modifier.isFinal(method.modifiers)
     override val isAbstract: Boolean = Modifier.isAbstract(method.modifiers)
 
     override fun invoke(instance: Any?, vararg args: Any?): Any? {
+        reportInvocation()
         return try {
             method.invoke(instance, *args)
         } catch (exception: java.lang.reflect.InvocationTargetException) {
@@ -78,6 +88,47 @@ internal class JvmPMethod(private val method: Method) : PMethod() {
         }
     }
 
+    private val invoker: MethodInvoker by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        JvmMethodInvoker.create(this, method)
+    }
+
+    override fun asInvoker(): MethodInvoker = invoker
+
+    /** Handles for the [PArguments] entry points; null falls back to reflective invocation. */
+    private val argumentsHandles: JvmArgumentsHandles? by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        JvmArgumentsHandles.create(method)
+    }
+
+    override fun invokeWith(instance: Any?, args: PArguments): Any? {
+        val handles = argumentsHandles ?: return super.invokeWith(instance, args)
+        reportInvocation()
+        return handles.generic.invoke(instance, args)
+    }
+
+    override fun invokeInt(instance: Any?, args: PArguments): Int {
+        val handles = argumentsHandles ?: return super.invokeInt(instance, args)
+        reportInvocation()
+        return handles.forInt.invoke(instance, args) as Int
+    }
+
+    override fun invokeLong(instance: Any?, args: PArguments): Long {
+        val handles = argumentsHandles ?: return super.invokeLong(instance, args)
+        reportInvocation()
+        return handles.forLong.invoke(instance, args) as Long
+    }
+
+    override fun invokeDouble(instance: Any?, args: PArguments): Double {
+        val handles = argumentsHandles ?: return super.invokeDouble(instance, args)
+        reportInvocation()
+        return handles.forDouble.invoke(instance, args) as Double
+    }
+
+    private fun reportInvocation() {
+        if (PortraitMetricsRegistry.enabled) {
+            PortraitMetricsRegistry.listener.onMethodInvoked(this)
+        }
+    }
+
     override val annotations: List<PAnnotation<*>> =
         method.annotations.map { JvmPAnnotation(it) }
 
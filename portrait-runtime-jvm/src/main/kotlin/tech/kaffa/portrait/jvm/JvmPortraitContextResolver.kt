@@ -0,0 +1,60 @@
+package tech.kaffa.portrait.jvm
+
+import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.PortraitContext
+import tech.kaffa.portrait.provider.PortraitContextResolver
+import java.lang.ref.WeakReference
+import java.util.WeakHashMap
+
+/**
+ * [PortraitContextResolver] that gives every foreign class loader its own [PortraitContext].
+ *
+ * Classes loaded by Portrait's own class loader, one of its ancestors, or the bootstrap loader use
+ * the default context. Any other loader, typically a web application or plugin loader, receives a
+ * context on first use.
+ *
+ * The context is attached to each of the loader's classes through a `ClassValue`, which is the
+ * only strong reference to it. The loader-keyed index is weak in both directions, so once the
+ * loader and its classes become unreachable the context, its providers and its cached descriptors
+ * are collected with them.
+ */
+class JvmPortraitContextResolver : PortraitContextResolver {
+
+    private val defaultLoaders: Set<ClassLoader> = ancestorsOf(Portrait::class.java.classLoader)
+
+    private val contexts = WeakHashMap<ClassLoader, WeakReference<PortraitContext>>()
+
+    @Volatile
+    private var factory: ((ClassLoader) -> PortraitContext)? = null
+
+    private val assigned = object : ClassValue<PortraitContext>() {
+        override fun computeValue(type: Class<*>): PortraitContext = contextOf(type.classLoader)
+    }
+
+    override fun contextFor(clazz: Class<*>, factory: (ClassLoader) -> PortraitContext): PortraitContext? {
+        val classLoader = clazz.classLoader ?: return null
+        if (classLoader in defaultLoaders) return null
+
+        this.factory = factory
+        return assigned.get(clazz)
+    }
+
+    private fun contextOf(classLoader: ClassLoader): PortraitContext {
+        synchronized(contexts) {
+            contexts[classLoader]?.get()?.let { return it }
+            val context = factory!!(classLoader)
+            contexts[classLoader] = WeakReference(context)
+            return context
+        }
+    }
+
+    private fun ancestorsOf(classLoader: ClassLoader?): Set<ClassLoader> {
+        val loaders = HashSet<ClassLoader>()
+        var current = classLoader
+        while (current != null) {
+            loaders.add(current)
+            current = current.parent
+        }
+        return loaders
+    }
+}
@@ -19,8 +19,12 @@ import java.lang.reflect.Modifier
  *
  * This is typically the default provider for JVM applications when
  * portrait-runtime-jvm is included as a dependency.
+ *
+ * @param classLoader Loader used to load classes by name; `null` uses the loader of this provider
  */
-class JvmPortraitProvider : PortraitProvider {
+class JvmPortraitProvider @JvmOverloads constructor(
+    private val classLoader: ClassLoader? = null
+) : PortraitProvider {
 
     /**
      * Returns priority 100 for standard JVM reflection support.
@@ -38,7 +42,9 @@ class JvmPortraitProvider : PortraitProvider {
     override fun <T : Any> forName(className: String): PClass<T>? {
         return try {
             @Suppress("UNCHECKED_CAST")
-            val javaClass = Class.forName(className) as Class<T>
+            val javaClass = (
+                if (classLoader == null) Class.forName(className) else Class.forName(className, true, classLoader)
+            ) as Class<T>
             if (!isPubliclyAccessible(javaClass)) {
                 return null
             }
@@ -48,6 +54,11 @@ class JvmPortraitProvider : PortraitProvider {
         }
     }
 
+    /**
+     * Returns a provider that loads classes through [classLoader].
+     */
+    override fun forClassLoader(classLoader: ClassLoader): PortraitProvider = JvmPortraitProvider(classLoader)
+
     private fun isPubliclyAccessible(clazz: Class<*>): Boolean {
         if (clazz.canonicalName == null) return false
         if (!Modifier.isPublic(clazz.modifiers)) return false
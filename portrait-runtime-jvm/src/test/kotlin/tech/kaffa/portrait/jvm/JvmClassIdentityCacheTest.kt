@@ -0,0 +1,133 @@
+package tech.kaffa.portrait.jvm
+
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertSame
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.Portrait
+import tech.kaffa.portrait.PortraitCachePolicy
+import tech.kaffa.portrait.PortraitNotFoundException
+
+class IdentityCached
+
+class JvmClassIdentityCacheTest {
+
+    @BeforeTest
+    fun resetPortraitCache() {
+        Portrait.clearCache()
+    }
+
+    @Test
+    fun `resolver runs once per class`() {
+        val cache = JvmClassIdentityCache()
+        var calls = 0
+        val resolver: (Class<*>) -> PClass<*> = {
+            calls++
+            JvmPClass(IdentityCached::class)
+        }
+
+        val first = cache.get(IdentityCached::class.java, resolver)
+        val second = cache.get(IdentityCached::class.java, resolver)
+
+        assertSame(first, second)
+        assertEquals(1, calls)
+    }
+
+    @Test
+    fun `failed resolutions are not cached`() {
+        val cache = JvmClassIdentityCache()
+        var calls = 0
+        val resolver: (Class<*>) -> PClass<*> = {
+            calls++
+            throw PortraitNotFoundException("missing")
+        }
+
+        repeat(2) {
+            assertFailsWith<PortraitNotFoundException> {
+                cache.get(IdentityCached::class.java, resolver)
+            }
+        }
+        assertEquals(2, calls)
+    }
+
+    @Test
+    fun `clear forgets cached descriptors`() {
+        val cache = JvmClassIdentityCache()
+        var calls = 0
+        val resolver: (Class<*>) -> PClass<*> = {
+            calls++
+            JvmPClass(IdentityCached::class)
+        }
+
+        cache.get(IdentityCached::class.java, resolver)
+        cache.clear()
+        cache.get(IdentityCached::class.java, resolver)
+
+        assertEquals(2, calls)
+    }
+
+    @Test
+    fun `resolution racing with clear is not kept`() {
+        val cache = JvmClassIdentityCache()
+        var calls = 0
+        val resolver: (Class<*>) -> PClass<*> = {
+            calls++
+            if (calls == 1) cache.clear()
+            JvmPClass(IdentityCached::class)
+        }
+
+        cache.get(IdentityCached::class.java, resolver)
+        cache.get(IdentityCached::class.java, resolver)
+
+        assertEquals(2, calls)
+    }
+
+    @Test
+    fun `weak values still return live descriptors`() {
+        val cache = JvmClassIdentityCache()
+        cache.configure(PortraitCachePolicy(valueReferences = PortraitCachePolicy.ValueReferences.WEAK))
+        val descriptor = JvmPClass(IdentityCached::class)
+
+        cache.get(IdentityCached::class.java) { descriptor }
+
+        assertSame(descriptor, cache.get(IdentityCached::class.java) { error("Descriptor is still reachable") })
+    }
+
+    @Test
+    fun `configure forgets cached descriptors`() {
+        val cache = JvmClassIdentityCache()
+        var calls = 0
+        val resolver: (Class<*>) -> PClass<*> = {
+            calls++
+            JvmPClass(IdentityCached::class)
+        }
+
+        cache.get(IdentityCached::class.java, resolver)
+        cache.configure(PortraitCachePolicy(valueReferences = PortraitCachePolicy.ValueReferences.SOFT))
+        cache.get(IdentityCached::class.java, resolver)
+
+        assertEquals(2, calls)
+    }
+
+    @Test
+    fun `identity cache hits are not counted in cache stats`() {
+        Portrait.of(IdentityCached::class.java)
+        val before = Portrait.cacheStats()
+
+        Portrait.of(IdentityCached::class.java)
+
+        assertEquals(before, Portrait.cacheStats())
+    }
+
+    @Test
+    fun `Portrait of and from share the identity cached descriptor`() {
+        val byClass = Portrait.of(IdentityCached::class.java)
+        val byInstance = Portrait.from(IdentityCached())
+        val byName = Portrait.forName(IdentityCached::class.java.name)
+
+        assertSame(byClass, byInstance)
+        assertSame(byClass, byName)
+    }
+}
@@ -0,0 +1,112 @@
+package tech.kaffa.portrait.jvm
+
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import tech.kaffa.portrait.PArguments
+import tech.kaffa.portrait.Portrait
+
+class InvokerTarget(var name: String) {
+
+    constructor(first: String, count: Int) : this(first.repeat(count))
+
+    fun greet(greeting: String, times: Int): String = List(times) { "$greeting $name" }.joinToString(" ")
+
+    fun fail(): Nothing = throw IllegalStateException("boom")
+
+    fun scale(factor: Double, offset: Long): Double = name.length * factor + offset
+
+    companion object {
+        @JvmStatic
+        fun add(a: Int, b: Int): Int = a + b
+    }
+}
+
+class JvmInvokersTest {
+
+    @BeforeTest
+    fun resetPortraitCache() {
+        Portrait.clearCache()
+    }
+
+    @Test
+    fun `instance methods are invoked with unboxed arguments`() {
+        val pClass = Portrait.of(InvokerTarget::class.java)
+        val invoker = pClass.methods.first { it.name == "greet" }.asInvoker()
+
+        assertEquals("hi Ada hi Ada", invoker.invoke2(InvokerTarget("Ada"), "hi", 2))
+    }
+
+    @Test
+    fun `getters and setters round trip`() {
+        val pClass = Portrait.of(InvokerTarget::class.java)
+        val getter = pClass.methods.first { it.name == "getName" }.asInvoker()
+        val setter = pClass.methods.first { it.name == "setName" }.asInvoker()
+        val target = InvokerTarget("before")
+
+        assertNull(setter.invoke1(target, "after"))
+        assertEquals("after", getter.invoke0(target))
+    }
+
+    @Test
+    fun `static methods ignore the receiver`() {
+        val pClass = Portrait.of(InvokerTarget::class.java)
+        val invoker = pClass.methods.first { it.name == "add" && it.isStatic }.asInvoker()
+
+        assertEquals(5, invoker.invoke2(null, 2, 3))
+    }
+
+    @Test
+    fun `exceptions thrown by the method propagate unwrapped`() {
+        val pClass = Portrait.of(InvokerTarget::class.java)
+        val invoker = pClass.methods.first { it.name == "fail" }.asInvoker()
+
+        assertFailsWith<IllegalStateException> { invoker.invoke0(InvokerTarget("x")) }
+    }
+
+    @Test
+    fun `constructors are invoked by arity`() {
+        val pClass = Portrait.of(InvokerTarget::class.java)
+        val constructor = pClass.constructors.first { it.parameterTypes.size == 2 }.asInvoker()
+
+        assertEquals("abab", constructor.newInstance2("ab", 2).name)
+    }
+
+    @Test
+    fun `invokers are reused per member`() {
+        val method = Portrait.of(InvokerTarget::class.java).methods.first { it.name == "greet" }
+
+        assertSame(method.asInvoker(), method.asInvoker())
+    }
+
+    @Test
+    fun `primitive results are returned through PArguments entry points`() {
+        val pClass = Portrait.of(InvokerTarget::class.java)
+        val add = pClass.methods.first { it.name == "add" && it.isStatic }
+        val scale = pClass.methods.first { it.name == "scale" }
+
+        assertEquals(7, add.invokeInt(null, PArguments(2).setInt(0, 3).setInt(1, 4)))
+        assertEquals(5.0, scale.invokeDouble(InvokerTarget("abc"), PArguments(2).setDouble(0, 1.0).setLong(1, 2L)))
+    }
+
+    @Test
+    fun `PArguments reference slots are cast to parameter types`() {
+        val greet = Portrait.of(InvokerTarget::class.java).methods.first { it.name == "greet" }
+
+        val args = PArguments(2).set(0, "hey").setInt(1, 1)
+
+        assertEquals("hey Bo", greet.invokeWith(InvokerTarget("Bo"), args))
+    }
+
+    @Test
+    fun `invokeInt rejects methods with another return type`() {
+        val scale = Portrait.of(InvokerTarget::class.java).methods.first { it.name == "scale" }
+
+        assertFailsWith<RuntimeException> {
+            scale.invokeInt(InvokerTarget("a"), PArguments(2).setDouble(0, 1.0).setLong(1, 0L))
+        }
+    }
+}
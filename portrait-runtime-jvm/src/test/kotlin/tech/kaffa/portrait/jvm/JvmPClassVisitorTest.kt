@@ -0,0 +1,87 @@
+package tech.kaffa.portrait.jvm
+
+import tech.kaffa.portrait.PClassVisitor
+import tech.kaffa.portrait.Portrait
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+annotation class Visited
+
+@Visited
+class VisitedTarget(val label: String) {
+    @JvmField
+    var count: Int = 0
+
+    fun rename(prefix: String, times: Int): String = prefix.repeat(times) + label
+
+    companion object {
+        @JvmStatic
+        fun create(): VisitedTarget = VisitedTarget("created")
+    }
+}
+
+class JvmPClassVisitorTest {
+
+    @BeforeTest
+    fun resetPortraitCache() {
+        Portrait.clearCache()
+    }
+
+    @Test
+    fun `accept reports members at their descriptor list positions`() {
+        val pClass = Portrait.of(VisitedTarget::class.java)
+        val visited = mutableListOf<String>()
+
+        pClass.accept(object : PClassVisitor {
+            override fun visitAnnotation(annotationClassName: String) {
+                // Kotlin classes also carry kotlin.Metadata
+                if (annotationClassName == Visited::class.java.name) {
+                    visited.add("@$annotationClassName")
+                }
+            }
+
+            override fun visitConstructor(index: Int, parameterTypeNames: List<String>) {
+                visited.add("<init>$parameterTypeNames")
+            }
+
+            override fun visitMethod(
+                index: Int,
+                name: String,
+                parameterTypeNames: List<String>,
+                returnTypeName: String,
+                isStatic: Boolean,
+                isFinal: Boolean,
+                isAbstract: Boolean
+            ) {
+                assertEquals(name, pClass.methods[index].name)
+                if (name == "rename" || name == "create") {
+                    visited.add("$name$parameterTypeNames:$returnTypeName static=$isStatic")
+                }
+            }
+
+            override fun visitField(index: Int, name: String, typeName: String, isStatic: Boolean, isFinal: Boolean) {
+                assertEquals(name, pClass.fields[index].name)
+                if (name == "count") {
+                    visited.add("$name:$typeName")
+                }
+            }
+
+            override fun visitEnd() {
+                visited.add("end")
+            }
+        })
+
+        assertEquals(
+            listOf(
+                "@tech.kaffa.portrait.jvm.Visited",
+                "<init>[java.lang.String]",
+                "create[]:tech.kaffa.portrait.jvm.VisitedTarget static=true",
+                "rename[java.lang.String, int]:java.lang.String static=false",
+                "count:int",
+                "end"
+            ),
+            visited
+        )
+    }
+}
@@ -0,0 +1,71 @@
+package tech.kaffa.portrait.jvm
+
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+import tech.kaffa.portrait.Portrait
+
+class PrimitiveHolder {
+    @JvmField
+    var count: Int = 1
+
+    @JvmField
+    var total: Long = 2L
+
+    @JvmField
+    var ratio: Double = 0.5
+
+    @JvmField
+    var enabled: Boolean = false
+
+    @JvmField
+    var label: String = "label"
+
+    companion object {
+        @JvmField
+        var shared: Int = 0
+    }
+}
+
+class JvmPFieldPrimitiveTest {
+
+    @BeforeTest
+    fun resetPortraitCache() {
+        Portrait.clearCache()
+    }
+
+    @Test
+    fun `primitive accessors read and write instance fields`() {
+        val pClass = Portrait.of(PrimitiveHolder::class.java)
+        val holder = PrimitiveHolder()
+
+        pClass.getField("count")!!.setInt(holder, 10)
+        pClass.getField("total")!!.setLong(holder, 20L)
+        pClass.getField("ratio")!!.setDouble(holder, 1.5)
+        pClass.getField("enabled")!!.setBoolean(holder, true)
+
+        assertEquals(10, pClass.getField("count")!!.getInt(holder))
+        assertEquals(20L, pClass.getField("total")!!.getLong(holder))
+        assertEquals(1.5, pClass.getField("ratio")!!.getDouble(holder))
+        assertTrue(pClass.getField("enabled")!!.getBoolean(holder))
+    }
+
+    @Test
+    fun `primitive accessors support static fields`() {
+        val field = Portrait.of(PrimitiveHolder::class.java).getField("shared")!!
+
+        field.setInt(null, 5)
+
+        assertEquals(5, field.getInt(null))
+        assertEquals(5, PrimitiveHolder.shared)
+    }
+
+    @Test
+    fun `primitive accessors reject fields of other types`() {
+        val field = Portrait.of(PrimitiveHolder::class.java).getField("label")!!
+
+        assertFailsWith<RuntimeException> { field.getInt(PrimitiveHolder()) }
+    }
+}
@@ -0,0 +1,72 @@
+package tech.kaffa.portrait.jvm
+
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+import tech.kaffa.portrait.Portrait
+
+class ContextScoped
+
+class JvmPortraitContextResolverTest {
+
+    @BeforeTest
+    fun resetPortraitCache() {
+        Portrait.clearCache()
+    }
+
+    @Test
+    fun `classes of Portrait's loader use the default context`() {
+        assertSame(Portrait.defaultContext(), Portrait.contextOf(ContextScoped::class.java))
+        assertSame(Portrait.defaultContext(), Portrait.contextOf(String::class.java))
+    }
+
+    @Test
+    fun `classes of a foreign loader get their own context`() {
+        val isolated = IsolatingClassLoader(ContextScoped::class.java.name).loadClass(ContextScoped::class.java.name)
+
+        val context = Portrait.contextOf(isolated)
+
+        assertNotSame(Portrait.defaultContext(), context)
+        assertSame(isolated.classLoader, context.classLoader)
+        assertSame(context, Portrait.contextOf(isolated))
+    }
+
+    @Test
+    fun `foreign classes resolve through their loader and stay out of the default cache`() {
+        val isolated = IsolatingClassLoader(ContextScoped::class.java.name).loadClass(ContextScoped::class.java.name)
+
+        val pClass = Portrait.of(isolated)
+
+        assertEquals(ContextScoped::class.java.name, pClass.qualifiedName)
+        assertTrue(Portrait.contextOf(isolated).cacheStats().resolvedEntries > 0)
+        assertEquals(0, Portrait.cacheStats().resolvedEntries)
+    }
+
+    @Test
+    fun `resolver ignores bootstrap classes`() {
+        val resolver = JvmPortraitContextResolver()
+
+        assertNull(resolver.contextFor(String::class.java) { error("no context expected") })
+    }
+
+    /**
+     * Defines [className] itself instead of delegating to its parent, mimicking a web application
+     * or plugin loader.
+     */
+    private class IsolatingClassLoader(private val className: String) :
+        ClassLoader(JvmPortraitContextResolverTest::class.java.classLoader) {
+
+        override fun loadClass(name: String, resolve: Boolean): Class<*> {
+            if (name != className) return super.loadClass(name, resolve)
+            synchronized(getClassLoadingLock(name)) {
+                findLoadedClass(name)?.let { return it }
+                val bytes = parent.getResourceAsStream(name.replace('.', '/') + ".class")!!.use { it.readBytes() }
+                return defineClass(name, bytes, 0, bytes.size)
+            }
+        }
+    }
+}
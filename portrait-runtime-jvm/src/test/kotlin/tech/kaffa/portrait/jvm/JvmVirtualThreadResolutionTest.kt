@@ -0,0 +1,120 @@
+package tech.kaffa.portrait.jvm
+
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordingFile
+import tech.kaffa.portrait.PClass
+import tech.kaffa.portrait.Portrait
+import java.nio.file.Files
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import kotlin.test.AfterTest
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+annotation class Stressed
+
+@Stressed
+class StressTarget(val name: String, val weight: Long) {
+    @JvmField
+    var hits: Int = 0
+
+    @Stressed
+    fun describe(prefix: String, times: Int): String = prefix.repeat(times) + name
+
+    fun scaled(factor: Double): Double = weight * factor
+}
+
+class JvmVirtualThreadResolutionTest {
+
+    private var executor: ExecutorService? = null
+
+    @BeforeTest
+    fun resetPortraitCache() {
+        Portrait.clearCache()
+    }
+
+    @AfterTest
+    fun shutdownExecutor() {
+        executor?.shutdownNow()
+    }
+
+    @Test
+    fun `cold resolution on virtual threads does not pin carriers`() {
+        val virtualThreads = newVirtualThreadExecutor()
+        executor = virtualThreads
+
+        // Nothing is warmed: the tasks race on the class lookups themselves, so most of them wait
+        // for another thread's in-flight resolution before running the descriptor lazies cold
+        val recording = Recording()
+        recording.enable(PINNED_EVENT).withoutThreshold()
+        recording.start()
+
+        val start = CountDownLatch(1)
+        val futures: List<Future<List<Any>>> = (0 until TASKS).map {
+            virtualThreads.submit(Callable { start.await(); resolveAll(Portrait.of(StressTarget::class.java)) })
+        }
+        start.countDown()
+        val observed = futures.map { it.get(30, TimeUnit.SECONDS) }
+
+        recording.stop()
+        val dump = Files.createTempFile("portrait-pinning", ".jfr")
+        try {
+            recording.dump(dump)
+            val pinned = RecordingFile.readAllEvents(dump).filter { it.eventType.name == PINNED_EVENT }
+            assertTrue(pinned.isEmpty(), "Carrier pinned during resolution: $pinned")
+        } finally {
+            recording.close()
+            Files.deleteIfExists(dump)
+        }
+
+        // Publication may compute a value more than once, but every reader sees the same instance
+        val first = observed.first()
+        observed.forEach { descriptors ->
+            assertEquals(first.size, descriptors.size)
+            first.indices.forEach { assertSame(first[it], descriptors[it]) }
+        }
+    }
+
+    private fun resolveAll(pClass: PClass<StressTarget>): List<Any> {
+        val descriptors = mutableListOf<Any>()
+        descriptors.add(pClass.annotations)
+        pClass.constructors.forEach { constructor ->
+            descriptors.add(constructor)
+            descriptors.add(constructor.parameterTypes)
+        }
+        pClass.methods.forEach { method ->
+            descriptors.add(method)
+            descriptors.add(method.parameterTypes)
+            descriptors.add(method.returnType)
+            descriptors.add(method.annotations)
+        }
+        pClass.fields.forEach { field ->
+            descriptors.add(field)
+            descriptors.add(field.type)
+        }
+
+        val target = pClass.constructors.single().newInstance("stress", 2L)
+        pClass.getMethod("describe")!!.invoke(target, "-", 2)
+        return descriptors
+    }
+
+    private fun newVirtualThreadExecutor(): ExecutorService {
+        // Compiled against JDK 11 but run by the virtualThreadTest task on JDK 21, so the factory
+        // is looked up reflectively
+        return Executors::class.java
+            .getMethod("newVirtualThreadPerTaskExecutor")
+            .invoke(null) as ExecutorService
+    }
+
+    private companion object {
+        const val PINNED_EVENT = "jdk.VirtualThreadPinned"
+        const val TASKS = 256
+    }
+}
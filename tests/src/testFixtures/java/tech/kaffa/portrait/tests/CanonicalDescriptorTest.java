@@ -0,0 +1,72 @@
+package tech.kaffa.portrait.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+import tech.kaffa.portrait.PClass;
+import tech.kaffa.portrait.Portrait;
+import tech.kaffa.portrait.tests.fixtures.SimpleReflectiveClass;
+import tech.kaffa.portrait.tests.fixtures.TestSingleton;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+public class CanonicalDescriptorTest {
+
+    private static final int THREADS = 8;
+
+    @Before
+    public void clearCache() {
+        Portrait.clearCache();
+    }
+
+    @Test
+    public void repeatedLookupsReturnTheSameDescriptor() {
+        PClass<SimpleReflectiveClass> first = Portrait.of(SimpleReflectiveClass.class);
+
+        assertSame(first, Portrait.of(SimpleReflectiveClass.class));
+        assertSame(first, Portrait.forName(SimpleReflectiveClass.class.getName()));
+        assertSame(first, Portrait.forName(SimpleReflectiveClass.class.getName()));
+    }
+
+    @Test
+    public void generatedDescriptorsSurviveCacheClears() {
+        PClass<TestSingleton> first = Portrait.of(TestSingleton.class);
+        if (!first.getClass().getName().contains("aot.StaticPClass")) {
+            // Only generated providers hand out a canonical instance held by the Portrait class
+            return;
+        }
+
+        Portrait.clearCache();
+
+        assertSame(first, Portrait.of(TestSingleton.class));
+        assertSame(first, Portrait.forName(TestSingleton.class.getName()));
+    }
+
+    @Test
+    public void concurrentLookupsReturnTheSameDescriptor() throws InterruptedException {
+        final Object[] observed = new Object[THREADS * 2];
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            final int slot = i * 2;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    observed[slot] = Portrait.forName(TestSingleton.class.getName());
+                    observed[slot + 1] = Portrait.of(TestSingleton.class);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        PClass<TestSingleton> expected = Portrait.of(TestSingleton.class);
+        for (Object descriptor : observed) {
+            assertNotNull(descriptor);
+            assertSame(expected, descriptor);
+        }
+    }
+}
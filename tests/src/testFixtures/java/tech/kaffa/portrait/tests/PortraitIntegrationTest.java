@@ -207,6 +207,25 @@ public class PortraitIntegrationTest {
         assertEquals(Integer.valueOf(200), methodAnnotation.getIntValue("number"));
     }
 
+    @Test
+    public void materializesAnnotationInstances() {
+        PAnnotation<?> classAnnotation = Portrait.of(AnnotatedTestClass.class)
+                .getAnnotation(Portrait.of(TestAnnotation.class));
+        assertNotNull(classAnnotation);
+
+        TestAnnotation instance = (TestAnnotation) classAnnotation.get();
+        assertEquals("class-level", instance.value());
+        assertEquals(100, instance.number());
+        assertTrue(instance.flag());
+        assertSame(TestAnnotation.class, instance.annotationType());
+        assertSame(instance, classAnnotation.get());
+
+        TestAnnotation declared = AnnotatedTestClass.class.getAnnotation(TestAnnotation.class);
+        assertEquals(declared, instance);
+        assertEquals(instance, declared);
+        assertEquals(declared.hashCode(), instance.hashCode());
+    }
+
     @Test
     public void inspectsFields() {
         PClass<TestDataClass> dataPClass = Portrait.of(TestDataClass.class);
@@ -270,6 +289,32 @@ public class PortraitIntegrationTest {
         assertEquals("maybe", threeArgs.getOptional());
     }
 
+    @Test
+    public void selectsConstructorByArgumentClasses() {
+        PClass<OverloadedConstructorClass> overloaded = Portrait.of(OverloadedConstructorClass.class);
+
+        // Repeated calls take the same constructor once the selection is cached
+        for (int i = 0; i < 2; i++) {
+            assertEquals("long", overloaded.newInstance(5L).getChosen());
+            assertEquals("String", overloaded.newInstance("text").getChosen());
+            assertEquals("String", overloaded.newInstance((Object) null).getChosen());
+            assertEquals("String,Integer", overloaded.newInstance("text", 3).getChosen());
+            assertEquals("String,Integer", overloaded.newInstance("text", null).getChosen());
+            assertEquals("String,double", overloaded.newInstance("text", 0.5).getChosen());
+        }
+    }
+
+    @Test
+    public void rejectsArgumentsNoConstructorAccepts() {
+        PClass<OverloadedConstructorClass> overloaded = Portrait.of(OverloadedConstructorClass.class);
+
+        for (int i = 0; i < 2; i++) {
+            assertNoMatchingConstructor(overloaded, true);
+            assertNoMatchingConstructor(overloaded, "text", "other");
+            assertNoMatchingConstructor(overloaded, "text", 1, 2);
+        }
+    }
+
     @Test
     public void surfacesExceptionsThrownByInvokedMethods() {
         PClass<ExceptionTestClass> exceptionClass = Portrait.of(ExceptionTestClass.class);
@@ -328,4 +373,13 @@ public class PortraitIntegrationTest {
         fail("Expected method named '" + name + "' on " + pClass.getQualifiedName());
         return null;
     }
+
+    private void assertNoMatchingConstructor(PClass<?> pClass, Object... args) {
+        try {
+            pClass.newInstance(args);
+            fail("Expected no constructor of " + pClass.getQualifiedName() + " to accept the arguments");
+        } catch (IllegalArgumentException expected) {
+            // No constructor accepts the arguments
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package tech.kaffa.portrait.tests.fixtures;
+
+import tech.kaffa.portrait.Reflective;
+
+@Reflective
+public class OverloadedConstructorClass {
+
+    private final String chosen;
+
+    public OverloadedConstructorClass(long value) {
+        this.chosen = "long";
+    }
+
+    public OverloadedConstructorClass(String text) {
+        this.chosen = "String";
+    }
+
+    public OverloadedConstructorClass(String text, Integer count) {
+        this.chosen = "String,Integer";
+    }
+
+    public OverloadedConstructorClass(String text, double ratio) {
+        this.chosen = "String,double";
+    }
+
+    public String getChosen() {
+        return chosen;
+    }
+}